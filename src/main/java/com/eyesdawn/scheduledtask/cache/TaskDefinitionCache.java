@@ -0,0 +1,265 @@
+package com.eyesdawn.scheduledtask.cache;
+
+import com.eyesdawn.scheduledtask.config.SchedulerProperties;
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.repository.ScheduledTaskRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read-through cache of task definitions, by id and as the full list. Entries are detached
+ * copies holding the task's own columns only, so they can be shared between threads and never
+ * touch the database again; callers must treat them as read-only.
+ * <p>
+ * Reads take no lock: entries sit in a {@link ConcurrentHashMap}, each with its own expiry.
+ * Once the cache is full, a new entry first pushes out the expired ones and then the one
+ * loaded longest ago.
+ * <p>
+ * Every change to a task goes through {@link #invalidateOnCommit}, which evicts the task and
+ * the list both immediately and once the transaction completes. A load that started before an
+ * invalidation takes its entries back out, so a reader racing a commit cannot put the old row back.
+ * Changes made on other nodes are picked up when the entry expires.
+ */
+@Component
+public class TaskDefinitionCache {
+
+    @Autowired
+    private ScheduledTaskRepository scheduledTaskRepository;
+
+    private final SchedulerProperties.TaskCache settings;
+    private final long ttlNanos;
+
+    private final ConcurrentHashMap<Long, Entry<ScheduledTask>> byId = new ConcurrentHashMap<>();
+    private final AtomicReference<Entry<List<ScheduledTask>>> all = new AtomicReference<>();
+    // Bumped before every invalidation, so a load can tell whether one happened while it ran
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public TaskDefinitionCache(SchedulerProperties properties) {
+        this.settings = properties.getTaskCache();
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(settings.getTtlSeconds());
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    public Optional<ScheduledTask> get(Long taskId) {
+        if (!settings.isEnabled()) {
+            return scheduledTaskRepository.findById(taskId);
+        }
+        Entry<ScheduledTask> cached = byId.get(taskId);
+        if (cached != null && !cached.isExpired()) {
+            hits.increment();
+            return Optional.of(cached.value);
+        }
+        long seen = generation.get();
+        misses.increment();
+        Optional<ScheduledTask> loaded = scheduledTaskRepository.findById(taskId).map(ScheduledTask::copyDefinition);
+        if (loaded.isPresent()) {
+            Entry<ScheduledTask> entry = new Entry<>(loaded.get(), System.nanoTime() + ttlNanos);
+            makeRoom();
+            byId.put(taskId, entry);
+            if (generation.get() != seen) {
+                byId.remove(taskId, entry);
+            }
+        }
+        return loaded;
+    }
+
+    public List<ScheduledTask> getAll() {
+        if (!settings.isEnabled()) {
+            return scheduledTaskRepository.findAll();
+        }
+        Entry<List<ScheduledTask>> cached = all.get();
+        if (cached != null && !cached.isExpired()) {
+            hits.increment();
+            return cached.value;
+        }
+        long seen = generation.get();
+        misses.increment();
+        List<ScheduledTask> tasks = new ArrayList<>();
+        for (ScheduledTask task : scheduledTaskRepository.findAll()) {
+            tasks.add(task.copyDefinition());
+        }
+        tasks = Collections.unmodifiableList(tasks);
+
+        long expiresAt = System.nanoTime() + ttlNanos;
+        Entry<List<ScheduledTask>> entry = new Entry<>(tasks, expiresAt);
+        all.set(entry);
+        // Warm the per-id entries too, without pushing out entries already in use
+        List<Entry<ScheduledTask>> warmed = new ArrayList<>();
+        for (ScheduledTask task : tasks) {
+            if (byId.size() >= settings.getMaxSize()) {
+                break;
+            }
+            Entry<ScheduledTask> taskEntry = new Entry<>(task, expiresAt);
+            if (byId.putIfAbsent(task.getId(), taskEntry) == null) {
+                warmed.add(taskEntry);
+            }
+        }
+        if (generation.get() != seen) {
+            all.compareAndSet(entry, null);
+            for (Entry<ScheduledTask> taskEntry : warmed) {
+                byId.remove(taskEntry.value.getId(), taskEntry);
+            }
+        }
+        return tasks;
+    }
+
+    public List<ScheduledTask> getActive() {
+        if (!settings.isEnabled()) {
+            return scheduledTaskRepository.findActiveTasks();
+        }
+        return getAll().stream()
+                .filter(task -> task.getStatus() == ScheduledTask.TaskStatus.ACTIVE)
+                .toList();
+    }
+
+    /**
+     * Evict the task now and again when the surrounding transaction completes, whether it
+     * commits or rolls back, since reads inside it may have seen uncommitted changes
+     */
+    public void invalidateOnCommit(Long taskId) {
+        invalidate(taskId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(taskId);
+                }
+            });
+        }
+    }
+
+    /**
+     * {@link #invalidateOnCommit} for a change to many tasks at once
+     */
+    public void invalidateAllOnCommit() {
+        invalidateAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidateAll();
+                }
+            });
+        }
+    }
+
+    public void invalidate(Long taskId) {
+        generation.incrementAndGet();
+        byId.remove(taskId);
+        all.set(null);
+        invalidations.increment();
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        byId.clear();
+        all.set(null);
+        invalidations.increment();
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(byId.size(), hits.sum(), misses.sum(), evictions.sum(), invalidations.sum());
+    }
+
+    /**
+     * Evict before adding an entry to a full cache: the expired entries, or else the one
+     * loaded longest ago. Only misses get here, and they are about to read the database anyway.
+     */
+    private void makeRoom() {
+        if (byId.size() < settings.getMaxSize()) {
+            return;
+        }
+        Map.Entry<Long, Entry<ScheduledTask>> oldest = null;
+        for (Map.Entry<Long, Entry<ScheduledTask>> candidate : byId.entrySet()) {
+            Entry<ScheduledTask> entry = candidate.getValue();
+            if (entry.isExpired()) {
+                if (byId.remove(candidate.getKey(), entry)) {
+                    evictions.increment();
+                }
+            } else if (oldest == null || entry.expiresAtNanos - oldest.getValue().expiresAtNanos < 0) {
+                oldest = candidate;
+            }
+        }
+        if (byId.size() >= settings.getMaxSize() && oldest != null
+                && byId.remove(oldest.getKey(), oldest.getValue())) {
+            evictions.increment();
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAtNanos;
+
+        Entry(V value, long expiresAtNanos) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        boolean isExpired() {
+            return System.nanoTime() - expiresAtNanos > 0;
+        }
+    }
+
+    public static class CacheStats {
+
+        private final int size;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long invalidations;
+
+        CacheStats(int size, long hits, long misses, long evictions, long invalidations) {
+            this.size = size;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.invalidations = invalidations;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public double getHitRatio() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getInvalidations() {
+            return invalidations;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.eyesdawn.scheduledtask.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Immutable consistent-hash ring assigning task ids to nodes. Each node is placed at a number
+ * of virtual points so tasks spread evenly, and a node joining or leaving only moves the tasks
+ * in the arcs it gains or loses (about 1/n of them).
+ * <p>
+ * Every node builds the ring from the same member list and gets the same assignment, so
+ * ownership needs no coordination beyond agreeing on the members.
+ */
+public final class ConsistentHashRing {
+
+    private final long[] points;
+    private final String[] owners;
+    private final List<String> nodes;
+
+    public ConsistentHashRing(Collection<String> nodeIds, int virtualNodes) {
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("virtualNodes must be positive: " + virtualNodes);
+        }
+        this.nodes = List.copyOf(new TreeSet<>(nodeIds));
+        int size = nodes.size() * virtualNodes;
+        long[] hashes = new long[size];
+        int[] order = new int[size];
+        int index = 0;
+        for (int node = 0; node < nodes.size(); node++) {
+            for (int replica = 0; replica < virtualNodes; replica++) {
+                hashes[index] = hash(nodes.get(node) + "#" + replica);
+                order[index] = node;
+                index++;
+            }
+        }
+
+        // Sort the points, keeping each point's node alongside it
+        Integer[] sorted = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = i;
+        }
+        Arrays.sort(sorted, (a, b) -> {
+            int byHash = Long.compare(hashes[a], hashes[b]);
+            return byHash != 0 ? byHash : Integer.compare(order[a], order[b]);
+        });
+        this.points = new long[size];
+        this.owners = new String[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = hashes[sorted[i]];
+            owners[i] = nodes.get(order[sorted[i]]);
+        }
+    }
+
+    /**
+     * @return The node owning the task, or null if the ring has no nodes
+     */
+    public String ownerOf(long taskId) {
+        if (points.length == 0) {
+            return null;
+        }
+        int index = Arrays.binarySearch(points, mix(taskId));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        // Past the last point the ring wraps around to the first one
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    /**
+     * FNV-1a over the UTF-8 bytes, finished with a mixer so nearby names land far apart
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Finalizer of MurmurHash3; spreads sequential task ids over the whole ring
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
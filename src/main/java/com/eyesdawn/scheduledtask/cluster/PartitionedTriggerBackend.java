@@ -0,0 +1,52 @@
+package com.eyesdawn.scheduledtask.cluster;
+
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.trigger.TriggerBackend;
+import org.quartz.JobDataMap;
+import org.quartz.SchedulerException;
+
+/**
+ * Routes a backend's calls to the node that owns the task. Schedule changes are not applied
+ * here: the owner reconciles with the task's committed status instead, so the caller's status
+ * update and the owner's schedule cannot disagree.
+ */
+class PartitionedTriggerBackend implements TriggerBackend {
+
+    private final TriggerBackend localBackend;
+    private final TaskPartitionManager partitions;
+
+    PartitionedTriggerBackend(TriggerBackend localBackend, TaskPartitionManager partitions) {
+        this.localBackend = localBackend;
+        this.partitions = partitions;
+    }
+
+    @Override
+    public ScheduledTask.TriggerType getType() {
+        return localBackend.getType();
+    }
+
+    @Override
+    public void schedule(ScheduledTask task) {
+        partitions.routeOnCommit(task.getId());
+    }
+
+    @Override
+    public void unschedule(ScheduledTask task) {
+        partitions.routeOnCommit(task.getId());
+    }
+
+    @Override
+    public void pause(ScheduledTask task) {
+        partitions.routeOnCommit(task.getId());
+    }
+
+    @Override
+    public void resume(ScheduledTask task) {
+        partitions.routeOnCommit(task.getId());
+    }
+
+    @Override
+    public void triggerNow(Long taskId, String taskName, JobDataMap data) throws SchedulerException {
+        partitions.triggerNow(localBackend, taskId, taskName, data);
+    }
+}
@@ -0,0 +1,351 @@
+package com.eyesdawn.scheduledtask.cluster;
+
+import com.eyesdawn.scheduledtask.cache.TaskDefinitionCache;
+import com.eyesdawn.scheduledtask.config.SchedulerProperties;
+import com.eyesdawn.scheduledtask.model.ClusterNode;
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.repository.ClusterNodeRepository;
+import com.eyesdawn.scheduledtask.repository.ScheduledTaskRepository;
+import com.eyesdawn.scheduledtask.trigger.TriggerBackend;
+import com.eyesdawn.scheduledtask.trigger.TriggerBackendRegistry;
+import jakarta.annotation.PostConstruct;
+import org.quartz.JobDataMap;
+import org.quartz.SchedulerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.net.InetAddress;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Partitioned mode: each node schedules only the tasks the consistent-hash ring assigns to
+ * it, in its own in-memory scheduler, so no fire goes through a shared lock. Nodes announce
+ * themselves in {@code cluster_nodes} and rebuild the ring when the live members change.
+ * <p>
+ * Task status stays in the shared database. Start, stop, pause and resume update it on any
+ * node and are then routed to the owning node, which reconciles its local schedule with the
+ * committed status. A periodic full pass repairs changes whose routing call was lost.
+ */
+@Component
+public class TaskPartitionManager implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskPartitionManager.class);
+
+    @Autowired
+    private SchedulerProperties properties;
+
+    @Autowired
+    private ClusterNodeRepository clusterNodeRepository;
+
+    @Autowired
+    private ScheduledTaskRepository scheduledTaskRepository;
+
+    @Autowired
+    private TriggerBackendRegistry triggerBackends;
+
+    @Autowired
+    private TaskDefinitionCache taskDefinitionCache;
+
+    @Value("${server.port:8080}")
+    private int serverPort;
+
+    // Tasks scheduled in this JVM, as they were when scheduled
+    private final Map<Long, ScheduledTask> scheduled = new ConcurrentHashMap<>();
+
+    private volatile ConsistentHashRing ring = new ConsistentHashRing(List.of(), 1);
+    private volatile Map<String, String> addresses = Map.of();
+    private String nodeId;
+    private String nodeAddress;
+    private RestClient restClient;
+    private ScheduledExecutorService heartbeat;
+    private long lastReconcileMillis;
+    private volatile boolean running = false;
+
+    @PostConstruct
+    public void init() {
+        if (!isEnabled()) {
+            return;
+        }
+        SchedulerProperties.Cluster settings = properties.getCluster();
+        nodeId = settings.getNodeId() != null && !settings.getNodeId().isBlank()
+                ? settings.getNodeId()
+                : hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        nodeAddress = settings.getNodeAddress() != null && !settings.getNodeAddress().isBlank()
+                ? settings.getNodeAddress()
+                : "http://localhost:" + serverPort;
+
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(2_000);
+        requestFactory.setReadTimeout(5_000);
+        restClient = RestClient.builder().requestFactory(requestFactory).build();
+
+        triggerBackends.decorate(backend -> new PartitionedTriggerBackend(backend, this));
+    }
+
+    public boolean isEnabled() {
+        return properties.getCluster().isPartitioned();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public boolean isOwner(Long taskId) {
+        return nodeId != null && nodeId.equals(ring.ownerOf(taskId));
+    }
+
+    /**
+     * Route the task to its owner once the current transaction commits, so the owner reads the new status
+     */
+    public void routeOnCommit(Long taskId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    route(taskId);
+                }
+            });
+        } else {
+            route(taskId);
+        }
+    }
+
+    /**
+     * Fire the task once on the node that owns it
+     */
+    public void triggerNow(TriggerBackend localBackend, Long taskId, String taskName, JobDataMap data) throws SchedulerException {
+        String owner = ring.ownerOf(taskId);
+        if (owner == null || owner.equals(nodeId)) {
+            localBackend.triggerNow(taskId, taskName, data);
+            return;
+        }
+        Map<String, String> body = new HashMap<>();
+        data.forEach((key, value) -> body.put(key, String.valueOf(value)));
+        try {
+            restClient.post()
+                    .uri(addresses.get(owner) + "/api/cluster/tasks/{id}/trigger", taskId)
+                    .body(body)
+                    .retrieve()
+                    .toBodilessEntity();
+        } catch (RestClientException e) {
+            throw new SchedulerException("Failed to trigger task " + taskName + " on node " + owner + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Fire a task scheduled on this node, on behalf of another node
+     */
+    public void triggerLocal(Long taskId, Map<String, String> data) throws SchedulerException {
+        ScheduledTask task = scheduled.get(taskId);
+        if (task == null) {
+            throw new SchedulerException("Task " + taskId + " is not scheduled on node " + nodeId);
+        }
+        triggerBackends.getLocal(task.getTriggerType()).triggerNow(taskId, task.getName(), new JobDataMap(data));
+    }
+
+    /**
+     * Bring this node's schedule for the task in line with its committed status and ownership
+     */
+    public void reconcile(Long taskId) {
+        // Routed here because the task changed, possibly on another node
+        taskDefinitionCache.invalidate(taskId);
+        apply(taskId, scheduledTaskRepository.findById(taskId).orElse(null));
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("nodeId", nodeId);
+        status.put("nodeAddress", nodeAddress);
+        status.put("nodes", ring.getNodes());
+        status.put("scheduledTasks", scheduled.size());
+        return status;
+    }
+
+    private void route(Long taskId) {
+        String owner = ring.ownerOf(taskId);
+        if (owner == null) {
+            return; // Not joined yet; the first reconcile pass picks the task up
+        }
+        if (owner.equals(nodeId)) {
+            reconcile(taskId);
+            return;
+        }
+        try {
+            restClient.post()
+                    .uri(addresses.get(owner) + "/api/cluster/tasks/{id}/sync", taskId)
+                    .retrieve()
+                    .toBodilessEntity();
+        } catch (RestClientException e) {
+            logger.warn("Failed to route task {} to node {}, leaving it to the next reconcile pass: {}",
+                    taskId, owner, e.getMessage());
+        }
+    }
+
+    private synchronized void apply(Long taskId, ScheduledTask task) {
+        boolean wanted = task != null
+                && (task.getStatus() == ScheduledTask.TaskStatus.ACTIVE || task.getStatus() == ScheduledTask.TaskStatus.PAUSED)
+                && isOwner(taskId);
+        ScheduledTask current = scheduled.get(taskId);
+        if (current != null && (!wanted || !sameSchedule(current, task))) {
+            unscheduleLocal(current);
+            current = null;
+        }
+        if (!wanted) {
+            return;
+        }
+
+        TriggerBackend backend = triggerBackends.getLocal(task.getTriggerType());
+        try {
+            if (current == null) {
+                backend.schedule(task);
+                if (task.getStatus() == ScheduledTask.TaskStatus.PAUSED) {
+                    backend.pause(task);
+                }
+                scheduled.put(taskId, task.copyDefinition());
+                logger.debug("Node {} scheduled task {}", nodeId, task.getName());
+            } else if (current.getStatus() != task.getStatus()) {
+                if (task.getStatus() == ScheduledTask.TaskStatus.PAUSED) {
+                    backend.pause(task);
+                } else {
+                    backend.resume(task);
+                }
+                current.setStatus(task.getStatus());
+            }
+        } catch (SchedulerException e) {
+            logger.warn("Node {} failed to schedule task {}: {}", nodeId, task.getName(), e.getMessage());
+        }
+    }
+
+    private void unscheduleLocal(ScheduledTask task) {
+        try {
+            triggerBackends.getLocal(task.getTriggerType()).unschedule(task);
+            logger.debug("Node {} released task {}", nodeId, task.getName());
+        } catch (SchedulerException e) {
+            logger.warn("Node {} failed to unschedule task {}: {}", nodeId, task.getName(), e.getMessage());
+        }
+        scheduled.remove(task.getId());
+    }
+
+    private void reconcileAll() {
+        Set<Long> seen = new HashSet<>();
+        for (ScheduledTask task : scheduledTaskRepository.findAll()) {
+            seen.add(task.getId());
+            apply(task.getId(), task);
+        }
+        for (Long taskId : List.copyOf(scheduled.keySet())) {
+            if (!seen.contains(taskId)) {
+                apply(taskId, null);
+            }
+        }
+        lastReconcileMillis = System.currentTimeMillis();
+    }
+
+    private void heartbeat() {
+        try {
+            SchedulerProperties.Cluster settings = properties.getCluster();
+            LocalDateTime now = LocalDateTime.now();
+            if (clusterNodeRepository.heartbeat(nodeId, now, nodeAddress) == 0) {
+                // Our row expired, e.g. after a long pause; join again
+                clusterNodeRepository.save(new ClusterNode(nodeId, nodeAddress));
+            }
+            clusterNodeRepository.deleteExpired(now.minusSeconds(settings.getNodeTimeoutSeconds() * 4));
+
+            Map<String, String> members = new HashMap<>();
+            for (ClusterNode node : clusterNodeRepository.findByHeartbeatAtAfterOrderByNodeId(
+                    now.minusSeconds(settings.getNodeTimeoutSeconds()))) {
+                members.put(node.getNodeId(), node.getAddress());
+            }
+            members.put(nodeId, nodeAddress);
+            addresses = members;
+
+            if (!members.keySet().equals(Set.copyOf(ring.getNodes()))) {
+                ring = new ConsistentHashRing(members.keySet(), settings.getVirtualNodes());
+                logger.info("Cluster membership changed, node {} now sees {} nodes: {}", nodeId, members.size(), ring.getNodes());
+                reconcileAll();
+            } else if (System.currentTimeMillis() - lastReconcileMillis >= TimeUnit.SECONDS.toMillis(settings.getReconcileSeconds())) {
+                reconcileAll();
+            }
+        } catch (Exception e) {
+            logger.warn("Cluster heartbeat of node {} failed: {}", nodeId, e.getMessage());
+        }
+    }
+
+    private static boolean sameSchedule(ScheduledTask current, ScheduledTask task) {
+        return Objects.equals(current.getName(), task.getName())
+                && Objects.equals(current.getCronExpression(), task.getCronExpression())
+                && Objects.equals(current.getSpreadSeconds(), task.getSpreadSeconds())
+                && Objects.equals(current.getJobClass(), task.getJobClass())
+                && Objects.equals(current.getJobData(), task.getJobData())
+                && Objects.equals(current.getTimeoutSeconds(), task.getTimeoutSeconds())
+                && current.getTriggerType() == task.getTriggerType();
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "node";
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        clusterNodeRepository.save(new ClusterNode(nodeId, nodeAddress));
+        running = true;
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cluster-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // The first view is taken one interval after joining, once the current owners have
+        // had a chance to see this node and release the tasks that move to it
+        long interval = properties.getCluster().getHeartbeatSeconds();
+        heartbeat.scheduleWithFixedDelay(this::heartbeat, interval, interval, TimeUnit.SECONDS);
+        logger.info("Node {} joined the partitioned cluster at {}", nodeId, nodeAddress);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (heartbeat != null) {
+            heartbeat.shutdownNow();
+        }
+        if (isEnabled()) {
+            try {
+                // Leave right away instead of waiting for the heartbeat to expire
+                clusterNodeRepository.deleteById(nodeId);
+            } catch (Exception e) {
+                logger.warn("Node {} failed to leave the cluster: {}", nodeId, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,86 @@
+package com.eyesdawn.scheduledtask.concurrency;
+
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import org.quartz.JobDataMap;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Permits for the fires that may run at once under one limit, taken and given back with a
+ * compare-and-set on a counter so a fire never blocks or locks to get one. Fires that found
+ * no permit and chose to wait are kept in order until a permit is given back.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private volatile int limit;
+    private final AtomicInteger inUse = new AtomicInteger();
+    private final ConcurrentLinkedDeque<WaitingFire> waiting = new ConcurrentLinkedDeque<>();
+
+    public Bulkhead(String name, int limit) {
+        this.name = name;
+        this.limit = limit;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int used = inUse.get();
+            if (used >= limit) {
+                return false;
+            }
+            if (inUse.compareAndSet(used, used + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        inUse.decrementAndGet();
+    }
+
+    /**
+     * Whether a permit is free now; fires already holding one keep it when the limit drops
+     */
+    public boolean hasFreePermit() {
+        return inUse.get() < limit;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    public int getInUse() {
+        return inUse.get();
+    }
+
+    public int getWaitingCount() {
+        return waiting.size();
+    }
+
+    ConcurrentLinkedDeque<WaitingFire> waiting() {
+        return waiting;
+    }
+
+    /**
+     * A fire held back until a permit of the bulkhead it waits on is free
+     */
+    static final class WaitingFire {
+
+        final ScheduledTask task;
+        final JobDataMap data;
+
+        WaitingFire(ScheduledTask task, JobDataMap data) {
+            this.task = task;
+            this.data = data;
+        }
+    }
+}
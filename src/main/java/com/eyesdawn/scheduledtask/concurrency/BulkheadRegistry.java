@@ -0,0 +1,264 @@
+package com.eyesdawn.scheduledtask.concurrency;
+
+import com.eyesdawn.scheduledtask.config.SchedulerProperties;
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.trigger.TriggerBackendRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.quartz.JobDataMap;
+import org.quartz.SchedulerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limits on fires, checked before a fire records its execution:
+ * <ul>
+ *   <li>per task, from {@link ScheduledTask#getMaxConcurrent()}</li>
+ *   <li>per job class, from {@code scheduled-task.concurrency.job-class-limits}</li>
+ *   <li>per resource group shared by the tasks naming it, from {@code scheduled-task.concurrency.resource-groups}</li>
+ * </ul>
+ * A fire takes a permit of every limit that applies to it, or none. When one is used up the
+ * task's {@link ScheduledTask.OverlapPolicy} decides: the fire is rejected, or it waits in that
+ * limit's {@link Bulkhead} and is fired again through its trigger backend when a permit is given
+ * back. Permits are counted per node, like the Quartz worker pool they sit in front of.
+ * <p>
+ * Each limit has its own counter and queue, so fires of unrelated tasks never contend, and
+ * fires with no limit skip all of it.
+ */
+@Component
+public class BulkheadRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkheadRegistry.class);
+
+    /**
+     * Set on a fire let through from a queue, which goes back to the front if it loses its permit again
+     */
+    public static final String REQUEUED = "requeued";
+    /**
+     * Scheduled fire time of a fire that waited, so its lag covers the wait
+     */
+    public static final String QUEUED_FIRE_TIME = "queuedFireTime";
+
+    public static final Admission UNLIMITED = new Admission(Outcome.ADMITTED, new Bulkhead[0], null);
+
+    public enum Outcome {
+        ADMITTED,
+        QUEUED,
+        REJECTED
+    }
+
+    private final TriggerBackendRegistry triggerBackends;
+    private final int maxQueuedFires;
+    private final Map<String, Bulkhead> jobClassBulkheads;
+    private final Map<String, Bulkhead> groupBulkheads;
+    private final ConcurrentHashMap<Long, Bulkhead> taskBulkheads = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, AtomicInteger> queuedByTask = new ConcurrentHashMap<>();
+
+    public BulkheadRegistry(SchedulerProperties properties, TriggerBackendRegistry triggerBackends, MeterRegistry registry) {
+        SchedulerProperties.Concurrency settings = properties.getConcurrency();
+        this.triggerBackends = triggerBackends;
+        this.maxQueuedFires = settings.getMaxQueuedFires();
+        this.jobClassBulkheads = bulkheads("class:", settings.getJobClassLimits(), registry);
+        this.groupBulkheads = bulkheads("group:", settings.getResourceGroups(), registry);
+    }
+
+    private static Map<String, Bulkhead> bulkheads(String prefix, Map<String, Integer> limits, MeterRegistry registry) {
+        Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+        limits.forEach((key, limit) -> {
+            if (limit == null || limit < 1) {
+                throw new IllegalArgumentException("Concurrency limit of " + prefix + key + " must be at least 1, got " + limit);
+            }
+            Bulkhead bulkhead = new Bulkhead(prefix + key, limit);
+            bulkheads.put(key, bulkhead);
+            Gauge.builder("scheduler.bulkhead.in.use", bulkhead, Bulkhead::getInUse)
+                    .description("Fires holding a permit of the concurrency limit")
+                    .tag("bulkhead", bulkhead.getName())
+                    .register(registry);
+            Gauge.builder("scheduler.bulkhead.waiting", bulkhead, Bulkhead::getWaitingCount)
+                    .description("Fires waiting for a permit of the concurrency limit")
+                    .tag("bulkhead", bulkhead.getName())
+                    .register(registry);
+        });
+        return Map.copyOf(bulkheads);
+    }
+
+    /**
+     * @throws IllegalArgumentException If the task's limit or resource group is not usable
+     */
+    public void validate(ScheduledTask task) {
+        Integer maxConcurrent = task.getMaxConcurrent();
+        if (maxConcurrent != null && maxConcurrent < 1) {
+            throw new IllegalArgumentException("Max concurrent fires must be at least 1, got " + maxConcurrent);
+        }
+        String group = resourceGroup(task);
+        if (group != null && !groupBulkheads.containsKey(group)) {
+            throw new IllegalArgumentException("Unknown resource group: " + group + ", configured groups are "
+                    + new TreeSet<>(groupBulkheads.keySet()));
+        }
+    }
+
+    /**
+     * Take a permit of every limit that applies to the fire, or decide what happens to it when one is used up
+     * @param triggerData Data of the fire's own trigger, kept for the fire that replaces a queued one
+     * @param scheduledMillis Scheduled fire time of the fire
+     * @return The outcome; an admitted fire must hand it to {@link #release} when it completes
+     */
+    public Admission admit(ScheduledTask task, JobDataMap triggerData, long scheduledMillis) {
+        Bulkhead taskBulkhead = task.getMaxConcurrent() != null ? taskBulkhead(task) : null;
+        Bulkhead classBulkhead = jobClassBulkheads.get(task.getJobClass());
+        String group = resourceGroup(task);
+        // A group removed from the configuration no longer limits its tasks
+        Bulkhead groupBulkhead = group != null ? groupBulkheads.get(group) : null;
+        if (taskBulkhead == null && classBulkhead == null && groupBulkhead == null) {
+            return UNLIMITED;
+        }
+
+        Bulkhead[] held = new Bulkhead[3];
+        int count = 0;
+        for (Bulkhead bulkhead : new Bulkhead[] {taskBulkhead, classBulkhead, groupBulkhead}) {
+            if (bulkhead == null) {
+                continue;
+            }
+            if (!bulkhead.tryAcquire()) {
+                for (int i = 0; i < count; i++) {
+                    held[i].release();
+                    drain(held[i]);
+                }
+                return turnedAway(task, bulkhead, triggerData, scheduledMillis);
+            }
+            held[count++] = bulkhead;
+        }
+        return new Admission(Outcome.ADMITTED, Arrays.copyOf(held, count), null);
+    }
+
+    /**
+     * Give back the permits of a completed fire and let a waiting fire take each
+     */
+    public void release(Admission admission) {
+        for (Bulkhead bulkhead : admission.held) {
+            bulkhead.release();
+            drain(bulkhead);
+        }
+    }
+
+    public int getQueuedCount(Long taskId) {
+        AtomicInteger queued = queuedByTask.get(taskId);
+        return queued != null ? queued.get() : 0;
+    }
+
+    private Bulkhead taskBulkhead(ScheduledTask task) {
+        int limit = task.getMaxConcurrent();
+        Bulkhead bulkhead = taskBulkheads.computeIfAbsent(task.getId(), id -> new Bulkhead("task:" + id, limit));
+        if (bulkhead.getLimit() != limit) {
+            bulkhead.setLimit(limit);
+        }
+        return bulkhead;
+    }
+
+    private Admission turnedAway(ScheduledTask task, Bulkhead full, JobDataMap triggerData, long scheduledMillis) {
+        AtomicInteger queued = queuedByTask.computeIfAbsent(task.getId(), id -> new AtomicInteger());
+        boolean requeued = Boolean.TRUE.equals(triggerData.get(REQUEUED));
+        if (requeued) {
+            // It already waited its turn and was only overtaken by a fresh fire
+            queued.incrementAndGet();
+        } else {
+            ScheduledTask.OverlapPolicy policy = task.getOverlapPolicy() != null ? task.getOverlapPolicy()
+                    : ScheduledTask.OverlapPolicy.SKIP;
+            if (policy == ScheduledTask.OverlapPolicy.SKIP) {
+                return rejected(full, "skipped");
+            }
+            boolean coalesce = policy == ScheduledTask.OverlapPolicy.COALESCE;
+            if (!reserve(queued, coalesce ? 1 : maxQueuedFires)) {
+                return rejected(full, coalesce ? "coalesced into the fire already waiting"
+                        : "skipped, " + maxQueuedFires + " fires are already waiting");
+            }
+        }
+
+        JobDataMap data = new JobDataMap(triggerData);
+        data.put(REQUEUED, true);
+        data.put(QUEUED_FIRE_TIME, scheduledMillis);
+        Bulkhead.WaitingFire fire = new Bulkhead.WaitingFire(task, data);
+        if (requeued) {
+            full.waiting().addFirst(fire);
+        } else {
+            full.waiting().addLast(fire);
+        }
+        // A permit given back between the failed acquire and the enqueue found nothing to let through
+        if (full.hasFreePermit()) {
+            drain(full);
+        }
+        return new Admission(Outcome.QUEUED, new Bulkhead[0], null);
+    }
+
+    private static Admission rejected(Bulkhead full, String what) {
+        return new Admission(Outcome.REJECTED, new Bulkhead[0],
+                "Concurrency limit " + full.getName() + " of " + full.getLimit() + " reached, fire " + what);
+    }
+
+    private static boolean reserve(AtomicInteger queued, int max) {
+        while (true) {
+            int current = queued.get();
+            if (current >= max) {
+                return false;
+            }
+            if (queued.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void drain(Bulkhead bulkhead) {
+        Bulkhead.WaitingFire fire;
+        while ((fire = bulkhead.waiting().pollFirst()) != null) {
+            ScheduledTask task = fire.task;
+            queuedByTask.get(task.getId()).decrementAndGet();
+            try {
+                // Permits are per node, so the fire comes back here rather than to the task's owner
+                triggerBackends.getLocal(task.getTriggerType()).triggerNow(task.getId(), task.getName(), fire.data);
+                return;
+            } catch (SchedulerException | RuntimeException e) {
+                logger.warn("Dropping a fire of task {} that waited on {}: {}", task.getId(), bulkhead.getName(),
+                        e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * What {@link #admit} decided for one fire
+     */
+    public static final class Admission {
+
+        private final Outcome outcome;
+        private final Bulkhead[] held;
+        private final String reason;
+
+        private Admission(Outcome outcome, Bulkhead[] held, String reason) {
+            this.outcome = outcome;
+            this.held = held;
+            this.reason = reason;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        /**
+         * Why the fire was rejected, recorded as the error message of its execution
+         */
+        public String getReason() {
+            return reason;
+        }
+    }
+
+    private static String resourceGroup(ScheduledTask task) {
+        String group = task.getResourceGroup();
+        return group == null || group.isBlank() ? null : group.trim();
+    }
+}
@@ -0,0 +1,794 @@
+package com.eyesdawn.scheduledtask.config;
+
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "scheduled-task")
+public class SchedulerProperties {
+
+    private Execution execution = new Execution();
+
+    private WriteBehind writeBehind = new WriteBehind();
+
+    private TimingWheel timingWheel = new TimingWheel();
+
+    private Cluster cluster = new Cluster();
+
+    private Retention retention = new Retention();
+
+    private Statistics statistics = new Statistics();
+
+    private ExecutionLog executionLog = new ExecutionLog();
+
+    private TaskCache taskCache = new TaskCache();
+
+    private LiveFeed liveFeed = new LiveFeed();
+
+    private Cron cron = new Cron();
+
+    private Metrics metrics = new Metrics();
+
+    private WorkerPool workerPool = new WorkerPool();
+
+    private Concurrency concurrency = new Concurrency();
+
+    public Execution getExecution() {
+        return execution;
+    }
+
+    public void setExecution(Execution execution) {
+        this.execution = execution;
+    }
+
+    public WriteBehind getWriteBehind() {
+        return writeBehind;
+    }
+
+    public void setWriteBehind(WriteBehind writeBehind) {
+        this.writeBehind = writeBehind;
+    }
+
+    public TimingWheel getTimingWheel() {
+        return timingWheel;
+    }
+
+    public void setTimingWheel(TimingWheel timingWheel) {
+        this.timingWheel = timingWheel;
+    }
+
+    public Cluster getCluster() {
+        return cluster;
+    }
+
+    public void setCluster(Cluster cluster) {
+        this.cluster = cluster;
+    }
+
+    public Retention getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Retention retention) {
+        this.retention = retention;
+    }
+
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    public void setStatistics(Statistics statistics) {
+        this.statistics = statistics;
+    }
+
+    public ExecutionLog getExecutionLog() {
+        return executionLog;
+    }
+
+    public void setExecutionLog(ExecutionLog executionLog) {
+        this.executionLog = executionLog;
+    }
+
+    public TaskCache getTaskCache() {
+        return taskCache;
+    }
+
+    public void setTaskCache(TaskCache taskCache) {
+        this.taskCache = taskCache;
+    }
+
+    /**
+     * Settings for the engine that runs job bodies off the Quartz worker thread
+     */
+    public LiveFeed getLiveFeed() {
+        return liveFeed;
+    }
+
+    public void setLiveFeed(LiveFeed liveFeed) {
+        this.liveFeed = liveFeed;
+    }
+
+    public Cron getCron() {
+        return cron;
+    }
+
+    public void setCron(Cron cron) {
+        this.cron = cron;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public WorkerPool getWorkerPool() {
+        return workerPool;
+    }
+
+    public void setWorkerPool(WorkerPool workerPool) {
+        this.workerPool = workerPool;
+    }
+
+    public Concurrency getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(Concurrency concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public static class Execution {
+
+        private EngineType engine = EngineType.VIRTUAL;
+
+        private int poolSize = 64;
+
+        private int queueCapacity = 10000;
+
+        // Threads recording fire outcomes, kept apart from job bodies so a full job queue never delays them
+        private int callbackThreads = 8;
+
+        public EngineType getEngine() {
+            return engine;
+        }
+
+        public void setEngine(EngineType engine) {
+            this.engine = engine;
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getCallbackThreads() {
+            return callbackThreads;
+        }
+
+        public void setCallbackThreads(int callbackThreads) {
+            this.callbackThreads = callbackThreads;
+        }
+    }
+
+    /**
+     * Settings for buffering execution records and writing them to the database in batches
+     */
+    public static class WriteBehind {
+
+        private boolean enabled = false;
+
+        private int queueCapacity = 50000;
+
+        private int batchSize = 500;
+
+        private long flushIntervalMillis = 200;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getFlushIntervalMillis() {
+            return flushIntervalMillis;
+        }
+
+        public void setFlushIntervalMillis(long flushIntervalMillis) {
+            this.flushIntervalMillis = flushIntervalMillis;
+        }
+    }
+
+    /**
+     * Settings for the in-process timing-wheel trigger backend
+     */
+    public static class TimingWheel {
+
+        private long tickMillis = 10;
+
+        private int wheelBits = 8;
+
+        private int fireThreads = 16;
+
+        private int queueCapacity = 100000;
+
+        public long getTickMillis() {
+            return tickMillis;
+        }
+
+        public void setTickMillis(long tickMillis) {
+            this.tickMillis = tickMillis;
+        }
+
+        public int getWheelBits() {
+            return wheelBits;
+        }
+
+        public void setWheelBits(int wheelBits) {
+            this.wheelBits = wheelBits;
+        }
+
+        public int getFireThreads() {
+            return fireThreads;
+        }
+
+        public void setFireThreads(int fireThreads) {
+            this.fireThreads = fireThreads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    /**
+     * Settings for running several instances against one shared database
+     */
+    public static class Cluster {
+
+        // How often each node reloads its dependency index, to see edges added on other nodes; 0 disables it
+        private long dependencyRefreshSeconds = 0;
+
+        // Partition tasks over the nodes with a consistent-hash ring instead of sharing a locked job store
+        private boolean partitioned = false;
+
+        // Defaults to the host name plus a random suffix
+        private String nodeId;
+
+        // Base URL other nodes use to reach this one; defaults to http://localhost:${server.port}
+        private String nodeAddress;
+
+        private long heartbeatSeconds = 5;
+
+        // A node missing heartbeats for this long leaves the ring
+        private long nodeTimeoutSeconds = 15;
+
+        // Full pass over all tasks, catching changes whose routing call was lost
+        private long reconcileSeconds = 60;
+
+        private int virtualNodes = 128;
+
+        public long getDependencyRefreshSeconds() {
+            return dependencyRefreshSeconds;
+        }
+
+        public void setDependencyRefreshSeconds(long dependencyRefreshSeconds) {
+            this.dependencyRefreshSeconds = dependencyRefreshSeconds;
+        }
+
+        public boolean isPartitioned() {
+            return partitioned;
+        }
+
+        public void setPartitioned(boolean partitioned) {
+            this.partitioned = partitioned;
+        }
+
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        public void setNodeId(String nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        public String getNodeAddress() {
+            return nodeAddress;
+        }
+
+        public void setNodeAddress(String nodeAddress) {
+            this.nodeAddress = nodeAddress;
+        }
+
+        public long getHeartbeatSeconds() {
+            return heartbeatSeconds;
+        }
+
+        public void setHeartbeatSeconds(long heartbeatSeconds) {
+            this.heartbeatSeconds = heartbeatSeconds;
+        }
+
+        public long getNodeTimeoutSeconds() {
+            return nodeTimeoutSeconds;
+        }
+
+        public void setNodeTimeoutSeconds(long nodeTimeoutSeconds) {
+            this.nodeTimeoutSeconds = nodeTimeoutSeconds;
+        }
+
+        public long getReconcileSeconds() {
+            return reconcileSeconds;
+        }
+
+        public void setReconcileSeconds(long reconcileSeconds) {
+            this.reconcileSeconds = reconcileSeconds;
+        }
+
+        public int getVirtualNodes() {
+            return virtualNodes;
+        }
+
+        public void setVirtualNodes(int virtualNodes) {
+            this.virtualNodes = virtualNodes;
+        }
+    }
+
+    /**
+     * Settings for rolling up and purging old execution records
+     */
+    public static class Retention {
+
+        private boolean enabled = true;
+
+        // Used by tasks without their own policy; 0 keeps raw records forever
+        private int defaultRetentionDays = 30;
+
+        private ScheduledTask.RollupGranularity defaultGranularity = ScheduledTask.RollupGranularity.HOURLY;
+
+        // 0 keeps rollups forever
+        private int rollupRetentionDays = 365;
+
+        private long intervalMinutes = 60;
+
+        // Records purged per transaction; small chunks keep lock times short for concurrent inserts
+        private int chunkSize = 1000;
+
+        private long chunkPauseMillis = 20;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getDefaultRetentionDays() {
+            return defaultRetentionDays;
+        }
+
+        public void setDefaultRetentionDays(int defaultRetentionDays) {
+            this.defaultRetentionDays = defaultRetentionDays;
+        }
+
+        public ScheduledTask.RollupGranularity getDefaultGranularity() {
+            return defaultGranularity;
+        }
+
+        public void setDefaultGranularity(ScheduledTask.RollupGranularity defaultGranularity) {
+            this.defaultGranularity = defaultGranularity;
+        }
+
+        public int getRollupRetentionDays() {
+            return rollupRetentionDays;
+        }
+
+        public void setRollupRetentionDays(int rollupRetentionDays) {
+            this.rollupRetentionDays = rollupRetentionDays;
+        }
+
+        public long getIntervalMinutes() {
+            return intervalMinutes;
+        }
+
+        public void setIntervalMinutes(long intervalMinutes) {
+            this.intervalMinutes = intervalMinutes;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public long getChunkPauseMillis() {
+            return chunkPauseMillis;
+        }
+
+        public void setChunkPauseMillis(long chunkPauseMillis) {
+            this.chunkPauseMillis = chunkPauseMillis;
+        }
+    }
+
+    /**
+     * Settings for the per-task execution statistics kept in memory
+     */
+    public static class Statistics {
+
+        // How often counters are merged into task_statistics; reads always include unmerged counts
+        private long checkpointSeconds = 10;
+
+        public long getCheckpointSeconds() {
+            return checkpointSeconds;
+        }
+
+        public void setCheckpointSeconds(long checkpointSeconds) {
+            this.checkpointSeconds = checkpointSeconds;
+        }
+    }
+
+    /**
+     * Settings for the memory-mapped execution log used by tasks with the LOG execution store
+     */
+    public static class ExecutionLog {
+
+        // One subdirectory per task
+        private String directory = "./data/execution-log";
+
+        // Records per segment file, 64 bytes each
+        private int segmentRecords = 262144;
+
+        // Bytes per segment file for run ids, results and error messages
+        private int segmentPayloadBytes = 32 * 1024 * 1024;
+
+        // How often appended records are forced to disk; 0 leaves it to the operating system
+        private long forceIntervalMillis = 1000;
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public int getSegmentRecords() {
+            return segmentRecords;
+        }
+
+        public void setSegmentRecords(int segmentRecords) {
+            this.segmentRecords = segmentRecords;
+        }
+
+        public int getSegmentPayloadBytes() {
+            return segmentPayloadBytes;
+        }
+
+        public void setSegmentPayloadBytes(int segmentPayloadBytes) {
+            this.segmentPayloadBytes = segmentPayloadBytes;
+        }
+
+        public long getForceIntervalMillis() {
+            return forceIntervalMillis;
+        }
+
+        public void setForceIntervalMillis(long forceIntervalMillis) {
+            this.forceIntervalMillis = forceIntervalMillis;
+        }
+    }
+
+    /**
+     * Settings for the in-memory cache of task definitions
+     */
+    public static class TaskCache {
+
+        private boolean enabled = true;
+
+        // Tasks cached by id; the least recently used one is evicted beyond this
+        private int maxSize = 10000;
+
+        // Bounds how stale an entry can get when another node changes the task
+        private long ttlSeconds = 60;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public long getTtlSeconds() {
+            return ttlSeconds;
+        }
+
+        public void setTtlSeconds(long ttlSeconds) {
+            this.ttlSeconds = ttlSeconds;
+        }
+    }
+
+    /**
+     * Settings for the Server-Sent Events feed of task and execution changes
+     */
+    public static class LiveFeed {
+
+        private int maxSubscribers = 1000;
+
+        // Events waiting to be fanned out; further events are dropped while it is full
+        private int queueCapacity = 10000;
+
+        // Events buffered per subscriber; a subscriber that falls further behind is disconnected
+        private int subscriberBufferSize = 256;
+
+        private int senderThreads = 4;
+
+        private long heartbeatSeconds = 15;
+
+        // Connections are closed after this long and the browser reconnects
+        private long timeoutMinutes = 30;
+
+        public int getMaxSubscribers() {
+            return maxSubscribers;
+        }
+
+        public void setMaxSubscribers(int maxSubscribers) {
+            this.maxSubscribers = maxSubscribers;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getSubscriberBufferSize() {
+            return subscriberBufferSize;
+        }
+
+        public void setSubscriberBufferSize(int subscriberBufferSize) {
+            this.subscriberBufferSize = subscriberBufferSize;
+        }
+
+        public int getSenderThreads() {
+            return senderThreads;
+        }
+
+        public void setSenderThreads(int senderThreads) {
+            this.senderThreads = senderThreads;
+        }
+
+        public long getHeartbeatSeconds() {
+            return heartbeatSeconds;
+        }
+
+        public void setHeartbeatSeconds(long heartbeatSeconds) {
+            this.heartbeatSeconds = heartbeatSeconds;
+        }
+
+        public long getTimeoutMinutes() {
+            return timeoutMinutes;
+        }
+
+        public void setTimeoutMinutes(long timeoutMinutes) {
+            this.timeoutMinutes = timeoutMinutes;
+        }
+    }
+
+    /**
+     * Settings for compiled cron expressions and fire time previews
+     */
+    public static class Cron {
+
+        // Distinct expressions kept compiled; the least recently used one is dropped beyond this
+        private int cacheSize = 10000;
+
+        // Upper bound on the fire times returned per task by a preview
+        private int previewMaxCount = 1000;
+
+        public int getCacheSize() {
+            return cacheSize;
+        }
+
+        public void setCacheSize(int cacheSize) {
+            this.cacheSize = cacheSize;
+        }
+
+        public int getPreviewMaxCount() {
+            return previewMaxCount;
+        }
+
+        public void setPreviewMaxCount(int previewMaxCount) {
+            this.previewMaxCount = previewMaxCount;
+        }
+    }
+
+    /**
+     * Settings for the Micrometer meters recorded on every fire
+     */
+    public static class Metrics {
+
+        // Tag fire meters with the task name; off, all tasks share one set to bound the series count
+        private boolean perTask = true;
+
+        // Publish histogram buckets for the fire timers, for percentiles across nodes
+        private boolean histogram = false;
+
+        public boolean isPerTask() {
+            return perTask;
+        }
+
+        public void setPerTask(boolean perTask) {
+            this.perTask = perTask;
+        }
+
+        public boolean isHistogram() {
+            return histogram;
+        }
+
+        public void setHistogram(boolean histogram) {
+            this.histogram = histogram;
+        }
+    }
+
+    /**
+     * Settings for the Quartz worker pool sized from the measured fire lag
+     */
+    public static class WorkerPool {
+
+        // Off, Quartz uses its fixed pool of org.quartz.threadPool.threadCount threads
+        private boolean adaptive = true;
+
+        private int minThreads = 4;
+
+        private int maxThreads = 50;
+
+        // Fires starting later than this after their scheduled time count as late
+        private long targetLagMillis = 200;
+
+        private long sampleMillis = 1000;
+
+        // Calm time before the pool shrinks; much longer than a sample, so bursts keep their threads
+        private long shrinkAfterSeconds = 60;
+
+        public boolean isAdaptive() {
+            return adaptive;
+        }
+
+        public void setAdaptive(boolean adaptive) {
+            this.adaptive = adaptive;
+        }
+
+        public int getMinThreads() {
+            return minThreads;
+        }
+
+        public void setMinThreads(int minThreads) {
+            this.minThreads = minThreads;
+        }
+
+        public int getMaxThreads() {
+            return maxThreads;
+        }
+
+        public void setMaxThreads(int maxThreads) {
+            this.maxThreads = maxThreads;
+        }
+
+        public long getTargetLagMillis() {
+            return targetLagMillis;
+        }
+
+        public void setTargetLagMillis(long targetLagMillis) {
+            this.targetLagMillis = targetLagMillis;
+        }
+
+        public long getSampleMillis() {
+            return sampleMillis;
+        }
+
+        public void setSampleMillis(long sampleMillis) {
+            this.sampleMillis = sampleMillis;
+        }
+
+        public long getShrinkAfterSeconds() {
+            return shrinkAfterSeconds;
+        }
+
+        public void setShrinkAfterSeconds(long shrinkAfterSeconds) {
+            this.shrinkAfterSeconds = shrinkAfterSeconds;
+        }
+    }
+
+    /**
+     * Limits on fires running at once, beyond the per-task ones set on each task
+     */
+    public static class Concurrency {
+
+        // Job class name to the fires of all its tasks running at once on a node
+        private Map<String, Integer> jobClassLimits = new HashMap<>();
+
+        // Group name to the fires running at once across the tasks naming it as their resource group
+        private Map<String, Integer> resourceGroups = new HashMap<>();
+
+        // Fires of one task waiting for a permit under the QUEUE policy; later ones are rejected
+        private int maxQueuedFires = 100;
+
+        public Map<String, Integer> getJobClassLimits() {
+            return jobClassLimits;
+        }
+
+        public void setJobClassLimits(Map<String, Integer> jobClassLimits) {
+            this.jobClassLimits = jobClassLimits;
+        }
+
+        public Map<String, Integer> getResourceGroups() {
+            return resourceGroups;
+        }
+
+        public void setResourceGroups(Map<String, Integer> resourceGroups) {
+            this.resourceGroups = resourceGroups;
+        }
+
+        public int getMaxQueuedFires() {
+            return maxQueuedFires;
+        }
+
+        public void setMaxQueuedFires(int maxQueuedFires) {
+            this.maxQueuedFires = maxQueuedFires;
+        }
+    }
+
+    public enum EngineType {
+        VIRTUAL,   // One virtual thread per fire (falls back to PLATFORM before Java 21)
+        PLATFORM   // Bounded pool of platform threads
+    }
+}
@@ -0,0 +1,50 @@
+package com.eyesdawn.scheduledtask.controller;
+
+import com.eyesdawn.scheduledtask.cluster.TaskPartitionManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Partition membership, and the calls nodes make to each other in partitioned mode
+ */
+@RestController
+@RequestMapping("/api/cluster")
+public class ClusterController {
+
+    @Autowired
+    private TaskPartitionManager taskPartitionManager;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        if (!taskPartitionManager.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(taskPartitionManager.getStatus());
+    }
+
+    @PostMapping("/tasks/{id}/sync")
+    public ResponseEntity<Void> syncTask(@PathVariable Long id) {
+        if (!taskPartitionManager.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        taskPartitionManager.reconcile(id);
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping("/tasks/{id}/trigger")
+    public ResponseEntity<Void> triggerTask(@PathVariable Long id, @RequestBody Map<String, String> data) {
+        if (!taskPartitionManager.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            taskPartitionManager.triggerLocal(id, data);
+            return ResponseEntity.ok().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+}
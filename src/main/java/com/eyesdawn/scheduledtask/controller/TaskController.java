@@ -1,17 +1,40 @@
 package com.eyesdawn.scheduledtask.controller;
 
+import com.eyesdawn.scheduledtask.cache.TaskDefinitionCache;
+import com.eyesdawn.scheduledtask.dto.BulkItemResult;
+import com.eyesdawn.scheduledtask.dto.CursorPage;
+import com.eyesdawn.scheduledtask.dto.ExecutionSummary;
+import com.eyesdawn.scheduledtask.dto.FireTimePreview;
+import com.eyesdawn.scheduledtask.dto.LoadForecast;
+import com.eyesdawn.scheduledtask.dto.TaskFields;
+import com.eyesdawn.scheduledtask.live.TaskEventBroadcaster;
+import com.eyesdawn.scheduledtask.model.ExecutionRollup;
 import com.eyesdawn.scheduledtask.model.ScheduledTask;
 import com.eyesdawn.scheduledtask.model.TaskExecution;
+import com.eyesdawn.scheduledtask.model.TaskStatistics;
+import com.eyesdawn.scheduledtask.service.BulkTaskService;
+import com.eyesdawn.scheduledtask.service.ExecutionExportService;
+import com.eyesdawn.scheduledtask.service.ExecutionRetentionService;
+import com.eyesdawn.scheduledtask.service.FireTimePreviewService;
 import com.eyesdawn.scheduledtask.service.ScheduledTaskService;
 import com.eyesdawn.scheduledtask.service.TaskExecutionService;
+import com.eyesdawn.scheduledtask.service.TaskStatisticsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/tasks")
@@ -20,26 +43,138 @@ public class TaskController {
     @Autowired
     private ScheduledTaskService scheduledTaskService;
 
+    @Autowired
+    private BulkTaskService bulkTaskService;
+
     @Autowired
     private TaskExecutionService taskExecutionService;
 
+    @Autowired
+    private ExecutionRetentionService executionRetentionService;
+
+    @Autowired
+    private TaskStatisticsService taskStatisticsService;
+
+    @Autowired
+    private ExecutionExportService executionExportService;
+
+    @Autowired
+    private TaskEventBroadcaster taskEventBroadcaster;
+
+    @Autowired
+    private FireTimePreviewService fireTimePreviewService;
+
+    /**
+     * Task summaries, or only the named columns with {@code fields=id,name,status}
+     */
     @GetMapping
-    public ResponseEntity<List<ScheduledTask>> getAllTasks() {
-        List<ScheduledTask> tasks = scheduledTaskService.getAllTasks();
-        return ResponseEntity.ok(tasks);
+    public ResponseEntity<List<?>> getAllTasks(@RequestParam(required = false) String fields) {
+        return listTasks(fields, false);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ScheduledTask> getTask(@PathVariable Long id) {
+    public ResponseEntity<?> getTask(@PathVariable Long id, @RequestParam(required = false) String fields) {
+        List<String> selected;
+        try {
+            selected = fields != null ? TaskFields.parse(fields) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
         Optional<ScheduledTask> task = scheduledTaskService.getTask(id);
-        return task.map(ResponseEntity::ok)
-                  .orElse(ResponseEntity.notFound().build());
+        if (task.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(selected != null ? TaskFields.select(task.get(), selected) : task.get());
     }
 
     @GetMapping("/active")
-    public ResponseEntity<List<ScheduledTask>> getActiveTasks() {
-        List<ScheduledTask> tasks = scheduledTaskService.getActiveTasks();
-        return ResponseEntity.ok(tasks);
+    public ResponseEntity<List<?>> getActiveTasks(@RequestParam(required = false) String fields) {
+        return listTasks(fields, true);
+    }
+
+    private ResponseEntity<List<?>> listTasks(String fields, boolean activeOnly) {
+        if (fields == null) {
+            return ResponseEntity.ok(scheduledTaskService.getTaskSummaries(activeOnly));
+        }
+        try {
+            return ResponseEntity.ok(scheduledTaskService.getTaskFields(TaskFields.parse(fields), activeOnly));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/cache")
+    public ResponseEntity<TaskDefinitionCache.CacheStats> getCacheStats() {
+        return ResponseEntity.ok(scheduledTaskService.getCacheStats());
+    }
+
+    /**
+     * Task changes and execution starts and completions as Server-Sent Events, for every task
+     * or only the given one
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents(@RequestParam(required = false) Long taskId) {
+        try {
+            // Tells a buffering reverse proxy to pass events through as they are written
+            return ResponseEntity.ok().header("X-Accel-Buffering", "no").body(taskEventBroadcaster.subscribe(taskId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @GetMapping("/events/stats")
+    public ResponseEntity<TaskEventBroadcaster.FeedStats> getEventStats() {
+        return ResponseEntity.ok(taskEventBroadcaster.getStats());
+    }
+
+    /**
+     * The next fire times of one task after {@code from}, by default now
+     */
+    @GetMapping("/{id}/fire-times")
+    public ResponseEntity<FireTimePreview> getTaskFireTimes(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(defaultValue = "10") int count) {
+        Optional<FireTimePreview> preview;
+        try {
+            preview = fireTimePreviewService.previewTask(id, from != null ? from : LocalDateTime.now(), count);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return preview.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Fire times of all active tasks in a window, by default the next hour
+     */
+    @GetMapping("/fire-times")
+    public ResponseEntity<List<FireTimePreview>> getFireTimes(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "100") int limitPerTask) {
+        LocalDateTime start = from != null ? from : LocalDateTime.now();
+        try {
+            return ResponseEntity.ok(fireTimePreviewService.previewActive(start, to != null ? to : start.plusHours(1),
+                    limitPerTask));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Fires of all active tasks per second, by default over the next hour, with the busiest seconds
+     */
+    @GetMapping("/load-forecast")
+    public ResponseEntity<LoadForecast> getLoadForecast(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(defaultValue = "3600") int seconds,
+            @RequestParam(defaultValue = "10") int top) {
+        try {
+            return ResponseEntity.ok(fireTimePreviewService.forecastActive(from != null ? from : LocalDateTime.now(),
+                    seconds, top));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PostMapping
@@ -62,6 +197,57 @@ public class TaskController {
         }
     }
 
+    /**
+     * Create many tasks in one transaction, and start them with {@code start=true}; the
+     * result has one entry per task, in request order
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<List<BulkItemResult>> createTasks(@RequestBody List<ScheduledTask> tasks,
+                                                            @RequestParam(defaultValue = "false") boolean start) {
+        try {
+            return ResponseEntity.ok(bulkTaskService.createTasks(tasks, start));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PutMapping("/bulk")
+    public ResponseEntity<List<BulkItemResult>> updateTasks(@RequestBody List<ScheduledTask> tasks) {
+        try {
+            return ResponseEntity.ok(bulkTaskService.updateTasks(tasks));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/bulk/start")
+    public ResponseEntity<List<BulkItemResult>> startTasks(@RequestBody List<Long> ids) {
+        return applyBulkAction(BulkTaskService.Action.START, ids);
+    }
+
+    @PostMapping("/bulk/stop")
+    public ResponseEntity<List<BulkItemResult>> stopTasks(@RequestBody List<Long> ids) {
+        return applyBulkAction(BulkTaskService.Action.STOP, ids);
+    }
+
+    @PostMapping("/bulk/pause")
+    public ResponseEntity<List<BulkItemResult>> pauseTasks(@RequestBody List<Long> ids) {
+        return applyBulkAction(BulkTaskService.Action.PAUSE, ids);
+    }
+
+    @PostMapping("/bulk/resume")
+    public ResponseEntity<List<BulkItemResult>> resumeTasks(@RequestBody List<Long> ids) {
+        return applyBulkAction(BulkTaskService.Action.RESUME, ids);
+    }
+
+    private ResponseEntity<List<BulkItemResult>> applyBulkAction(BulkTaskService.Action action, List<Long> ids) {
+        try {
+            return ResponseEntity.ok(bulkTaskService.applyAction(action, ids));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteTask(@PathVariable Long id) {
         try {
@@ -118,9 +304,102 @@ public class TaskController {
         return ResponseEntity.ok(executions);
     }
 
+    /**
+     * Keyset-paginated executions; follow {@code nextCursor} for the next page
+     */
+    @GetMapping("/{id}/executions/page")
+    public ResponseEntity<CursorPage<ExecutionSummary>> getTaskExecutionPage(
+            @PathVariable Long id,
+            @RequestParam(required = false) TaskExecution.ExecutionStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ResponseEntity.ok(taskExecutionService.getExecutionPage(id, status, from, to, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Stream matching executions as NDJSON or CSV, optionally gzip-compressed
+     */
+    @GetMapping("/executions/export")
+    public ResponseEntity<StreamingResponseBody> exportExecutions(
+            @RequestParam(required = false) Long taskId,
+            @RequestParam(required = false) TaskExecution.ExecutionStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        ExecutionExportService.ExportFormat exportFormat;
+        try {
+            exportFormat = ExecutionExportService.ExportFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String fileName = "executions." + exportFormat.name().toLowerCase() + (gzip ? ".gz" : "");
+        MediaType contentType = gzip ? MediaType.parseMediaType("application/gzip")
+                : exportFormat == ExecutionExportService.ExportFormat.CSV ? MediaType.parseMediaType("text/csv;charset=UTF-8")
+                : MediaType.parseMediaType("application/x-ndjson");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024);
+                executionExportService.export(taskId, status, from, to, exportFormat, compressed);
+                compressed.finish();
+            } else {
+                executionExportService.export(taskId, status, from, to, exportFormat, out);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+    @GetMapping("/{id}/statistics")
+    public ResponseEntity<TaskStatistics> getTaskStatistics(@PathVariable Long id) {
+        if (scheduledTaskService.getTask(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(taskStatisticsService.getStatistics(id));
+    }
+
     @GetMapping("/executions/running")
     public ResponseEntity<List<TaskExecution>> getRunningExecutions() {
         List<TaskExecution> executions = taskExecutionService.getRunningExecutions();
         return ResponseEntity.ok(executions);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/executions/runs/{runId}")
+    public ResponseEntity<List<TaskExecution>> getRunExecutions(@PathVariable String runId) {
+        List<TaskExecution> executions = taskExecutionService.getExecutionsForRun(runId);
+        return ResponseEntity.ok(executions);
+    }
+
+    @GetMapping("/{id}/rollups")
+    public ResponseEntity<List<ExecutionRollup>> getTaskRollups(@PathVariable Long id,
+                                                                @RequestParam(defaultValue = "48") int limit) {
+        try {
+            return ResponseEntity.ok(executionRetentionService.getRollups(id, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/{id}/purge")
+    public ResponseEntity<ExecutionRetentionService.PurgeResult> purgeTaskExecutions(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(executionRetentionService.purgeTask(id));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/executions/purge")
+    public ResponseEntity<ExecutionRetentionService.PurgeResult> purgeExecutions() {
+        return ResponseEntity.ok(executionRetentionService.purgeAll());
+    }
+}
@@ -2,9 +2,13 @@ package com.eyesdawn.scheduledtask.controller;
 
 import com.eyesdawn.scheduledtask.model.ScheduledTask;
 import com.eyesdawn.scheduledtask.model.TaskExecution;
+import com.eyesdawn.scheduledtask.dto.FireTimePreview;
+import com.eyesdawn.scheduledtask.service.ExecutionRetentionService;
+import com.eyesdawn.scheduledtask.service.FireTimePreviewService;
 import com.eyesdawn.scheduledtask.service.ScheduledTaskService;
 import com.eyesdawn.scheduledtask.service.TaskExecutionService;
 import com.eyesdawn.scheduledtask.service.TaskDependencyService;
+import com.eyesdawn.scheduledtask.service.TaskStatisticsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -13,6 +17,7 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,6 +34,15 @@ public class WebController {
     @Autowired
     private TaskDependencyService taskDependencyService;
 
+    @Autowired
+    private ExecutionRetentionService executionRetentionService;
+
+    @Autowired
+    private TaskStatisticsService taskStatisticsService;
+
+    @Autowired
+    private FireTimePreviewService fireTimePreviewService;
+
     @GetMapping({"", "/"})
     public String index() {
         return "redirect:/web/tasks";
@@ -60,10 +74,24 @@ public class WebController {
         model.addAttribute("executions", taskExecutionService.getExecutionsForTask(id, pageable));
         model.addAttribute("dependencies", taskDependencyService.getDependenciesForTask(id));
         model.addAttribute("dependents", taskDependencyService.getTasksDependingOn(id));
+        model.addAttribute("statistics", taskStatisticsService.getStatistics(id));
+        model.addAttribute("retentionDays", executionRetentionService.getRetentionDays(task.get()));
+        model.addAttribute("rollupGranularity", executionRetentionService.getGranularity(task.get()));
+        model.addAttribute("rollups", executionRetentionService.getRollups(id, 24));
+        model.addAttribute("fireTimes", previewFireTimes(id));
 
         return "tasks/detail";
     }
 
+    private FireTimePreview previewFireTimes(Long id) {
+        try {
+            return fireTimePreviewService.previewTask(id, LocalDateTime.now(), 5).orElse(null);
+        } catch (RuntimeException e) {
+            // An expression that no longer resolves is shown as it is, without fire times
+            return null;
+        }
+    }
+
     @GetMapping("/tasks/{id}/edit")
     public String editTask(@PathVariable Long id, Model model) {
         Optional<ScheduledTask> task = scheduledTaskService.getTask(id);
@@ -115,6 +143,18 @@ public class WebController {
         }
     }
 
+    @PostMapping("/tasks/{id}/purge")
+    public String purgeTaskExecutions(@PathVariable Long id, RedirectAttributes redirectAttributes) {
+        try {
+            ExecutionRetentionService.PurgeResult result = executionRetentionService.purgeTask(id);
+            redirectAttributes.addFlashAttribute("message", "Purged " + result.getExecutionsPurged()
+                    + " executions into " + result.getRollupsUpdated() + " rollups");
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", "Error purging executions: " + e.getMessage());
+        }
+        return "redirect:/web/tasks/" + id;
+    }
+
     @PostMapping("/tasks/{id}/start")
     public String startTask(@PathVariable Long id, RedirectAttributes redirectAttributes) {
         try {
@@ -0,0 +1,337 @@
+package com.eyesdawn.scheduledtask.dependency;
+
+import java.util.Arrays;
+
+/**
+ * Task dependency graph kept in primitive arrays. Task ids are mapped to dense node indexes
+ * and each node keeps growable {@code int[]} adjacency lists in both directions.
+ * <p>
+ * Cycle detection is incremental (Pearce-Kelly dynamic topological order): every node has a
+ * position such that prerequisites come before the tasks that depend on them. Adding an edge
+ * that already agrees with the order is O(1); otherwise only the nodes whose positions lie
+ * between the two endpoints are searched and re-ordered.
+ * <p>
+ * Not thread-safe; {@link TaskDependencyIndex} guards it with a read/write lock.
+ */
+public final class DependencyGraph {
+
+    private static final int[] EMPTY = new int[0];
+    private static final long FREE = Long.MIN_VALUE;
+
+    // Node index -> task id, and the open-addressing task id -> node index table
+    private long[] ids = new long[16];
+    private long[] tableKeys;
+    private int[] tableValues;
+    private int nodeCount;
+    private int edgeCount;
+
+    // Edges point from a prerequisite to the tasks that depend on it
+    private int[][] out = new int[16][];
+    private int[] outSize = new int[16];
+    private int[][] in = new int[16][];
+    private int[] inSize = new int[16];
+
+    // Topological position of each node; prerequisites have the lower value. Positions are
+    // distinct but not contiguous: nodes can be moved past either end of the range in O(1)
+    private int[] ord = new int[16];
+    private int minOrd;
+    private int maxOrd = -1;
+
+    // DFS scratch state, reused between searches
+    private int[] visitMark = new int[16];
+    private int visitEpoch;
+    private int[] stack = new int[16];
+    private int[] forward = new int[16];
+    private int[] backward = new int[16];
+
+    public DependencyGraph() {
+        tableKeys = new long[32];
+        tableValues = new int[32];
+        Arrays.fill(tableKeys, FREE);
+    }
+
+    /**
+     * Record that {@code taskId} depends on {@code prerequisiteId}
+     * @return false if the edge would close a cycle; the graph is left unchanged in that case
+     */
+    public boolean addEdge(long taskId, long prerequisiteId) {
+        if (taskId == prerequisiteId) {
+            return false;
+        }
+        int task = indexOf(taskId, true);
+        int prerequisite = indexOf(prerequisiteId, true);
+        if (ord[prerequisite] > ord[task]) {
+            if (inSize[prerequisite] == 0) {
+                // Nothing has to precede the prerequisite, so it can move to the front
+                ord[prerequisite] = --minOrd;
+            } else if (outSize[task] == 0) {
+                // Nothing has to follow the task, so it can move to the back
+                ord[task] = ++maxOrd;
+            } else if (!reorder(prerequisite, task)) {
+                return false;
+            }
+        }
+        out[prerequisite] = append(out[prerequisite], outSize[prerequisite]++, task);
+        in[task] = append(in[task], inSize[task]++, prerequisite);
+        edgeCount++;
+        return true;
+    }
+
+    /**
+     * Remove one {@code taskId -> prerequisiteId} edge
+     * @return false if there was no such edge
+     */
+    public boolean removeEdge(long taskId, long prerequisiteId) {
+        int task = indexOf(taskId, false);
+        int prerequisite = indexOf(prerequisiteId, false);
+        if (task < 0 || prerequisite < 0 || !removeFirst(out, outSize, prerequisite, task)) {
+            return false;
+        }
+        removeFirst(in, inSize, task, prerequisite);
+        edgeCount--;
+        return true;
+    }
+
+    /**
+     * Drop every edge touching the task. Its node index is kept; task ids are never reused.
+     */
+    public void removeNode(long taskId) {
+        int node = indexOf(taskId, false);
+        if (node < 0) {
+            return;
+        }
+        for (int i = 0; i < outSize[node]; i++) {
+            removeFirst(in, inSize, out[node][i], node);
+        }
+        for (int i = 0; i < inSize[node]; i++) {
+            removeFirst(out, outSize, in[node][i], node);
+        }
+        edgeCount -= outSize[node] + inSize[node];
+        outSize[node] = 0;
+        inSize[node] = 0;
+        out[node] = EMPTY;
+        in[node] = EMPTY;
+    }
+
+    /**
+     * Whether {@code taskId} depends on {@code prerequisiteId}, directly or transitively
+     */
+    public boolean dependsOn(long taskId, long prerequisiteId) {
+        int task = indexOf(taskId, false);
+        int prerequisite = indexOf(prerequisiteId, false);
+        if (task < 0 || prerequisite < 0) {
+            return false;
+        }
+        if (task == prerequisite) {
+            return true;
+        }
+        // Any path must run through strictly increasing positions
+        return ord[prerequisite] < ord[task] && search(prerequisite, task, ord[task], true) < 0;
+    }
+
+    public long[] getPrerequisites(long taskId) {
+        int node = indexOf(taskId, false);
+        return node < 0 ? new long[0] : toIds(in[node], inSize[node]);
+    }
+
+    public long[] getDependents(long taskId) {
+        int node = indexOf(taskId, false);
+        return node < 0 ? new long[0] : toIds(out[node], outSize[node]);
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Restore the order invariant before adding prerequisite -> task when the prerequisite
+     * currently sits after the task. Returns false if the task already reaches the prerequisite.
+     */
+    private boolean reorder(int prerequisite, int task) {
+        int lower = ord[task];
+        int upper = ord[prerequisite];
+
+        // Everything reachable from the task within the affected region
+        int forwardCount = search(task, prerequisite, upper, true);
+        if (forwardCount < 0) {
+            return false;
+        }
+        int[] forwardNodes = Arrays.copyOf(forward, forwardCount);
+        // Everything that reaches the prerequisite within the affected region
+        int backwardCount = search(prerequisite, -1, lower, false);
+        int[] backwardNodes = Arrays.copyOf(backward, backwardCount);
+
+        // The backward set moves ahead of the forward set, reusing the same positions
+        sortByOrd(forwardNodes);
+        sortByOrd(backwardNodes);
+        int[] positions = new int[forwardCount + backwardCount];
+        int p = 0;
+        for (int node : backwardNodes) {
+            positions[p++] = ord[node];
+        }
+        for (int node : forwardNodes) {
+            positions[p++] = ord[node];
+        }
+        Arrays.sort(positions);
+        p = 0;
+        for (int node : backwardNodes) {
+            ord[node] = positions[p++];
+        }
+        for (int node : forwardNodes) {
+            ord[node] = positions[p++];
+        }
+        return true;
+    }
+
+    /**
+     * Iterative DFS bounded by position. Forward searches follow dependents with
+     * {@code ord <= bound}; backward searches follow prerequisites with {@code ord >= bound}.
+     * Visited nodes are collected into {@link #forward} or {@link #backward}.
+     * @return The number of visited nodes, or -1 if {@code target} was reached
+     */
+    private int search(int start, int target, int bound, boolean forwardDirection) {
+        int epoch = ++visitEpoch;
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(visitMark, 0);
+            visitEpoch = epoch = 1;
+        }
+        int[][] adjacency = forwardDirection ? out : in;
+        int[] sizes = forwardDirection ? outSize : inSize;
+        int[] visited = forwardDirection ? forward : backward;
+
+        int top = 0;
+        int count = 0;
+        stack[top++] = start;
+        visitMark[start] = epoch;
+        while (top > 0) {
+            int node = stack[--top];
+            visited[count++] = node;
+            int[] neighbours = adjacency[node];
+            for (int i = 0, n = sizes[node]; i < n; i++) {
+                int next = neighbours[i];
+                if (next == target) {
+                    return -1;
+                }
+                if (visitMark[next] != epoch
+                        && (forwardDirection ? ord[next] <= bound : ord[next] >= bound)) {
+                    visitMark[next] = epoch;
+                    stack[top++] = next;
+                }
+            }
+        }
+        return count;
+    }
+
+    private void sortByOrd(int[] nodes) {
+        // Pack (position, node) into longs so a primitive sort orders nodes by position
+        long[] packed = new long[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            packed[i] = ((long) ord[nodes[i]] << 32) | nodes[i];
+        }
+        Arrays.sort(packed);
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = (int) packed[i];
+        }
+    }
+
+    private long[] toIds(int[] nodes, int size) {
+        long[] result = new long[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = ids[nodes[i]];
+        }
+        return result;
+    }
+
+    private int indexOf(long taskId, boolean create) {
+        int mask = tableKeys.length - 1;
+        int slot = hash(taskId) & mask;
+        while (tableKeys[slot] != FREE) {
+            if (tableKeys[slot] == taskId) {
+                return tableValues[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (!create) {
+            return -1;
+        }
+        int node = newNode(taskId);
+        tableKeys[slot] = taskId;
+        tableValues[slot] = node;
+        if (nodeCount * 2 > tableKeys.length) {
+            rehash();
+        }
+        return node;
+    }
+
+    private int newNode(long taskId) {
+        int node = nodeCount++;
+        if (node == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            out = Arrays.copyOf(out, capacity);
+            outSize = Arrays.copyOf(outSize, capacity);
+            in = Arrays.copyOf(in, capacity);
+            inSize = Arrays.copyOf(inSize, capacity);
+            ord = Arrays.copyOf(ord, capacity);
+            visitMark = Arrays.copyOf(visitMark, capacity);
+            stack = new int[capacity];
+            forward = new int[capacity];
+            backward = new int[capacity];
+        }
+        ids[node] = taskId;
+        out[node] = EMPTY;
+        in[node] = EMPTY;
+        // New nodes have no edges, so any unused position keeps the order valid
+        ord[node] = ++maxOrd;
+        return node;
+    }
+
+    private void rehash() {
+        long[] oldKeys = tableKeys;
+        int[] oldValues = tableValues;
+        tableKeys = new long[oldKeys.length * 2];
+        tableValues = new int[oldKeys.length * 2];
+        Arrays.fill(tableKeys, FREE);
+        int mask = tableKeys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (tableKeys[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                tableKeys[slot] = oldKeys[i];
+                tableValues[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int[] append(int[] array, int index, int value) {
+        if (index == array.length) {
+            array = Arrays.copyOf(array, Math.max(4, array.length * 2));
+        }
+        array[index] = value;
+        return array;
+    }
+
+    private static boolean removeFirst(int[][] lists, int[] sizes, int node, int value) {
+        int[] list = lists[node];
+        int size = sizes[node];
+        for (int i = 0; i < size; i++) {
+            if (list[i] == value) {
+                list[i] = list[size - 1];
+                sizes[node] = size - 1;
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,233 @@
+package com.eyesdawn.scheduledtask.dependency;
+
+import com.eyesdawn.scheduledtask.config.SchedulerProperties;
+import com.eyesdawn.scheduledtask.repository.TaskDependencyRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory index of the enabled task dependencies, loaded once at startup and kept in step
+ * with the database as dependencies are added and removed. Cycle checks and dependency
+ * lookups are answered from here instead of walking the table one query per node.
+ * In clustered mode it is also reloaded periodically to see changes made on other nodes.
+ */
+@Component
+public class TaskDependencyIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskDependencyIndex.class);
+
+    @Autowired
+    private TaskDependencyRepository taskDependencyRepository;
+
+    @Autowired
+    private SchedulerProperties properties;
+
+    private DependencyGraph graph = new DependencyGraph();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Bumped under the write lock by every local change, so a reload can tell it raced one
+    private long mutations;
+    private ScheduledExecutorService refresher;
+
+    @PostConstruct
+    public void load() {
+        reload();
+        logger.info("Loaded {} task dependencies into the dependency index", getEdgeCount());
+
+        // Other cluster nodes write to the same table, so pick their changes up periodically
+        long refreshSeconds = properties.getCluster().getDependencyRefreshSeconds();
+        if (refreshSeconds > 0) {
+            refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "dependency-index-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+            refresher.scheduleWithFixedDelay(() -> {
+                try {
+                    reload();
+                } catch (Exception e) {
+                    logger.warn("Failed to refresh the dependency index: {}", e.getMessage());
+                }
+            }, refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    /**
+     * Rebuild the graph from the enabled dependencies in the database. The table is read
+     * without holding the lock, so if an edge is added or removed locally meanwhile the
+     * snapshot may predate it; it is then dropped and the next refresh tries again.
+     * @return Whether the loaded graph replaced the current one
+     */
+    public boolean reload() {
+        long seen = getMutationCount();
+        DependencyGraph loaded = new DependencyGraph();
+        for (Object[] edge : taskDependencyRepository.findActiveEdges()) {
+            if (!loaded.addEdge((Long) edge[0], (Long) edge[1])) {
+                logger.warn("Ignoring circular dependency: Task {} depends on Task {}", edge[0], edge[1]);
+            }
+        }
+        return install(loaded, seen);
+    }
+
+    boolean install(DependencyGraph loaded, long seen) {
+        lock.writeLock().lock();
+        try {
+            if (mutations != seen) {
+                logger.debug("Dependencies changed while the index was reloading, keeping the current graph");
+                return false;
+            }
+            graph = loaded;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    long getMutationCount() {
+        lock.readLock().lock();
+        try {
+            return mutations;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add the edge if it keeps the graph acyclic. The edge is visible immediately so concurrent
+     * additions cannot close a cycle between them, and is withdrawn if the surrounding
+     * transaction does not commit.
+     * @return false if the dependency would create a circular dependency
+     */
+    public boolean tryAdd(Long taskId, Long dependentTaskId) {
+        lock.writeLock().lock();
+        try {
+            if (!graph.addEdge(taskId, dependentTaskId)) {
+                return false;
+            }
+            mutations++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        afterCompletion(committed -> {
+            if (!committed) {
+                remove(taskId, dependentTaskId);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Remove the edge once the surrounding transaction commits
+     */
+    public void removeOnCommit(Long taskId, Long dependentTaskId) {
+        afterCompletion(committed -> {
+            if (committed) {
+                remove(taskId, dependentTaskId);
+            }
+        });
+    }
+
+    /**
+     * Drop every edge of a deleted task once the surrounding transaction commits
+     */
+    public void removeTaskOnCommit(Long taskId) {
+        afterCompletion(committed -> {
+            if (committed) {
+                lock.writeLock().lock();
+                try {
+                    graph.removeNode(taskId);
+                    mutations++;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        });
+    }
+
+    /**
+     * Ids of the tasks that must be active before the given task can start
+     */
+    public long[] getDependencies(Long taskId) {
+        lock.readLock().lock();
+        try {
+            return graph.getPrerequisites(taskId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the tasks that directly depend on the given task
+     */
+    public long[] getDependents(Long taskId) {
+        lock.readLock().lock();
+        try {
+            return graph.getDependents(taskId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Whether the task depends on the other one, directly or transitively
+     */
+    public boolean dependsOn(Long taskId, Long dependentTaskId) {
+        lock.readLock().lock();
+        try {
+            return graph.dependsOn(taskId, dependentTaskId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getEdgeCount() {
+        lock.readLock().lock();
+        try {
+            return graph.getEdgeCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void remove(Long taskId, Long dependentTaskId) {
+        lock.writeLock().lock();
+        try {
+            graph.removeEdge(taskId, dependentTaskId);
+            mutations++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void afterCompletion(Consumer<Boolean> callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            callback.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+}
@@ -0,0 +1,57 @@
+package com.eyesdawn.scheduledtask.dto;
+
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+
+/**
+ * Outcome of one item of a bulk request; {@code index} is its position in the request
+ */
+public class BulkItemResult {
+
+    private final int index;
+    private final Long taskId;
+    private final String name;
+    private final boolean success;
+    private final ScheduledTask.TaskStatus status;
+    private final String error;
+
+    public BulkItemResult(int index, Long taskId, String name, boolean success, ScheduledTask.TaskStatus status, String error) {
+        this.index = index;
+        this.taskId = taskId;
+        this.name = name;
+        this.success = success;
+        this.status = status;
+        this.error = error;
+    }
+
+    public static BulkItemResult succeeded(int index, ScheduledTask task) {
+        return new BulkItemResult(index, task.getId(), task.getName(), true, task.getStatus(), null);
+    }
+
+    public static BulkItemResult failed(int index, Long taskId, String name, String error) {
+        return new BulkItemResult(index, taskId, name, false, null, error);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public ScheduledTask.TaskStatus getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
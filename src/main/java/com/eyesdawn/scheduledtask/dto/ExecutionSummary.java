@@ -0,0 +1,85 @@
+package com.eyesdawn.scheduledtask.dto;
+
+import com.eyesdawn.scheduledtask.model.TaskExecution;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat read-only view of one execution, selected straight from the query without
+ * loading the entity or its task
+ */
+public class ExecutionSummary {
+
+    private final Long id;
+    private final Long taskId;
+    private final String runId;
+    private final TaskExecution.ExecutionStatus status;
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+    private final Long durationMillis;
+    private final Integer retryAttempt;
+    private final String result;
+    private final String errorMessage;
+
+    public ExecutionSummary(Long id, Long taskId, String runId, TaskExecution.ExecutionStatus status,
+                            LocalDateTime startTime, LocalDateTime endTime, Long durationMillis,
+                            Integer retryAttempt, String result, String errorMessage) {
+        this.id = id;
+        this.taskId = taskId;
+        this.runId = runId;
+        this.status = status;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.durationMillis = durationMillis;
+        this.retryAttempt = retryAttempt;
+        this.result = result;
+        this.errorMessage = errorMessage;
+    }
+
+    public static ExecutionSummary of(TaskExecution execution) {
+        return new ExecutionSummary(execution.getId(), execution.getTask().getId(), execution.getRunId(),
+                execution.getStatus(), execution.getStartTime(), execution.getEndTime(),
+                execution.getDurationMillis(), execution.getRetryAttempt(), execution.getResult(),
+                execution.getErrorMessage());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public TaskExecution.ExecutionStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public Long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public Integer getRetryAttempt() {
+        return retryAttempt;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+}
@@ -0,0 +1,53 @@
+package com.eyesdawn.scheduledtask.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Upcoming fire times of one task; {@code resolvedExpression} is the expression its triggers
+ * use, with hashed fields and the spread window applied, and {@code truncated} is set when
+ * more fire times exist than were returned
+ */
+public class FireTimePreview {
+
+    private final Long taskId;
+    private final String name;
+    private final String cronExpression;
+    private final String resolvedExpression;
+    private final List<LocalDateTime> fireTimes;
+    private final boolean truncated;
+
+    public FireTimePreview(Long taskId, String name, String cronExpression, String resolvedExpression,
+                           List<LocalDateTime> fireTimes, boolean truncated) {
+        this.taskId = taskId;
+        this.name = name;
+        this.cronExpression = cronExpression;
+        this.resolvedExpression = resolvedExpression;
+        this.fireTimes = fireTimes;
+        this.truncated = truncated;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCronExpression() {
+        return cronExpression;
+    }
+
+    public String getResolvedExpression() {
+        return resolvedExpression;
+    }
+
+    public List<LocalDateTime> getFireTimes() {
+        return fireTimes;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+}
@@ -0,0 +1,77 @@
+package com.eyesdawn.scheduledtask.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Number of task fires in each second of a window; {@code fires[i]} counts the fires in the
+ * second starting {@code i} seconds after {@code from}
+ */
+public class LoadForecast {
+
+    private final LocalDateTime from;
+    private final int seconds;
+    private final long totalFires;
+    private final int peakFires;
+    private final List<SecondLoad> hotSpots;
+    private final int[] fires;
+
+    public LoadForecast(LocalDateTime from, int seconds, long totalFires, int peakFires, List<SecondLoad> hotSpots, int[] fires) {
+        this.from = from;
+        this.seconds = seconds;
+        this.totalFires = totalFires;
+        this.peakFires = peakFires;
+        this.hotSpots = hotSpots;
+        this.fires = fires;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public int getSeconds() {
+        return seconds;
+    }
+
+    public long getTotalFires() {
+        return totalFires;
+    }
+
+    public int getPeakFires() {
+        return peakFires;
+    }
+
+    public double getAverageFires() {
+        return seconds > 0 ? (double) totalFires / seconds : 0;
+    }
+
+    /**
+     * The busiest seconds, busiest first
+     */
+    public List<SecondLoad> getHotSpots() {
+        return hotSpots;
+    }
+
+    public int[] getFires() {
+        return fires;
+    }
+
+    public static class SecondLoad {
+
+        private final LocalDateTime time;
+        private final int fires;
+
+        public SecondLoad(LocalDateTime time, int fires) {
+            this.time = time;
+            this.fires = fires;
+        }
+
+        public LocalDateTime getTime() {
+            return time;
+        }
+
+        public int getFires() {
+            return fires;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.eyesdawn.scheduledtask.dto;
+
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Task columns a client can ask for by name with the {@code fields} parameter. Collections
+ * are not selectable, so a response never grows with a task's history.
+ */
+public final class TaskFields {
+
+    private static final Map<String, Function<ScheduledTask, Object>> ACCESSORS = new LinkedHashMap<>();
+
+    static {
+        ACCESSORS.put("id", ScheduledTask::getId);
+        ACCESSORS.put("name", ScheduledTask::getName);
+        ACCESSORS.put("description", ScheduledTask::getDescription);
+        ACCESSORS.put("cronExpression", ScheduledTask::getCronExpression);
+        ACCESSORS.put("jobClass", ScheduledTask::getJobClass);
+        ACCESSORS.put("jobData", ScheduledTask::getJobData);
+        ACCESSORS.put("status", ScheduledTask::getStatus);
+        ACCESSORS.put("retryCount", ScheduledTask::getRetryCount);
+        ACCESSORS.put("maxRetries", ScheduledTask::getMaxRetries);
+        ACCESSORS.put("timeoutSeconds", ScheduledTask::getTimeoutSeconds);
+        ACCESSORS.put("retryBackoff", ScheduledTask::getRetryBackoff);
+        ACCESSORS.put("retryDelaySeconds", ScheduledTask::getRetryDelaySeconds);
+        ACCESSORS.put("maxRetryDelaySeconds", ScheduledTask::getMaxRetryDelaySeconds);
+        ACCESSORS.put("triggerType", ScheduledTask::getTriggerType);
+        ACCESSORS.put("executionStore", ScheduledTask::getExecutionStore);
+        ACCESSORS.put("workflowTrigger", ScheduledTask::getWorkflowTrigger);
+        ACCESSORS.put("spreadSeconds", ScheduledTask::getSpreadSeconds);
+        ACCESSORS.put("maxConcurrent", ScheduledTask::getMaxConcurrent);
+        ACCESSORS.put("overlapPolicy", ScheduledTask::getOverlapPolicy);
+        ACCESSORS.put("resourceGroup", ScheduledTask::getResourceGroup);
+        ACCESSORS.put("retentionDays", ScheduledTask::getRetentionDays);
+        ACCESSORS.put("rollupGranularity", ScheduledTask::getRollupGranularity);
+        ACCESSORS.put("createdAt", ScheduledTask::getCreatedAt);
+        ACCESSORS.put("updatedAt", ScheduledTask::getUpdatedAt);
+    }
+
+    private TaskFields() {
+    }
+
+    /**
+     * @param fields Comma-separated field names
+     * @throws IllegalArgumentException If a name is not a selectable field
+     */
+    public static List<String> parse(String fields) {
+        List<String> names = new ArrayList<>();
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty() || names.contains(trimmed)) {
+                continue;
+            }
+            if (!ACCESSORS.containsKey(trimmed)) {
+                throw new IllegalArgumentException("Unknown task field: " + trimmed);
+            }
+            names.add(trimmed);
+        }
+        if (names.isEmpty()) {
+            throw new IllegalArgumentException("No task fields selected");
+        }
+        return names;
+    }
+
+    public static Map<String, Object> select(ScheduledTask task, List<String> fields) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String field : fields) {
+            values.put(field, ACCESSORS.get(field).apply(task));
+        }
+        return values;
+    }
+
+    /**
+     * The JPQL select list for the fields, with {@code t} as the task alias
+     */
+    public static String selectList(List<String> fields) {
+        return String.join(", ", fields.stream().map(field -> "t." + field).toList());
+    }
+}
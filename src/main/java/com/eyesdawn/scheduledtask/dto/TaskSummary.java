@@ -0,0 +1,71 @@
+package com.eyesdawn.scheduledtask.dto;
+
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns a task list needs, without the job data, the description or any of the
+ * task's executions and dependencies
+ */
+public class TaskSummary {
+
+    private final Long id;
+    private final String name;
+    private final String cronExpression;
+    private final ScheduledTask.TaskStatus status;
+    private final ScheduledTask.TriggerType triggerType;
+    private final ScheduledTask.ExecutionStore executionStore;
+    private final Boolean workflowTrigger;
+    private final LocalDateTime updatedAt;
+
+    public TaskSummary(Long id, String name, String cronExpression, ScheduledTask.TaskStatus status,
+                       ScheduledTask.TriggerType triggerType, ScheduledTask.ExecutionStore executionStore,
+                       Boolean workflowTrigger, LocalDateTime updatedAt) {
+        this.id = id;
+        this.name = name;
+        this.cronExpression = cronExpression;
+        this.status = status;
+        this.triggerType = triggerType;
+        this.executionStore = executionStore;
+        this.workflowTrigger = workflowTrigger;
+        this.updatedAt = updatedAt;
+    }
+
+    public static TaskSummary of(ScheduledTask task) {
+        return new TaskSummary(task.getId(), task.getName(), task.getCronExpression(), task.getStatus(),
+                task.getTriggerType(), task.getExecutionStore(), task.getWorkflowTrigger(), task.getUpdatedAt());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCronExpression() {
+        return cronExpression;
+    }
+
+    public ScheduledTask.TaskStatus getStatus() {
+        return status;
+    }
+
+    public ScheduledTask.TriggerType getTriggerType() {
+        return triggerType;
+    }
+
+    public ScheduledTask.ExecutionStore getExecutionStore() {
+        return executionStore;
+    }
+
+    public Boolean getWorkflowTrigger() {
+        return workflowTrigger;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
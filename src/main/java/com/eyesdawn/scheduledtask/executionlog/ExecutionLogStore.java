@@ -0,0 +1,260 @@
+package com.eyesdawn.scheduledtask.executionlog;
+
+import com.eyesdawn.scheduledtask.config.SchedulerProperties;
+import com.eyesdawn.scheduledtask.dto.ExecutionSummary;
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.model.TaskExecution;
+import com.eyesdawn.scheduledtask.repository.ScheduledTaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Execution records of tasks that use the {@link ScheduledTask.ExecutionStore#LOG} store.
+ * Each such task has a {@link TaskExecutionLog} in its own directory. A fire is held in memory
+ * while it runs and appended to the log once it finishes, so recording it touches neither the
+ * database nor the disk synchronously; appended records are forced to disk in the background.
+ */
+@Component
+public class ExecutionLogStore implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionLogStore.class);
+
+    /**
+     * Log execution ids start here: far above anything the task_executions sequence hands
+     * out, and still exact as a JavaScript number
+     */
+    public static final long FIRST_ID = 1L << 50;
+
+    private static final String TASK_DIRECTORY_PREFIX = "task-";
+
+    @Autowired
+    private ScheduledTaskRepository scheduledTaskRepository;
+
+    private final SchedulerProperties.ExecutionLog settings;
+    private final Path directory;
+    private final Set<Long> loggedTasks = ConcurrentHashMap.newKeySet();
+    private final Map<Long, TaskExecutionLog> logs = new ConcurrentHashMap<>();
+    private final Map<Long, TaskExecution> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(FIRST_ID);
+
+    private volatile boolean running = false;
+    private ScheduledExecutorService forcer;
+
+    public ExecutionLogStore(SchedulerProperties properties) {
+        this.settings = properties.getExecutionLog();
+        this.directory = Paths.get(settings.getDirectory());
+    }
+
+    /**
+     * Whether the task records its executions here rather than in task_executions
+     */
+    public boolean isLogged(Long taskId) {
+        return loggedTasks.contains(taskId);
+    }
+
+    /**
+     * Assign an id to a new execution and hold it until it completes
+     */
+    public TaskExecution started(TaskExecution execution) {
+        execution.setId(nextId.getAndIncrement());
+        inFlight.put(execution.getId(), execution);
+        return execution;
+    }
+
+    /**
+     * Hold an execution whose id was assigned by {@link #scheduled}, such as a retry that now starts
+     */
+    public TaskExecution resumed(TaskExecution execution) {
+        inFlight.put(execution.getId(), execution);
+        return execution;
+    }
+
+    /**
+     * Assign an id to a scheduled retry. Only finished executions are appended, so nothing is
+     * written until the retry has run.
+     */
+    public TaskExecution scheduled(TaskExecution execution) {
+        execution.setId(nextId.getAndIncrement());
+        return execution;
+    }
+
+    /**
+     * Remove and return an execution started through this store, or null if it was not
+     */
+    public TaskExecution takeInFlight(Long executionId) {
+        return inFlight.remove(executionId);
+    }
+
+    /**
+     * Append the final state of an execution returned by {@link #takeInFlight}
+     */
+    public TaskExecution completed(TaskExecution execution) {
+        Long taskId = execution.getTask().getId();
+        try {
+            getLog(taskId).append(ExecutionSummary.of(execution));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to append execution " + execution.getId() + " of task " + taskId, e);
+        }
+        return execution;
+    }
+
+    public TaskExecutionLog getLog(Long taskId) {
+        return logs.computeIfAbsent(taskId, id -> {
+            try {
+                return new TaskExecutionLog(taskDirectory(id), id,
+                        settings.getSegmentRecords(), settings.getSegmentPayloadBytes());
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to open the execution log of task " + id, e);
+            }
+        });
+    }
+
+    /**
+     * Start or stop logging the task's executions once the surrounding transaction commits.
+     * A task moved back to the database keeps its log on disk for when it is moved again.
+     */
+    public void taskSavedOnCommit(ScheduledTask task) {
+        Long taskId = task.getId();
+        boolean logged = task.getExecutionStore() == ScheduledTask.ExecutionStore.LOG;
+        afterCommit(() -> {
+            if (logged) {
+                loggedTasks.add(taskId);
+            } else {
+                loggedTasks.remove(taskId);
+            }
+        });
+    }
+
+    /**
+     * Delete the log of a deleted task once the surrounding transaction commits
+     */
+    public void removeTaskOnCommit(Long taskId) {
+        afterCommit(() -> {
+            loggedTasks.remove(taskId);
+            TaskExecutionLog log = logs.remove(taskId);
+            try {
+                if (log != null) {
+                    log.delete();
+                } else {
+                    TaskExecutionLog.deleteDirectory(taskDirectory(taskId));
+                }
+            } catch (IOException e) {
+                logger.warn("Failed to delete the execution log of task {}: {}", taskId, e.getMessage());
+            }
+        });
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private Path taskDirectory(Long taskId) {
+        return directory.resolve(TASK_DIRECTORY_PREFIX + taskId);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @Override
+    public void start() {
+        loggedTasks.addAll(scheduledTaskRepository.findIdsByExecutionStore(ScheduledTask.ExecutionStore.LOG));
+        try {
+            Files.createDirectories(directory);
+            Set<Long> existing = new HashSet<>(scheduledTaskRepository.findAllIds());
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, TASK_DIRECTORY_PREFIX + "*")) {
+                for (Path entry : entries) {
+                    Long taskId = Long.valueOf(entry.getFileName().toString().substring(TASK_DIRECTORY_PREFIX.length()));
+                    if (!existing.contains(taskId)) {
+                        // The task is gone, for example because the database was recreated
+                        TaskExecutionLog.deleteDirectory(entry);
+                    } else if (loggedTasks.contains(taskId)) {
+                        getLog(taskId);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open the execution log directory " + directory, e);
+        }
+
+        long maxId = FIRST_ID - 1;
+        for (TaskExecutionLog log : logs.values()) {
+            maxId = Math.max(maxId, log.maxId());
+        }
+        nextId.set(maxId + 1);
+        running = true;
+
+        if (settings.getForceIntervalMillis() > 0) {
+            forcer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "execution-log-force");
+                thread.setDaemon(true);
+                return thread;
+            });
+            forcer.scheduleWithFixedDelay(this::forceAll, settings.getForceIntervalMillis(),
+                    settings.getForceIntervalMillis(), TimeUnit.MILLISECONDS);
+        }
+        if (!logs.isEmpty()) {
+            logger.info("Opened execution logs of {} tasks", logs.size());
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (forcer != null) {
+            forcer.shutdownNow();
+        }
+        forceAll();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stop after the Quartz scheduler so fires that complete during shutdown are still forced
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 1000;
+    }
+
+    private void forceAll() {
+        for (TaskExecutionLog log : logs.values()) {
+            try {
+                log.force();
+            } catch (Exception e) {
+                logger.warn("Failed to force the execution log of task {}: {}", log.getTaskId(), e.getMessage());
+            }
+        }
+    }
+}
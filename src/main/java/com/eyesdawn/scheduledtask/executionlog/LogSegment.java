@@ -0,0 +1,356 @@
+package com.eyesdawn.scheduledtask.executionlog;
+
+import com.eyesdawn.scheduledtask.dto.ExecutionSummary;
+import com.eyesdawn.scheduledtask.model.TaskExecution;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * One file of a task's execution log, mapped into memory as a whole: a header, a region of
+ * fixed-size records in the order the executions finished, and a payload region holding the
+ * run id, result and error message each record points to.
+ * <p>
+ * Records are appended under the owning log's lock and published by advancing {@link #count},
+ * so a reader that reads the count first never sees a half-written record. Every block of
+ * {@link #BLOCK_RECORDS} records keeps the range of its start times and the statuses it holds;
+ * queries skip whole blocks with these instead of reading every record.
+ */
+final class LogSegment {
+
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 64;
+    static final int BLOCK_RECORDS = 1024;
+
+    static final long NO_TIME = Long.MIN_VALUE;
+
+    private static final int MAGIC = 0x584C4F47; // "XLOG"
+    private static final int VERSION = 1;
+
+    // Header layout
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_TASK_ID = 8;
+    private static final int HEADER_RECORD_CAPACITY = 16;
+    private static final int HEADER_PAYLOAD_CAPACITY = 20;
+    private static final int HEADER_COVERS_THROUGH = 24;
+
+    // Record layout; times are microseconds of the local date-time read as UTC
+    private static final int ID = 0;
+    private static final int TASK_ID = 8;
+    private static final int START = 16;
+    private static final int END = 24;
+    private static final int DURATION = 32;
+    private static final int PAYLOAD_OFFSET = 40;
+    private static final int RETRY_ATTEMPT = 48;
+    private static final int RUN_ID_LENGTH = 52;
+    private static final int RESULT_LENGTH = 54;
+    private static final int ERROR_LENGTH = 56;
+    private static final int STATUS = 58;
+    private static final int COMMITTED = 59;
+
+    private static final TaskExecution.ExecutionStatus[] STATUSES = TaskExecution.ExecutionStatus.values();
+
+    private final long number;
+    private final long taskId;
+    private final long coversThrough;
+    private final int recordCapacity;
+    private final int payloadCapacity;
+    private final int payloadBase;
+    private final MappedByteBuffer buffer;
+
+    private final long[] blockMinStart;
+    private final long[] blockMaxStart;
+    private final int[] blockStatuses;
+    // Latest start in this segment up to and including each block, and in all earlier segments
+    private final long[] blockLatestStart;
+    private final long priorLatestStart;
+
+    private volatile int count;
+    private int payloadPosition;
+    private int forcedCount;
+
+    private LogSegment(long number, long taskId, long coversThrough, int recordCapacity, int payloadCapacity,
+                       MappedByteBuffer buffer, long priorLatestStart) {
+        this.number = number;
+        this.taskId = taskId;
+        this.coversThrough = coversThrough;
+        this.recordCapacity = recordCapacity;
+        this.payloadCapacity = payloadCapacity;
+        this.payloadBase = HEADER_SIZE + recordCapacity * RECORD_SIZE;
+        this.buffer = buffer;
+        this.priorLatestStart = priorLatestStart;
+        int blocks = (recordCapacity + BLOCK_RECORDS - 1) / BLOCK_RECORDS;
+        this.blockMinStart = new long[blocks];
+        this.blockMaxStart = new long[blocks];
+        this.blockStatuses = new int[blocks];
+        this.blockLatestStart = new long[blocks];
+    }
+
+    static long fileSize(int recordCapacity, int payloadCapacity) {
+        return HEADER_SIZE + (long) recordCapacity * RECORD_SIZE + payloadCapacity;
+    }
+
+    /**
+     * Create and map a new empty segment file
+     * @param coversThrough Highest segment number whose records this one replaces; its own number when it replaces none
+     * @param priorLatestStart Latest start time in the segments before this one
+     */
+    static LogSegment create(Path path, long number, long taskId, int recordCapacity, int payloadCapacity,
+                             long coversThrough, long priorLatestStart) throws IOException {
+        long size = fileSize(recordCapacity, payloadCapacity);
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Execution log segments are limited to 2 GB, " + size + " bytes requested");
+        }
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Mapping past the end grows the file; the unwritten part stays sparse and reads as zeros
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        buffer.putInt(HEADER_MAGIC, MAGIC);
+        buffer.putInt(HEADER_VERSION, VERSION);
+        buffer.putLong(HEADER_TASK_ID, taskId);
+        buffer.putInt(HEADER_RECORD_CAPACITY, recordCapacity);
+        buffer.putInt(HEADER_PAYLOAD_CAPACITY, payloadCapacity);
+        buffer.putLong(HEADER_COVERS_THROUGH, coversThrough);
+        return new LogSegment(number, taskId, coversThrough, recordCapacity, payloadCapacity, buffer, priorLatestStart);
+    }
+
+    /**
+     * Map an existing segment file and find its end by scanning for the first record that was
+     * never committed, so a record torn by a crash is dropped
+     */
+    static LogSegment open(Path path, long number, long priorLatestStart) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(HEADER_MAGIC) != MAGIC
+                || buffer.getInt(HEADER_VERSION) != VERSION) {
+            throw new IOException("Not an execution log segment: " + path);
+        }
+        int recordCapacity = buffer.getInt(HEADER_RECORD_CAPACITY);
+        int payloadCapacity = buffer.getInt(HEADER_PAYLOAD_CAPACITY);
+        if (buffer.capacity() != fileSize(recordCapacity, payloadCapacity)) {
+            throw new IOException("Truncated execution log segment: " + path);
+        }
+        LogSegment segment = new LogSegment(number, buffer.getLong(HEADER_TASK_ID), buffer.getLong(HEADER_COVERS_THROUGH),
+                recordCapacity, payloadCapacity, buffer, priorLatestStart);
+
+        int count = 0;
+        int payloadEnd = 0;
+        while (count < recordCapacity && buffer.get(recordAt(count) + COMMITTED) != 0) {
+            int at = recordAt(count);
+            segment.indexRecord(count, buffer.getLong(at + START), buffer.get(at + STATUS));
+            payloadEnd = Math.max(payloadEnd, buffer.getInt(at + PAYLOAD_OFFSET) + segment.payloadLength(count));
+            count++;
+        }
+        segment.payloadPosition = payloadEnd;
+        segment.forcedCount = count;
+        segment.count = count;
+        return segment;
+    }
+
+    /**
+     * Append one record; the caller holds the log's lock
+     * @return false if the record or its payload does not fit, in which case nothing was written
+     */
+    boolean append(long id, int status, long start, long end, long durationMillis, int retryAttempt,
+                   byte[] runId, byte[] result, byte[] error) {
+        int index = count;
+        int payloadLength = runId.length + result.length + error.length;
+        if (index >= recordCapacity || payloadLength > payloadCapacity - payloadPosition) {
+            return false;
+        }
+        int payloadOffset = payloadPosition;
+        buffer.put(payloadBase + payloadOffset, runId);
+        buffer.put(payloadBase + payloadOffset + runId.length, result);
+        buffer.put(payloadBase + payloadOffset + runId.length + result.length, error);
+
+        int at = recordAt(index);
+        buffer.putLong(at + ID, id);
+        buffer.putLong(at + TASK_ID, taskId);
+        buffer.putLong(at + START, start);
+        buffer.putLong(at + END, end);
+        buffer.putLong(at + DURATION, durationMillis);
+        buffer.putInt(at + PAYLOAD_OFFSET, payloadOffset);
+        buffer.putInt(at + RETRY_ATTEMPT, retryAttempt);
+        buffer.putShort(at + RUN_ID_LENGTH, (short) runId.length);
+        buffer.putShort(at + RESULT_LENGTH, (short) result.length);
+        buffer.putShort(at + ERROR_LENGTH, (short) error.length);
+        buffer.put(at + STATUS, (byte) status);
+        // Written last: after a crash, recovery stops at the first record without it
+        buffer.put(at + COMMITTED, (byte) 1);
+
+        payloadPosition += payloadLength;
+        indexRecord(index, start, status);
+        count = index + 1;
+        return true;
+    }
+
+    /**
+     * Append a copy of a record of another segment, for compaction
+     */
+    boolean appendCopy(LogSegment source, int index) {
+        int at = recordAt(index);
+        MappedByteBuffer from = source.buffer;
+        int payloadOffset = source.payloadBase + from.getInt(at + PAYLOAD_OFFSET);
+        byte[] runId = new byte[from.getShort(at + RUN_ID_LENGTH) & 0xFFFF];
+        byte[] result = new byte[from.getShort(at + RESULT_LENGTH) & 0xFFFF];
+        byte[] error = new byte[from.getShort(at + ERROR_LENGTH) & 0xFFFF];
+        from.get(payloadOffset, runId);
+        from.get(payloadOffset + runId.length, result);
+        from.get(payloadOffset + runId.length + result.length, error);
+        return append(from.getLong(at + ID), from.get(at + STATUS), from.getLong(at + START), from.getLong(at + END),
+                from.getLong(at + DURATION), from.getInt(at + RETRY_ATTEMPT), runId, result, error);
+    }
+
+    private void indexRecord(int index, long start, int status) {
+        int block = index / BLOCK_RECORDS;
+        if (index % BLOCK_RECORDS == 0) {
+            blockMinStart[block] = start;
+            blockMaxStart[block] = start;
+            blockLatestStart[block] = Math.max(start, block > 0 ? blockLatestStart[block - 1] : priorLatestStart);
+        } else {
+            blockMinStart[block] = Math.min(blockMinStart[block], start);
+            blockMaxStart[block] = Math.max(blockMaxStart[block], start);
+            blockLatestStart[block] = Math.max(blockLatestStart[block], start);
+        }
+        blockStatuses[block] |= 1 << status;
+    }
+
+    /**
+     * Number of published records; read it before reading records or block bounds
+     */
+    int count() {
+        return count;
+    }
+
+    static int blockOf(int index) {
+        return index / BLOCK_RECORDS;
+    }
+
+    /**
+     * Whether the block may hold a record started within [from, to] in one of the statuses
+     */
+    boolean blockMayMatch(int block, long from, long to, int statusMask) {
+        return blockMaxStart[block] >= from && blockMinStart[block] <= to && (blockStatuses[block] & statusMask) != 0;
+    }
+
+    /**
+     * Latest start time of any record up to the end of the block, including earlier segments
+     */
+    long latestStartThrough(int block) {
+        return blockLatestStart[block];
+    }
+
+    /**
+     * Latest start time of any record in this segment or the ones before it
+     */
+    long latestStart() {
+        int count = this.count;
+        return count == 0 ? priorLatestStart : blockLatestStart[blockOf(count - 1)];
+    }
+
+    long priorLatestStart() {
+        return priorLatestStart;
+    }
+
+    long id(int index) {
+        return buffer.getLong(recordAt(index) + ID);
+    }
+
+    long start(int index) {
+        return buffer.getLong(recordAt(index) + START);
+    }
+
+    int status(int index) {
+        return buffer.get(recordAt(index) + STATUS);
+    }
+
+    int payloadLength(int index) {
+        int at = recordAt(index);
+        return (buffer.getShort(at + RUN_ID_LENGTH) & 0xFFFF) + (buffer.getShort(at + RESULT_LENGTH) & 0xFFFF)
+                + (buffer.getShort(at + ERROR_LENGTH) & 0xFFFF);
+    }
+
+    ExecutionSummary read(int index) {
+        int at = recordAt(index);
+        int payloadOffset = payloadBase + buffer.getInt(at + PAYLOAD_OFFSET);
+        int runIdLength = buffer.getShort(at + RUN_ID_LENGTH) & 0xFFFF;
+        int resultLength = buffer.getShort(at + RESULT_LENGTH) & 0xFFFF;
+        int errorLength = buffer.getShort(at + ERROR_LENGTH) & 0xFFFF;
+        long duration = buffer.getLong(at + DURATION);
+        return new ExecutionSummary(buffer.getLong(at + ID), buffer.getLong(at + TASK_ID),
+                readString(payloadOffset, runIdLength),
+                STATUSES[buffer.get(at + STATUS)],
+                toTime(buffer.getLong(at + START)),
+                toTime(buffer.getLong(at + END)),
+                duration >= 0 ? duration : null,
+                buffer.getInt(at + RETRY_ATTEMPT),
+                readString(payloadOffset + runIdLength, resultLength),
+                readString(payloadOffset + runIdLength + resultLength, errorLength));
+    }
+
+    private String readString(int offset, int length) {
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write appended records back to the file if any were added since the last call
+     */
+    void forceIfDirty() {
+        int count = this.count;
+        if (count != forcedCount) {
+            buffer.force();
+            forcedCount = count;
+        }
+    }
+
+    long number() {
+        return number;
+    }
+
+    long taskId() {
+        return taskId;
+    }
+
+    long coversThrough() {
+        return coversThrough;
+    }
+
+    int payloadUsed() {
+        return payloadPosition;
+    }
+
+    private static int recordAt(int index) {
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+
+    static long toMicros(LocalDateTime time) {
+        if (time == null) {
+            return NO_TIME;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    static LocalDateTime toTime(long micros) {
+        if (micros == NO_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
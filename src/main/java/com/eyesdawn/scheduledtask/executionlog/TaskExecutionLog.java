@@ -0,0 +1,458 @@
+package com.eyesdawn.scheduledtask.executionlog;
+
+import com.eyesdawn.scheduledtask.dto.ExecutionSummary;
+import com.eyesdawn.scheduledtask.model.TaskExecution;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Append-only execution history of one task, kept in a directory of memory-mapped
+ * {@link LogSegment} files instead of one database row per fire. Finished executions are
+ * appended to the newest segment; when it is full a new one is started. Older segments are
+ * only ever replaced as a whole by {@link #compact}.
+ * <p>
+ * Records are in the order the executions finished, which is close to but not exactly the
+ * order they started. Newest-first queries therefore walk the blocks backwards, skip those
+ * whose start times or statuses cannot match, and stop once no earlier block can hold a
+ * start time later than the page found so far.
+ */
+public class TaskExecutionLog {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    // Same limit as the task_executions columns
+    private static final int MAX_TEXT_LENGTH = 2000;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private static final Comparator<Hit> NEWEST_LAST = Comparator.<Hit>comparingLong(hit -> hit.start)
+            .thenComparingLong(hit -> hit.id);
+
+    private final Path directory;
+    private final long taskId;
+    private final int recordCapacity;
+    private final int payloadCapacity;
+    private final Object compactionLock = new Object();
+
+    // Oldest first; the last segment takes appends. Replaced as a whole under this object's lock
+    private volatile List<LogSegment> segments;
+
+    public TaskExecutionLog(Path directory, long taskId, int recordCapacity, int payloadCapacity) throws IOException {
+        this.directory = directory;
+        this.taskId = taskId;
+        this.recordCapacity = recordCapacity;
+        this.payloadCapacity = payloadCapacity;
+        Files.createDirectories(directory);
+
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    // Left by a compaction that did not finish; the segments it read are still in place
+                    Files.delete(entry);
+                } else if (name.endsWith(SEGMENT_SUFFIX)) {
+                    files.put(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())), entry);
+                }
+            }
+        }
+
+        List<LogSegment> opened = new ArrayList<>();
+        long coveredThrough = -1;
+        long latestStart = LogSegment.NO_TIME;
+        for (var file : files.entrySet()) {
+            if (file.getKey() <= coveredThrough) {
+                // Already copied into a compacted segment before a crash stopped its removal
+                Files.delete(file.getValue());
+                continue;
+            }
+            LogSegment segment = LogSegment.open(file.getValue(), file.getKey(), latestStart);
+            if (segment.taskId() != taskId) {
+                throw new IOException("Segment " + file.getValue() + " belongs to task " + segment.taskId());
+            }
+            opened.add(segment);
+            coveredThrough = Math.max(coveredThrough, segment.coversThrough());
+            latestStart = segment.latestStart();
+        }
+        if (opened.isEmpty()) {
+            opened.add(LogSegment.create(segmentPath(0), 0, taskId, recordCapacity, payloadCapacity, 0, LogSegment.NO_TIME));
+        }
+        this.segments = opened;
+    }
+
+    /**
+     * Append a finished execution. Result and error message are cut to the same length as
+     * the database columns.
+     */
+    public void append(ExecutionSummary execution) throws IOException {
+        byte[] runId = encode(execution.getRunId());
+        byte[] result = encode(execution.getResult());
+        byte[] error = encode(execution.getErrorMessage());
+        int status = execution.getStatus().ordinal();
+        long start = LogSegment.toMicros(execution.getStartTime());
+        long end = LogSegment.toMicros(execution.getEndTime());
+        long duration = execution.getDurationMillis() != null ? execution.getDurationMillis() : -1;
+        int retryAttempt = execution.getRetryAttempt() != null ? execution.getRetryAttempt() : 0;
+
+        synchronized (this) {
+            LogSegment active = segments.get(segments.size() - 1);
+            if (active.append(execution.getId(), status, start, end, duration, retryAttempt, runId, result, error)) {
+                return;
+            }
+            LogSegment next = LogSegment.create(segmentPath(active.number() + 1), active.number() + 1, taskId,
+                    recordCapacity, payloadCapacity, active.number() + 1, active.latestStart());
+            if (!next.append(execution.getId(), status, start, end, duration, retryAttempt, runId, result, error)) {
+                throw new IOException("Execution " + execution.getId() + " does not fit into an empty segment");
+            }
+            List<LogSegment> updated = new ArrayList<>(segments);
+            updated.add(next);
+            segments = updated;
+        }
+    }
+
+    /**
+     * Executions started within [from, before], newest first by start time and then id,
+     * skipping those started at {@code before} whose id is not below {@code beforeId}; the
+     * same contract as the keyset query on task_executions
+     *
+     * @param status Only executions in this status, or null for all
+     */
+    public List<ExecutionSummary> findPageBefore(TaskExecution.ExecutionStatus status, LocalDateTime from,
+                                                 LocalDateTime before, long beforeId, int limit) {
+        long fromMicros = LogSegment.toMicros(from);
+        long beforeMicros = LogSegment.toMicros(before);
+        int statusMask = statusMask(status);
+
+        // The best matches so far, the one to give up first at the head
+        PriorityQueue<Hit> page = new PriorityQueue<>(limit + 1, NEWEST_LAST);
+        List<LogSegment> snapshot = segments;
+        scan:
+        for (int s = snapshot.size() - 1; s >= 0; s--) {
+            LogSegment segment = snapshot.get(s);
+            int count = segment.count();
+            if (count == 0) {
+                continue;
+            }
+            for (int block = LogSegment.blockOf(count - 1); block >= 0; block--) {
+                long latest = segment.latestStartThrough(block);
+                if (latest < fromMicros || (page.size() == limit && latest < page.peek().start)) {
+                    // Nothing from here back started late enough
+                    break scan;
+                }
+                if (!segment.blockMayMatch(block, fromMicros, beforeMicros, statusMask)) {
+                    continue;
+                }
+                int first = block * LogSegment.BLOCK_RECORDS;
+                for (int i = Math.min(count, first + LogSegment.BLOCK_RECORDS) - 1; i >= first; i--) {
+                    long start = segment.start(i);
+                    if (start < fromMicros || start > beforeMicros || (statusMask & (1 << segment.status(i))) == 0) {
+                        continue;
+                    }
+                    long id = segment.id(i);
+                    if (start == beforeMicros && id >= beforeId) {
+                        continue;
+                    }
+                    if (page.size() < limit) {
+                        page.add(new Hit(start, id, segment, i));
+                    } else if (start > page.peek().start || (start == page.peek().start && id > page.peek().id)) {
+                        page.poll();
+                        page.add(new Hit(start, id, segment, i));
+                    }
+                }
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(page);
+        hits.sort(NEWEST_LAST.reversed());
+        List<ExecutionSummary> rows = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            rows.add(hit.segment.read(hit.index));
+        }
+        return rows;
+    }
+
+    /**
+     * Executions started within [from, to] in the order they finished
+     *
+     * @param status Only executions in this status, or null for all
+     * @param from   Earliest start time, inclusive, or null
+     * @param to     Latest start time, inclusive, or null
+     */
+    public Iterator<ExecutionSummary> scan(TaskExecution.ExecutionStatus status, LocalDateTime from, LocalDateTime to) {
+        return new ScanIterator(segments, statusMask(status),
+                from != null ? LogSegment.toMicros(from) : Long.MIN_VALUE,
+                to != null ? LogSegment.toMicros(to) : Long.MAX_VALUE);
+    }
+
+    /**
+     * Number of executions in the log
+     */
+    public long size() {
+        long size = 0;
+        for (LogSegment segment : segments) {
+            size += segment.count();
+        }
+        return size;
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Highest execution id in the log, or -1 when it is empty
+     */
+    public long maxId() {
+        long max = -1;
+        for (LogSegment segment : segments) {
+            int count = segment.count();
+            for (int i = 0; i < count; i++) {
+                max = Math.max(max, segment.id(i));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Drop the records started before the cutoff from all but the newest segment, and merge
+     * neighbouring segments whose remaining records fit into one. Each group is rewritten into
+     * a temporary file that atomically replaces its first segment, so a crash at any point
+     * leaves either the old or the new records, never both and never neither.
+     * Appends carry on meanwhile; queries see the old segments until the new one is in place.
+     *
+     * @param cutoff  Records started before this are dropped, or null to only merge
+     * @param expired Receives every dropped record
+     * @return The number of records dropped
+     */
+    public long compact(LocalDateTime cutoff, Consumer<ExecutionSummary> expired) throws IOException {
+        long cutoffMicros = cutoff != null ? LogSegment.toMicros(cutoff) : Long.MIN_VALUE;
+        synchronized (compactionLock) {
+            List<LogSegment> snapshot = segments;
+            List<List<LogSegment>> groups = new ArrayList<>();
+            List<LogSegment> group = new ArrayList<>();
+            long groupRecords = 0;
+            long groupPayload = 0;
+            boolean groupShrinks = false;
+            for (LogSegment segment : snapshot.subList(0, snapshot.size() - 1)) {
+                int count = segment.count();
+                long live = 0;
+                long livePayload = 0;
+                for (int i = 0; i < count; i++) {
+                    if (segment.start(i) >= cutoffMicros) {
+                        live++;
+                        livePayload += segment.payloadLength(i);
+                    }
+                }
+                if (!group.isEmpty() && (groupRecords + live > recordCapacity || groupPayload + livePayload > payloadCapacity)) {
+                    if (groupShrinks || group.size() > 1) {
+                        groups.add(group);
+                    }
+                    group = new ArrayList<>();
+                    groupRecords = 0;
+                    groupPayload = 0;
+                    groupShrinks = false;
+                }
+                group.add(segment);
+                groupRecords += live;
+                groupPayload += livePayload;
+                groupShrinks |= live < count;
+            }
+            if (groupShrinks || group.size() > 1) {
+                groups.add(group);
+            }
+
+            long dropped = 0;
+            for (List<LogSegment> candidates : groups) {
+                dropped += rewrite(candidates, cutoffMicros, expired);
+            }
+            return dropped;
+        }
+    }
+
+    private long rewrite(List<LogSegment> group, long cutoffMicros, Consumer<ExecutionSummary> expired) throws IOException {
+        LogSegment first = group.get(0);
+        LogSegment last = group.get(group.size() - 1);
+        Path temp = directory.resolve(segmentName(first.number()) + TEMP_SUFFIX);
+        LogSegment merged = null;
+        long dropped = 0;
+        for (LogSegment segment : group) {
+            int count = segment.count();
+            for (int i = 0; i < count; i++) {
+                if (segment.start(i) < cutoffMicros) {
+                    expired.accept(segment.read(i));
+                    dropped++;
+                    continue;
+                }
+                if (merged == null) {
+                    merged = LogSegment.create(temp, first.number(), taskId, recordCapacity, payloadCapacity,
+                            last.number(), first.priorLatestStart());
+                }
+                if (!merged.appendCopy(segment, i)) {
+                    throw new IOException("Compacted segment " + first.number() + " overflowed");
+                }
+            }
+        }
+
+        if (merged != null) {
+            merged.forceIfDirty();
+            Files.move(temp, segmentPath(first.number()), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } else {
+            Files.delete(segmentPath(first.number()));
+        }
+        for (LogSegment segment : group.subList(1, group.size())) {
+            Files.deleteIfExists(segmentPath(segment.number()));
+        }
+
+        synchronized (this) {
+            List<LogSegment> updated = new ArrayList<>(segments);
+            int at = updated.indexOf(first);
+            updated.subList(at, at + group.size()).clear();
+            if (merged != null) {
+                updated.add(at, merged);
+            }
+            segments = updated;
+        }
+        return dropped;
+    }
+
+    /**
+     * Write appended records back to their files
+     */
+    public void force() {
+        for (LogSegment segment : segments) {
+            segment.forceIfDirty();
+        }
+    }
+
+    /**
+     * Remove every segment file and the directory. Mappings already handed to readers stay
+     * valid until they are garbage collected.
+     */
+    public synchronized void delete() throws IOException {
+        for (LogSegment segment : segments) {
+            Files.deleteIfExists(segmentPath(segment.number()));
+        }
+        deleteDirectory(directory);
+    }
+
+    /**
+     * Remove a log directory that is not open, such as one left behind by a deleted task
+     */
+    public static void deleteDirectory(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                Files.delete(entry);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    public long getTaskId() {
+        return taskId;
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(segmentName(number) + SEGMENT_SUFFIX);
+    }
+
+    private static String segmentName(long number) {
+        return String.format("%020d", number);
+    }
+
+    private static int statusMask(TaskExecution.ExecutionStatus status) {
+        return status != null ? 1 << status.ordinal() : -1;
+    }
+
+    private static byte[] encode(String text) {
+        if (text == null || text.isEmpty()) {
+            return EMPTY;
+        }
+        if (text.length() > MAX_TEXT_LENGTH) {
+            text = text.substring(0, MAX_TEXT_LENGTH);
+        }
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class Hit {
+        private final long start;
+        private final long id;
+        private final LogSegment segment;
+        private final int index;
+
+        private Hit(long start, long id, LogSegment segment, int index) {
+            this.start = start;
+            this.id = id;
+            this.segment = segment;
+            this.index = index;
+        }
+    }
+
+    private static final class ScanIterator implements Iterator<ExecutionSummary> {
+        private final List<LogSegment> segments;
+        private final int statusMask;
+        private final long from;
+        private final long to;
+        private int segmentIndex;
+        private int recordIndex;
+        private ExecutionSummary next;
+
+        private ScanIterator(List<LogSegment> segments, int statusMask, long from, long to) {
+            this.segments = segments;
+            this.statusMask = statusMask;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && segmentIndex < segments.size()) {
+                LogSegment segment = segments.get(segmentIndex);
+                int count = segment.count();
+                if (recordIndex >= count) {
+                    segmentIndex++;
+                    recordIndex = 0;
+                    continue;
+                }
+                int block = LogSegment.blockOf(recordIndex);
+                if (recordIndex % LogSegment.BLOCK_RECORDS == 0 && !segment.blockMayMatch(block, from, to, statusMask)) {
+                    recordIndex += LogSegment.BLOCK_RECORDS;
+                    continue;
+                }
+                int index = recordIndex++;
+                long start = segment.start(index);
+                if (start >= from && start <= to && (statusMask & (1 << segment.status(index))) != 0) {
+                    next = segment.read(index);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public ExecutionSummary next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ExecutionSummary row = next;
+            next = null;
+            return row;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.eyesdawn.scheduledtask.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Checking a task's upstream tasks, when it is started or when a workflow run reaches it
+ */
+@Name("com.eyesdawn.scheduledtask.DependencyCheck")
+@Label("Dependency Check")
+@Category({"Scheduled Task", "Dependencies"})
+@Description("Check of whether a task's dependencies are satisfied")
+public class DependencyCheckEvent extends jdk.jfr.Event {
+
+    @Label("Task Id")
+    public long taskId;
+
+    @Label("Run Id")
+    @Description("The workflow run, or null when the task is being started")
+    public String runId;
+
+    @Label("Dependencies")
+    public int dependencies;
+
+    @Label("Satisfied")
+    public boolean satisfied;
+}
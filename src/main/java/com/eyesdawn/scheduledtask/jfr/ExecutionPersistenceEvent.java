@@ -0,0 +1,25 @@
+package com.eyesdawn.scheduledtask.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One execution persistence call made for a fire, including its commit
+ */
+@Name("com.eyesdawn.scheduledtask.ExecutionPersistence")
+@Label("Execution Persistence")
+@Category({"Scheduled Task", "Job Lifecycle"})
+@Description("Recording the start or outcome of an execution")
+public class ExecutionPersistenceEvent extends jdk.jfr.Event {
+
+    @Label("Task Id")
+    public long taskId;
+
+    @Label("Execution Id")
+    public long executionId;
+
+    @Label("Operation")
+    public String operation;
+}
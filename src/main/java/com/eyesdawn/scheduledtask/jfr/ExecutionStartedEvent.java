@@ -0,0 +1,25 @@
+package com.eyesdawn.scheduledtask.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The execution of a fire is recorded and its job is about to start
+ */
+@Name("com.eyesdawn.scheduledtask.ExecutionStarted")
+@Label("Execution Started")
+@Category({"Scheduled Task", "Job Lifecycle"})
+@Description("An execution was recorded as running")
+public class ExecutionStartedEvent extends jdk.jfr.Event {
+
+    @Label("Task Id")
+    public long taskId;
+
+    @Label("Execution Id")
+    public long executionId;
+
+    @Label("Retry Attempt")
+    public int retryAttempt;
+}
@@ -0,0 +1,33 @@
+package com.eyesdawn.scheduledtask.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The job body of one execution, from being started to its outcome. It is committed by the
+ * thread that records the outcome, which for asynchronous jobs is not the one that started it.
+ */
+@Name("com.eyesdawn.scheduledtask.JobRun")
+@Label("Job Run")
+@Category({"Scheduled Task", "Job Lifecycle"})
+@Description("Run of a job body")
+public class JobRunEvent extends jdk.jfr.Event {
+
+    // Lets callers check for a recording before allocating an event that outlives the call
+    private static final JobRunEvent PROBE = new JobRunEvent();
+
+    @Label("Task Id")
+    public long taskId;
+
+    @Label("Execution Id")
+    public long executionId;
+
+    @Label("Status")
+    public String status;
+
+    public static boolean enabled() {
+        return PROBE.isEnabled();
+    }
+}
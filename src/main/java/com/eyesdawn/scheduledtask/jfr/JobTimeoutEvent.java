@@ -0,0 +1,27 @@
+package com.eyesdawn.scheduledtask.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A job ran past its task's timeout and was cancelled
+ */
+@Name("com.eyesdawn.scheduledtask.JobTimeout")
+@Label("Job Timeout")
+@Category({"Scheduled Task", "Job Lifecycle"})
+@Description("A job exceeded its timeout")
+public class JobTimeoutEvent extends jdk.jfr.Event {
+
+    @Label("Task Id")
+    public long taskId;
+
+    @Label("Execution Id")
+    public long executionId;
+
+    @Label("Timeout")
+    @Timespan(Timespan.SECONDS)
+    public long timeout;
+}
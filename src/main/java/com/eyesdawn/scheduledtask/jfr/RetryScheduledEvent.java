@@ -0,0 +1,34 @@
+package com.eyesdawn.scheduledtask.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A failed execution got another attempt
+ */
+@Name("com.eyesdawn.scheduledtask.RetryScheduled")
+@Label("Retry Scheduled")
+@Category({"Scheduled Task", "Job Lifecycle"})
+@Description("A retry of a failed execution was scheduled")
+public class RetryScheduledEvent extends jdk.jfr.Event {
+
+    @Label("Task Id")
+    public long taskId;
+
+    @Label("Execution Id")
+    @Description("The failed execution")
+    public long executionId;
+
+    @Label("Retry Execution Id")
+    public long retryExecutionId;
+
+    @Label("Retry Attempt")
+    public int retryAttempt;
+
+    @Label("Delay")
+    @Timespan(Timespan.MILLISECONDS)
+    public long delay;
+}
@@ -0,0 +1,36 @@
+package com.eyesdawn.scheduledtask.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+import jdk.jfr.Timestamp;
+
+/**
+ * A trigger handed a task to its job, before the execution is recorded
+ */
+@Name("com.eyesdawn.scheduledtask.TriggerFired")
+@Label("Trigger Fired")
+@Category({"Scheduled Task", "Job Lifecycle"})
+@Description("A trigger fired a task")
+public class TriggerFiredEvent extends jdk.jfr.Event {
+
+    @Label("Task Id")
+    public long taskId;
+
+    @Label("Task Name")
+    public String taskName;
+
+    @Label("Scheduled Fire Time")
+    @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+    public long scheduledFireTime;
+
+    @Label("Lag")
+    @Description("Delay between the scheduled fire time and the job being called")
+    @Timespan(Timespan.MILLISECONDS)
+    public long lag;
+
+    @Label("Run Id")
+    public String runId;
+}
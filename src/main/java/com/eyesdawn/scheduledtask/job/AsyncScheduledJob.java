@@ -0,0 +1,26 @@
+package com.eyesdawn.scheduledtask.job;
+
+import org.quartz.JobExecutionContext;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Base class for non-blocking jobs. The Quartz worker thread returns as soon as the job has
+ * started; timeout handling and completion recording run from callbacks on the returned stage,
+ * so thousands of fires can be in flight with a small trigger-firing pool.
+ */
+public abstract class AsyncScheduledJob extends ScheduledJobSupport {
+
+    /**
+     * Subclasses must implement this method to start their job without blocking
+     * @param context The job execution context
+     * @return A stage that completes with the result of the job execution
+     */
+    @Override
+    protected abstract CompletionStage<String> executeJobAsync(JobExecutionContext context);
+
+    @Override
+    protected final boolean releasesWorkerThread() {
+        return true;
+    }
+}
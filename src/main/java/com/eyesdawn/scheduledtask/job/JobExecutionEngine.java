@@ -0,0 +1,180 @@
+package com.eyesdawn.scheduledtask.job;
+
+import com.eyesdawn.scheduledtask.config.SchedulerProperties;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs job bodies for {@link ScheduledJobSupport}. The default engine starts one virtual
+ * thread per fire so that slow, I/O-bound jobs never starve each other or the common pool.
+ * Completion callbacks, which record outcomes, run on a small pool of their own.
+ */
+@Component
+public class JobExecutionEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobExecutionEngine.class);
+
+    private final ExecutorService executor;
+    private final SchedulerProperties.EngineType engineType;
+    private final ScheduledExecutorService timeoutScheduler;
+    private final ExecutorService callbackExecutor;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public JobExecutionEngine(SchedulerProperties properties) {
+        SchedulerProperties.Execution execution = properties.getExecution();
+        ExecutorService virtualExecutor = null;
+        if (execution.getEngine() == SchedulerProperties.EngineType.VIRTUAL) {
+            virtualExecutor = newVirtualThreadExecutor();
+            if (virtualExecutor == null) {
+                logger.warn("Virtual threads are not available on Java {}, falling back to a platform pool of {} threads",
+                        Runtime.version().feature(), execution.getPoolSize());
+            }
+        }
+
+        if (virtualExecutor != null) {
+            this.executor = virtualExecutor;
+            this.engineType = SchedulerProperties.EngineType.VIRTUAL;
+        } else {
+            this.executor = newPlatformExecutor(execution.getPoolSize(), execution.getQueueCapacity());
+            this.engineType = SchedulerProperties.EngineType.PLATFORM;
+        }
+        this.timeoutScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "job-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.callbackExecutor = newCallbackExecutor(execution.getCallbackThreads());
+        logger.info("Job execution engine started: {}", engineType);
+    }
+
+    /**
+     * Submit a job body. Cancelling the returned future interrupts the thread running it.
+     */
+    public CompletableFuture<String> submit(Callable<String> body) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            try {
+                future.complete(body.call());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        future.whenComplete((result, error) -> {
+            if (error instanceof CancellationException || error instanceof TimeoutException) {
+                task.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Track a running fire until it completes, failing it with a {@link TimeoutException}
+     * once the timeout elapses. No thread waits on the future while it is in flight.
+     */
+    public <T> CompletableFuture<T> watch(CompletableFuture<T> future, long timeoutSeconds) {
+        inFlight.incrementAndGet();
+        ScheduledFuture<?> timer = null;
+        if (timeoutSeconds > 0) {
+            timer = timeoutScheduler.schedule(
+                    () -> future.completeExceptionally(new TimeoutException("Task timed out after " + timeoutSeconds + " seconds")),
+                    timeoutSeconds, TimeUnit.SECONDS);
+        }
+        ScheduledFuture<?> pendingTimer = timer;
+        future.whenComplete((result, error) -> {
+            inFlight.decrementAndGet();
+            if (pendingTimer != null) {
+                pendingTimer.cancel(false);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Executor for completion callbacks, so that timeouts and third-party I/O threads never run persistence work.
+     * Its queue is unbounded, so a callback is never run by the thread that completed the fire, and it never
+     * waits behind queued job bodies.
+     */
+    public Executor getCallbackExecutor() {
+        return callbackExecutor;
+    }
+
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+
+    public SchedulerProperties.EngineType getEngineType() {
+        return engineType;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timeoutScheduler.shutdownNow();
+        executor.shutdownNow();
+        callbackExecutor.shutdownNow();
+    }
+
+    /**
+     * Bounded platform pool; when the queue is full the firing thread runs the job itself,
+     * which pushes back on Quartz instead of dropping fires.
+     */
+    public static ExecutorService newPlatformExecutor(int poolSize, int queueCapacity) {
+        return newPlatformExecutor("job-exec-", poolSize, queueCapacity, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Bounded platform pool of daemon threads that hands work it has no room for to {@code whenFull}
+     */
+    public static ExecutorService newPlatformExecutor(String threadPrefix, int poolSize, int queueCapacity,
+                                                      RejectedExecutionHandler whenFull) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, threadPrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, whenFull);
+    }
+
+    private static ExecutorService newCallbackExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "job-callback-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Looked up reflectively so the project still builds and runs on Java 17.
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
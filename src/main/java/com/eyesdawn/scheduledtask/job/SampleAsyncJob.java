@@ -0,0 +1,27 @@
+package com.eyesdawn.scheduledtask.job;
+
+import org.quartz.JobExecutionContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class SampleAsyncJob extends AsyncScheduledJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(SampleAsyncJob.class);
+
+    @Override
+    protected CompletionStage<String> executeJobAsync(JobExecutionContext context) {
+        String jobData = context.getJobDetail().getJobDataMap().getString("jobData");
+        logger.info("Executing sample async job with data: {}", jobData);
+
+        // Simulate a non-blocking call that answers after two seconds without holding a thread
+        return CompletableFuture.supplyAsync(
+                () -> "Sample async job completed successfully at " + java.time.LocalDateTime.now(),
+                CompletableFuture.delayedExecutor(2, TimeUnit.SECONDS, Runnable::run));
+    }
+}
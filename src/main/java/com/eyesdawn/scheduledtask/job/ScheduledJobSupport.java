@@ -0,0 +1,289 @@
+package com.eyesdawn.scheduledtask.job;
+
+import com.eyesdawn.scheduledtask.cache.TaskDefinitionCache;
+import com.eyesdawn.scheduledtask.concurrency.BulkheadRegistry;
+import com.eyesdawn.scheduledtask.jfr.ExecutionPersistenceEvent;
+import com.eyesdawn.scheduledtask.jfr.ExecutionStartedEvent;
+import com.eyesdawn.scheduledtask.jfr.JobRunEvent;
+import com.eyesdawn.scheduledtask.jfr.JobTimeoutEvent;
+import com.eyesdawn.scheduledtask.jfr.TriggerFiredEvent;
+import com.eyesdawn.scheduledtask.metrics.SchedulerMetrics;
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.model.TaskExecution;
+import com.eyesdawn.scheduledtask.service.RetryScheduler;
+import com.eyesdawn.scheduledtask.service.TaskExecutionService;
+import com.eyesdawn.scheduledtask.service.WorkflowCoordinator;
+import org.quartz.InterruptableJob;
+import org.quartz.JobDataMap;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.UnableToInterruptJobException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The life of one fire, shared by every job: concurrency admission, the execution record,
+ * the timeout, metrics and JFR events, and recording the outcome from a completion callback.
+ * Jobs extend {@link BaseScheduledJob} to run a blocking body or {@link AsyncScheduledJob}
+ * to return a non-blocking stage.
+ */
+public abstract class ScheduledJobSupport implements InterruptableJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledJobSupport.class);
+
+    @Autowired
+    private TaskExecutionService taskExecutionService;
+
+    @Autowired
+    private JobExecutionEngine jobExecutionEngine;
+
+    @Autowired
+    private SchedulerMetrics schedulerMetrics;
+
+    @Autowired
+    private TaskDefinitionCache taskDefinitionCache;
+
+    @Autowired
+    private BulkheadRegistry bulkheads;
+
+    private volatile boolean interrupted = false;
+    private volatile CompletableFuture<String> executionFuture;
+
+    @Override
+    public final void execute(JobExecutionContext context) throws JobExecutionException {
+        Long taskId = context.getJobDetail().getJobDataMap().getLong("taskId");
+        Long timeoutSeconds = context.getJobDetail().getJobDataMap().getLong("timeoutSeconds");
+        String taskName = context.getJobDetail().getKey().getName();
+        JobDataMap mergedData = context.getMergedJobDataMap();
+        // Manual runs have no scheduled fire time, so their lag is measured from the fire itself;
+        // a fire that waited for a concurrency permit keeps the time of the fire it replaces
+        long scheduledMillis = mergedData.containsKey(BulkheadRegistry.QUEUED_FIRE_TIME)
+                ? mergedData.getLong(BulkheadRegistry.QUEUED_FIRE_TIME)
+                : (context.getScheduledFireTime() != null ? context.getScheduledFireTime() : context.getFireTime()).getTime();
+        SchedulerMetrics.TaskMeters meters = schedulerMetrics.forTask(taskId, taskName);
+
+        String runId = mergedData.getString(WorkflowCoordinator.RUN_ID);
+        TriggerFiredEvent fired = new TriggerFiredEvent();
+        if (fired.shouldCommit()) {
+            fired.taskId = taskId;
+            fired.taskName = taskName;
+            fired.scheduledFireTime = scheduledMillis;
+            fired.lag = System.currentTimeMillis() - scheduledMillis;
+            fired.runId = runId;
+            fired.commit();
+        }
+
+        boolean retry = mergedData.containsKey(RetryScheduler.RETRY_EXECUTION_ID);
+        ScheduledTask task = taskDefinitionCache.get(taskId).orElse(null);
+        BulkheadRegistry.Admission admission = task != null
+                ? bulkheads.admit(task, context.getTrigger().getJobDataMap(), scheduledMillis)
+                : BulkheadRegistry.UNLIMITED;
+        if (admission.getOutcome() == BulkheadRegistry.Outcome.QUEUED) {
+            logger.info("Task {} waits for a concurrency permit", taskId);
+            return;
+        }
+        if (admission.getOutcome() == BulkheadRegistry.Outcome.REJECTED) {
+            logger.info("Task {} was not started: {}", taskId, admission.getReason());
+            taskExecutionService.rejectExecution(taskId, runId,
+                    retry ? mergedData.getLong(RetryScheduler.RETRY_EXECUTION_ID) : null,
+                    retry ? mergedData.getInt(RetryScheduler.RETRY_ATTEMPT) : 0, admission.getReason());
+            meters.fireRejected();
+            return;
+        }
+
+        logger.info("Starting execution of task {} with timeout {} seconds", taskId, timeoutSeconds);
+
+        ExecutionPersistenceEvent persisted = new ExecutionPersistenceEvent();
+        persisted.begin();
+        long persistStart = System.nanoTime();
+        TaskExecution execution;
+        try {
+            execution = retry
+                    ? taskExecutionService.startRetryExecution(mergedData.getLong(RetryScheduler.RETRY_EXECUTION_ID),
+                            taskId, mergedData.getInt(RetryScheduler.RETRY_ATTEMPT), runId)
+                    : taskExecutionService.startExecution(taskId, runId);
+        } catch (RuntimeException e) {
+            bulkheads.release(admission);
+            throw e;
+        }
+        long runStart = System.nanoTime();
+        SchedulerMetrics.Operation operation = retry ? SchedulerMetrics.Operation.RETRY_START
+                : SchedulerMetrics.Operation.START;
+        schedulerMetrics.recordPersistence(operation, runStart - persistStart);
+        persisted.end();
+        if (persisted.shouldCommit()) {
+            persisted.taskId = taskId;
+            persisted.executionId = execution.getId();
+            persisted.operation = operation.name();
+            persisted.commit();
+        }
+        meters.fireStarted(System.currentTimeMillis() - scheduledMillis);
+
+        ExecutionStartedEvent started = new ExecutionStartedEvent();
+        if (started.shouldCommit()) {
+            started.taskId = taskId;
+            started.executionId = execution.getId();
+            started.retryAttempt = execution.getRetryAttempt() != null ? execution.getRetryAttempt() : 0;
+            started.commit();
+        }
+        Fire fire = new Fire(taskId, execution.getId(), timeoutSeconds, scheduledMillis, meters, admission, runStart,
+                JobRunEvent.enabled() ? new JobRunEvent() : null);
+        if (fire.runEvent != null) {
+            fire.runEvent.begin();
+        }
+
+        CompletableFuture<String> future;
+        try {
+            future = executeJobAsync(context).toCompletableFuture();
+        } catch (Exception e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        executionFuture = future;
+
+        // Timeout and completion are handled by callbacks, so no thread has to wait for the job
+        CompletableFuture<String> watched = jobExecutionEngine.watch(future, timeoutSeconds)
+                .whenCompleteAsync((result, error) -> onJobComplete(fire, result, error),
+                        jobExecutionEngine.getCallbackExecutor());
+
+        if (!releasesWorkerThread()) {
+            try {
+                watched.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | CancellationException e) {
+                // Already recorded by the completion callback
+            }
+        }
+    }
+
+    private void onJobComplete(Fire fire, String result, Throwable error) {
+        long runNanos = System.nanoTime() - fire.runStart;
+        Long taskId = fire.taskId;
+        Long executionId = fire.executionId;
+        Throwable cause = (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+        TaskExecution.ExecutionStatus status;
+        String message;
+        if (cause == null) {
+            status = TaskExecution.ExecutionStatus.SUCCESS;
+            message = null;
+            logger.info("Task {} completed successfully", taskId);
+        } else if (cause instanceof TimeoutException) {
+            interrupted = true;
+            status = TaskExecution.ExecutionStatus.TIMEOUT;
+            message = cause.getMessage();
+            logger.warn("Task {} {}", taskId, cause.getMessage());
+            JobTimeoutEvent timedOut = new JobTimeoutEvent();
+            if (timedOut.shouldCommit()) {
+                timedOut.taskId = taskId;
+                timedOut.executionId = executionId;
+                timedOut.timeout = fire.timeoutSeconds;
+                timedOut.commit();
+            }
+        } else if (cause instanceof CancellationException || interrupted) {
+            status = TaskExecution.ExecutionStatus.CANCELLED;
+            message = "Task was interrupted";
+            logger.info("Task {} was cancelled", taskId);
+        } else {
+            status = TaskExecution.ExecutionStatus.FAILED;
+            message = cause.getMessage();
+            logger.error("Task {} failed with error: {}", taskId, cause.getMessage(), cause);
+        }
+        JobRunEvent runEvent = fire.runEvent;
+        if (runEvent != null) {
+            runEvent.end();
+            if (runEvent.shouldCommit()) {
+                runEvent.taskId = taskId;
+                runEvent.executionId = executionId;
+                runEvent.status = status.name();
+                runEvent.commit();
+            }
+        }
+
+        ExecutionPersistenceEvent persisted = new ExecutionPersistenceEvent();
+        persisted.begin();
+        long persistStart = System.nanoTime();
+        try {
+            taskExecutionService.completeExecution(executionId, status, status == TaskExecution.ExecutionStatus.SUCCESS
+                    ? result : null, message);
+        } catch (Exception e) {
+            logger.error("Failed to record completion of execution {} for task {}", executionId, taskId, e);
+        }
+        schedulerMetrics.recordPersistence(SchedulerMetrics.Operation.COMPLETE, System.nanoTime() - persistStart);
+        persisted.end();
+        if (persisted.shouldCommit()) {
+            persisted.taskId = taskId;
+            persisted.executionId = executionId;
+            persisted.operation = SchedulerMetrics.Operation.COMPLETE.name();
+            persisted.commit();
+        }
+        fire.meters.fireCompleted(status, runNanos, System.currentTimeMillis() - fire.scheduledMillis);
+        // Only once the outcome is recorded, so a fire let through next never overlaps this one
+        bulkheads.release(fire.admission);
+    }
+
+    @Override
+    public void interrupt() throws UnableToInterruptJobException {
+        logger.info("Interrupting job execution");
+        interrupted = true;
+        CompletableFuture<String> future = executionFuture;
+        if (future != null && !future.isDone()) {
+            future.cancel(true);
+        }
+    }
+
+    protected boolean isInterrupted() {
+        return interrupted;
+    }
+
+    /**
+     * Start the job and return a stage that completes with its result
+     * @param context The job execution context
+     * @return A stage that completes with the result of the job execution
+     */
+    protected abstract CompletionStage<String> executeJobAsync(JobExecutionContext context);
+
+    /**
+     * Whether the Quartz worker thread returns as soon as the job has started. Blocking jobs
+     * keep the worker until they finish, so Quartz interrupts and concurrency rules still apply.
+     */
+    protected boolean releasesWorkerThread() {
+        return false;
+    }
+
+    /**
+     * What the completion callback of one fire needs from its start
+     */
+    private static final class Fire {
+
+        private final Long taskId;
+        private final Long executionId;
+        private final long timeoutSeconds;
+        private final long scheduledMillis;
+        private final SchedulerMetrics.TaskMeters meters;
+        private final BulkheadRegistry.Admission admission;
+        private final long runStart;
+        // Only allocated while a recording has the event enabled
+        private final JobRunEvent runEvent;
+
+        private Fire(Long taskId, Long executionId, long timeoutSeconds, long scheduledMillis,
+                     SchedulerMetrics.TaskMeters meters, BulkheadRegistry.Admission admission, long runStart,
+                     JobRunEvent runEvent) {
+            this.taskId = taskId;
+            this.executionId = executionId;
+            this.timeoutSeconds = timeoutSeconds;
+            this.scheduledMillis = scheduledMillis;
+            this.meters = meters;
+            this.admission = admission;
+            this.runStart = runStart;
+            this.runEvent = runEvent;
+        }
+    }
+}
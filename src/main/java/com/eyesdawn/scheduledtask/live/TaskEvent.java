@@ -0,0 +1,70 @@
+package com.eyesdawn.scheduledtask.live;
+
+import com.eyesdawn.scheduledtask.dto.ExecutionSummary;
+import com.eyesdawn.scheduledtask.dto.TaskSummary;
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.model.TaskExecution;
+
+/**
+ * One change pushed to live feed subscribers: a task's new state, its deletion, or the
+ * current state of one of its executions
+ */
+public class TaskEvent {
+
+    public enum Type {
+        TASK("task"),
+        TASK_DELETED("task-deleted"),
+        EXECUTION("execution");
+
+        private final String eventName;
+
+        Type(String eventName) {
+            this.eventName = eventName;
+        }
+
+        public String getEventName() {
+            return eventName;
+        }
+    }
+
+    private final Type type;
+    private final Long taskId;
+    private final TaskSummary task;
+    private final ExecutionSummary execution;
+
+    public TaskEvent(Type type, Long taskId, TaskSummary task, ExecutionSummary execution) {
+        this.type = type;
+        this.taskId = taskId;
+        this.task = task;
+        this.execution = execution;
+    }
+
+    public static TaskEvent taskChanged(ScheduledTask task) {
+        return new TaskEvent(Type.TASK, task.getId(), TaskSummary.of(task), null);
+    }
+
+    public static TaskEvent taskDeleted(Long taskId) {
+        return new TaskEvent(Type.TASK_DELETED, taskId, null, null);
+    }
+
+    public static TaskEvent execution(TaskExecution execution) {
+        ExecutionSummary summary = ExecutionSummary.of(execution);
+        return new TaskEvent(Type.EXECUTION, summary.getTaskId(), null, summary);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public TaskSummary getTask() {
+        return task;
+    }
+
+    public ExecutionSummary getExecution() {
+        return execution;
+    }
+}
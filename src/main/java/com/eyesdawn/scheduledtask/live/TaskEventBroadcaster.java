@@ -0,0 +1,332 @@
+package com.eyesdawn.scheduledtask.live;
+
+import com.eyesdawn.scheduledtask.config.SchedulerProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Pushes {@link TaskEvent}s to Server-Sent Events subscribers.
+ * <p>
+ * Publishing only offers the event to a bounded queue, so the threads completing jobs never
+ * wait on a client; while the queue is full new events are dropped and counted. One
+ * dispatcher thread copies each event into the buffer of every matching subscriber, and a
+ * small pool of sender threads writes the buffers out. A subscriber whose buffer fills up is
+ * disconnected instead of slowing the others down; the browser reconnects and reloads the
+ * current state.
+ */
+@Component
+public class TaskEventBroadcaster implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskEventBroadcaster.class);
+
+    private static final Object HEARTBEAT = new Object();
+    private static final int SEND_BATCH = 64;
+    private static final long RECONNECT_MILLIS = 3000;
+
+    private final SchedulerProperties.LiveFeed settings;
+    private final BlockingQueue<TaskEvent> queue;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder slowDisconnects = new LongAdder();
+
+    private volatile boolean running = false;
+    private Thread dispatcher;
+    private ExecutorService senders;
+
+    public TaskEventBroadcaster(SchedulerProperties properties) {
+        this.settings = properties.getLiveFeed();
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, settings.getQueueCapacity()));
+    }
+
+    /**
+     * Open a feed of all events, or of one task's events when taskId is given
+     * @throws IllegalStateException If the subscriber limit is reached
+     */
+    public SseEmitter subscribe(Long taskId) {
+        if (!running) {
+            throw new IllegalStateException("Live feed is not running");
+        }
+        if (subscribers.size() >= settings.getMaxSubscribers()) {
+            throw new IllegalStateException("Too many live feed subscribers: " + subscribers.size());
+        }
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(settings.getTimeoutMinutes()));
+        Subscriber subscriber = new Subscriber(emitter, taskId);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        // Sent first so the response starts right away and the browser knows how soon to reconnect
+        subscriber.offer(SseEmitter.event().reconnectTime(RECONNECT_MILLIS).comment("connected"));
+        return emitter;
+    }
+
+    public void publish(TaskEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        if (queue.offer(event)) {
+            published.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Publish once the surrounding transaction commits, so subscribers never see a change that
+     * is rolled back. The event is built at that point, from the committed state, and only
+     * when someone is listening.
+     */
+    public void publishOnCommit(Supplier<TaskEvent> event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(event.get());
+                }
+            });
+        } else {
+            publish(event.get());
+        }
+    }
+
+    public FeedStats getStats() {
+        return new FeedStats(subscribers.size(), queue.size(), published.sum(), dropped.sum(), slowDisconnects.sum());
+    }
+
+    @Override
+    public void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(Math.max(1, settings.getSenderThreads()), runnable -> {
+            Thread thread = new Thread(runnable, "task-event-sender-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "task-event-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        dispatcher.interrupt();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+        subscribers.clear();
+        senders.shutdownNow();
+        queue.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stop before the web server so open feeds do not hold up a graceful shutdown
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE;
+    }
+
+    private void dispatchLoop() {
+        long heartbeatNanos = TimeUnit.SECONDS.toNanos(Math.max(1, settings.getHeartbeatSeconds()));
+        long nextHeartbeat = System.nanoTime() + heartbeatNanos;
+        while (running) {
+            try {
+                TaskEvent event = queue.poll(Math.max(0, nextHeartbeat - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (event != null) {
+                    for (Subscriber subscriber : subscribers) {
+                        if (subscriber.accepts(event)) {
+                            subscriber.offer(event);
+                        }
+                    }
+                }
+                // Keeps proxies from closing idle connections and finds clients that went away
+                if (System.nanoTime() - nextHeartbeat >= 0) {
+                    for (Subscriber subscriber : subscribers) {
+                        subscriber.offer(HEARTBEAT);
+                    }
+                    nextHeartbeat = System.nanoTime() + heartbeatNanos;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Live feed dispatch failed", e);
+            }
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Long taskId;
+
+        // Guarded by this; draining is true while a sender owns the subscriber
+        private final ArrayDeque<Object> buffer = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closed;
+
+        Subscriber(SseEmitter emitter, Long taskId) {
+            this.emitter = emitter;
+            this.taskId = taskId;
+        }
+
+        boolean accepts(TaskEvent event) {
+            return taskId == null || taskId.equals(event.getTaskId());
+        }
+
+        void offer(Object item) {
+            boolean tooSlow = false;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (buffer.size() >= settings.getSubscriberBufferSize()) {
+                    tooSlow = true;
+                    closed = true;
+                    buffer.clear();
+                } else {
+                    buffer.add(item);
+                    if (draining) {
+                        return;
+                    }
+                    draining = true;
+                }
+            }
+            if (tooSlow) {
+                slowDisconnects.increment();
+                logger.debug("Disconnected a live feed subscriber that fell {} events behind",
+                        settings.getSubscriberBufferSize());
+                subscribers.remove(this);
+                // A sender may still be blocked writing to it; completing lets the container end the request
+                emitter.complete();
+                return;
+            }
+            submitDrain();
+        }
+
+        void close() {
+            synchronized (this) {
+                closed = true;
+                buffer.clear();
+            }
+            emitter.complete();
+        }
+
+        private void submitDrain() {
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+            }
+        }
+
+        /**
+         * Write out a batch, then yield the sender thread to other subscribers if more is waiting
+         */
+        private void drain() {
+            for (int sent = 0; sent < SEND_BATCH; sent++) {
+                Object item;
+                synchronized (this) {
+                    item = closed ? null : buffer.poll();
+                    if (item == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    send(item);
+                } catch (Exception e) {
+                    // The client went away; the emitter's callbacks remove it
+                    synchronized (this) {
+                        closed = true;
+                        buffer.clear();
+                        draining = false;
+                    }
+                    subscribers.remove(this);
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+            submitDrain();
+        }
+
+        private void send(Object item) throws Exception {
+            if (item == HEARTBEAT) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } else if (item instanceof TaskEvent event) {
+                emitter.send(SseEmitter.event().name(event.getType().getEventName()).data(event, MediaType.APPLICATION_JSON));
+            } else {
+                emitter.send((SseEmitter.SseEventBuilder) item);
+            }
+        }
+    }
+
+    public static class FeedStats {
+
+        private final int subscribers;
+        private final int queued;
+        private final long published;
+        private final long dropped;
+        private final long slowDisconnects;
+
+        FeedStats(int subscribers, int queued, long published, long dropped, long slowDisconnects) {
+            this.subscribers = subscribers;
+            this.queued = queued;
+            this.published = published;
+            this.dropped = dropped;
+            this.slowDisconnects = slowDisconnects;
+        }
+
+        public int getSubscribers() {
+            return subscribers;
+        }
+
+        public int getQueued() {
+            return queued;
+        }
+
+        public long getPublished() {
+            return published;
+        }
+
+        public long getDropped() {
+            return dropped;
+        }
+
+        public long getSlowDisconnects() {
+            return slowDisconnects;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.eyesdawn.scheduledtask.metrics;
+
+import com.eyesdawn.scheduledtask.config.SchedulerProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.JobListener;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.Trigger;
+import org.quartz.TriggerListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.quartz.SchedulerFactoryBeanCustomizer;
+import org.springframework.scheduling.quartz.SchedulerFactoryBean;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Quartz worker pool and misfire meters. Registered as a global job and trigger listener, it
+ * counts the worker threads running a job and the misfires of each task:
+ * <ul>
+ *   <li>{@code scheduler.quartz.threads.busy} and {@code scheduler.quartz.threads.max}</li>
+ *   <li>{@code scheduler.quartz.pool.utilization} - busy threads over the pool size</li>
+ *   <li>{@code scheduler.quartz.misfires} - triggers Quartz found too late to fire on time</li>
+ * </ul>
+ */
+@Component
+public class QuartzMetricsListener implements SchedulerFactoryBeanCustomizer, JobListener, TriggerListener {
+
+    private static final String ALL_TASKS = "all";
+
+    private final MeterRegistry registry;
+    private final ObjectProvider<Scheduler> scheduler;
+    private final boolean perTask;
+    private final AtomicInteger busy = new AtomicInteger();
+    private final ConcurrentHashMap<String, Counter> misfires = new ConcurrentHashMap<>();
+
+    public QuartzMetricsListener(MeterRegistry registry, ObjectProvider<Scheduler> scheduler, SchedulerProperties properties) {
+        this.registry = registry;
+        this.scheduler = scheduler;
+        this.perTask = properties.getMetrics().isPerTask();
+        Gauge.builder("scheduler.quartz.threads.busy", busy, AtomicInteger::get)
+                .description("Quartz worker threads running a job")
+                .register(registry);
+        Gauge.builder("scheduler.quartz.threads.max", this, QuartzMetricsListener::poolSize)
+                .description("Size of the Quartz worker pool")
+                .register(registry);
+        Gauge.builder("scheduler.quartz.pool.utilization", this, QuartzMetricsListener::utilization)
+                .description("Share of the Quartz worker threads running a job")
+                .register(registry);
+    }
+
+    @Override
+    public void customize(SchedulerFactoryBean schedulerFactoryBean) {
+        schedulerFactoryBean.setGlobalJobListeners(this);
+        schedulerFactoryBean.setGlobalTriggerListeners(this);
+    }
+
+    @Override
+    public String getName() {
+        return "schedulerMetrics";
+    }
+
+    @Override
+    public void jobToBeExecuted(JobExecutionContext context) {
+        busy.incrementAndGet();
+    }
+
+    @Override
+    public void jobExecutionVetoed(JobExecutionContext context) {
+    }
+
+    @Override
+    public void jobWasExecuted(JobExecutionContext context, JobExecutionException jobException) {
+        busy.decrementAndGet();
+    }
+
+    @Override
+    public void triggerFired(Trigger trigger, JobExecutionContext context) {
+    }
+
+    @Override
+    public boolean vetoJobExecution(Trigger trigger, JobExecutionContext context) {
+        return false;
+    }
+
+    @Override
+    public void triggerMisfired(Trigger trigger) {
+        String task = perTask ? trigger.getJobKey().getName() : ALL_TASKS;
+        misfires.computeIfAbsent(task, name -> Counter.builder("scheduler.quartz.misfires")
+                .description("Triggers that fired later than the misfire threshold allows")
+                .tag("task", name)
+                .register(registry)).increment();
+    }
+
+    @Override
+    public void triggerComplete(Trigger trigger, JobExecutionContext context,
+                                Trigger.CompletedExecutionInstruction triggerInstructionCode) {
+    }
+
+    private double poolSize() {
+        Scheduler current = scheduler.getIfAvailable();
+        if (current == null) {
+            return Double.NaN;
+        }
+        try {
+            return current.getMetaData().getThreadPoolSize();
+        } catch (SchedulerException e) {
+            return Double.NaN;
+        }
+    }
+
+    private double utilization() {
+        double size = poolSize();
+        return size > 0 ? busy.get() / size : Double.NaN;
+    }
+}
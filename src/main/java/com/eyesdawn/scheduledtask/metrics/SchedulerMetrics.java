@@ -0,0 +1,212 @@
+package com.eyesdawn.scheduledtask.metrics;
+
+import com.eyesdawn.scheduledtask.config.SchedulerProperties;
+import com.eyesdawn.scheduledtask.job.JobExecutionEngine;
+import com.eyesdawn.scheduledtask.model.TaskExecution;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Micrometer meters for every fire, so trigger lag, a starved pool and a slow job can be
+ * told apart:
+ * <ul>
+ *   <li>{@code scheduler.fire.lag} - scheduled fire time to the job starting</li>
+ *   <li>{@code scheduler.job.run} - the job body, by outcome</li>
+ *   <li>{@code scheduler.fire.duration} - scheduled fire time to the outcome being recorded</li>
+ *   <li>{@code scheduler.task.in.flight} and {@code scheduler.jobs.in.flight} - fires running</li>
+ *   <li>{@code scheduler.persistence} - each {@code TaskExecutionService} call made for a fire</li>
+ *   <li>{@code scheduler.fires.rejected} - fires turned away by a concurrency limit</li>
+ * </ul>
+ * Meters are looked up once per task and kept in {@link TaskMeters}, so recording a fire is a
+ * map lookup and a few timer updates with no tag or meter allocation. Per-task meters carry the
+ * task id as well as its name, so a task that takes over the name of a renamed one never shares
+ * or removes that task's meters.
+ */
+@Component
+public class SchedulerMetrics {
+
+    public enum Operation {
+        START("start"), RETRY_START("retry-start"), COMPLETE("complete");
+
+        private final String tag;
+
+        Operation(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private static final String ALL_TASKS = "all";
+    private static final TaskExecution.ExecutionStatus[] STATUSES = TaskExecution.ExecutionStatus.values();
+
+    private final MeterRegistry registry;
+    private final SchedulerProperties.Metrics settings;
+    private final ConcurrentHashMap<Long, TaskMeters> byTask = new ConcurrentHashMap<>();
+    private final TaskMeters shared;
+    private final Timer[] persistence = new Timer[Operation.values().length];
+
+    public SchedulerMetrics(MeterRegistry registry, SchedulerProperties properties, JobExecutionEngine jobExecutionEngine) {
+        this.registry = registry;
+        this.settings = properties.getMetrics();
+        this.shared = settings.isPerTask() ? null : new TaskMeters(null, ALL_TASKS);
+        for (Operation operation : Operation.values()) {
+            persistence[operation.ordinal()] = Timer.builder("scheduler.persistence")
+                    .description("Time spent in one execution persistence call of a fire, including its commit")
+                    .tag("operation", operation.tag)
+                    .register(registry);
+        }
+        Gauge.builder("scheduler.jobs.in.flight", jobExecutionEngine, JobExecutionEngine::getInFlightCount)
+                .description("Fires whose job has started and not completed yet")
+                .register(registry);
+    }
+
+    /**
+     * Meters of one task, registered on its first fire and again when it is renamed
+     */
+    public TaskMeters forTask(long taskId, String taskName) {
+        if (shared != null) {
+            return shared;
+        }
+        TaskMeters meters = byTask.get(taskId);
+        if (meters != null && meters.taskName.equals(taskName)) {
+            return meters;
+        }
+        return byTask.compute(taskId, (id, current) -> {
+            if (current != null && current.taskName.equals(taskName)) {
+                return current;
+            }
+            if (current != null) {
+                current.remove();
+            }
+            return new TaskMeters(id, taskName);
+        });
+    }
+
+    public void recordPersistence(Operation operation, long nanos) {
+        persistence[operation.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Drop a deleted task's meters once the delete commits
+     */
+    public void removeTaskOnCommit(Long taskId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            removeTask(taskId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                removeTask(taskId);
+            }
+        });
+    }
+
+    private void removeTask(Long taskId) {
+        TaskMeters meters = byTask.remove(taskId);
+        if (meters != null) {
+            meters.remove();
+        }
+    }
+
+    private Timer timer(String name, String description, Tags taskTags, TaskExecution.ExecutionStatus status) {
+        Timer.Builder builder = Timer.builder(name)
+                .description(description)
+                .tags(taskTags)
+                .publishPercentileHistogram(settings.isHistogram());
+        if (status != null) {
+            builder.tag("status", status.name());
+        }
+        return builder.register(registry);
+    }
+
+    public final class TaskMeters {
+
+        private final String taskName;
+        private final Tags tags;
+        private final Timer lag;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Gauge inFlightGauge;
+
+        // By status ordinal, registered on the first fire with that outcome
+        private final Timer[] run = new Timer[STATUSES.length];
+        private final Timer[] duration = new Timer[STATUSES.length];
+        // Registered on the first rejected fire, since most tasks have no limit
+        private volatile Counter rejected;
+
+        /**
+         * @param taskId Null for the meters shared by all tasks
+         */
+        private TaskMeters(Long taskId, String taskName) {
+            this.taskName = taskName;
+            this.tags = taskId != null ? Tags.of("task", taskName, "taskId", taskId.toString()) : Tags.of("task", taskName);
+            this.lag = timer("scheduler.fire.lag", "Delay between the scheduled fire time and the job starting",
+                    tags, null);
+            this.inFlightGauge = Gauge.builder("scheduler.task.in.flight", inFlight, AtomicInteger::get)
+                    .description("Fires of the task that are running")
+                    .tags(tags)
+                    .register(registry);
+        }
+
+        public void fireStarted(long lagMillis) {
+            lag.record(Math.max(0, lagMillis), TimeUnit.MILLISECONDS);
+            inFlight.incrementAndGet();
+        }
+
+        public void fireCompleted(TaskExecution.ExecutionStatus status, long runNanos, long durationMillis) {
+            inFlight.decrementAndGet();
+            int index = status.ordinal();
+            // A race registers the same meter twice, which the registry resolves to one
+            Timer runTimer = run[index];
+            if (runTimer == null) {
+                runTimer = timer("scheduler.job.run", "Run time of the job body", tags, status);
+                run[index] = runTimer;
+            }
+            Timer durationTimer = duration[index];
+            if (durationTimer == null) {
+                durationTimer = timer("scheduler.fire.duration",
+                        "Time from the scheduled fire time until the outcome is recorded", tags, status);
+                duration[index] = durationTimer;
+            }
+            runTimer.record(runNanos, TimeUnit.NANOSECONDS);
+            durationTimer.record(Math.max(0, durationMillis), TimeUnit.MILLISECONDS);
+        }
+
+        public void fireRejected() {
+            Counter counter = rejected;
+            if (counter == null) {
+                counter = Counter.builder("scheduler.fires.rejected")
+                        .description("Fires turned away by a concurrency limit")
+                        .tags(tags)
+                        .register(registry);
+                rejected = counter;
+            }
+            counter.increment();
+        }
+
+        private void remove() {
+            registry.remove(lag);
+            if (rejected != null) {
+                registry.remove(rejected);
+            }
+            registry.remove(inFlightGauge);
+            for (int i = 0; i < STATUSES.length; i++) {
+                if (run[i] != null) {
+                    registry.remove(run[i]);
+                }
+                if (duration[i] != null) {
+                    registry.remove(duration[i]);
+                }
+            }
+        }
+    }
+}
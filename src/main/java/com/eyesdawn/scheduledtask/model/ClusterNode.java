@@ -0,0 +1,72 @@
+package com.eyesdawn.scheduledtask.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A live scheduler node in partitioned mode. Nodes refresh their heartbeat periodically; a
+ * node whose heartbeat is older than the timeout is considered gone and its tasks move to the
+ * remaining nodes.
+ */
+@Entity
+@Table(name = "cluster_nodes")
+public class ClusterNode {
+
+    @Id
+    @Column(length = 100)
+    private String nodeId;
+
+    // Base URL other nodes use to route task changes to this node
+    @Column(nullable = false)
+    private String address;
+
+    @Column(nullable = false)
+    private LocalDateTime heartbeatAt;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime joinedAt;
+
+    // Constructors
+    public ClusterNode() {}
+
+    public ClusterNode(String nodeId, String address) {
+        this.nodeId = nodeId;
+        this.address = address;
+        this.joinedAt = LocalDateTime.now();
+        this.heartbeatAt = joinedAt;
+    }
+
+    // Getters and Setters
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public void setAddress(String address) {
+        this.address = address;
+    }
+
+    public LocalDateTime getHeartbeatAt() {
+        return heartbeatAt;
+    }
+
+    public void setHeartbeatAt(LocalDateTime heartbeatAt) {
+        this.heartbeatAt = heartbeatAt;
+    }
+
+    public LocalDateTime getJoinedAt() {
+        return joinedAt;
+    }
+
+    public void setJoinedAt(LocalDateTime joinedAt) {
+        this.joinedAt = joinedAt;
+    }
+}
@@ -0,0 +1,242 @@
+package com.eyesdawn.scheduledtask.model;
+
+import com.eyesdawn.scheduledtask.stats.DurationHistogram;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Aggregate of one task's purged execution records over an hour or a day: counts per final
+ * status and duration percentiles. The duration histogram is kept so records purged in later
+ * chunks can be merged into the same period without losing the percentiles.
+ */
+@Entity
+@Table(name = "execution_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_execution_rollups_period",
+                columnNames = {"task_id", "granularity", "period_start"}))
+public class ExecutionRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ScheduledTask.RollupGranularity granularity;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDateTime periodStart;
+
+    private long totalCount;
+
+    private long successCount;
+
+    private long failedCount;
+
+    private long timeoutCount;
+
+    private long cancelledCount;
+
+    private Long minDurationMillis;
+
+    private Long maxDurationMillis;
+
+    private Long avgDurationMillis;
+
+    private Long p50DurationMillis;
+
+    private Long p95DurationMillis;
+
+    private Long p99DurationMillis;
+
+    private long totalDurationMillis;
+
+    @JsonIgnore
+    @Lob
+    private String durationHistogram;
+
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public ExecutionRollup() {}
+
+    public ExecutionRollup(Long taskId, ScheduledTask.RollupGranularity granularity, LocalDateTime periodStart) {
+        this.taskId = taskId;
+        this.granularity = granularity;
+        this.periodStart = periodStart;
+    }
+
+    /**
+     * Add purged executions to this period
+     */
+    public void merge(long success, long failed, long timeout, long cancelled, long totalDuration, DurationHistogram durations) {
+        successCount += success;
+        failedCount += failed;
+        timeoutCount += timeout;
+        cancelledCount += cancelled;
+        totalCount += success + failed + timeout + cancelled;
+        totalDurationMillis += totalDuration;
+
+        DurationHistogram histogram = DurationHistogram.decode(durationHistogram);
+        histogram.merge(durations);
+        durationHistogram = histogram.encode();
+        if (histogram.getTotalCount() > 0) {
+            minDurationMillis = histogram.getValueAtQuantile(0);
+            maxDurationMillis = histogram.getValueAtQuantile(1);
+            avgDurationMillis = totalDurationMillis / histogram.getTotalCount();
+            p50DurationMillis = histogram.getValueAtQuantile(0.50);
+            p95DurationMillis = histogram.getValueAtQuantile(0.95);
+            p99DurationMillis = histogram.getValueAtQuantile(0.99);
+        }
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(Long taskId) {
+        this.taskId = taskId;
+    }
+
+    public ScheduledTask.RollupGranularity getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(ScheduledTask.RollupGranularity granularity) {
+        this.granularity = granularity;
+    }
+
+    public LocalDateTime getPeriodStart() {
+        return periodStart;
+    }
+
+    public void setPeriodStart(LocalDateTime periodStart) {
+        this.periodStart = periodStart;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public void setTotalCount(long totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    public long getSuccessCount() {
+        return successCount;
+    }
+
+    public void setSuccessCount(long successCount) {
+        this.successCount = successCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(long failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    public void setTimeoutCount(long timeoutCount) {
+        this.timeoutCount = timeoutCount;
+    }
+
+    public long getCancelledCount() {
+        return cancelledCount;
+    }
+
+    public void setCancelledCount(long cancelledCount) {
+        this.cancelledCount = cancelledCount;
+    }
+
+    public Long getMinDurationMillis() {
+        return minDurationMillis;
+    }
+
+    public void setMinDurationMillis(Long minDurationMillis) {
+        this.minDurationMillis = minDurationMillis;
+    }
+
+    public Long getMaxDurationMillis() {
+        return maxDurationMillis;
+    }
+
+    public void setMaxDurationMillis(Long maxDurationMillis) {
+        this.maxDurationMillis = maxDurationMillis;
+    }
+
+    public Long getAvgDurationMillis() {
+        return avgDurationMillis;
+    }
+
+    public void setAvgDurationMillis(Long avgDurationMillis) {
+        this.avgDurationMillis = avgDurationMillis;
+    }
+
+    public Long getP50DurationMillis() {
+        return p50DurationMillis;
+    }
+
+    public void setP50DurationMillis(Long p50DurationMillis) {
+        this.p50DurationMillis = p50DurationMillis;
+    }
+
+    public Long getP95DurationMillis() {
+        return p95DurationMillis;
+    }
+
+    public void setP95DurationMillis(Long p95DurationMillis) {
+        this.p95DurationMillis = p95DurationMillis;
+    }
+
+    public Long getP99DurationMillis() {
+        return p99DurationMillis;
+    }
+
+    public void setP99DurationMillis(Long p99DurationMillis) {
+        this.p99DurationMillis = p99DurationMillis;
+    }
+
+    public long getTotalDurationMillis() {
+        return totalDurationMillis;
+    }
+
+    public void setTotalDurationMillis(long totalDurationMillis) {
+        this.totalDurationMillis = totalDurationMillis;
+    }
+
+    public String getDurationHistogram() {
+        return durationHistogram;
+    }
+
+    public void setDurationHistogram(String durationHistogram) {
+        this.durationHistogram = durationHistogram;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -1,5 +1,6 @@
 package com.eyesdawn.scheduledtask.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -16,8 +17,10 @@ import java.util.List;
 @EntityListeners(AuditingEntityListener.class)
 public class ScheduledTask {
 
+    // Sequence ids (allocated in blocks) let Hibernate batch the inserts of a bulk create
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "scheduled_task_seq")
+    @SequenceGenerator(name = "scheduled_task_seq", sequenceName = "scheduled_tasks_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -51,6 +54,44 @@ public class ScheduledTask {
     @Column(nullable = false)
     private Long timeoutSeconds = 300L; // 5 minutes default
 
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RetryBackoff retryBackoff = RetryBackoff.EXPONENTIAL;
+
+    @Column(nullable = false)
+    private Long retryDelaySeconds = 10L; // Base delay before the first retry
+
+    @Column(nullable = false)
+    private Long maxRetryDelaySeconds = 600L; // Upper bound for any single retry delay
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TriggerType triggerType = TriggerType.QUARTZ;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ExecutionStore executionStore = ExecutionStore.DATABASE;
+
+    private Integer spreadSeconds; // Delay every fire by an id-derived offset below this many seconds; null or 0 fires on time
+
+    private Integer maxConcurrent; // Fires of this task running at once on a node; null is unlimited
+
+    @Enumerated(EnumType.STRING)
+    private OverlapPolicy overlapPolicy; // What a fire over a concurrency limit does; null skips it
+
+    private String resourceGroup; // Shares the permits of this group from scheduled-task.concurrency.resource-groups
+
+    @Column(nullable = false)
+    private Boolean workflowTrigger = false; // Also fire as soon as all upstream dependencies succeed
+
+    private Integer retentionDays; // Days to keep raw execution records; null uses the global default, 0 keeps them forever
+
+    @Enumerated(EnumType.STRING)
+    private RollupGranularity rollupGranularity; // Aggregate purged records into these periods; null uses the global default
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -59,12 +100,15 @@ public class ScheduledTask {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
+    @JsonIgnore
     @OneToMany(mappedBy = "task", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<TaskExecution> executions = new ArrayList<>();
 
+    @JsonIgnore
     @OneToMany(mappedBy = "task", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<TaskDependency> dependencies = new ArrayList<>();
 
+    @JsonIgnore
     @OneToMany(mappedBy = "dependentTask", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<TaskDependency> dependents = new ArrayList<>();
 
@@ -78,6 +122,35 @@ public class ScheduledTask {
         this.jobClass = jobClass;
     }
 
+    /**
+     * Detached copy of the task's own columns, without its executions or dependencies.
+     * A new column has to be added here for cached and scheduled copies to carry it.
+     */
+    public ScheduledTask copyDefinition() {
+        ScheduledTask copy = new ScheduledTask(name, description, cronExpression, jobClass);
+        copy.id = id;
+        copy.jobData = jobData;
+        copy.status = status;
+        copy.retryCount = retryCount;
+        copy.maxRetries = maxRetries;
+        copy.timeoutSeconds = timeoutSeconds;
+        copy.retryBackoff = retryBackoff;
+        copy.retryDelaySeconds = retryDelaySeconds;
+        copy.maxRetryDelaySeconds = maxRetryDelaySeconds;
+        copy.triggerType = triggerType;
+        copy.executionStore = executionStore;
+        copy.spreadSeconds = spreadSeconds;
+        copy.maxConcurrent = maxConcurrent;
+        copy.overlapPolicy = overlapPolicy;
+        copy.resourceGroup = resourceGroup;
+        copy.workflowTrigger = workflowTrigger;
+        copy.retentionDays = retentionDays;
+        copy.rollupGranularity = rollupGranularity;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        return copy;
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -159,6 +232,54 @@ public class ScheduledTask {
         this.timeoutSeconds = timeoutSeconds;
     }
 
+    public RetryBackoff getRetryBackoff() {
+        return retryBackoff;
+    }
+
+    public void setRetryBackoff(RetryBackoff retryBackoff) {
+        this.retryBackoff = retryBackoff;
+    }
+
+    public Long getRetryDelaySeconds() {
+        return retryDelaySeconds;
+    }
+
+    public void setRetryDelaySeconds(Long retryDelaySeconds) {
+        this.retryDelaySeconds = retryDelaySeconds;
+    }
+
+    public Long getMaxRetryDelaySeconds() {
+        return maxRetryDelaySeconds;
+    }
+
+    public void setMaxRetryDelaySeconds(Long maxRetryDelaySeconds) {
+        this.maxRetryDelaySeconds = maxRetryDelaySeconds;
+    }
+
+    public TriggerType getTriggerType() {
+        return triggerType;
+    }
+
+    public void setTriggerType(TriggerType triggerType) {
+        this.triggerType = triggerType;
+    }
+
+    public ExecutionStore getExecutionStore() {
+        return executionStore;
+    }
+
+    public void setExecutionStore(ExecutionStore executionStore) {
+        this.executionStore = executionStore;
+    }
+
+    public Boolean getWorkflowTrigger() {
+        return workflowTrigger;
+    }
+
+    public void setWorkflowTrigger(Boolean workflowTrigger) {
+        this.workflowTrigger = workflowTrigger;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -175,6 +296,54 @@ public class ScheduledTask {
         this.updatedAt = updatedAt;
     }
 
+    public Integer getRetentionDays() {
+        return retentionDays;
+    }
+
+    public void setRetentionDays(Integer retentionDays) {
+        this.retentionDays = retentionDays;
+    }
+
+    public Integer getSpreadSeconds() {
+        return spreadSeconds;
+    }
+
+    public void setSpreadSeconds(Integer spreadSeconds) {
+        this.spreadSeconds = spreadSeconds;
+    }
+
+    public Integer getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(Integer maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public OverlapPolicy getOverlapPolicy() {
+        return overlapPolicy;
+    }
+
+    public void setOverlapPolicy(OverlapPolicy overlapPolicy) {
+        this.overlapPolicy = overlapPolicy;
+    }
+
+    public String getResourceGroup() {
+        return resourceGroup;
+    }
+
+    public void setResourceGroup(String resourceGroup) {
+        this.resourceGroup = resourceGroup;
+    }
+
+    public RollupGranularity getRollupGranularity() {
+        return rollupGranularity;
+    }
+
+    public void setRollupGranularity(RollupGranularity rollupGranularity) {
+        this.rollupGranularity = rollupGranularity;
+    }
+
     public List<TaskExecution> getExecutions() {
         return executions;
     }
@@ -205,4 +374,32 @@ public class ScheduledTask {
         PAUSED,    // Task is temporarily paused
         ERROR      // Task has encountered an error
     }
-}
\ No newline at end of file
+
+    public enum TriggerType {
+        QUARTZ,        // One Quartz cron trigger per task
+        TIMING_WHEEL   // In-process hierarchical timing wheel for high-frequency tasks
+    }
+
+    public enum ExecutionStore {
+        DATABASE,  // One task_executions row per fire
+        LOG        // Append-only memory-mapped log for high-frequency tasks
+    }
+
+    public enum RetryBackoff {
+        FIXED,                // Always wait the base delay
+        EXPONENTIAL,          // Double the delay per attempt, with jitter
+        DECORRELATED_JITTER   // Random delay between the base and three times the previous delay
+    }
+
+    public enum RollupGranularity {
+        NONE,     // Delete purged records without keeping aggregates
+        HOURLY,
+        DAILY
+    }
+
+    public enum OverlapPolicy {
+        SKIP,      // Record the fire as rejected
+        QUEUE,     // Wait for a permit, up to scheduled-task.concurrency.max-queued-fires per task
+        COALESCE   // Keep at most one waiting fire; later ones are rejected
+    }
+}
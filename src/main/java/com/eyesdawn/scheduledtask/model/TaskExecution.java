@@ -7,12 +7,22 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "task_executions")
+@Table(name = "task_executions", indexes = {
+        @Index(name = "idx_task_executions_run_id", columnList = "run_id"),
+        // Newest-first keyset pages of one task, optionally of one status, read these in index order
+        @Index(name = "idx_task_executions_task_start", columnList = "task_id DESC, start_time DESC, id DESC"),
+        @Index(name = "idx_task_executions_task_status_start", columnList = "task_id DESC, status DESC, start_time DESC, id DESC"),
+        @Index(name = "idx_task_executions_status", columnList = "status"),
+        // Exports over a time range across all tasks
+        @Index(name = "idx_task_executions_start", columnList = "start_time, id")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class TaskExecution {
 
+    // Sequence ids (allocated in blocks) let Hibernate and the write-behind pipeline batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_execution_seq")
+    @SequenceGenerator(name = "task_execution_seq", sequenceName = "task_executions_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -23,8 +33,9 @@ public class TaskExecution {
     @Column(nullable = false)
     private ExecutionStatus status = ExecutionStatus.RUNNING;
 
+    // Updatable so that a scheduled retry records when it actually started
     @CreatedDate
-    @Column(nullable = false, updatable = false)
+    @Column(nullable = false)
     private LocalDateTime startTime;
 
     private LocalDateTime endTime;
@@ -39,6 +50,10 @@ public class TaskExecution {
 
     private Long durationMillis;
 
+    // Shared by every execution of one workflow run; a plain scheduled fire starts a new run
+    @Column(length = 36, updatable = false)
+    private String runId;
+
     // Constructors
     public TaskExecution() {}
 
@@ -120,12 +135,21 @@ public class TaskExecution {
         this.durationMillis = durationMillis;
     }
 
+    public String getRunId() {
+        return runId;
+    }
+
+    public void setRunId(String runId) {
+        this.runId = runId;
+    }
+
     public enum ExecutionStatus {
         RUNNING,
         SUCCESS,
         FAILED,
         TIMEOUT,
         CANCELLED,
-        RETRY_SCHEDULED
+        RETRY_SCHEDULED,
+        REJECTED   // Turned away by a concurrency limit; appended last since the execution log stores ordinals
     }
 }
\ No newline at end of file
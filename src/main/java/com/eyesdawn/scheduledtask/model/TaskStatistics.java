@@ -0,0 +1,259 @@
+package com.eyesdawn.scheduledtask.model;
+
+import com.eyesdawn.scheduledtask.stats.DurationHistogram;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lifetime execution statistics of one task, kept up to date from in-memory counters instead
+ * of being recomputed from {@code task_executions}. Each node merges what it recorded since
+ * its last checkpoint into the row, so the version column guards against concurrent merges.
+ */
+@Entity
+@Table(name = "task_statistics")
+public class TaskStatistics {
+
+    @Id
+    @Column(name = "task_id")
+    private Long taskId;
+
+    @JsonIgnore
+    @Version
+    private long version;
+
+    private long successCount;
+
+    private long failedCount;
+
+    private long timeoutCount;
+
+    private long cancelledCount;
+
+    private long totalDurationMillis;
+
+    @Enumerated(EnumType.STRING)
+    private TaskExecution.ExecutionStatus lastStatus;
+
+    private LocalDateTime lastFinishedAt;
+
+    private Long lastDurationMillis;
+
+    private Long minDurationMillis;
+
+    private Long maxDurationMillis;
+
+    private Long avgDurationMillis;
+
+    private Long p50DurationMillis;
+
+    private Long p95DurationMillis;
+
+    private Long p99DurationMillis;
+
+    @JsonIgnore
+    @Lob
+    private String durationHistogram;
+
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public TaskStatistics() {}
+
+    public TaskStatistics(Long taskId) {
+        this.taskId = taskId;
+    }
+
+    /**
+     * Add finished executions to the statistics
+     */
+    public void merge(long success, long failed, long timeout, long cancelled, long totalDuration, DurationHistogram durations) {
+        successCount += success;
+        failedCount += failed;
+        timeoutCount += timeout;
+        cancelledCount += cancelled;
+        totalDurationMillis += totalDuration;
+
+        DurationHistogram histogram = DurationHistogram.decode(durationHistogram);
+        histogram.merge(durations);
+        durationHistogram = histogram.encode();
+        if (histogram.getTotalCount() > 0) {
+            minDurationMillis = histogram.getValueAtQuantile(0);
+            maxDurationMillis = histogram.getValueAtQuantile(1);
+            avgDurationMillis = totalDurationMillis / histogram.getTotalCount();
+            p50DurationMillis = histogram.getValueAtQuantile(0.50);
+            p95DurationMillis = histogram.getValueAtQuantile(0.95);
+            p99DurationMillis = histogram.getValueAtQuantile(0.99);
+        }
+        updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Take the outcome as the last one unless a later one is already recorded
+     */
+    public void mergeLastOutcome(TaskExecution.ExecutionStatus status, LocalDateTime finishedAt, Long durationMillis) {
+        if (lastFinishedAt == null || (finishedAt != null && !finishedAt.isBefore(lastFinishedAt))) {
+            lastStatus = status;
+            lastFinishedAt = finishedAt;
+            lastDurationMillis = durationMillis;
+        }
+    }
+
+    public long getTotalCount() {
+        return successCount + failedCount + timeoutCount + cancelledCount;
+    }
+
+    /**
+     * @return Percentage of executions that succeeded, or null if there were none
+     */
+    public Double getSuccessRate() {
+        long total = getTotalCount();
+        return total == 0 ? null : Math.round(successCount * 1000.0 / total) / 10.0;
+    }
+
+    // Getters and Setters
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(Long taskId) {
+        this.taskId = taskId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public long getSuccessCount() {
+        return successCount;
+    }
+
+    public void setSuccessCount(long successCount) {
+        this.successCount = successCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(long failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    public void setTimeoutCount(long timeoutCount) {
+        this.timeoutCount = timeoutCount;
+    }
+
+    public long getCancelledCount() {
+        return cancelledCount;
+    }
+
+    public void setCancelledCount(long cancelledCount) {
+        this.cancelledCount = cancelledCount;
+    }
+
+    public long getTotalDurationMillis() {
+        return totalDurationMillis;
+    }
+
+    public void setTotalDurationMillis(long totalDurationMillis) {
+        this.totalDurationMillis = totalDurationMillis;
+    }
+
+    public TaskExecution.ExecutionStatus getLastStatus() {
+        return lastStatus;
+    }
+
+    public void setLastStatus(TaskExecution.ExecutionStatus lastStatus) {
+        this.lastStatus = lastStatus;
+    }
+
+    public LocalDateTime getLastFinishedAt() {
+        return lastFinishedAt;
+    }
+
+    public void setLastFinishedAt(LocalDateTime lastFinishedAt) {
+        this.lastFinishedAt = lastFinishedAt;
+    }
+
+    public Long getLastDurationMillis() {
+        return lastDurationMillis;
+    }
+
+    public void setLastDurationMillis(Long lastDurationMillis) {
+        this.lastDurationMillis = lastDurationMillis;
+    }
+
+    public Long getMinDurationMillis() {
+        return minDurationMillis;
+    }
+
+    public void setMinDurationMillis(Long minDurationMillis) {
+        this.minDurationMillis = minDurationMillis;
+    }
+
+    public Long getMaxDurationMillis() {
+        return maxDurationMillis;
+    }
+
+    public void setMaxDurationMillis(Long maxDurationMillis) {
+        this.maxDurationMillis = maxDurationMillis;
+    }
+
+    public Long getAvgDurationMillis() {
+        return avgDurationMillis;
+    }
+
+    public void setAvgDurationMillis(Long avgDurationMillis) {
+        this.avgDurationMillis = avgDurationMillis;
+    }
+
+    public Long getP50DurationMillis() {
+        return p50DurationMillis;
+    }
+
+    public void setP50DurationMillis(Long p50DurationMillis) {
+        this.p50DurationMillis = p50DurationMillis;
+    }
+
+    public Long getP95DurationMillis() {
+        return p95DurationMillis;
+    }
+
+    public void setP95DurationMillis(Long p95DurationMillis) {
+        this.p95DurationMillis = p95DurationMillis;
+    }
+
+    public Long getP99DurationMillis() {
+        return p99DurationMillis;
+    }
+
+    public void setP99DurationMillis(Long p99DurationMillis) {
+        this.p99DurationMillis = p99DurationMillis;
+    }
+
+    public String getDurationHistogram() {
+        return durationHistogram;
+    }
+
+    public void setDurationHistogram(String durationHistogram) {
+        this.durationHistogram = durationHistogram;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
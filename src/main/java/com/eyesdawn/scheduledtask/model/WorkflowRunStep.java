@@ -0,0 +1,92 @@
+package com.eyesdawn.scheduledtask.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One task's part in a workflow run. The unique (run, task) pair is the claim that makes a
+ * downstream task fire exactly once per run, even when its upstream tasks finish on
+ * different nodes at the same time.
+ */
+@Entity
+@Table(name = "workflow_run_steps",
+        uniqueConstraints = @UniqueConstraint(name = "uk_workflow_run_steps_run_task", columnNames = {"run_id", "task_id"}))
+public class WorkflowRunStep {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false, length = 36)
+    private String runId;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    // The task whose scheduled fire started the run
+    @Column(nullable = false)
+    private Long rootTaskId;
+
+    private LocalDateTime firedAt; // Null for the root, which was fired by its own schedule
+
+    private LocalDateTime succeededAt;
+
+    // Constructors
+    public WorkflowRunStep() {}
+
+    public WorkflowRunStep(String runId, Long taskId, Long rootTaskId) {
+        this.runId = runId;
+        this.taskId = taskId;
+        this.rootTaskId = rootTaskId;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public void setRunId(String runId) {
+        this.runId = runId;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(Long taskId) {
+        this.taskId = taskId;
+    }
+
+    public Long getRootTaskId() {
+        return rootTaskId;
+    }
+
+    public void setRootTaskId(Long rootTaskId) {
+        this.rootTaskId = rootTaskId;
+    }
+
+    public LocalDateTime getFiredAt() {
+        return firedAt;
+    }
+
+    public void setFiredAt(LocalDateTime firedAt) {
+        this.firedAt = firedAt;
+    }
+
+    public LocalDateTime getSucceededAt() {
+        return succeededAt;
+    }
+
+    public void setSucceededAt(LocalDateTime succeededAt) {
+        this.succeededAt = succeededAt;
+    }
+}
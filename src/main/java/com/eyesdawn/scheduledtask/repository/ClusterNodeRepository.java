@@ -0,0 +1,27 @@
+package com.eyesdawn.scheduledtask.repository;
+
+import com.eyesdawn.scheduledtask.model.ClusterNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ClusterNodeRepository extends JpaRepository<ClusterNode, String> {
+
+    List<ClusterNode> findByHeartbeatAtAfterOrderByNodeId(LocalDateTime cutoff);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ClusterNode n SET n.heartbeatAt = ?2, n.address = ?3 WHERE n.nodeId = ?1")
+    int heartbeat(String nodeId, LocalDateTime heartbeatAt, String address);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ClusterNode n WHERE n.heartbeatAt < ?1")
+    int deleteExpired(LocalDateTime cutoff);
+}
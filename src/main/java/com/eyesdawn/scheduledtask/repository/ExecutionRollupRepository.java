@@ -0,0 +1,32 @@
+package com.eyesdawn.scheduledtask.repository;
+
+import com.eyesdawn.scheduledtask.model.ExecutionRollup;
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ExecutionRollupRepository extends JpaRepository<ExecutionRollup, Long> {
+
+    List<ExecutionRollup> findByTaskIdAndGranularityAndPeriodStartIn(Long taskId, ScheduledTask.RollupGranularity granularity,
+                                                                     Collection<LocalDateTime> periodStarts);
+
+    List<ExecutionRollup> findByTaskId(Long taskId);
+
+    List<ExecutionRollup> findByTaskIdOrderByPeriodStartDesc(Long taskId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM ExecutionRollup r WHERE r.periodStart < ?1")
+    int deleteOlderThan(LocalDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM ExecutionRollup r WHERE r.taskId = ?1")
+    int deleteByTask(Long taskId);
+}
@@ -1,10 +1,12 @@
 package com.eyesdawn.scheduledtask.repository;
 
+import com.eyesdawn.scheduledtask.dto.TaskSummary;
 import com.eyesdawn.scheduledtask.model.ScheduledTask;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,9 +17,38 @@ public interface ScheduledTaskRepository extends JpaRepository<ScheduledTask, Lo
 
     List<ScheduledTask> findByStatus(ScheduledTask.TaskStatus status);
 
+    List<ScheduledTask> findByStatusIn(Collection<ScheduledTask.TaskStatus> statuses);
+
     @Query("SELECT t FROM ScheduledTask t WHERE t.status = 'ACTIVE'")
     List<ScheduledTask> findActiveTasks();
 
+    @Query("SELECT new com.eyesdawn.scheduledtask.dto.TaskSummary(t.id, t.name, t.cronExpression, t.status, " +
+           "t.triggerType, t.executionStore, t.workflowTrigger, t.updatedAt) FROM ScheduledTask t ORDER BY t.id")
+    List<TaskSummary> findAllSummaries();
+
+    @Query("SELECT new com.eyesdawn.scheduledtask.dto.TaskSummary(t.id, t.name, t.cronExpression, t.status, " +
+           "t.triggerType, t.executionStore, t.workflowTrigger, t.updatedAt) FROM ScheduledTask t " +
+           "WHERE t.status = ?1 ORDER BY t.id")
+    List<TaskSummary> findSummariesByStatus(ScheduledTask.TaskStatus status);
+
+    /**
+     * Id and name of the tasks that already use one of the names
+     */
+    @Query("SELECT t.id, t.name FROM ScheduledTask t WHERE t.name IN ?1")
+    List<Object[]> findIdsByNameIn(Collection<String> names);
+
+    @Query("SELECT t.id FROM ScheduledTask t")
+    List<Long> findAllIds();
+
+    @Query("SELECT t.id FROM ScheduledTask t WHERE t.executionStore = ?1")
+    List<Long> findIdsByExecutionStore(ScheduledTask.ExecutionStore executionStore);
+
+    @Query("SELECT MAX(t.timeoutSeconds) FROM ScheduledTask t")
+    Long findMaxTimeoutSeconds();
+
+    @Query("SELECT MAX(t.maxRetryDelaySeconds) FROM ScheduledTask t")
+    Long findMaxRetryDelaySeconds();
+
     @Query("SELECT t FROM ScheduledTask t LEFT JOIN FETCH t.dependencies WHERE t.id = ?1")
     Optional<ScheduledTask> findByIdWithDependencies(Long id);
 
@@ -14,11 +14,17 @@ public interface TaskDependencyRepository extends JpaRepository<TaskDependency,
 
     List<TaskDependency> findByDependentTaskIdAndEnabled(Long dependentTaskId, Boolean enabled);
 
-    @Query("SELECT d FROM TaskDependency d WHERE d.task.id = ?1 AND d.enabled = true")
+    @Query("SELECT d FROM TaskDependency d JOIN FETCH d.dependentTask WHERE d.task.id = ?1 AND d.enabled = true")
     List<TaskDependency> findActiveDependenciesForTask(Long taskId);
 
-    @Query("SELECT d FROM TaskDependency d WHERE d.dependentTask.id = ?1 AND d.enabled = true")
+    @Query("SELECT d FROM TaskDependency d JOIN FETCH d.task WHERE d.dependentTask.id = ?1 AND d.enabled = true")
     List<TaskDependency> findTasksDependingOn(Long dependentTaskId);
 
+    /**
+     * (task id, dependent task id) pairs of every enabled dependency, without loading entities
+     */
+    @Query("SELECT d.task.id, d.dependentTask.id FROM TaskDependency d WHERE d.enabled = true")
+    List<Object[]> findActiveEdges();
+
     boolean existsByTaskIdAndDependentTaskIdAndEnabled(Long taskId, Long dependentTaskId, Boolean enabled);
 }
\ No newline at end of file
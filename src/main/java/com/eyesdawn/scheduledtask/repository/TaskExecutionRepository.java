@@ -1,14 +1,18 @@
 package com.eyesdawn.scheduledtask.repository;
 
+import com.eyesdawn.scheduledtask.dto.ExecutionSummary;
 import com.eyesdawn.scheduledtask.model.TaskExecution;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface TaskExecutionRepository extends JpaRepository<TaskExecution, Long> {
@@ -17,17 +21,61 @@ public interface TaskExecutionRepository extends JpaRepository<TaskExecution, Lo
 
     Page<TaskExecution> findByTaskIdOrderByStartTimeDesc(Long taskId, Pageable pageable);
 
+    /**
+     * Up to a page of the task's executions started within [from, before], newest first,
+     * skipping those at {@code before} whose id is not below {@code beforeId}. The constant
+     * leading sort keys match the index, so databases that only read an index in order when
+     * the ORDER BY covers all of its columns still stop after one page.
+     */
+    @Query("SELECT new com.eyesdawn.scheduledtask.dto.ExecutionSummary(e.id, e.task.id, e.runId, e.status, e.startTime, " +
+           "e.endTime, e.durationMillis, e.retryAttempt, e.result, e.errorMessage) FROM TaskExecution e " +
+           "WHERE e.task.id = ?1 AND e.startTime >= ?2 AND e.startTime <= ?3 AND (e.startTime < ?3 OR e.id < ?4) " +
+           "ORDER BY e.task.id DESC, e.startTime DESC, e.id DESC")
+    List<ExecutionSummary> findPageBefore(Long taskId, LocalDateTime from, LocalDateTime before, Long beforeId,
+                                          Pageable pageable);
+
+    @Query("SELECT new com.eyesdawn.scheduledtask.dto.ExecutionSummary(e.id, e.task.id, e.runId, e.status, e.startTime, " +
+           "e.endTime, e.durationMillis, e.retryAttempt, e.result, e.errorMessage) FROM TaskExecution e " +
+           "WHERE e.task.id = ?1 AND e.status = ?2 AND e.startTime >= ?3 AND e.startTime <= ?4 " +
+           "AND (e.startTime < ?4 OR e.id < ?5) " +
+           "ORDER BY e.task.id DESC, e.status DESC, e.startTime DESC, e.id DESC")
+    List<ExecutionSummary> findPageBefore(Long taskId, TaskExecution.ExecutionStatus status, LocalDateTime from,
+                                          LocalDateTime before, Long beforeId, Pageable pageable);
+
+    List<TaskExecution> findByRunIdOrderByStartTimeAsc(String runId);
+
     List<TaskExecution> findByStatus(TaskExecution.ExecutionStatus status);
 
     @Query("SELECT e FROM TaskExecution e WHERE e.task.id = ?1 AND e.status = ?2 ORDER BY e.startTime DESC")
     List<TaskExecution> findByTaskIdAndStatus(Long taskId, TaskExecution.ExecutionStatus status);
 
-    @Query("SELECT e FROM TaskExecution e WHERE e.startTime >= ?1 AND e.startTime <= ?2 ORDER BY e.startTime DESC")
-    List<TaskExecution> findExecutionsBetween(LocalDateTime startTime, LocalDateTime endTime);
+    /**
+     * Every finished execution of the task as [status, durationMillis, endTime]; only used to
+     * seed statistics for tasks that have none yet
+     */
+    @Query("SELECT e.status, e.durationMillis, e.endTime FROM TaskExecution e " +
+           "WHERE e.task.id = ?1 AND e.status IN ('SUCCESS', 'FAILED', 'TIMEOUT', 'CANCELLED')")
+    Stream<Object[]> streamFinished(Long taskId);
+
+    /**
+     * Finished executions of the task that started before the cutoff, in index order from the
+     * cutoff back, as [id, status, startTime, durationMillis]
+     */
+    @Query("SELECT e.id, e.status, e.startTime, e.durationMillis FROM TaskExecution e " +
+           "WHERE e.task.id = ?1 AND e.startTime < ?2 AND e.status NOT IN ('RUNNING', 'RETRY_SCHEDULED') " +
+           "ORDER BY e.task.id DESC, e.startTime DESC, e.id DESC")
+    List<Object[]> findPurgeable(Long taskId, LocalDateTime cutoff, Pageable pageable);
 
-    @Query("SELECT COUNT(e) FROM TaskExecution e WHERE e.task.id = ?1 AND e.status = 'SUCCESS'")
-    long countSuccessfulExecutions(Long taskId);
+    @Modifying
+    @Query("DELETE FROM TaskExecution e WHERE e.id IN ?1")
+    int deleteByIdIn(Collection<Long> ids);
 
-    @Query("SELECT COUNT(e) FROM TaskExecution e WHERE e.task.id = ?1 AND e.status = 'FAILED'")
-    long countFailedExecutions(Long taskId);
-}
\ No newline at end of file
+    /**
+     * Mark executions that no scheduler will finish any more as failed, in one statement
+     */
+    @Modifying
+    @Query("UPDATE TaskExecution e SET e.status = 'FAILED', e.endTime = ?3, e.errorMessage = ?4 " +
+           "WHERE e.status IN ?1 AND e.startTime < ?2")
+    int failOrphaned(Collection<TaskExecution.ExecutionStatus> statuses, LocalDateTime startedBefore,
+                     LocalDateTime endTime, String errorMessage);
+}
@@ -0,0 +1,15 @@
+package com.eyesdawn.scheduledtask.repository;
+
+import com.eyesdawn.scheduledtask.model.TaskStatistics;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TaskStatisticsRepository extends JpaRepository<TaskStatistics, Long> {
+
+    @Modifying
+    @Query("DELETE FROM TaskStatistics s WHERE s.taskId = ?1")
+    int deleteByTask(Long taskId);
+}
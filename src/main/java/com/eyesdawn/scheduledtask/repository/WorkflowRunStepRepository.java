@@ -0,0 +1,31 @@
+package com.eyesdawn.scheduledtask.repository;
+
+import com.eyesdawn.scheduledtask.model.WorkflowRunStep;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WorkflowRunStepRepository extends JpaRepository<WorkflowRunStep, Long> {
+
+    Optional<WorkflowRunStep> findByRunIdAndTaskId(String runId, Long taskId);
+
+    @Query("SELECT s.taskId FROM WorkflowRunStep s WHERE s.runId = ?1 AND s.succeededAt IS NOT NULL")
+    List<Long> findSucceededTaskIds(String runId);
+
+    /**
+     * Steps of the task whose last change, firing or success, is older than the cutoff
+     */
+    @Modifying
+    @Query("DELETE FROM WorkflowRunStep s WHERE s.taskId = ?1 AND COALESCE(s.succeededAt, s.firedAt) < ?2")
+    int deleteByTaskOlderThan(Long taskId, LocalDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM WorkflowRunStep s WHERE s.taskId = ?1")
+    int deleteByTask(Long taskId);
+}
@@ -0,0 +1,519 @@
+package com.eyesdawn.scheduledtask.service;
+
+import com.eyesdawn.scheduledtask.cache.TaskDefinitionCache;
+import com.eyesdawn.scheduledtask.concurrency.BulkheadRegistry;
+import com.eyesdawn.scheduledtask.dependency.TaskDependencyIndex;
+import com.eyesdawn.scheduledtask.dto.BulkItemResult;
+import com.eyesdawn.scheduledtask.executionlog.ExecutionLogStore;
+import com.eyesdawn.scheduledtask.live.TaskEvent;
+import com.eyesdawn.scheduledtask.live.TaskEventBroadcaster;
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.repository.ScheduledTaskRepository;
+import com.eyesdawn.scheduledtask.trigger.CronExpressionCache;
+import com.eyesdawn.scheduledtask.trigger.QuartzTriggerBackend;
+import com.eyesdawn.scheduledtask.trigger.TriggerBackend;
+import com.eyesdawn.scheduledtask.trigger.TriggerBackendRegistry;
+import org.quartz.SchedulerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Creates, updates, starts, stops, pauses and resumes many tasks in one transaction.
+ * <p>
+ * Every item is checked first, with one query per kind of lookup for the whole request, and
+ * an item that fails a check is reported and left out; the rest are written as batched
+ * statements and registered with their trigger backends in one call per backend. An error
+ * after the checks, e.g. from the scheduler, rolls back the whole request and undoes the
+ * registrations already made.
+ */
+@Service
+@Transactional
+public class BulkTaskService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkTaskService.class);
+
+    static final int MAX_ITEMS = 1000;
+
+    public enum Action {
+        START, STOP, PAUSE, RESUME
+    }
+
+    @Autowired
+    private ScheduledTaskRepository scheduledTaskRepository;
+
+    @Autowired
+    private TaskDependencyIndex taskDependencyIndex;
+
+    @Autowired
+    private TriggerBackendRegistry triggerBackends;
+
+    @Autowired
+    private ExecutionLogStore executionLogStore;
+
+    @Autowired
+    private TaskDefinitionCache taskDefinitionCache;
+
+    @Autowired
+    private TaskEventBroadcaster taskEvents;
+
+    @Autowired
+    private CronExpressionCache cronExpressionCache;
+
+    @Autowired
+    private BulkheadRegistry bulkheads;
+
+    /**
+     * Create the tasks and, with {@code start}, schedule them straight away. New tasks have
+     * no dependencies yet, so starting them needs no dependency check.
+     */
+    public List<BulkItemResult> createTasks(List<ScheduledTask> tasks, boolean start) {
+        checkSize(tasks.size());
+        BulkItemResult[] results = new BulkItemResult[tasks.size()];
+        Map<String, Long> takenNames = findTakenNames(tasks);
+        Set<String> names = new HashSet<>();
+        DefinitionValidator validator = new DefinitionValidator();
+        List<ScheduledTask> accepted = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+
+        for (int i = 0; i < tasks.size(); i++) {
+            ScheduledTask task = tasks.get(i);
+            String error = checkName(task.getName(), names, takenNames, null);
+            if (error == null) {
+                error = validator.validate(task);
+            }
+            if (error != null) {
+                results[i] = BulkItemResult.failed(i, null, task.getName(), error);
+                continue;
+            }
+            task.setId(null);
+            task.setStatus(start ? ScheduledTask.TaskStatus.ACTIVE : ScheduledTask.TaskStatus.INACTIVE);
+            accepted.add(task);
+            indexes.add(i);
+        }
+
+        if (!accepted.isEmpty()) {
+            // The ids are needed for the job data, so the inserts go out before scheduling
+            scheduledTaskRepository.saveAll(accepted);
+            scheduledTaskRepository.flush();
+            for (ScheduledTask task : accepted) {
+                executionLogStore.taskSavedOnCommit(task);
+            }
+            taskDefinitionCache.invalidateAllOnCommit();
+            if (start) {
+                scheduleAll(accepted, "start");
+            }
+            publishChanged(accepted);
+        }
+        for (int i = 0; i < accepted.size(); i++) {
+            results[indexes.get(i)] = BulkItemResult.succeeded(indexes.get(i), accepted.get(i));
+        }
+        logger.info("Created {} scheduled tasks in bulk{}, {} rejected", accepted.size(),
+                start ? " and started them" : "", tasks.size() - accepted.size());
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Update the tasks identified by their ids. As with a single update, an active task is
+     * stopped and has to be started again.
+     */
+    public List<BulkItemResult> updateTasks(List<ScheduledTask> tasks) {
+        checkSize(tasks.size());
+        BulkItemResult[] results = new BulkItemResult[tasks.size()];
+        Map<Long, ScheduledTask> existing = findAllById(tasks.stream().map(ScheduledTask::getId).toList());
+        Map<String, Long> takenNames = findTakenNames(tasks);
+        Set<Long> ids = new HashSet<>();
+        Set<String> names = new HashSet<>();
+        DefinitionValidator validator = new DefinitionValidator();
+        List<ScheduledTask> accepted = new ArrayList<>();
+        List<ScheduledTask> updates = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+
+        for (int i = 0; i < tasks.size(); i++) {
+            ScheduledTask update = tasks.get(i);
+            Long taskId = update.getId();
+            String error;
+            if (taskId == null) {
+                error = "Task id is required";
+            } else if (!ids.add(taskId)) {
+                error = "Task appears more than once in the request: " + taskId;
+            } else if (!existing.containsKey(taskId)) {
+                error = "Task not found: " + taskId;
+            } else {
+                error = checkName(update.getName(), names, takenNames, taskId);
+            }
+            if (error == null) {
+                error = ScheduledTaskService.triggerTypeChangeError(update, existing.get(taskId));
+            }
+            if (error == null) {
+                error = validator.validate(update);
+            }
+            if (error != null) {
+                results[i] = BulkItemResult.failed(i, taskId, update.getName(), error);
+                continue;
+            }
+            accepted.add(existing.get(taskId));
+            updates.add(update);
+            indexes.add(i);
+        }
+
+        // Stop the active ones under their old names before anything is renamed
+        List<ScheduledTask> active = accepted.stream()
+                .filter(task -> task.getStatus() == ScheduledTask.TaskStatus.ACTIVE)
+                .toList();
+        unscheduleAll(active, "stop");
+        for (ScheduledTask task : active) {
+            task.setStatus(ScheduledTask.TaskStatus.INACTIVE);
+        }
+
+        for (int i = 0; i < accepted.size(); i++) {
+            ScheduledTask task = accepted.get(i);
+            ScheduledTaskService.copyEditableFields(updates.get(i), task);
+            executionLogStore.taskSavedOnCommit(task);
+            results[indexes.get(i)] = BulkItemResult.succeeded(indexes.get(i), task);
+        }
+        if (!accepted.isEmpty()) {
+            scheduledTaskRepository.flush();
+            taskDefinitionCache.invalidateAllOnCommit();
+            publishChanged(accepted);
+        }
+        logger.info("Updated {} scheduled tasks in bulk, {} rejected", accepted.size(), tasks.size() - accepted.size());
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Apply one action to the tasks, with the same preconditions as the single-task
+     * operations. Tasks started together may depend on each other.
+     */
+    public List<BulkItemResult> applyAction(Action action, List<Long> taskIds) {
+        checkSize(taskIds.size());
+        BulkItemResult[] results = new BulkItemResult[taskIds.size()];
+        Map<Long, ScheduledTask> existing = findAllById(taskIds);
+        Set<Long> ids = new HashSet<>();
+        List<ScheduledTask> accepted = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+
+        for (int i = 0; i < taskIds.size(); i++) {
+            Long taskId = taskIds.get(i);
+            ScheduledTask task = existing.get(taskId);
+            String error;
+            if (taskId == null) {
+                error = "Task id is required";
+            } else if (!ids.add(taskId)) {
+                error = "Task appears more than once in the request: " + taskId;
+            } else if (task == null) {
+                error = "Task not found: " + taskId;
+            } else {
+                error = checkPrecondition(action, task);
+            }
+            if (error != null) {
+                results[i] = BulkItemResult.failed(i, taskId, task != null ? task.getName() : null, error);
+                continue;
+            }
+            accepted.add(task);
+            indexes.add(i);
+        }
+
+        if (action == Action.START) {
+            Set<Long> blocked = findUnsatisfiedDependencies(accepted);
+            if (!blocked.isEmpty()) {
+                for (int i = accepted.size() - 1; i >= 0; i--) {
+                    ScheduledTask task = accepted.get(i);
+                    if (blocked.contains(task.getId())) {
+                        int index = indexes.remove(i);
+                        accepted.remove(i);
+                        results[index] = BulkItemResult.failed(index, task.getId(), task.getName(),
+                                "Task dependencies are not satisfied: " + task.getName());
+                    }
+                }
+            }
+        }
+
+        ScheduledTask.TaskStatus newStatus = switch (action) {
+            case START -> {
+                scheduleAll(accepted, "start");
+                yield ScheduledTask.TaskStatus.ACTIVE;
+            }
+            case STOP -> {
+                unscheduleAll(accepted, "stop");
+                yield ScheduledTask.TaskStatus.INACTIVE;
+            }
+            case PAUSE -> {
+                forEachBackendCall(accepted, "pause", TriggerBackend::pause);
+                yield ScheduledTask.TaskStatus.PAUSED;
+            }
+            case RESUME -> {
+                forEachBackendCall(accepted, "resume", TriggerBackend::resume);
+                yield ScheduledTask.TaskStatus.ACTIVE;
+            }
+        };
+        for (int i = 0; i < accepted.size(); i++) {
+            ScheduledTask task = accepted.get(i);
+            task.setStatus(newStatus);
+            results[indexes.get(i)] = BulkItemResult.succeeded(indexes.get(i), task);
+        }
+        if (!accepted.isEmpty()) {
+            scheduledTaskRepository.flush();
+            taskDefinitionCache.invalidateAllOnCommit();
+            publishChanged(accepted);
+        }
+        logger.info("Applied {} to {} scheduled tasks in bulk, {} rejected", action, accepted.size(),
+                taskIds.size() - accepted.size());
+        return Arrays.asList(results);
+    }
+
+    private static String checkPrecondition(Action action, ScheduledTask task) {
+        return switch (action) {
+            case START -> task.getStatus() == ScheduledTask.TaskStatus.ACTIVE
+                    ? "Task is already active: " + task.getName() : null;
+            case STOP, PAUSE -> task.getStatus() != ScheduledTask.TaskStatus.ACTIVE
+                    ? "Task is not active: " + task.getName() : null;
+            case RESUME -> task.getStatus() != ScheduledTask.TaskStatus.PAUSED
+                    ? "Task is not paused: " + task.getName() : null;
+        };
+    }
+
+    /**
+     * Ids of the tasks that cannot start: they depend on a task that is neither active nor
+     * starting with them, or on one of theirs that cannot start itself. The dependencies
+     * outside the request are loaded with one query.
+     */
+    private Set<Long> findUnsatisfiedDependencies(List<ScheduledTask> starting) {
+        Set<Long> startingIds = new HashSet<>();
+        for (ScheduledTask task : starting) {
+            startingIds.add(task.getId());
+        }
+        Map<Long, long[]> dependencies = new HashMap<>();
+        Set<Long> outside = new HashSet<>();
+        for (ScheduledTask task : starting) {
+            long[] dependencyIds = taskDependencyIndex.getDependencies(task.getId());
+            if (dependencyIds.length == 0) {
+                continue;
+            }
+            dependencies.put(task.getId(), dependencyIds);
+            for (long dependencyId : dependencyIds) {
+                if (!startingIds.contains(dependencyId)) {
+                    outside.add(dependencyId);
+                }
+            }
+        }
+
+        Set<Long> blocked = new HashSet<>();
+        if (dependencies.isEmpty()) {
+            return blocked;
+        }
+        Set<Long> inactive = new HashSet<>();
+        for (ScheduledTask dependency : scheduledTaskRepository.findAllById(outside)) {
+            if (dependency.getStatus() != ScheduledTask.TaskStatus.ACTIVE) {
+                inactive.add(dependency.getId());
+            }
+        }
+        // The graph is acyclic, so this settles after at most one round per level of depth
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Map.Entry<Long, long[]> entry : dependencies.entrySet()) {
+                if (blocked.contains(entry.getKey())) {
+                    continue;
+                }
+                for (long dependencyId : entry.getValue()) {
+                    if (inactive.contains(dependencyId) || blocked.contains(dependencyId)) {
+                        logger.warn("Dependency not satisfied: Task {} depends on inactive task {}",
+                                entry.getKey(), dependencyId);
+                        blocked.add(entry.getKey());
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return blocked;
+    }
+
+    /**
+     * Register the tasks with one call per backend. Jobs registered in this JVM are removed
+     * again if the transaction rolls back; routed backends only act after commit.
+     */
+    private void scheduleAll(List<ScheduledTask> tasks, String verb) {
+        Map<TriggerBackend, List<ScheduledTask>> byBackend = groupByBackend(tasks);
+        List<Map.Entry<TriggerBackend, List<ScheduledTask>>> registered = new ArrayList<>();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        return;
+                    }
+                    for (Map.Entry<TriggerBackend, List<ScheduledTask>> entry : registered) {
+                        try {
+                            entry.getKey().unscheduleAll(entry.getValue());
+                        } catch (SchedulerException e) {
+                            logger.warn("Failed to remove jobs of a rolled back bulk {}", verb, e);
+                        }
+                    }
+                }
+            });
+        }
+        try {
+            for (Map.Entry<TriggerBackend, List<ScheduledTask>> entry : byBackend.entrySet()) {
+                TriggerBackend backend = entry.getKey();
+                backend.scheduleAll(entry.getValue());
+                if (backend == triggerBackends.getLocal(backend.getType())) {
+                    registered.add(entry);
+                }
+            }
+        } catch (SchedulerException e) {
+            logger.error("Failed to {} {} scheduled tasks in bulk", verb, tasks.size(), e);
+            throw new RuntimeException("Failed to " + verb + " tasks: " + e.getMessage(), e);
+        }
+    }
+
+    private void unscheduleAll(List<ScheduledTask> tasks, String verb) {
+        try {
+            for (Map.Entry<TriggerBackend, List<ScheduledTask>> entry : groupByBackend(tasks).entrySet()) {
+                entry.getKey().unscheduleAll(entry.getValue());
+            }
+        } catch (SchedulerException e) {
+            logger.error("Failed to {} {} scheduled tasks in bulk", verb, tasks.size(), e);
+            throw new RuntimeException("Failed to " + verb + " tasks: " + e.getMessage(), e);
+        }
+    }
+
+    private void forEachBackendCall(List<ScheduledTask> tasks, String verb, BackendCall call) {
+        try {
+            for (ScheduledTask task : tasks) {
+                call.apply(triggerBackends.forTask(task), task);
+            }
+        } catch (SchedulerException e) {
+            logger.error("Failed to {} {} scheduled tasks in bulk", verb, tasks.size(), e);
+            throw new RuntimeException("Failed to " + verb + " tasks: " + e.getMessage(), e);
+        }
+    }
+
+    private void publishChanged(List<ScheduledTask> tasks) {
+        for (ScheduledTask task : tasks) {
+            taskEvents.publishOnCommit(() -> TaskEvent.taskChanged(task));
+        }
+    }
+
+    private Map<TriggerBackend, List<ScheduledTask>> groupByBackend(List<ScheduledTask> tasks) {
+        Map<TriggerBackend, List<ScheduledTask>> byBackend = new IdentityHashMap<>();
+        for (ScheduledTask task : tasks) {
+            byBackend.computeIfAbsent(triggerBackends.forTask(task), backend -> new ArrayList<>()).add(task);
+        }
+        return byBackend;
+    }
+
+    private Map<Long, ScheduledTask> findAllById(List<Long> taskIds) {
+        Map<Long, ScheduledTask> tasks = new HashMap<>();
+        List<Long> ids = taskIds.stream().filter(id -> id != null).distinct().toList();
+        for (ScheduledTask task : scheduledTaskRepository.findAllById(ids)) {
+            tasks.put(task.getId(), task);
+        }
+        return tasks;
+    }
+
+    private Map<String, Long> findTakenNames(List<ScheduledTask> tasks) {
+        List<String> names = tasks.stream().map(ScheduledTask::getName).filter(name -> name != null).distinct().toList();
+        Map<String, Long> taken = new HashMap<>();
+        if (!names.isEmpty()) {
+            for (Object[] row : scheduledTaskRepository.findIdsByNameIn(names)) {
+                taken.put((String) row[1], (Long) row[0]);
+            }
+        }
+        return taken;
+    }
+
+    /**
+     * Names must be unique within the request and among the stored tasks, other than the
+     * task being updated; the unique constraint would otherwise fail the whole transaction
+     */
+    private static String checkName(String name, Set<String> names, Map<String, Long> takenNames, Long taskId) {
+        if (name == null || name.isBlank()) {
+            return "Task name is required";
+        }
+        if (!names.add(name)) {
+            return "Task name appears more than once in the request: " + name;
+        }
+        Long owner = takenNames.get(name);
+        if (owner != null && !owner.equals(taskId)) {
+            return "Task name already exists: " + name;
+        }
+        return null;
+    }
+
+    private static void checkSize(int items) {
+        if (items > MAX_ITEMS) {
+            throw new IllegalArgumentException("At most " + MAX_ITEMS + " tasks per request, got " + items);
+        }
+    }
+
+    @FunctionalInterface
+    private interface BackendCall {
+        void apply(TriggerBackend backend, ScheduledTask task) throws SchedulerException;
+    }
+
+    /**
+     * Checks cron expressions and job classes, each distinct value once per request, and concurrency limits
+     */
+    private final class DefinitionValidator {
+
+        private final Map<String, String> cronErrors = new HashMap<>();
+        private final Map<String, String> jobClassErrors = new HashMap<>();
+
+        String validate(ScheduledTask task) {
+            String cronExpression = task.getCronExpression();
+            if (cronExpression == null || cronExpression.isBlank()) {
+                return "Cron expression is required";
+            }
+            Integer spreadSeconds = task.getSpreadSeconds();
+            String error = cronErrors.computeIfAbsent(cronExpression + " spread " + spreadSeconds, key -> {
+                try {
+                    cronExpressionCache.validate(cronExpression, spreadSeconds);
+                    return "";
+                } catch (RuntimeException e) {
+                    return e.getMessage();
+                }
+            });
+            if (!error.isEmpty()) {
+                return error;
+            }
+
+            String jobClass = task.getJobClass();
+            if (jobClass == null || jobClass.isBlank()) {
+                return "Job class is required";
+            }
+            error = jobClassErrors.computeIfAbsent(jobClass, name -> {
+                try {
+                    QuartzTriggerBackend.getJobClass(name);
+                    return "";
+                } catch (RuntimeException e) {
+                    return e.getMessage();
+                }
+            });
+            if (!error.isEmpty()) {
+                return error;
+            }
+
+            try {
+                bulkheads.validate(task);
+            } catch (IllegalArgumentException e) {
+                return e.getMessage();
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.eyesdawn.scheduledtask.service;
+
+import com.eyesdawn.scheduledtask.dto.ExecutionSummary;
+import com.eyesdawn.scheduledtask.executionlog.ExecutionLogStore;
+import com.eyesdawn.scheduledtask.model.TaskExecution;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes execution history straight to an output stream. Rows are read through a
+ * forward-only cursor as flat {@link ExecutionSummary} values, so no entity is ever
+ * attached to the persistence context and memory use does not depend on the row count.
+ */
+@Service
+public class ExecutionExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionExportService.class);
+
+    private static final int FETCH_SIZE = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ExecutionLogStore executionLogStore;
+
+    /**
+     * @param taskId Only this task's executions, or null for all tasks
+     * @param status Only executions in this status, or null for all
+     * @param from   Earliest start time, inclusive, or null
+     * @param to     Latest start time, inclusive, or null
+     * @return The number of executions written
+     */
+    @Transactional(readOnly = true)
+    public long export(Long taskId, TaskExecution.ExecutionStatus status, LocalDateTime from, LocalDateTime to,
+                       ExportFormat format, OutputStream out) throws IOException {
+        if (taskId != null && executionLogStore.isLogged(taskId)) {
+            // The log is read in the order executions finished
+            Iterator<ExecutionSummary> rows = executionLogStore.getLog(taskId).scan(status, from, to);
+            long count = format == ExportFormat.CSV ? writeCsv(rows, out) : writeNdjson(rows, out);
+            logger.info("Exported {} logged executions of task {} as {}", count, taskId, format);
+            return count;
+        }
+
+        StringBuilder jpql = new StringBuilder("SELECT new com.eyesdawn.scheduledtask.dto.ExecutionSummary(e.id, e.task.id, " +
+                "e.runId, e.status, e.startTime, e.endTime, e.durationMillis, e.retryAttempt, e.result, e.errorMessage) " +
+                "FROM TaskExecution e WHERE 1 = 1");
+        if (taskId != null) {
+            jpql.append(" AND e.task.id = :taskId");
+        }
+        if (status != null) {
+            jpql.append(" AND e.status = :status");
+        }
+        if (from != null) {
+            jpql.append(" AND e.startTime >= :from");
+        }
+        if (to != null) {
+            jpql.append(" AND e.startTime <= :to");
+        }
+        jpql.append(" ORDER BY e.startTime, e.id");
+
+        TypedQuery<ExecutionSummary> query = entityManager.createQuery(jpql.toString(), ExecutionSummary.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        if (taskId != null) {
+            query.setParameter("taskId", taskId);
+        }
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        if (from != null) {
+            query.setParameter("from", from);
+        }
+        if (to != null) {
+            query.setParameter("to", to);
+        }
+
+        // H2 otherwise builds the whole result before returning the first row, whatever the fetch size;
+        // lazily it reads rows from the start_time index as the cursor advances. Other databases
+        // stream with the fetch size alone and would reject the setting.
+        Session session = entityManager.unwrap(Session.class);
+        boolean h2 = session.doReturningWork(ExecutionExportService::isH2);
+        if (h2) {
+            session.doWork(connection -> setLazyQueryExecution(connection, true));
+        }
+        long count;
+        try (Stream<ExecutionSummary> rows = query.getResultStream()) {
+            count = format == ExportFormat.CSV ? writeCsv(rows.iterator(), out) : writeNdjson(rows.iterator(), out);
+        } finally {
+            if (h2) {
+                session.doWork(connection -> setLazyQueryExecution(connection, false));
+            }
+        }
+        logger.info("Exported {} executions as {}", count, format);
+        return count;
+    }
+
+    private static boolean isH2(Connection connection) throws SQLException {
+        return "H2".equals(connection.getMetaData().getDatabaseProductName());
+    }
+
+    private static void setLazyQueryExecution(Connection connection, boolean lazy) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET LAZY_QUERY_EXECUTION " + lazy);
+        }
+    }
+
+    private long writeNdjson(Iterator<ExecutionSummary> rows, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(ExecutionSummary.class);
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // One value per line, without the space Jackson puts between root values by default
+            generator.setRootValueSeparator(null);
+            while (rows.hasNext()) {
+                writer.writeValue(generator, rows.next());
+                generator.writeRaw('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long writeCsv(Iterator<ExecutionSummary> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write("id,taskId,runId,status,startTime,endTime,durationMillis,retryAttempt,result,errorMessage\n");
+        long count = 0;
+        while (rows.hasNext()) {
+            ExecutionSummary row = rows.next();
+            writer.write(String.valueOf(row.getId()));
+            writer.write(',');
+            writer.write(String.valueOf(row.getTaskId()));
+            writer.write(',');
+            writeCsvField(writer, row.getRunId());
+            writer.write(',');
+            writeCsvField(writer, row.getStatus());
+            writer.write(',');
+            writeCsvField(writer, row.getStartTime());
+            writer.write(',');
+            writeCsvField(writer, row.getEndTime());
+            writer.write(',');
+            writeCsvField(writer, row.getDurationMillis());
+            writer.write(',');
+            writeCsvField(writer, row.getRetryAttempt());
+            writer.write(',');
+            writeCsvField(writer, row.getResult());
+            writer.write(',');
+            writeCsvField(writer, row.getErrorMessage());
+            writer.write('\n');
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static void writeCsvField(Writer writer, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    public enum ExportFormat {
+        NDJSON,
+        CSV
+    }
+}
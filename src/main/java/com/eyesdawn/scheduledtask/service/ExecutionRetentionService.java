@@ -0,0 +1,361 @@
+package com.eyesdawn.scheduledtask.service;
+
+import com.eyesdawn.scheduledtask.cluster.TaskPartitionManager;
+import com.eyesdawn.scheduledtask.config.SchedulerProperties;
+import com.eyesdawn.scheduledtask.executionlog.ExecutionLogStore;
+import com.eyesdawn.scheduledtask.model.ExecutionRollup;
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.model.TaskExecution;
+import com.eyesdawn.scheduledtask.repository.ExecutionRollupRepository;
+import com.eyesdawn.scheduledtask.repository.ScheduledTaskRepository;
+import com.eyesdawn.scheduledtask.repository.TaskExecutionRepository;
+import com.eyesdawn.scheduledtask.repository.WorkflowRunStepRepository;
+import com.eyesdawn.scheduledtask.stats.DurationHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps {@code task_executions} bounded. Finished records older than the task's retention
+ * period are folded into hourly or daily {@link ExecutionRollup} rows and then deleted.
+ * <p>
+ * The purge works through the expired records in small chunks. Each chunk gets its own short
+ * transaction that deletes the records and merges them into their rollups, so concurrent
+ * inserts are never held up for long. A chunk whose records were already deleted by another node is
+ * rolled back, so nothing is counted twice.
+ * <p>
+ * Tasks that record executions in the execution log have their expired records dropped by
+ * compacting the log's older segments, and rolled up the same way. The task's workflow run
+ * steps expire with its executions.
+ */
+@Service
+public class ExecutionRetentionService implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionRetentionService.class);
+
+    private static final int MAX_ROLLUPS = 1000;
+
+    @Autowired
+    private SchedulerProperties properties;
+
+    @Autowired
+    private ScheduledTaskRepository scheduledTaskRepository;
+
+    @Autowired
+    private TaskExecutionRepository taskExecutionRepository;
+
+    @Autowired
+    private ExecutionRollupRepository executionRollupRepository;
+
+    @Autowired
+    private WorkflowRunStepRepository workflowRunStepRepository;
+
+    @Autowired
+    private TaskPartitionManager taskPartitionManager;
+
+    @Autowired
+    private ExecutionLogStore executionLogStore;
+
+    private final TransactionTemplate transactionTemplate;
+    private ScheduledExecutorService purger;
+    private volatile boolean running = false;
+
+    public ExecutionRetentionService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Purge every task's expired records, then drop expired rollups
+     */
+    public PurgeResult purgeAll() {
+        PurgeResult total = new PurgeResult();
+        for (ScheduledTask task : scheduledTaskRepository.findAll()) {
+            // In partitioned mode each node purges the tasks it owns
+            if (taskPartitionManager.isEnabled() && !taskPartitionManager.isOwner(task.getId())) {
+                continue;
+            }
+            total.add(purge(task));
+        }
+
+        int rollupRetentionDays = properties.getRetention().getRollupRetentionDays();
+        if (rollupRetentionDays > 0) {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(rollupRetentionDays);
+            Integer deleted = transactionTemplate.execute(status -> executionRollupRepository.deleteOlderThan(cutoff));
+            total.rollupsDeleted += deleted != null ? deleted : 0;
+        }
+        return total;
+    }
+
+    public PurgeResult purgeTask(Long taskId) {
+        ScheduledTask task = scheduledTaskRepository.findById(taskId)
+                .orElseThrow(() -> new RuntimeException("Task not found: " + taskId));
+        return purge(task);
+    }
+
+    /**
+     * The task's most recent rollups, newest first
+     * @param limit At least 1; larger than {@value #MAX_ROLLUPS} returns that many
+     * @throws IllegalArgumentException If the limit is below 1
+     */
+    public List<ExecutionRollup> getRollups(Long taskId, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1, got " + limit);
+        }
+        return executionRollupRepository.findByTaskIdOrderByPeriodStartDesc(taskId,
+                PageRequest.of(0, Math.min(limit, MAX_ROLLUPS)));
+    }
+
+    public int getRetentionDays(ScheduledTask task) {
+        return task.getRetentionDays() != null ? task.getRetentionDays() : properties.getRetention().getDefaultRetentionDays();
+    }
+
+    public ScheduledTask.RollupGranularity getGranularity(ScheduledTask task) {
+        return task.getRollupGranularity() != null ? task.getRollupGranularity() : properties.getRetention().getDefaultGranularity();
+    }
+
+    private PurgeResult purge(ScheduledTask task) {
+        PurgeResult result = new PurgeResult();
+        int retentionDays = getRetentionDays(task);
+        if (retentionDays <= 0) {
+            return result;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        ScheduledTask.RollupGranularity granularity = getGranularity(task);
+        int chunkSize = properties.getRetention().getChunkSize();
+
+        int conflicts = 0;
+        while (true) {
+            PurgeResult chunk;
+            try {
+                chunk = transactionTemplate.execute(status -> purgeChunk(task.getId(), cutoff, granularity, chunkSize));
+            } catch (ConcurrentPurgeException e) {
+                // Another node is purging the same task; leave the rest to it
+                if (++conflicts >= 3) {
+                    break;
+                }
+                continue;
+            }
+            result.add(chunk);
+            if (chunk.executionsPurged < chunkSize) {
+                break;
+            }
+            pauseBetweenChunks();
+        }
+
+        if (executionLogStore.isLogged(task.getId())) {
+            result.add(compactLog(task.getId(), cutoff, granularity));
+        }
+
+        Integer steps = transactionTemplate.execute(status ->
+                workflowRunStepRepository.deleteByTaskOlderThan(task.getId(), cutoff));
+        result.workflowStepsPurged = steps != null ? steps : 0;
+
+        if (result.executionsPurged > 0) {
+            logger.info("Purged {} executions of task {} older than {} days into {} {} rollups",
+                    result.executionsPurged, task.getName(), retentionDays, result.rollupsUpdated, granularity);
+        }
+        return result;
+    }
+
+    /**
+     * Drop the task's logged executions older than the cutoff and fold them into rollups.
+     * Whole segments are rewritten, so this runs once per purge rather than in chunks.
+     */
+    private PurgeResult compactLog(Long taskId, LocalDateTime cutoff, ScheduledTask.RollupGranularity granularity) {
+        PurgeResult result = new PurgeResult();
+        Map<LocalDateTime, PeriodAggregate> periods = new TreeMap<>();
+        long dropped;
+        try {
+            dropped = executionLogStore.getLog(taskId).compact(cutoff, execution -> {
+                if (granularity != ScheduledTask.RollupGranularity.NONE) {
+                    periods.computeIfAbsent(periodStart(execution.getStartTime(), granularity), k -> new PeriodAggregate())
+                            .add(execution.getStatus(), execution.getDurationMillis());
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("Failed to compact the execution log of task {}: {}", taskId, e.getMessage());
+            return result;
+        }
+        result.executionsPurged = (int) Math.min(dropped, Integer.MAX_VALUE);
+        if (!periods.isEmpty()) {
+            Integer updated = transactionTemplate.execute(status -> mergeRollups(taskId, granularity, periods));
+            result.rollupsUpdated = updated != null ? updated : 0;
+        }
+        return result;
+    }
+
+    private PurgeResult purgeChunk(Long taskId, LocalDateTime cutoff, ScheduledTask.RollupGranularity granularity, int chunkSize) {
+        PurgeResult result = new PurgeResult();
+        List<Object[]> rows = taskExecutionRepository.findPurgeable(taskId, cutoff, PageRequest.of(0, chunkSize));
+        if (rows.isEmpty()) {
+            return result;
+        }
+
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ids.add((Long) row[0]);
+        }
+        // Deleting first locks the rows, so a concurrent purge of the same chunk waits and then sees them gone
+        int deleted = taskExecutionRepository.deleteByIdIn(ids);
+        if (deleted != ids.size()) {
+            throw new ConcurrentPurgeException();
+        }
+        result.executionsPurged = deleted;
+
+        if (granularity != ScheduledTask.RollupGranularity.NONE) {
+            Map<LocalDateTime, PeriodAggregate> periods = new TreeMap<>();
+            for (Object[] row : rows) {
+                periods.computeIfAbsent(periodStart((LocalDateTime) row[2], granularity), k -> new PeriodAggregate())
+                        .add((TaskExecution.ExecutionStatus) row[1], (Long) row[3]);
+            }
+            result.rollupsUpdated = mergeRollups(taskId, granularity, periods);
+        }
+        return result;
+    }
+
+    private int mergeRollups(Long taskId, ScheduledTask.RollupGranularity granularity,
+                             Map<LocalDateTime, PeriodAggregate> periods) {
+        Map<LocalDateTime, ExecutionRollup> rollups = new HashMap<>();
+        for (ExecutionRollup rollup : executionRollupRepository.findByTaskIdAndGranularityAndPeriodStartIn(
+                taskId, granularity, periods.keySet())) {
+            rollups.put(rollup.getPeriodStart(), rollup);
+        }
+        periods.forEach((periodStart, aggregate) -> {
+            ExecutionRollup rollup = rollups.computeIfAbsent(periodStart,
+                    k -> new ExecutionRollup(taskId, granularity, periodStart));
+            rollup.merge(aggregate.success, aggregate.failed, aggregate.timeout, aggregate.cancelled,
+                    aggregate.totalDuration, aggregate.durations);
+        });
+        executionRollupRepository.saveAll(rollups.values());
+        return rollups.size();
+    }
+
+    private static LocalDateTime periodStart(LocalDateTime startTime, ScheduledTask.RollupGranularity granularity) {
+        return startTime.truncatedTo(granularity == ScheduledTask.RollupGranularity.DAILY ? ChronoUnit.DAYS : ChronoUnit.HOURS);
+    }
+
+    private void pauseBetweenChunks() {
+        long pauseMillis = properties.getRetention().getChunkPauseMillis();
+        if (pauseMillis > 0) {
+            try {
+                Thread.sleep(pauseMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        SchedulerProperties.Retention settings = properties.getRetention();
+        if (!settings.isEnabled() || settings.getIntervalMinutes() <= 0) {
+            return;
+        }
+        purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "execution-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purger.scheduleWithFixedDelay(() -> {
+            try {
+                purgeAll();
+            } catch (Exception e) {
+                logger.warn("Execution purge failed: {}", e.getMessage());
+            }
+        }, settings.getIntervalMinutes(), settings.getIntervalMinutes(), TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (purger != null) {
+            purger.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public static class PurgeResult {
+
+        private int executionsPurged;
+        private int rollupsUpdated;
+        private int rollupsDeleted;
+        private int workflowStepsPurged;
+
+        void add(PurgeResult other) {
+            executionsPurged += other.executionsPurged;
+            rollupsUpdated += other.rollupsUpdated;
+            rollupsDeleted += other.rollupsDeleted;
+            workflowStepsPurged += other.workflowStepsPurged;
+        }
+
+        public int getExecutionsPurged() {
+            return executionsPurged;
+        }
+
+        public int getRollupsUpdated() {
+            return rollupsUpdated;
+        }
+
+        public int getRollupsDeleted() {
+            return rollupsDeleted;
+        }
+
+        public int getWorkflowStepsPurged() {
+            return workflowStepsPurged;
+        }
+    }
+
+    private static final class PeriodAggregate {
+        private long success;
+        private long failed;
+        private long timeout;
+        private long cancelled;
+        private long totalDuration;
+        private final DurationHistogram durations = new DurationHistogram();
+
+        void add(TaskExecution.ExecutionStatus status, Long durationMillis) {
+            switch (status) {
+                case SUCCESS -> success++;
+                case FAILED -> failed++;
+                case TIMEOUT -> timeout++;
+                case CANCELLED -> cancelled++;
+                default -> {
+                    // Rejected fires never ran, so they are purged without counting
+                    return;
+                }
+            }
+            if (durationMillis != null) {
+                durations.record(durationMillis);
+                totalDuration += durationMillis;
+            }
+        }
+    }
+
+    private static final class ConcurrentPurgeException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+}
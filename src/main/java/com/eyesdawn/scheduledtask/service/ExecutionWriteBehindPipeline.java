@@ -0,0 +1,334 @@
+package com.eyesdawn.scheduledtask.service;
+
+import com.eyesdawn.scheduledtask.config.SchedulerProperties;
+import com.eyesdawn.scheduledtask.model.TaskExecution;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind buffer for execution records. Lifecycle changes are queued in memory and a
+ * single flusher thread writes them in JDBC batches once the batch size or flush interval is
+ * reached. A start and completion that land in the same batch collapse into one insert.
+ * Producers block when the queue is full, and the queue is drained on shutdown.
+ */
+@Component
+public class ExecutionWriteBehindPipeline implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionWriteBehindPipeline.class);
+
+    private static final String INSERT_SQL = "INSERT INTO task_executions "
+            + "(id, task_id, status, start_time, end_time, result, error_message, retry_attempt, duration_millis, run_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SQL = "UPDATE task_executions SET status = ?, start_time = ?, end_time = ?, "
+            + "result = ?, error_message = ?, retry_attempt = ?, duration_millis = ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final SchedulerProperties.WriteBehind settings;
+    private final BlockingQueue<ExecutionWrite> queue;
+    private final Map<Long, TaskExecution> inFlight = new ConcurrentHashMap<>();
+
+    private volatile boolean running = false;
+    private Thread flusher;
+
+    public ExecutionWriteBehindPipeline(SchedulerProperties properties) {
+        this.settings = properties.getWriteBehind();
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, settings.getQueueCapacity()));
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    /**
+     * Assign an id to a new execution and queue its insert
+     */
+    public TaskExecution started(TaskExecution execution) {
+        execution.setId(nextExecutionId());
+        inFlight.put(execution.getId(), execution);
+        enqueue(ExecutionWrite.insert(execution));
+        return execution;
+    }
+
+    /**
+     * Track an execution whose row was already queued, such as a scheduled retry that now starts
+     */
+    public TaskExecution resumed(TaskExecution execution) {
+        inFlight.put(execution.getId(), execution);
+        enqueue(ExecutionWrite.update(execution));
+        return execution;
+    }
+
+    /**
+     * Queue the final state of an execution returned by {@link #takeInFlight}
+     */
+    public TaskExecution completed(TaskExecution execution) {
+        enqueue(ExecutionWrite.update(execution));
+        return execution;
+    }
+
+    /**
+     * Queue a record that is already in its final state, such as a scheduled retry
+     */
+    public TaskExecution recorded(TaskExecution execution) {
+        if (execution.getId() == null) {
+            execution.setId(nextExecutionId());
+        }
+        enqueue(ExecutionWrite.insert(execution));
+        return execution;
+    }
+
+    /**
+     * Remove and return an execution started through this pipeline, or null if it was not
+     */
+    public TaskExecution takeInFlight(Long executionId) {
+        return inFlight.remove(executionId);
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private void enqueue(ExecutionWrite write) {
+        try {
+            // Blocking put is the backpressure: fires slow down rather than dropping records
+            queue.put(write);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while queueing execution " + write.id, e);
+        }
+    }
+
+    private Long nextExecutionId() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        // Execution ids come from a sequence, which is read before the insert
+        BeforeExecutionGenerator generator = (BeforeExecutionGenerator) sessionFactory.getMappingMetamodel()
+                .getEntityDescriptor(TaskExecution.class).getGenerator();
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            return (Long) generator.generate((SharedSessionContractImplementor) session, null, null, EventType.INSERT);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::flushLoop, "execution-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+        logger.info("Execution write-behind enabled (batch size {}, flush interval {} ms)",
+                settings.getBatchSize(), settings.getFlushIntervalMillis());
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Whatever is left is written by the stopping thread
+        List<ExecutionWrite> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining);
+        }
+        logger.info("Execution write-behind stopped, {} executions still in flight", inFlight.size());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stop after the Quartz scheduler so fires that complete during shutdown are still written
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 1000;
+    }
+
+    private void flushLoop() {
+        int batchSize = Math.max(1, settings.getBatchSize());
+        List<ExecutionWrite> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                ExecutionWrite first = queue.poll(settings.getFlushIntervalMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.getFlushIntervalMillis());
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remainingNanos = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remainingNanos <= 0) {
+                        break;
+                    }
+                    ExecutionWrite next = queue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Execution write-behind flush failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<ExecutionWrite> batch) {
+        // Collapse writes per execution: the latest state wins, and an insert stays an insert
+        Map<Long, ExecutionWrite> latest = new LinkedHashMap<>();
+        for (ExecutionWrite write : batch) {
+            latest.merge(write.id, write, (previous, current) -> previous.insert ? current.asInsert() : current);
+        }
+
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        for (ExecutionWrite write : latest.values()) {
+            if (write.insert) {
+                inserts.add(write.insertArgs());
+            } else {
+                updates.add(write.updateArgs());
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!inserts.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+                }
+                if (!updates.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+                }
+            });
+            logger.debug("Flushed {} execution inserts and {} updates", inserts.size(), updates.size());
+        } catch (DataAccessException e) {
+            logger.warn("Batch write of {} executions failed, retrying row by row: {}", latest.size(), e.getMessage());
+            writeIndividually(inserts, updates);
+        }
+    }
+
+    private void writeIndividually(List<Object[]> inserts, List<Object[]> updates) {
+        for (Object[] args : inserts) {
+            try {
+                jdbcTemplate.update(INSERT_SQL, args);
+            } catch (DataAccessException e) {
+                logger.error("Dropping execution record {}: {}", args[0], e.getMessage());
+            }
+        }
+        for (Object[] args : updates) {
+            try {
+                jdbcTemplate.update(UPDATE_SQL, args);
+            } catch (DataAccessException e) {
+                logger.error("Dropping execution update {}: {}", args[args.length - 1], e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Immutable snapshot of an execution at the moment it was queued
+     */
+    private static final class ExecutionWrite {
+        private final boolean insert;
+        private final Long id;
+        private final Long taskId;
+        private final String status;
+        private final LocalDateTime startTime;
+        private final LocalDateTime endTime;
+        private final String result;
+        private final String errorMessage;
+        private final Integer retryAttempt;
+        private final Long durationMillis;
+        private final String runId;
+
+        private ExecutionWrite(boolean insert, Long id, Long taskId, String status, LocalDateTime startTime,
+                               LocalDateTime endTime, String result, String errorMessage,
+                               Integer retryAttempt, Long durationMillis, String runId) {
+            this.insert = insert;
+            this.id = id;
+            this.taskId = taskId;
+            this.status = status;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.result = result;
+            this.errorMessage = errorMessage;
+            this.retryAttempt = retryAttempt;
+            this.durationMillis = durationMillis;
+            this.runId = runId;
+        }
+
+        static ExecutionWrite insert(TaskExecution execution) {
+            return of(true, execution);
+        }
+
+        static ExecutionWrite update(TaskExecution execution) {
+            return of(false, execution);
+        }
+
+        private static ExecutionWrite of(boolean insert, TaskExecution execution) {
+            return new ExecutionWrite(insert, execution.getId(), execution.getTask().getId(),
+                    execution.getStatus().name(), execution.getStartTime(), execution.getEndTime(),
+                    execution.getResult(), execution.getErrorMessage(), execution.getRetryAttempt(),
+                    execution.getDurationMillis(), execution.getRunId());
+        }
+
+        ExecutionWrite asInsert() {
+            return new ExecutionWrite(true, id, taskId, status, startTime, endTime, result, errorMessage,
+                    retryAttempt, durationMillis, runId);
+        }
+
+        Object[] insertArgs() {
+            return new Object[]{id, taskId, status, startTime, endTime, result, errorMessage, retryAttempt, durationMillis, runId};
+        }
+
+        // The run id is fixed when the execution is created, so updates leave it alone
+        Object[] updateArgs() {
+            return new Object[]{status, startTime, endTime, result, errorMessage, retryAttempt, durationMillis, id};
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.eyesdawn.scheduledtask.service;
+
+import com.eyesdawn.scheduledtask.config.SchedulerProperties;
+import com.eyesdawn.scheduledtask.dto.FireTimePreview;
+import com.eyesdawn.scheduledtask.dto.LoadForecast;
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.trigger.CronExpressionCache;
+import org.quartz.CronExpression;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Upcoming fire times computed from the tasks' cron expressions, without asking the trigger
+ * backends. Expressions come from {@link CronExpressionCache}, and tasks whose expressions
+ * compile to the same {@link CronExpression} share one computation, so previewing thousands
+ * of tasks costs about as much as their distinct schedules. The same grouping gives the
+ * per-second load forecast used to find seconds where many tasks fire together.
+ */
+@Service
+public class FireTimePreviewService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FireTimePreviewService.class);
+
+    private static final int MAX_FORECAST_SECONDS = 86_400;
+
+    @Autowired
+    private ScheduledTaskService scheduledTaskService;
+
+    @Autowired
+    private CronExpressionCache cronExpressionCache;
+
+    @Autowired
+    private SchedulerProperties properties;
+
+    /**
+     * The next {@code count} fire times of a task after {@code from}, whatever its status
+     * @throws IllegalArgumentException If count is out of range
+     * @throws RuntimeException If the task's cron expression is invalid
+     */
+    public Optional<FireTimePreview> previewTask(Long taskId, LocalDateTime from, int count) {
+        checkCount(count);
+        return scheduledTaskService.getTask(taskId).map(task -> {
+            CronExpression cron = cronExpressionCache.forTask(task);
+            FireTimes fireTimes = FireTimes.compute(cron, from, null, count);
+            return new FireTimePreview(task.getId(), task.getName(), task.getCronExpression(),
+                    cron.getCronExpression(), fireTimes.times, fireTimes.truncated);
+        });
+    }
+
+    /**
+     * Fire times of every active task after {@code from} and up to {@code to}, at most
+     * {@code limitPerTask} each; tasks that do not fire in the window are left out
+     * @throws IllegalArgumentException If the window is empty or limitPerTask is out of range
+     */
+    public List<FireTimePreview> previewActive(LocalDateTime from, LocalDateTime to, int limitPerTask) {
+        return preview(scheduledTaskService.getActiveTasks(), from, to, limitPerTask);
+    }
+
+    public List<FireTimePreview> preview(Collection<ScheduledTask> tasks, LocalDateTime from, LocalDateTime to,
+                                         int limitPerTask) {
+        checkCount(limitPerTask);
+        if (!to.isAfter(from)) {
+            throw new IllegalArgumentException("The preview window must end after it starts");
+        }
+
+        return groupBySchedule(tasks).entrySet().parallelStream()
+                .flatMap(entry -> {
+                    FireTimes fireTimes = FireTimes.compute(entry.getKey(), from, to, limitPerTask);
+                    if (fireTimes.times.isEmpty()) {
+                        return Stream.empty();
+                    }
+                    String resolved = entry.getKey().getCronExpression();
+                    return entry.getValue().stream().map(task -> new FireTimePreview(task.getId(), task.getName(),
+                            task.getCronExpression(), resolved, fireTimes.times, fireTimes.truncated));
+                })
+                .sorted(Comparator.comparing(FireTimePreview::getTaskId))
+                .toList();
+    }
+
+    /**
+     * How many active tasks fire in each second of the window starting at {@code from}
+     * @param top How many of the busiest seconds to list
+     * @throws IllegalArgumentException If seconds or top is out of range
+     */
+    public LoadForecast forecastActive(LocalDateTime from, int seconds, int top) {
+        return forecast(scheduledTaskService.getActiveTasks(), from, seconds, top);
+    }
+
+    public LoadForecast forecast(Collection<ScheduledTask> tasks, LocalDateTime from, int seconds, int top) {
+        if (seconds < 1 || seconds > MAX_FORECAST_SECONDS) {
+            throw new IllegalArgumentException("Forecast length must be between 1 and " + MAX_FORECAST_SECONDS
+                    + " seconds: " + seconds);
+        }
+        if (top < 0 || top > seconds) {
+            throw new IllegalArgumentException("Hot spot count must be between 0 and the forecast length: " + top);
+        }
+        LocalDateTime start = from.truncatedTo(ChronoUnit.SECONDS);
+
+        // Second slots each schedule fires in, then weighted by the number of tasks sharing it
+        List<Map.Entry<int[], Integer>> slots = groupBySchedule(tasks).entrySet().parallelStream()
+                .map(entry -> Map.entry(fireSlots(entry.getKey(), start, seconds), entry.getValue().size()))
+                .toList();
+        int[] fires = new int[seconds];
+        long total = 0;
+        for (Map.Entry<int[], Integer> entry : slots) {
+            for (int slot : entry.getKey()) {
+                fires[slot] += entry.getValue();
+            }
+            total += (long) entry.getKey().length * entry.getValue();
+        }
+
+        int peak = 0;
+        for (int count : fires) {
+            peak = Math.max(peak, count);
+        }
+        List<LoadForecast.SecondLoad> hotSpots = IntStream.range(0, seconds)
+                .filter(slot -> fires[slot] > 0)
+                .boxed()
+                .sorted(Comparator.<Integer>comparingInt(slot -> fires[slot]).reversed().thenComparingInt(slot -> slot))
+                .limit(top)
+                .map(slot -> new LoadForecast.SecondLoad(start.plusSeconds(slot), fires[slot]))
+                .toList();
+        return new LoadForecast(start, seconds, total, peak, hotSpots, fires);
+    }
+
+    /**
+     * Tasks by the expression their triggers fire on; tasks whose expression does not resolve
+     * are left out, since they cannot be scheduled either
+     */
+    private Map<CronExpression, List<ScheduledTask>> groupBySchedule(Collection<ScheduledTask> tasks) {
+        // The cache hands out one instance per distinct expression, so identity groups equal schedules
+        Map<CronExpression, List<ScheduledTask>> bySchedule = new IdentityHashMap<>();
+        for (ScheduledTask task : tasks) {
+            CronExpression cron;
+            try {
+                cron = cronExpressionCache.forTask(task);
+            } catch (RuntimeException e) {
+                logger.debug("Skipping task {} in the fire time preview: {}", task.getName(), e.getMessage());
+                continue;
+            }
+            bySchedule.computeIfAbsent(cron, key -> new ArrayList<>()).add(task);
+        }
+        return bySchedule;
+    }
+
+    private static int[] fireSlots(CronExpression cron, LocalDateTime start, int seconds) {
+        ZoneId zone = cron.getTimeZone().toZoneId();
+        long startMillis = start.atZone(zone).toInstant().toEpochMilli();
+        IntStream.Builder slots = IntStream.builder();
+        // Fire times are whole seconds, so this finds the first one at or after the start
+        Date next = cron.getNextValidTimeAfter(new Date(startMillis - 1000));
+        while (next != null) {
+            long slot = (next.getTime() - startMillis) / 1000;
+            if (slot >= seconds) {
+                break;
+            }
+            slots.add((int) slot);
+            next = cron.getNextValidTimeAfter(next);
+        }
+        return slots.build().toArray();
+    }
+
+    private void checkCount(int count) {
+        int max = properties.getCron().getPreviewMaxCount();
+        if (count < 1 || count > max) {
+            throw new IllegalArgumentException("Fire time count must be between 1 and " + max + ": " + count);
+        }
+    }
+
+    private static final class FireTimes {
+
+        private final List<LocalDateTime> times;
+        private final boolean truncated;
+
+        private FireTimes(List<LocalDateTime> times, boolean truncated) {
+            this.times = times;
+            this.truncated = truncated;
+        }
+
+        /**
+         * Up to limit fire times after from and, when to is given, not after it
+         */
+        static FireTimes compute(CronExpression cron, LocalDateTime from, LocalDateTime to, int limit) {
+            ZoneId zone = cron.getTimeZone().toZoneId();
+            Date until = to != null ? Date.from(to.atZone(zone).toInstant()) : null;
+            List<LocalDateTime> times = new ArrayList<>(Math.min(limit, 64));
+            Date next = cron.getNextValidTimeAfter(Date.from(from.atZone(zone).toInstant()));
+            while (next != null && (until == null || !next.after(until))) {
+                if (times.size() == limit) {
+                    return new FireTimes(List.copyOf(times), true);
+                }
+                times.add(LocalDateTime.ofInstant(next.toInstant(), zone));
+                next = cron.getNextValidTimeAfter(next);
+            }
+            return new FireTimes(List.copyOf(times), false);
+        }
+    }
+}
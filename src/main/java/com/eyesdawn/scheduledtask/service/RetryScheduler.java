@@ -0,0 +1,200 @@
+package com.eyesdawn.scheduledtask.service;
+
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.model.TaskExecution;
+import com.eyesdawn.scheduledtask.trigger.TriggerBackendRegistry;
+import org.quartz.JobDataMap;
+import org.quartz.SchedulerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds pending retries in a single {@link DelayQueue} and re-fires the task's job through
+ * its trigger backend once the backoff delay has elapsed, instead of registering one trigger per retry.
+ */
+@Component
+public class RetryScheduler implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetryScheduler.class);
+
+    public static final String RETRY_EXECUTION_ID = "retryExecutionId";
+    public static final String RETRY_ATTEMPT = "retryAttempt";
+
+    @Autowired
+    private TriggerBackendRegistry triggerBackends;
+
+    @Lazy
+    @Autowired
+    private TaskExecutionService taskExecutionService;
+
+    private final DelayQueue<PendingRetry> pending = new DelayQueue<>();
+
+    // Delay used to start each retry that is still running, for decorrelated jitter
+    private final Map<Long, Long> retryDelays = new ConcurrentHashMap<>();
+
+    private volatile boolean running = false;
+    private Thread dispatcher;
+
+    /**
+     * Queue a retry once the current transaction commits
+     * @return The chosen delay in milliseconds
+     */
+    public long schedule(ScheduledTask task, TaskExecution retryExecution, long previousDelayMillis) {
+        long delayMillis = computeDelayMillis(task.getRetryBackoff(),
+                TimeUnit.SECONDS.toMillis(task.getRetryDelaySeconds()),
+                TimeUnit.SECONDS.toMillis(task.getMaxRetryDelaySeconds()),
+                retryExecution.getRetryAttempt(), previousDelayMillis);
+
+        PendingRetry retry = new PendingRetry(task.getId(), task.getName(), task.getTriggerType(),
+                retryExecution.getId(), retryExecution.getRetryAttempt(), retryExecution.getRunId(), delayMillis);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.add(retry);
+                }
+            });
+        } else {
+            pending.add(retry);
+        }
+        return delayMillis;
+    }
+
+    /**
+     * Delay that started the given execution if it was a retry, otherwise 0
+     */
+    public long takeRetryDelay(Long executionId) {
+        Long delay = retryDelays.remove(executionId);
+        return delay != null ? delay : 0L;
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    static long computeDelayMillis(ScheduledTask.RetryBackoff backoff, long baseMillis, long capMillis,
+                                   int attempt, long previousDelayMillis) {
+        long base = Math.max(0L, baseMillis);
+        long cap = Math.max(base, capMillis);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (backoff == null ? ScheduledTask.RetryBackoff.EXPONENTIAL : backoff) {
+            case FIXED:
+                return base;
+            case DECORRELATED_JITTER: {
+                long upper = Math.min(cap, Math.max(base, previousDelayMillis) * 3);
+                return upper > base ? random.nextLong(base, upper + 1) : base;
+            }
+            case EXPONENTIAL:
+            default: {
+                int shift = Math.max(attempt - 1, 0);
+                boolean overflows = shift >= Long.numberOfLeadingZeros(base) - 1;
+                long delay = overflows ? cap : Math.min(cap, base << shift);
+                // Equal jitter: keep half the delay, randomise the other half
+                long half = delay / 2;
+                return half + (half > 0 ? random.nextLong(half + 1) : 0L);
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "retry-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+        if (!pending.isEmpty()) {
+            logger.info("Retry scheduler stopped with {} pending retries", pending.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                fire(pending.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Retry dispatch failed", e);
+            }
+        }
+    }
+
+    private void fire(PendingRetry retry) {
+        JobDataMap data = new JobDataMap();
+        data.put(RETRY_EXECUTION_ID, retry.executionId);
+        data.put(RETRY_ATTEMPT, retry.attempt);
+        if (retry.runId != null) {
+            data.put(WorkflowCoordinator.RUN_ID, retry.runId);
+        }
+        try {
+            retryDelays.put(retry.executionId, retry.delayMillis);
+            triggerBackends.get(retry.triggerType).triggerNow(retry.taskId, retry.taskName, data);
+            logger.info("Fired retry {} of task {} after {} ms", retry.attempt, retry.taskId, retry.delayMillis);
+        } catch (SchedulerException e) {
+            retryDelays.remove(retry.executionId);
+            logger.warn("Cancelling retry {} of task {}: {}", retry.attempt, retry.taskId, e.getMessage());
+            taskExecutionService.completeExecution(retry.executionId, TaskExecution.ExecutionStatus.CANCELLED,
+                    null, "Retry cancelled: " + e.getMessage());
+        }
+    }
+
+    private static final class PendingRetry implements Delayed {
+        private final Long taskId;
+        private final String taskName;
+        private final ScheduledTask.TriggerType triggerType;
+        private final Long executionId;
+        private final int attempt;
+        private final String runId;
+        private final long delayMillis;
+        private final long dueNanos;
+
+        private PendingRetry(Long taskId, String taskName, ScheduledTask.TriggerType triggerType,
+                             Long executionId, int attempt, String runId, long delayMillis) {
+            this.taskId = taskId;
+            this.taskName = taskName;
+            this.triggerType = triggerType;
+            this.executionId = executionId;
+            this.attempt = attempt;
+            this.runId = runId;
+            this.delayMillis = delayMillis;
+            this.dueNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueNanos, ((PendingRetry) other).dueNanos);
+        }
+    }
+}
@@ -1,17 +1,38 @@
 package com.eyesdawn.scheduledtask.service;
 
+import com.eyesdawn.scheduledtask.cache.TaskDefinitionCache;
+import com.eyesdawn.scheduledtask.concurrency.BulkheadRegistry;
+import com.eyesdawn.scheduledtask.dependency.TaskDependencyIndex;
+import com.eyesdawn.scheduledtask.dto.TaskFields;
+import com.eyesdawn.scheduledtask.dto.TaskSummary;
+import com.eyesdawn.scheduledtask.executionlog.ExecutionLogStore;
+import com.eyesdawn.scheduledtask.jfr.DependencyCheckEvent;
+import com.eyesdawn.scheduledtask.live.TaskEvent;
+import com.eyesdawn.scheduledtask.live.TaskEventBroadcaster;
+import com.eyesdawn.scheduledtask.metrics.SchedulerMetrics;
 import com.eyesdawn.scheduledtask.model.ScheduledTask;
-import com.eyesdawn.scheduledtask.model.TaskDependency;
+import com.eyesdawn.scheduledtask.repository.ExecutionRollupRepository;
 import com.eyesdawn.scheduledtask.repository.ScheduledTaskRepository;
-import com.eyesdawn.scheduledtask.repository.TaskDependencyRepository;
+import com.eyesdawn.scheduledtask.repository.WorkflowRunStepRepository;
+import com.eyesdawn.scheduledtask.trigger.CronExpressionCache;
+import com.eyesdawn.scheduledtask.trigger.QuartzTriggerBackend;
+import com.eyesdawn.scheduledtask.trigger.TriggerBackendRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
 import org.quartz.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -24,16 +45,50 @@ public class ScheduledTaskService {
     private ScheduledTaskRepository scheduledTaskRepository;
 
     @Autowired
-    private TaskDependencyRepository taskDependencyRepository;
+    private ExecutionRollupRepository executionRollupRepository;
 
     @Autowired
-    private Scheduler quartzScheduler;
+    private WorkflowRunStepRepository workflowRunStepRepository;
+
+    @Autowired
+    private TaskStatisticsService taskStatisticsService;
+
+    @Autowired
+    private TaskDependencyIndex taskDependencyIndex;
+
+    @Autowired
+    private TriggerBackendRegistry triggerBackends;
+
+    @Autowired
+    private ExecutionLogStore executionLogStore;
+
+    @Autowired
+    private TaskDefinitionCache taskDefinitionCache;
+
+    @Autowired
+    private TaskEventBroadcaster taskEvents;
+
+    @Autowired
+    private CronExpressionCache cronExpressionCache;
+
+    @Autowired
+    private SchedulerMetrics schedulerMetrics;
+
+    @Autowired
+    private BulkheadRegistry bulkheads;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     public ScheduledTask createTask(ScheduledTask task) {
-        validateCronExpression(task.getCronExpression());
+        validateCronExpression(task);
         validateJobClass(task.getJobClass());
+        bulkheads.validate(task);
         
         ScheduledTask savedTask = scheduledTaskRepository.save(task);
+        executionLogStore.taskSavedOnCommit(savedTask);
+        taskDefinitionCache.invalidateOnCommit(savedTask.getId());
+        taskEvents.publishOnCommit(() -> TaskEvent.taskChanged(savedTask));
         logger.info("Created new scheduled task: {}", savedTask.getName());
         
         return savedTask;
@@ -42,25 +97,26 @@ public class ScheduledTaskService {
     public ScheduledTask updateTask(Long taskId, ScheduledTask updatedTask) {
         ScheduledTask existingTask = scheduledTaskRepository.findById(taskId)
                 .orElseThrow(() -> new RuntimeException("Task not found: " + taskId));
+        String triggerTypeError = triggerTypeChangeError(updatedTask, existingTask);
+        if (triggerTypeError != null) {
+            throw new IllegalArgumentException(triggerTypeError);
+        }
 
         // Stop existing scheduled job if active
         if (existingTask.getStatus() == ScheduledTask.TaskStatus.ACTIVE) {
             stopTask(taskId);
         }
 
-        // Update task properties
-        existingTask.setName(updatedTask.getName());
-        existingTask.setDescription(updatedTask.getDescription());
-        existingTask.setCronExpression(updatedTask.getCronExpression());
-        existingTask.setJobClass(updatedTask.getJobClass());
-        existingTask.setJobData(updatedTask.getJobData());
-        existingTask.setMaxRetries(updatedTask.getMaxRetries());
-        existingTask.setTimeoutSeconds(updatedTask.getTimeoutSeconds());
+        copyEditableFields(updatedTask, existingTask);
 
-        validateCronExpression(existingTask.getCronExpression());
+        validateCronExpression(existingTask);
         validateJobClass(existingTask.getJobClass());
+        bulkheads.validate(existingTask);
 
         ScheduledTask savedTask = scheduledTaskRepository.save(existingTask);
+        executionLogStore.taskSavedOnCommit(savedTask);
+        taskDefinitionCache.invalidateOnCommit(taskId);
+        taskEvents.publishOnCommit(() -> TaskEvent.taskChanged(savedTask));
         logger.info("Updated scheduled task: {}", savedTask.getName());
 
         return savedTask;
@@ -76,6 +132,14 @@ public class ScheduledTaskService {
         }
 
         scheduledTaskRepository.delete(task);
+        executionRollupRepository.deleteByTask(taskId);
+        workflowRunStepRepository.deleteByTask(taskId);
+        taskStatisticsService.removeTask(taskId);
+        taskDependencyIndex.removeTaskOnCommit(taskId);
+        executionLogStore.removeTaskOnCommit(taskId);
+        taskDefinitionCache.invalidateOnCommit(taskId);
+        schedulerMetrics.removeTaskOnCommit(taskId);
+        taskEvents.publishOnCommit(() -> TaskEvent.taskDeleted(taskId));
         logger.info("Deleted scheduled task: {}", task.getName());
     }
 
@@ -93,9 +157,11 @@ public class ScheduledTaskService {
         }
 
         try {
-            scheduleQuartzJob(task);
+            triggerBackends.forTask(task).schedule(task);
             task.setStatus(ScheduledTask.TaskStatus.ACTIVE);
             ScheduledTask savedTask = scheduledTaskRepository.save(task);
+            taskDefinitionCache.invalidateOnCommit(taskId);
+            taskEvents.publishOnCommit(() -> TaskEvent.taskChanged(savedTask));
             
             logger.info("Started scheduled task: {}", task.getName());
             return savedTask;
@@ -115,11 +181,12 @@ public class ScheduledTaskService {
         }
 
         try {
-            JobKey jobKey = new JobKey(task.getName(), "DEFAULT");
-            quartzScheduler.deleteJob(jobKey);
+            triggerBackends.forTask(task).unschedule(task);
             
             task.setStatus(ScheduledTask.TaskStatus.INACTIVE);
             ScheduledTask savedTask = scheduledTaskRepository.save(task);
+            taskDefinitionCache.invalidateOnCommit(taskId);
+            taskEvents.publishOnCommit(() -> TaskEvent.taskChanged(savedTask));
             
             logger.info("Stopped scheduled task: {}", task.getName());
             return savedTask;
@@ -139,11 +206,12 @@ public class ScheduledTaskService {
         }
 
         try {
-            JobKey jobKey = new JobKey(task.getName(), "DEFAULT");
-            quartzScheduler.pauseJob(jobKey);
+            triggerBackends.forTask(task).pause(task);
             
             task.setStatus(ScheduledTask.TaskStatus.PAUSED);
             ScheduledTask savedTask = scheduledTaskRepository.save(task);
+            taskDefinitionCache.invalidateOnCommit(taskId);
+            taskEvents.publishOnCommit(() -> TaskEvent.taskChanged(savedTask));
             
             logger.info("Paused scheduled task: {}", task.getName());
             return savedTask;
@@ -163,11 +231,12 @@ public class ScheduledTaskService {
         }
 
         try {
-            JobKey jobKey = new JobKey(task.getName(), "DEFAULT");
-            quartzScheduler.resumeJob(jobKey);
+            triggerBackends.forTask(task).resume(task);
             
             task.setStatus(ScheduledTask.TaskStatus.ACTIVE);
             ScheduledTask savedTask = scheduledTaskRepository.save(task);
+            taskDefinitionCache.invalidateOnCommit(taskId);
+            taskEvents.publishOnCommit(() -> TaskEvent.taskChanged(savedTask));
             
             logger.info("Resumed scheduled task: {}", task.getName());
             return savedTask;
@@ -178,72 +247,154 @@ public class ScheduledTaskService {
         }
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Cached definitions: read-only copies without their executions or dependencies.
+     * A cache hit does not open a transaction.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<ScheduledTask> getAllTasks() {
-        return scheduledTaskRepository.findAll();
+        return taskDefinitionCache.getAll();
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<ScheduledTask> getTask(Long taskId) {
-        return scheduledTaskRepository.findById(taskId);
+        return taskDefinitionCache.get(taskId);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<ScheduledTask> getActiveTasks() {
-        return scheduledTaskRepository.findActiveTasks();
+        return taskDefinitionCache.getActive();
     }
 
-    private void scheduleQuartzJob(ScheduledTask task) throws SchedulerException {
-        Class<? extends Job> jobClass = getJobClass(task.getJobClass());
-        
-        JobDetail jobDetail = JobBuilder.newJob(jobClass)
-                .withIdentity(task.getName(), "DEFAULT")
-                .usingJobData("taskId", task.getId())
-                .usingJobData("timeoutSeconds", task.getTimeoutSeconds())
-                .usingJobData("jobData", task.getJobData())
-                .build();
+    /**
+     * Summaries of all tasks, or of the active ones, from the cached definitions or, with the
+     * cache disabled, from one query that selects only the summary columns
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<TaskSummary> getTaskSummaries(boolean activeOnly) {
+        if (!taskDefinitionCache.isEnabled()) {
+            return activeOnly ? scheduledTaskRepository.findSummariesByStatus(ScheduledTask.TaskStatus.ACTIVE)
+                    : scheduledTaskRepository.findAllSummaries();
+        }
+        List<ScheduledTask> tasks = activeOnly ? taskDefinitionCache.getActive() : taskDefinitionCache.getAll();
+        return tasks.stream().map(TaskSummary::of).toList();
+    }
 
-        Trigger trigger = TriggerBuilder.newTrigger()
-                .withIdentity(task.getName() + "_trigger", "DEFAULT")
-                .withSchedule(CronScheduleBuilder.cronSchedule(task.getCronExpression()))
-                .build();
+    /**
+     * The named fields of all tasks, or of the active ones; see {@link TaskFields}
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<Map<String, Object>> getTaskFields(List<String> fields, boolean activeOnly) {
+        if (taskDefinitionCache.isEnabled()) {
+            List<ScheduledTask> tasks = activeOnly ? taskDefinitionCache.getActive() : taskDefinitionCache.getAll();
+            return tasks.stream().map(task -> TaskFields.select(task, fields)).toList();
+        }
 
-        quartzScheduler.scheduleJob(jobDetail, trigger);
+        TypedQuery<Object[]> query = entityManager.createQuery("SELECT " + TaskFields.selectList(fields) +
+                        " FROM ScheduledTask t" + (activeOnly ? " WHERE t.status = :status" : "") + " ORDER BY t.id",
+                Object[].class);
+        if (activeOnly) {
+            query.setParameter("status", ScheduledTask.TaskStatus.ACTIVE);
+        }
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Object[] row : query.getResultList()) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (int i = 0; i < fields.size(); i++) {
+                values.put(fields.get(i), row[i]);
+            }
+            rows.add(values);
+        }
+        return rows;
     }
 
-    private boolean areDependenciesSatisfied(Long taskId) {
-        List<TaskDependency> dependencies = taskDependencyRepository.findActiveDependenciesForTask(taskId);
-        
-        for (TaskDependency dependency : dependencies) {
-            ScheduledTask dependentTask = dependency.getDependentTask();
-            if (dependentTask.getStatus() != ScheduledTask.TaskStatus.ACTIVE) {
-                logger.warn("Dependency not satisfied: Task {} depends on inactive task {}", 
-                        taskId, dependentTask.getName());
-                return false;
-            }
+    public TaskDefinitionCache.CacheStats getCacheStats() {
+        return taskDefinitionCache.getStats();
+    }
+
+    /**
+     * A paused task keeps its job on its trigger backend, where resuming it looks for the job.
+     * Moving it to another backend would leave that job behind, so it has to be resumed and stopped first;
+     * an active task is stopped by the update itself.
+     * @return Why the update is rejected, or null if the trigger type may change
+     */
+    static String triggerTypeChangeError(ScheduledTask updatedTask, ScheduledTask existingTask) {
+        if (existingTask.getStatus() == ScheduledTask.TaskStatus.PAUSED && updatedTask.getTriggerType() != null
+                && updatedTask.getTriggerType() != existingTask.getTriggerType()) {
+            return "Trigger type of a paused task cannot be changed, resume and stop the task first: " + existingTask.getName();
         }
-        
-        return true;
+        return null;
     }
 
-    private void validateCronExpression(String cronExpression) {
-        try {
-            CronExpression.validateExpression(cronExpression);
-        } catch (Exception e) {
-            throw new RuntimeException("Invalid cron expression: " + cronExpression, e);
+    /**
+     * Copy what a client may change from a submitted task onto the stored one
+     */
+    static void copyEditableFields(ScheduledTask updatedTask, ScheduledTask existingTask) {
+        existingTask.setName(updatedTask.getName());
+        existingTask.setDescription(updatedTask.getDescription());
+        existingTask.setCronExpression(updatedTask.getCronExpression());
+        existingTask.setJobClass(updatedTask.getJobClass());
+        existingTask.setJobData(updatedTask.getJobData());
+        existingTask.setMaxRetries(updatedTask.getMaxRetries());
+        existingTask.setTimeoutSeconds(updatedTask.getTimeoutSeconds());
+        if (updatedTask.getTriggerType() != null) {
+            existingTask.setTriggerType(updatedTask.getTriggerType());
+        }
+        if (updatedTask.getExecutionStore() != null) {
+            existingTask.setExecutionStore(updatedTask.getExecutionStore());
+        }
+        if (updatedTask.getWorkflowTrigger() != null) {
+            existingTask.setWorkflowTrigger(updatedTask.getWorkflowTrigger());
+        }
+        // Null means no spread or the global default, so these are copied as they are
+        existingTask.setSpreadSeconds(updatedTask.getSpreadSeconds());
+        existingTask.setMaxConcurrent(updatedTask.getMaxConcurrent());
+        existingTask.setOverlapPolicy(updatedTask.getOverlapPolicy());
+        existingTask.setResourceGroup(updatedTask.getResourceGroup());
+        existingTask.setRetentionDays(updatedTask.getRetentionDays());
+        existingTask.setRollupGranularity(updatedTask.getRollupGranularity());
+        if (updatedTask.getRetryBackoff() != null) {
+            existingTask.setRetryBackoff(updatedTask.getRetryBackoff());
+        }
+        if (updatedTask.getRetryDelaySeconds() != null) {
+            existingTask.setRetryDelaySeconds(updatedTask.getRetryDelaySeconds());
+        }
+        if (updatedTask.getMaxRetryDelaySeconds() != null) {
+            existingTask.setMaxRetryDelaySeconds(updatedTask.getMaxRetryDelaySeconds());
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private Class<? extends Job> getJobClass(String jobClassName) {
-        try {
-            return (Class<? extends Job>) Class.forName(jobClassName);
-        } catch (ClassNotFoundException e) {
-            throw new RuntimeException("Job class not found: " + jobClassName, e);
+    private boolean areDependenciesSatisfied(Long taskId) {
+        DependencyCheckEvent event = new DependencyCheckEvent();
+        event.begin();
+        long[] dependencyIds = taskDependencyIndex.getDependencies(taskId);
+        boolean satisfied = true;
+        if (dependencyIds.length > 0) {
+            List<Long> ids = Arrays.stream(dependencyIds).boxed().toList();
+            for (ScheduledTask dependentTask : scheduledTaskRepository.findAllById(ids)) {
+                if (dependentTask.getStatus() != ScheduledTask.TaskStatus.ACTIVE) {
+                    logger.warn("Dependency not satisfied: Task {} depends on inactive task {}",
+                            taskId, dependentTask.getName());
+                    satisfied = false;
+                    break;
+                }
+            }
         }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.taskId = taskId;
+            event.dependencies = dependencyIds.length;
+            event.satisfied = satisfied;
+            event.commit();
+        }
+        return satisfied;
+    }
+
+    private void validateCronExpression(ScheduledTask task) {
+        cronExpressionCache.validate(task.getCronExpression(), task.getSpreadSeconds());
     }
 
     private void validateJobClass(String jobClassName) {
-        getJobClass(jobClassName); // This will throw if invalid
+        QuartzTriggerBackend.getJobClass(jobClassName); // This will throw if invalid
     }
 }
\ No newline at end of file
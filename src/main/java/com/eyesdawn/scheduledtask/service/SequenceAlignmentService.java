@@ -0,0 +1,58 @@
+package com.eyesdawn.scheduledtask.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Moves the id sequences of tasks and executions past the ids already in their tables before
+ * anything is inserted. Databases created while these ids were identity columns get a fresh
+ * sequence from {@code ddl-auto: update}, which would otherwise hand out ids that are taken.
+ */
+@Service
+public class SequenceAlignmentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SequenceAlignmentService.class);
+
+    // Matches the allocationSize of the entities' sequence generators
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Injected so the schema exists before the sequences are read
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void align() {
+        align("scheduled_tasks", "scheduled_tasks_seq");
+        align("task_executions", "task_executions_seq");
+    }
+
+    /**
+     * @return Whether the sequence had to be restarted
+     */
+    boolean align(String table, String sequence) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        if (maxId == null) {
+            return false;
+        }
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        Long next = jdbcTemplate.queryForObject(dialect.getSequenceSupport().getSequenceNextValString(sequence), Long.class);
+        // The pooled optimizer hands out the block of ids up to each value it reads, all above this one
+        if (next != null && next >= maxId) {
+            return false;
+        }
+        long restartWith = maxId + ALLOCATION_SIZE;
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + restartWith);
+        logger.warn("Sequence {} was behind the ids in {} (max {}), restarted it with {}", sequence, table, maxId, restartWith);
+        return true;
+    }
+}
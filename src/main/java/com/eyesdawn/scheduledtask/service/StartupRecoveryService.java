@@ -0,0 +1,268 @@
+package com.eyesdawn.scheduledtask.service;
+
+import com.eyesdawn.scheduledtask.cluster.TaskPartitionManager;
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.model.TaskExecution;
+import com.eyesdawn.scheduledtask.repository.ScheduledTaskRepository;
+import com.eyesdawn.scheduledtask.repository.TaskExecutionRepository;
+import com.eyesdawn.scheduledtask.trigger.QuartzTriggerBackend;
+import com.eyesdawn.scheduledtask.trigger.TriggerBackend;
+import com.eyesdawn.scheduledtask.trigger.TriggerBackendRegistry;
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.Trigger;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Puts the scheduler back in the state the database describes when the application starts.
+ * Every ACTIVE and PAUSED task is loaded in one query, its Quartz job and trigger are built in
+ * parallel and all of them are registered in a single {@link Scheduler#scheduleJobs} call.
+ * Executions that were still RUNNING, or waiting for an in-memory retry, when the previous
+ * process stopped are then marked FAILED in one bulk update.
+ * <p>
+ * With a persistent job store only the tasks whose job is missing are scheduled. When other
+ * nodes share the database, only executions older than any of them could still be working
+ * on are failed. In partitioned mode {@link TaskPartitionManager} schedules the tasks each
+ * node owns, so only the orphaned executions are handled here.
+ */
+@Service
+public class StartupRecoveryService implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupRecoveryService.class);
+
+    // Slack on top of the longest timeout before a shared execution is considered orphaned
+    private static final long ORPHAN_GRACE_SECONDS = 60;
+
+    @Autowired
+    private ScheduledTaskRepository scheduledTaskRepository;
+
+    @Autowired
+    private TaskExecutionRepository taskExecutionRepository;
+
+    @Autowired
+    private TriggerBackendRegistry triggerBackends;
+
+    @Autowired
+    private TaskPartitionManager taskPartitionManager;
+
+    @Autowired
+    private Scheduler quartzScheduler;
+
+    @Autowired
+    private QuartzTriggerBackend quartzTriggerBackend;
+
+    private final TransactionTemplate transactionTemplate;
+    private volatile RecoveryReport lastReport;
+    private volatile boolean running = false;
+
+    public StartupRecoveryService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public RecoveryReport recover() throws SchedulerException {
+        RecoveryReport report = new RecoveryReport();
+        boolean shared = quartzScheduler.getMetaData().isJobStoreClustered() || taskPartitionManager.isEnabled();
+
+        if (!taskPartitionManager.isEnabled()) {
+            rehydrate(report);
+        }
+
+        long begin = System.nanoTime();
+        report.executionsFailed = failOrphanedExecutions(shared);
+        report.reconcileMillis = millisSince(begin);
+
+        logger.info("Startup recovery: loaded {} tasks in {} ms, built {} jobs in {} ms, registered them in {} ms, " +
+                        "failed {} orphaned executions in {} ms", report.tasksLoaded, report.loadMillis,
+                report.tasksScheduled, report.buildMillis, report.registerMillis,
+                report.executionsFailed, report.reconcileMillis);
+        lastReport = report;
+        return report;
+    }
+
+    public RecoveryReport getLastReport() {
+        return lastReport;
+    }
+
+    private void rehydrate(RecoveryReport report) throws SchedulerException {
+        long begin = System.nanoTime();
+        List<ScheduledTask> tasks = scheduledTaskRepository.findByStatusIn(
+                List.of(ScheduledTask.TaskStatus.ACTIVE, ScheduledTask.TaskStatus.PAUSED));
+        report.tasksLoaded = tasks.size();
+        if (quartzScheduler.getMetaData().isJobStoreSupportsPersistence()) {
+            // Jobs in a persistent store survived the restart, possibly with newer state than ours
+            Set<JobKey> existing = quartzScheduler.getJobKeys(GroupMatcher.jobGroupEquals("DEFAULT"));
+            tasks = tasks.stream()
+                    .filter(task -> !existing.contains(QuartzTriggerBackend.jobKey(task.getName())))
+                    .toList();
+        }
+        report.loadMillis = millisSince(begin);
+
+        begin = System.nanoTime();
+        List<ScheduledTask> quartzTasks = new ArrayList<>();
+        List<ScheduledTask> otherTasks = new ArrayList<>();
+        for (ScheduledTask task : tasks) {
+            if (task.getTriggerType() == null || task.getTriggerType() == ScheduledTask.TriggerType.QUARTZ) {
+                quartzTasks.add(task);
+            } else {
+                otherTasks.add(task);
+            }
+        }
+        List<Map.Entry<JobDetail, Set<? extends Trigger>>> built = quartzTasks.parallelStream()
+                .map(this::build)
+                .filter(Objects::nonNull)
+                .toList();
+        Map<JobDetail, Set<? extends Trigger>> jobs = new HashMap<>(built.size() * 4 / 3 + 1);
+        for (Map.Entry<JobDetail, Set<? extends Trigger>> entry : built) {
+            jobs.put(entry.getKey(), entry.getValue());
+        }
+        report.buildMillis = millisSince(begin);
+
+        begin = System.nanoTime();
+        if (!jobs.isEmpty()) {
+            quartzScheduler.scheduleJobs(jobs, true);
+        }
+        int scheduled = jobs.size();
+        for (ScheduledTask task : quartzTasks) {
+            if (task.getStatus() == ScheduledTask.TaskStatus.PAUSED) {
+                quartzScheduler.pauseJob(QuartzTriggerBackend.jobKey(task.getName()));
+            }
+        }
+        for (ScheduledTask task : otherTasks) {
+            try {
+                TriggerBackend backend = triggerBackends.getLocal(task.getTriggerType());
+                backend.schedule(task);
+                if (task.getStatus() == ScheduledTask.TaskStatus.PAUSED) {
+                    backend.pause(task);
+                }
+                scheduled++;
+            } catch (SchedulerException e) {
+                logger.warn("Failed to reschedule task {}: {}", task.getName(), e.getMessage());
+            }
+        }
+        report.tasksScheduled = scheduled;
+        report.registerMillis = millisSince(begin);
+    }
+
+    private Map.Entry<JobDetail, Set<? extends Trigger>> build(ScheduledTask task) {
+        try {
+            return Map.entry(QuartzTriggerBackend.buildJobDetail(task), Set.of(quartzTriggerBackend.buildTrigger(task)));
+        } catch (RuntimeException e) {
+            // A task whose job class or cron expression no longer resolves must not keep the rest from starting
+            logger.warn("Failed to reschedule task {}: {}", task.getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private int failOrphanedExecutions(boolean shared) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer failed = transactionTemplate.execute(status -> {
+            if (!shared) {
+                // Nothing else runs or retries executions of this database
+                return taskExecutionRepository.failOrphaned(List.of(TaskExecution.ExecutionStatus.RUNNING,
+                                TaskExecution.ExecutionStatus.RETRY_SCHEDULED), now, now,
+                        "Scheduler stopped before the execution finished");
+            }
+            Long maxTimeout = scheduledTaskRepository.findMaxTimeoutSeconds();
+            Long maxRetryDelay = scheduledTaskRepository.findMaxRetryDelaySeconds();
+            int running = taskExecutionRepository.failOrphaned(List.of(TaskExecution.ExecutionStatus.RUNNING),
+                    now.minusSeconds((maxTimeout != null ? maxTimeout : 0) + ORPHAN_GRACE_SECONDS), now,
+                    "Scheduler stopped before the execution finished");
+            int retries = taskExecutionRepository.failOrphaned(List.of(TaskExecution.ExecutionStatus.RETRY_SCHEDULED),
+                    now.minusSeconds((maxRetryDelay != null ? maxRetryDelay : 0) + ORPHAN_GRACE_SECONDS), now,
+                    "Scheduler stopped before the retry ran");
+            return running + retries;
+        });
+        return failed != null ? failed : 0;
+    }
+
+    private static long millisSince(long nanos) {
+        return (System.nanoTime() - nanos) / 1_000_000;
+    }
+
+    @Override
+    public void start() {
+        try {
+            recover();
+        } catch (SchedulerException e) {
+            throw new RuntimeException("Failed to reschedule tasks at startup", e);
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * After the stores and backends that start at DEFAULT_PHASE - 1000, before the Quartz
+     * scheduler starts firing
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 500;
+    }
+
+    public static class RecoveryReport {
+
+        private int tasksLoaded;
+        private int tasksScheduled;
+        private int executionsFailed;
+        private long loadMillis;
+        private long buildMillis;
+        private long registerMillis;
+        private long reconcileMillis;
+
+        public int getTasksLoaded() {
+            return tasksLoaded;
+        }
+
+        public int getTasksScheduled() {
+            return tasksScheduled;
+        }
+
+        public int getExecutionsFailed() {
+            return executionsFailed;
+        }
+
+        public long getLoadMillis() {
+            return loadMillis;
+        }
+
+        public long getBuildMillis() {
+            return buildMillis;
+        }
+
+        public long getRegisterMillis() {
+            return registerMillis;
+        }
+
+        public long getReconcileMillis() {
+            return reconcileMillis;
+        }
+    }
+}
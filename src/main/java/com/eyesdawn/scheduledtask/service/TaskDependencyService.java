@@ -1,5 +1,6 @@
 package com.eyesdawn.scheduledtask.service;
 
+import com.eyesdawn.scheduledtask.dependency.TaskDependencyIndex;
 import com.eyesdawn.scheduledtask.model.ScheduledTask;
 import com.eyesdawn.scheduledtask.model.TaskDependency;
 import com.eyesdawn.scheduledtask.repository.ScheduledTaskRepository;
@@ -24,6 +25,9 @@ public class TaskDependencyService {
     @Autowired
     private ScheduledTaskRepository scheduledTaskRepository;
 
+    @Autowired
+    private TaskDependencyIndex taskDependencyIndex;
+
     public TaskDependency addDependency(Long taskId, Long dependentTaskId) {
         if (taskId.equals(dependentTaskId)) {
             throw new RuntimeException("A task cannot depend on itself");
@@ -40,8 +44,8 @@ public class TaskDependencyService {
             throw new RuntimeException("Dependency already exists between tasks");
         }
 
-        // Check for circular dependencies
-        if (wouldCreateCircularDependency(taskId, dependentTaskId)) {
+        // Check for circular dependencies; the index keeps the edge only if this transaction commits
+        if (!taskDependencyIndex.tryAdd(taskId, dependentTaskId)) {
             throw new RuntimeException("Adding this dependency would create a circular dependency");
         }
 
@@ -56,8 +60,12 @@ public class TaskDependencyService {
         TaskDependency dependency = taskDependencyRepository.findById(dependencyId)
                 .orElseThrow(() -> new RuntimeException("Dependency not found: " + dependencyId));
 
+        if (!dependency.getEnabled()) {
+            return;
+        }
         dependency.setEnabled(false);
         taskDependencyRepository.save(dependency);
+        taskDependencyIndex.removeOnCommit(dependency.getTask().getId(), dependency.getDependentTask().getId());
 
         logger.info("Removed dependency: Task {} no longer depends on Task {}", 
                 dependency.getTask().getName(), dependency.getDependentTask().getName());
@@ -72,30 +80,4 @@ public class TaskDependencyService {
     public List<TaskDependency> getTasksDependingOn(Long taskId) {
         return taskDependencyRepository.findTasksDependingOn(taskId);
     }
-
-    /**
-     * Check if adding a dependency would create a circular dependency
-     */
-    private boolean wouldCreateCircularDependency(Long taskId, Long dependentTaskId) {
-        return hasPath(dependentTaskId, taskId);
-    }
-
-    /**
-     * Recursively check if there's a path from startTaskId to endTaskId
-     */
-    private boolean hasPath(Long startTaskId, Long endTaskId) {
-        if (startTaskId.equals(endTaskId)) {
-            return true;
-        }
-
-        List<TaskDependency> dependencies = taskDependencyRepository.findActiveDependenciesForTask(startTaskId);
-        
-        for (TaskDependency dependency : dependencies) {
-            if (hasPath(dependency.getDependentTask().getId(), endTaskId)) {
-                return true;
-            }
-        }
-
-        return false;
-    }
-}
\ No newline at end of file
+}
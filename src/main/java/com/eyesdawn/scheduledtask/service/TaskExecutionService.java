@@ -1,5 +1,13 @@
 package com.eyesdawn.scheduledtask.service;
 
+import com.eyesdawn.scheduledtask.cache.TaskDefinitionCache;
+import com.eyesdawn.scheduledtask.dto.CursorPage;
+import com.eyesdawn.scheduledtask.dto.ExecutionSummary;
+import com.eyesdawn.scheduledtask.executionlog.ExecutionLogStore;
+import com.eyesdawn.scheduledtask.executionlog.TaskExecutionLog;
+import com.eyesdawn.scheduledtask.jfr.RetryScheduledEvent;
+import com.eyesdawn.scheduledtask.live.TaskEvent;
+import com.eyesdawn.scheduledtask.live.TaskEventBroadcaster;
 import com.eyesdawn.scheduledtask.model.ScheduledTask;
 import com.eyesdawn.scheduledtask.model.TaskExecution;
 import com.eyesdawn.scheduledtask.repository.ScheduledTaskRepository;
@@ -8,12 +16,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.UUID;
 
 @Service
 @Transactional
@@ -21,27 +35,116 @@ public class TaskExecutionService {
 
     private static final Logger logger = LoggerFactory.getLogger(TaskExecutionService.class);
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
     @Autowired
     private TaskExecutionRepository taskExecutionRepository;
 
     @Autowired
     private ScheduledTaskRepository scheduledTaskRepository;
 
-    public TaskExecution startExecution(Long taskId) {
-        ScheduledTask task = scheduledTaskRepository.findById(taskId)
-                .orElseThrow(() -> new RuntimeException("Task not found: " + taskId));
+    @Autowired
+    private ExecutionWriteBehindPipeline writeBehindPipeline;
 
-        TaskExecution execution = new TaskExecution(task);
+    @Autowired
+    private RetryScheduler retryScheduler;
+
+    @Autowired
+    private WorkflowCoordinator workflowCoordinator;
+
+    @Autowired
+    private TaskStatisticsService taskStatisticsService;
+
+    @Autowired
+    private ExecutionLogStore executionLogStore;
+
+    @Autowired
+    private TaskDefinitionCache taskDefinitionCache;
+
+    @Autowired
+    private TaskEventBroadcaster taskEvents;
+
+    /**
+     * Start an execution as part of the given workflow run, or of a new run when runId is null
+     */
+    public TaskExecution startExecution(Long taskId, String runId) {
+        String executionRunId = runId != null ? runId : UUID.randomUUID().toString();
+        if (executionLogStore.isLogged(taskId)) {
+            TaskExecution execution = new TaskExecution(scheduledTaskRepository.getReferenceById(taskId));
+            execution.setStartTime(LocalDateTime.now());
+            execution.setRunId(executionRunId);
+            return published(executionLogStore.started(execution));
+        }
+        if (writeBehindPipeline.isEnabled()) {
+            // Reference only: the insert is deferred and the foreign key checks the task
+            TaskExecution execution = new TaskExecution(scheduledTaskRepository.getReferenceById(taskId));
+            execution.setStartTime(LocalDateTime.now());
+            execution.setRunId(executionRunId);
+            return published(writeBehindPipeline.started(execution));
+        }
+
+        // The cached definition only confirms the task exists; the execution gets a reference, not the row
+        if (taskDefinitionCache.get(taskId).isEmpty()) {
+            throw new RuntimeException("Task not found: " + taskId);
+        }
+
+        TaskExecution execution = new TaskExecution(scheduledTaskRepository.getReferenceById(taskId));
         execution.setStartTime(LocalDateTime.now());
         execution.setStatus(TaskExecution.ExecutionStatus.RUNNING);
+        execution.setRunId(executionRunId);
         
-        return taskExecutionRepository.save(execution);
+        return published(taskExecutionRepository.save(execution));
     }
 
-    public TaskExecution completeExecution(Long executionId, TaskExecution.ExecutionStatus status, 
-                                         String result, String errorMessage) {
+    /**
+     * Start the execution that was recorded as RETRY_SCHEDULED when the previous attempt failed
+     */
+    public TaskExecution startRetryExecution(Long executionId, Long taskId, int retryAttempt, String runId) {
+        if (executionLogStore.isLogged(taskId)) {
+            TaskExecution execution = new TaskExecution(scheduledTaskRepository.getReferenceById(taskId));
+            execution.setId(executionId);
+            execution.setRetryAttempt(retryAttempt);
+            execution.setRunId(runId);
+            execution.setStartTime(LocalDateTime.now());
+            return published(executionLogStore.resumed(execution));
+        }
+        if (writeBehindPipeline.isEnabled()) {
+            TaskExecution execution = new TaskExecution(scheduledTaskRepository.getReferenceById(taskId));
+            execution.setId(executionId);
+            execution.setRetryAttempt(retryAttempt);
+            execution.setRunId(runId);
+            execution.setStartTime(LocalDateTime.now());
+            return published(writeBehindPipeline.resumed(execution));
+        }
+
         TaskExecution execution = taskExecutionRepository.findById(executionId)
                 .orElseThrow(() -> new RuntimeException("Execution not found: " + executionId));
+        execution.setStatus(TaskExecution.ExecutionStatus.RUNNING);
+        execution.setStartTime(LocalDateTime.now());
+        return published(taskExecutionRepository.save(execution));
+    }
+
+    /**
+     * Record a fire turned away by a concurrency limit, which ends as it starts
+     * @param retryExecutionId The scheduled retry the fire was for, or null
+     */
+    public TaskExecution rejectExecution(Long taskId, String runId, Long retryExecutionId, int retryAttempt, String reason) {
+        TaskExecution execution = retryExecutionId != null
+                ? startRetryExecution(retryExecutionId, taskId, retryAttempt, runId)
+                : startExecution(taskId, runId);
+        return completeExecution(execution.getId(), TaskExecution.ExecutionStatus.REJECTED, null, reason);
+    }
+
+    public TaskExecution completeExecution(Long executionId, TaskExecution.ExecutionStatus status, 
+                                         String result, String errorMessage) {
+        TaskExecution logged = executionLogStore.takeInFlight(executionId);
+        TaskExecution buffered = logged == null && writeBehindPipeline.isEnabled()
+                ? writeBehindPipeline.takeInFlight(executionId) : null;
+        TaskExecution execution = logged != null ? logged : buffered != null ? buffered
+                : taskExecutionRepository.findById(executionId)
+                        .orElseThrow(() -> new RuntimeException("Execution not found: " + executionId));
 
         execution.setEndTime(LocalDateTime.now());
         execution.setStatus(status);
@@ -53,38 +156,83 @@ public class TaskExecutionService {
             execution.setDurationMillis(duration);
         }
 
-        TaskExecution savedExecution = taskExecutionRepository.save(execution);
-        
+        TaskExecution savedExecution = logged != null ? executionLogStore.completed(execution)
+                : buffered != null ? writeBehindPipeline.completed(execution)
+                : taskExecutionRepository.save(execution);
+        taskStatisticsService.recordOnCommit(savedExecution);
+        published(savedExecution);
+
         // Handle retry logic if task failed
-        if (status == TaskExecution.ExecutionStatus.FAILED) {
-            handleRetryLogic(savedExecution);
+        long retryDelayMillis = retryScheduler.takeRetryDelay(executionId);
+        boolean retrying = status == TaskExecution.ExecutionStatus.FAILED
+                && handleRetryLogic(savedExecution, retryDelayMillis);
+
+        // Downstream workflow tasks only see the final outcome of an execution
+        if (!retrying) {
+            workflowCoordinator.executionFinished(savedExecution.getTask().getId(), savedExecution.getRunId(), status);
         }
 
         return savedExecution;
     }
 
-    private void handleRetryLogic(TaskExecution failedExecution) {
-        ScheduledTask task = failedExecution.getTask();
+    /**
+     * @return true if another attempt was scheduled
+     */
+    private boolean handleRetryLogic(TaskExecution failedExecution, long previousDelayMillis) {
+        Long taskId = failedExecution.getTask().getId();
+        ScheduledTask task = taskDefinitionCache.get(taskId)
+                .orElseThrow(() -> new RuntimeException("Task not found: " + taskId));
         
         if (failedExecution.getRetryAttempt() < task.getMaxRetries()) {
-            logger.info("Scheduling retry for task {} (attempt {}/{})", 
-                    task.getId(), failedExecution.getRetryAttempt() + 1, task.getMaxRetries());
-            
-            // Create a new execution for retry
-            TaskExecution retryExecution = new TaskExecution(task);
+            // Create a new execution for retry; it becomes RUNNING when the retry fires
+            TaskExecution retryExecution = new TaskExecution(scheduledTaskRepository.getReferenceById(taskId));
             retryExecution.setRetryAttempt(failedExecution.getRetryAttempt() + 1);
             retryExecution.setStatus(TaskExecution.ExecutionStatus.RETRY_SCHEDULED);
-            taskExecutionRepository.save(retryExecution);
-            
-            // In a real implementation, you would schedule the retry with a delay
-            // For now, we'll just mark it as scheduled
+            retryExecution.setRunId(failedExecution.getRunId());
+            if (executionLogStore.isLogged(taskId)) {
+                executionLogStore.scheduled(retryExecution);
+            } else if (writeBehindPipeline.isEnabled()) {
+                retryExecution.setStartTime(LocalDateTime.now());
+                writeBehindPipeline.recorded(retryExecution);
+            } else {
+                retryExecution = taskExecutionRepository.save(retryExecution);
+            }
+            published(retryExecution);
+
+            long delayMillis = retryScheduler.schedule(task, retryExecution, previousDelayMillis);
+            RetryScheduledEvent event = new RetryScheduledEvent();
+            if (event.shouldCommit()) {
+                event.taskId = taskId;
+                event.executionId = failedExecution.getId();
+                event.retryExecutionId = retryExecution.getId() != null ? retryExecution.getId() : 0;
+                event.retryAttempt = retryExecution.getRetryAttempt();
+                event.delay = delayMillis;
+                event.commit();
+            }
+            logger.info("Scheduling retry for task {} (attempt {}/{}) in {} ms using {} backoff",
+                    task.getId(), retryExecution.getRetryAttempt(), task.getMaxRetries(), delayMillis, task.getRetryBackoff());
+            return true;
         } else {
             logger.warn("Task {} has exceeded maximum retry attempts ({})", task.getId(), task.getMaxRetries());
-            task.setStatus(ScheduledTask.TaskStatus.ERROR);
-            scheduledTaskRepository.save(task);
+            // The cached copy is shared, so the status change goes to the managed row
+            ScheduledTask managed = scheduledTaskRepository.findById(taskId)
+                    .orElseThrow(() -> new RuntimeException("Task not found: " + taskId));
+            managed.setStatus(ScheduledTask.TaskStatus.ERROR);
+            scheduledTaskRepository.save(managed);
+            taskDefinitionCache.invalidateOnCommit(taskId);
+            taskEvents.publishOnCommit(() -> TaskEvent.taskChanged(managed));
+            return false;
         }
     }
 
+    /**
+     * Announce the execution's current state to live feed subscribers once this transaction commits
+     */
+    private TaskExecution published(TaskExecution execution) {
+        taskEvents.publishOnCommit(() -> TaskEvent.execution(execution));
+        return execution;
+    }
+
     @Transactional(readOnly = true)
     public List<TaskExecution> getExecutionsForTask(Long taskId) {
         return taskExecutionRepository.findByTaskIdOrderByStartTimeDesc(taskId);
@@ -92,9 +240,75 @@ public class TaskExecutionService {
 
     @Transactional(readOnly = true)
     public Page<TaskExecution> getExecutionsForTask(Long taskId, Pageable pageable) {
+        if (executionLogStore.isLogged(taskId)) {
+            // Offset pages over the log read offset + size records; the cursor pages do not
+            TaskExecutionLog log = executionLogStore.getLog(taskId);
+            int end = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), Integer.MAX_VALUE);
+            List<ExecutionSummary> rows = log.findPageBefore(null, EARLIEST, LATEST, Long.MAX_VALUE, end);
+            ScheduledTask task = scheduledTaskRepository.getReferenceById(taskId);
+            List<TaskExecution> content = new ArrayList<>();
+            for (ExecutionSummary row : rows.subList((int) Math.min(pageable.getOffset(), rows.size()), rows.size())) {
+                content.add(toExecution(task, row));
+            }
+            return new PageImpl<>(content, pageable, log.size());
+        }
         return taskExecutionRepository.findByTaskIdOrderByStartTimeDesc(taskId, pageable);
     }
 
+    /**
+     * One page of the task's executions, newest first, by keyset on (startTime, id) so that
+     * deep pages cost the same as the first one
+     *
+     * @param status Only executions in this status, or null for all
+     * @param from   Earliest start time, inclusive, or null
+     * @param to     Latest start time, inclusive, or null
+     * @param cursor {@code nextCursor} of the previous page, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ExecutionSummary> getExecutionPage(Long taskId, TaskExecution.ExecutionStatus status,
+                                                         LocalDateTime from, LocalDateTime to,
+                                                         String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        LocalDateTime before = to != null ? to : LATEST;
+        long beforeId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] position = decodeCursor(cursor);
+            LocalDateTime cursorTime;
+            try {
+                cursorTime = LocalDateTime.parse(position[0]);
+                beforeId = Long.parseLong(position[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+            }
+            if (cursorTime.isAfter(before)) {
+                // The cursor lies past the end of the range, so the range starts over from its end
+                beforeId = Long.MAX_VALUE;
+            } else {
+                before = cursorTime;
+            }
+        }
+        LocalDateTime after = from != null ? from : EARLIEST;
+
+        // One extra row tells whether there is a next page without a count query
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<ExecutionSummary> rows = executionLogStore.isLogged(taskId)
+                ? executionLogStore.getLog(taskId).findPageBefore(status, after, before, beforeId, pageSize + 1)
+                : status == null
+                ? taskExecutionRepository.findPageBefore(taskId, after, before, beforeId, pageable)
+                : taskExecutionRepository.findPageBefore(taskId, status, after, before, beforeId, pageable);
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<ExecutionSummary> items = rows.subList(0, pageSize);
+        ExecutionSummary last = items.get(pageSize - 1);
+        return new CursorPage<>(new ArrayList<>(items), encodeCursor(last.getStartTime(), last.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<TaskExecution> getExecutionsForRun(String runId) {
+        return taskExecutionRepository.findByRunIdOrderByStartTimeAsc(runId);
+    }
+
     @Transactional(readOnly = true)
     public List<TaskExecution> getRunningExecutions() {
         return taskExecutionRepository.findByStatus(TaskExecution.ExecutionStatus.RUNNING);
@@ -105,4 +319,32 @@ public class TaskExecutionService {
         return taskExecutionRepository.findById(executionId)
                 .orElseThrow(() -> new RuntimeException("Execution not found: " + executionId));
     }
+
+    private static TaskExecution toExecution(ScheduledTask task, ExecutionSummary row) {
+        TaskExecution execution = new TaskExecution(task);
+        execution.setId(row.getId());
+        execution.setRunId(row.getRunId());
+        execution.setStatus(row.getStatus());
+        execution.setStartTime(row.getStartTime());
+        execution.setEndTime(row.getEndTime());
+        execution.setDurationMillis(row.getDurationMillis());
+        execution.setRetryAttempt(row.getRetryAttempt());
+        execution.setResult(row.getResult());
+        execution.setErrorMessage(row.getErrorMessage());
+        return execution;
+    }
+
+    private static String encodeCursor(LocalDateTime startTime, Long id) {
+        String position = startTime + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        String[] parts = position.split("\\|");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return parts;
+    }
 }
\ No newline at end of file
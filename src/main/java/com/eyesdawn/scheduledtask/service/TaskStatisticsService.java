@@ -0,0 +1,278 @@
+package com.eyesdawn.scheduledtask.service;
+
+import com.eyesdawn.scheduledtask.config.SchedulerProperties;
+import com.eyesdawn.scheduledtask.model.ExecutionRollup;
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.model.TaskExecution;
+import com.eyesdawn.scheduledtask.model.TaskStatistics;
+import com.eyesdawn.scheduledtask.repository.ExecutionRollupRepository;
+import com.eyesdawn.scheduledtask.repository.ScheduledTaskRepository;
+import com.eyesdawn.scheduledtask.repository.TaskExecutionRepository;
+import com.eyesdawn.scheduledtask.repository.TaskStatisticsRepository;
+import com.eyesdawn.scheduledtask.stats.DurationHistogram;
+import com.eyesdawn.scheduledtask.stats.ExecutionCounters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Per-task execution statistics maintained as executions finish, so reading them never
+ * scans {@code task_executions}. Finished executions go into lock-free in-memory counters;
+ * a checkpoint thread merges what each node recorded since its last checkpoint into the
+ * {@code task_statistics} row. Reads combine the last persisted row with the pending counts.
+ * <p>
+ * Tasks without a row yet (e.g. history from before this existed) are seeded once at
+ * startup, before the scheduler starts firing.
+ */
+@Service
+public class TaskStatisticsService implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskStatisticsService.class);
+
+    @Autowired
+    private SchedulerProperties properties;
+
+    @Autowired
+    private TaskStatisticsRepository taskStatisticsRepository;
+
+    @Autowired
+    private ScheduledTaskRepository scheduledTaskRepository;
+
+    @Autowired
+    private TaskExecutionRepository taskExecutionRepository;
+
+    @Autowired
+    private ExecutionRollupRepository executionRollupRepository;
+
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private ScheduledExecutorService checkpointer;
+    private volatile boolean running = false;
+
+    public TaskStatisticsService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Count a finished execution once the surrounding transaction commits
+     */
+    public void recordOnCommit(TaskExecution execution) {
+        Long taskId = execution.getTask().getId();
+        TaskExecution.ExecutionStatus status = execution.getStatus();
+        Long durationMillis = execution.getDurationMillis();
+        LocalDateTime finishedAt = execution.getEndTime();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(taskId, status, durationMillis, finishedAt);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(taskId, status, durationMillis, finishedAt);
+            }
+        });
+    }
+
+    public void record(Long taskId, TaskExecution.ExecutionStatus status, Long durationMillis, LocalDateTime finishedAt) {
+        entries.computeIfAbsent(taskId, id -> new Entry()).counters.record(status, durationMillis, finishedAt);
+    }
+
+    /**
+     * Statistics of the task including executions not yet checkpointed
+     */
+    public TaskStatistics getStatistics(Long taskId) {
+        Entry entry = entries.computeIfAbsent(taskId, id -> new Entry());
+        synchronized (entry) {
+            if (entry.persisted == null) {
+                entry.persisted = taskStatisticsRepository.findById(taskId).orElseGet(() -> new TaskStatistics(taskId));
+            }
+            TaskStatistics persisted = entry.persisted;
+            TaskStatistics view = new TaskStatistics(taskId);
+            view.merge(persisted.getSuccessCount(), persisted.getFailedCount(), persisted.getTimeoutCount(),
+                    persisted.getCancelledCount(), persisted.getTotalDurationMillis(),
+                    DurationHistogram.decode(persisted.getDurationHistogram()));
+            if (persisted.getLastStatus() != null) {
+                view.mergeLastOutcome(persisted.getLastStatus(), persisted.getLastFinishedAt(), persisted.getLastDurationMillis());
+            }
+            apply(view, entry.counters.pending());
+            view.setUpdatedAt(persisted.getUpdatedAt());
+            return view;
+        }
+    }
+
+    /**
+     * Delete the task's statistics along with the task
+     */
+    public void removeTask(Long taskId) {
+        taskStatisticsRepository.deleteByTask(taskId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            entries.remove(taskId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                entries.remove(taskId);
+            }
+        });
+    }
+
+    /**
+     * Merge everything recorded since the last checkpoint into the database, and pick up
+     * what other nodes merged for the tasks this node has nothing new for
+     */
+    public synchronized void checkpoint() {
+        List<Long> idle = new ArrayList<>();
+        entries.forEach((taskId, entry) -> {
+            synchronized (entry) {
+                ExecutionCounters.Delta delta = entry.counters.pending();
+                if (delta.isEmpty()) {
+                    idle.add(taskId);
+                    return;
+                }
+                try {
+                    TaskStatistics saved = transactionTemplate.execute(status -> {
+                        TaskStatistics statistics = taskStatisticsRepository.findById(taskId).orElse(null);
+                        if (statistics == null) {
+                            if (!scheduledTaskRepository.existsById(taskId)) {
+                                return null;
+                            }
+                            statistics = new TaskStatistics(taskId);
+                        }
+                        apply(statistics, delta);
+                        return taskStatisticsRepository.save(statistics);
+                    });
+                    entry.counters.checkpointed(delta);
+                    if (saved == null) {
+                        // The task was deleted
+                        entries.remove(taskId);
+                    } else {
+                        entry.persisted = saved;
+                    }
+                } catch (DataAccessException e) {
+                    // Usually another node merging into the same row; the counts stay pending for the next round
+                    logger.debug("Statistics checkpoint of task {} deferred: {}", taskId, e.getMessage());
+                }
+            }
+        });
+
+        if (!idle.isEmpty()) {
+            for (TaskStatistics statistics : taskStatisticsRepository.findAllById(idle)) {
+                Entry entry = entries.get(statistics.getTaskId());
+                if (entry != null) {
+                    synchronized (entry) {
+                        entry.persisted = statistics;
+                    }
+                }
+            }
+        }
+    }
+
+    private void seedMissing() {
+        int seeded = 0;
+        for (ScheduledTask task : scheduledTaskRepository.findAll()) {
+            if (taskStatisticsRepository.existsById(task.getId())) {
+                continue;
+            }
+            transactionTemplate.executeWithoutResult(status -> seed(task.getId()));
+            seeded++;
+        }
+        if (seeded > 0) {
+            logger.info("Seeded execution statistics of {} tasks from their history", seeded);
+        }
+    }
+
+    private void seed(Long taskId) {
+        TaskStatistics statistics = new TaskStatistics(taskId);
+        // Purged history survives only in the rollups
+        for (ExecutionRollup rollup : executionRollupRepository.findByTaskId(taskId)) {
+            statistics.merge(rollup.getSuccessCount(), rollup.getFailedCount(), rollup.getTimeoutCount(),
+                    rollup.getCancelledCount(), rollup.getTotalDurationMillis(),
+                    DurationHistogram.decode(rollup.getDurationHistogram()));
+        }
+
+        ExecutionCounters counters = new ExecutionCounters();
+        try (Stream<Object[]> rows = taskExecutionRepository.streamFinished(taskId)) {
+            rows.forEach(row -> counters.record((TaskExecution.ExecutionStatus) row[0], (Long) row[1], (LocalDateTime) row[2]));
+        }
+        apply(statistics, counters.pending());
+        taskStatisticsRepository.save(statistics);
+    }
+
+    private static void apply(TaskStatistics statistics, ExecutionCounters.Delta delta) {
+        statistics.merge(delta.getSuccess(), delta.getFailed(), delta.getTimeout(), delta.getCancelled(),
+                delta.getTotalDuration(), delta.getDurations());
+        ExecutionCounters.Outcome outcome = delta.getLastOutcome();
+        if (outcome != null) {
+            statistics.mergeLastOutcome(outcome.getStatus(), outcome.getFinishedAt(), outcome.getDurationMillis());
+        }
+    }
+
+    @Override
+    public void start() {
+        seedMissing();
+        running = true;
+        long intervalSeconds = properties.getStatistics().getCheckpointSeconds();
+        checkpointer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "statistics-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checkpointer.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint();
+            } catch (Exception e) {
+                logger.warn("Statistics checkpoint failed: {}", e.getMessage());
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (checkpointer != null) {
+            checkpointer.shutdownNow();
+        }
+        try {
+            checkpoint();
+        } catch (Exception e) {
+            logger.warn("Final statistics checkpoint failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Seed before the scheduler starts firing and checkpoint once more after it stops
+        return DEFAULT_PHASE - 1000;
+    }
+
+    private static final class Entry {
+        private final ExecutionCounters counters = new ExecutionCounters();
+        // Row as of the last checkpoint or refresh, loaded on first read
+        private TaskStatistics persisted;
+    }
+}
@@ -0,0 +1,240 @@
+package com.eyesdawn.scheduledtask.service;
+
+import com.eyesdawn.scheduledtask.cache.TaskDefinitionCache;
+import com.eyesdawn.scheduledtask.dependency.TaskDependencyIndex;
+import com.eyesdawn.scheduledtask.jfr.DependencyCheckEvent;
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.model.TaskExecution;
+import com.eyesdawn.scheduledtask.model.WorkflowRunStep;
+import com.eyesdawn.scheduledtask.repository.ScheduledTaskRepository;
+import com.eyesdawn.scheduledtask.repository.WorkflowRunStepRepository;
+import com.eyesdawn.scheduledtask.trigger.TriggerBackendRegistry;
+import org.quartz.JobDataMap;
+import org.quartz.SchedulerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Drives workflow runs over the task dependency graph. When an execution succeeds, every
+ * ACTIVE downstream task with {@code workflowTrigger} enabled whose upstream tasks in the same
+ * run have all succeeded is fired immediately, carrying the run id. Independent branches fire
+ * in parallel; a fan-in task fires once, when its last upstream task succeeds.
+ * <p>
+ * A run starts at the task whose scheduled fire created it. Upstream tasks outside that run
+ * (neither the root nor workflow-triggered descendants of it) do not hold a fan-in back.
+ * Run progress is kept in {@code workflow_run_steps}, so it holds across cluster nodes.
+ */
+@Component
+public class WorkflowCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkflowCoordinator.class);
+
+    public static final String RUN_ID = "runId";
+
+    private static final String CLAIM_SQL = "INSERT INTO workflow_run_steps (run_id, task_id, root_task_id, fired_at) "
+            + "SELECT ?, ?, ?, ? WHERE NOT EXISTS "
+            + "(SELECT 1 FROM workflow_run_steps WHERE run_id = ? AND task_id = ?)";
+
+    @Autowired
+    private TaskDependencyIndex taskDependencyIndex;
+
+    @Autowired
+    private ScheduledTaskRepository scheduledTaskRepository;
+
+    @Autowired
+    private WorkflowRunStepRepository workflowRunStepRepository;
+
+    @Autowired
+    private TriggerBackendRegistry triggerBackends;
+
+    @Autowired
+    private TaskDefinitionCache taskDefinitionCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public WorkflowCoordinator(PlatformTransactionManager transactionManager) {
+        // Runs after the caller's commit, so every write needs a transaction of its own
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Record the final outcome of an execution once the current transaction commits.
+     * Failed attempts that will be retried are not final and must not be reported.
+     * Only successes of tasks in a workflow touch the database; a failed step simply leaves
+     * its downstream tasks unfired.
+     */
+    public void executionFinished(Long taskId, String runId, TaskExecution.ExecutionStatus status) {
+        if (runId == null || status != TaskExecution.ExecutionStatus.SUCCESS || !inWorkflow(taskId)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    advance(taskId, runId);
+                }
+            });
+        } else {
+            advance(taskId, runId);
+        }
+    }
+
+    private void advance(Long taskId, String runId) {
+        try {
+            List<ScheduledTask> candidates = findWorkflowDependents(taskId);
+            WorkflowRunStep step = recordSuccess(runId, taskId, !candidates.isEmpty());
+            if (step == null || candidates.isEmpty()) {
+                return;
+            }
+
+            // Read after our own success is committed, so of two upstream tasks finishing
+            // together at least one sees the other and fires the shared downstream task
+            Set<Long> succeeded = new HashSet<>(workflowRunStepRepository.findSucceededTaskIds(runId));
+            for (ScheduledTask candidate : candidates) {
+                if (isReady(runId, step.getRootTaskId(), succeeded, candidate) && claim(runId, candidate, step.getRootTaskId())) {
+                    fire(runId, candidate);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Failed to advance workflow run {} after task {}", runId, taskId, e);
+        }
+    }
+
+    /**
+     * Mark the task as succeeded in the run. A task with no step yet starts the run as its root,
+     * but only when it has workflow dependents; otherwise there is nothing to record.
+     * @return The task's step, or null if the task is not part of a workflow run
+     */
+    private WorkflowRunStep recordSuccess(String runId, Long taskId, boolean startsRun) {
+        return transactionTemplate.execute(status -> {
+            WorkflowRunStep step = workflowRunStepRepository.findByRunIdAndTaskId(runId, taskId).orElse(null);
+            if (step == null) {
+                if (!startsRun) {
+                    return null;
+                }
+                step = new WorkflowRunStep(runId, taskId, taskId);
+            }
+            step.setSucceededAt(LocalDateTime.now());
+            return workflowRunStepRepository.save(step);
+        });
+    }
+
+    /**
+     * Whether the task has workflow-triggered dependents or is itself fired by its upstream
+     * tasks, from the in-memory dependency index and cached definitions only
+     */
+    private boolean inWorkflow(Long taskId) {
+        for (long dependentId : taskDependencyIndex.getDependents(taskId)) {
+            if (isWorkflowTriggered(dependentId)) {
+                return true;
+            }
+        }
+        return taskDependencyIndex.getDependencies(taskId).length > 0 && isWorkflowTriggered(taskId);
+    }
+
+    private boolean isWorkflowTriggered(long taskId) {
+        return taskDefinitionCache.get(taskId)
+                .map(task -> Boolean.TRUE.equals(task.getWorkflowTrigger()))
+                .orElse(false);
+    }
+
+    private List<ScheduledTask> findWorkflowDependents(Long taskId) {
+        long[] dependentIds = taskDependencyIndex.getDependents(taskId);
+        if (dependentIds.length == 0) {
+            return List.of();
+        }
+        List<ScheduledTask> candidates = new ArrayList<>();
+        for (ScheduledTask task : scheduledTaskRepository.findAllById(Arrays.stream(dependentIds).boxed().toList())) {
+            if (Boolean.TRUE.equals(task.getWorkflowTrigger()) && task.getStatus() == ScheduledTask.TaskStatus.ACTIVE) {
+                candidates.add(task);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * A task is ready once every upstream task that belongs to the run has succeeded in it
+     */
+    private boolean isReady(String runId, Long rootTaskId, Set<Long> succeeded, ScheduledTask candidate) {
+        DependencyCheckEvent event = new DependencyCheckEvent();
+        event.begin();
+        long[] upstreamIds = taskDependencyIndex.getDependencies(candidate.getId());
+        boolean ready = isReady(rootTaskId, succeeded, upstreamIds);
+        event.end();
+        if (event.shouldCommit()) {
+            event.taskId = candidate.getId();
+            event.runId = runId;
+            event.dependencies = upstreamIds.length;
+            event.satisfied = ready;
+            event.commit();
+        }
+        return ready;
+    }
+
+    private boolean isReady(Long rootTaskId, Set<Long> succeeded, long[] upstreamIds) {
+        List<Long> waiting = new ArrayList<>();
+        for (long upstreamId : upstreamIds) {
+            if (!succeeded.contains(upstreamId)) {
+                waiting.add(upstreamId);
+            }
+        }
+        if (waiting.isEmpty()) {
+            return true;
+        }
+        for (ScheduledTask upstream : scheduledTaskRepository.findAllById(waiting)) {
+            boolean inRun = upstream.getId().equals(rootTaskId)
+                    || (Boolean.TRUE.equals(upstream.getWorkflowTrigger())
+                        && taskDependencyIndex.dependsOn(upstream.getId(), rootTaskId));
+            if (inRun) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Insert the task's step for this run; only the node whose insert adds the row may fire it.
+     * Losing the claim is the normal outcome of a race, so it is decided by the update count,
+     * and by the unique key only when both inserts got past the existence check.
+     */
+    private boolean claim(String runId, ScheduledTask task, Long rootTaskId) {
+        try {
+            Integer inserted = transactionTemplate.execute(status -> jdbcTemplate.update(CLAIM_SQL,
+                    runId, task.getId(), rootTaskId, LocalDateTime.now(), runId, task.getId()));
+            return inserted != null && inserted == 1;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private void fire(String runId, ScheduledTask task) {
+        JobDataMap data = new JobDataMap();
+        data.put(RUN_ID, runId);
+        try {
+            triggerBackends.forTask(task).triggerNow(task.getId(), task.getName(), data);
+            logger.info("Workflow run {} fired task {}", runId, task.getName());
+        } catch (SchedulerException e) {
+            logger.warn("Workflow run {} could not fire task {}: {}", runId, task.getName(), e.getMessage());
+        }
+    }
+}
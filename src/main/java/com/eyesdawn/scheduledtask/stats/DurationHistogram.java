@@ -0,0 +1,136 @@
+package com.eyesdawn.scheduledtask.stats;
+
+/**
+ * Log-linear histogram of durations in milliseconds. Values below 16 are counted exactly;
+ * above that each power of two is split into 16 buckets, so any percentile is within about
+ * 6% of the true value. Histograms merge exactly, which lets aggregates be built up in
+ * separate chunks and combined later.
+ * <p>
+ * Not thread-safe.
+ */
+public class DurationHistogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BITS) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long totalCount;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    public void record(long value) {
+        long clamped = Math.max(0, value);
+        counts[indexOf(clamped)]++;
+        totalCount++;
+        min = Math.min(min, clamped);
+        max = Math.max(max, clamped);
+    }
+
+    public void merge(DurationHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Add per-bucket counts collected elsewhere, together with the range of the values they hold
+     */
+    void add(long[] bucketCounts, long minValue, long maxValue) {
+        long added = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += bucketCounts[i];
+            added += bucketCounts[i];
+        }
+        if (added > 0) {
+            totalCount += added;
+            min = Math.min(min, minValue);
+            max = Math.max(max, maxValue);
+        }
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @param quantile Between 0 and 1
+     * @return The estimated value at the quantile, or null if nothing was recorded
+     */
+    public Long getValueAtQuantile(double quantile) {
+        if (totalCount == 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * totalCount));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                // Middle of the bucket, kept within what was actually recorded
+                long middle = lowerBound(i) + (upperBound(i) - lowerBound(i)) / 2;
+                return Math.max(min, Math.min(max, middle));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Compact text form: min, max, then index:count for each non-empty bucket
+     */
+    public String encode() {
+        StringBuilder text = new StringBuilder();
+        text.append(totalCount == 0 ? 0 : min).append(',').append(totalCount == 0 ? 0 : max);
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] != 0) {
+                text.append(',').append(i).append(':').append(counts[i]);
+            }
+        }
+        return text.toString();
+    }
+
+    public static DurationHistogram decode(String text) {
+        DurationHistogram histogram = new DurationHistogram();
+        if (text == null || text.isEmpty()) {
+            return histogram;
+        }
+        String[] parts = text.split(",");
+        for (int i = 2; i < parts.length; i++) {
+            int separator = parts[i].indexOf(':');
+            int index = Integer.parseInt(parts[i], 0, separator, 10);
+            long count = Long.parseLong(parts[i], separator + 1, parts[i].length(), 10);
+            histogram.counts[index] += count;
+            histogram.totalCount += count;
+        }
+        if (histogram.totalCount > 0) {
+            histogram.min = Long.parseLong(parts[0]);
+            histogram.max = Long.parseLong(parts[1]);
+        }
+        return histogram;
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BITS;
+        int mantissa = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + shift * SUB_BUCKETS + mantissa;
+    }
+
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        int mantissa = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + mantissa) << shift;
+    }
+
+    static long upperBound(int index) {
+        return index == BUCKETS - 1 ? Long.MAX_VALUE : lowerBound(index + 1) - 1;
+    }
+}
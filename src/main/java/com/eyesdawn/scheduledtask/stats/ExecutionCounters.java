@@ -0,0 +1,164 @@
+package com.eyesdawn.scheduledtask.stats;
+
+import com.eyesdawn.scheduledtask.model.TaskExecution;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free counters of one task's finished executions on this node. Everything only ever
+ * grows, so recording never blocks; {@link #pending()} returns what was recorded since the
+ * last {@link #checkpointed(Delta)} by subtracting the values seen at that checkpoint.
+ * <p>
+ * {@code pending} and {@code checkpointed} must not be called concurrently with each other.
+ */
+public class ExecutionCounters {
+
+    private final LongAdder success = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder timeout = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder totalDuration = new LongAdder();
+    private final AtomicLongArray durationBuckets = new AtomicLongArray(DurationHistogram.BUCKETS);
+    private final LongAccumulator minDuration = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator maxDuration = new LongAccumulator(Math::max, Long.MIN_VALUE);
+    private volatile Outcome lastOutcome;
+
+    // Totals already written out, only touched by the checkpointing thread
+    private final long[] checkpointedTotals = new long[5];
+    private final long[] checkpointedBuckets = new long[DurationHistogram.BUCKETS];
+    private Outcome checkpointedOutcome;
+
+    public void record(TaskExecution.ExecutionStatus status, Long durationMillis, LocalDateTime finishedAt) {
+        switch (status) {
+            case SUCCESS -> success.increment();
+            case FAILED -> failed.increment();
+            case TIMEOUT -> timeout.increment();
+            case CANCELLED -> cancelled.increment();
+            default -> {
+                return;
+            }
+        }
+        if (durationMillis != null) {
+            long duration = Math.max(0, durationMillis);
+            durationBuckets.incrementAndGet(DurationHistogram.indexOf(duration));
+            totalDuration.add(duration);
+            minDuration.accumulate(duration);
+            maxDuration.accumulate(duration);
+        }
+        lastOutcome = new Outcome(status, finishedAt, durationMillis);
+    }
+
+    /**
+     * Everything recorded since the last checkpoint
+     */
+    public Delta pending() {
+        Delta delta = new Delta();
+        delta.totals[0] = success.sum();
+        delta.totals[1] = failed.sum();
+        delta.totals[2] = timeout.sum();
+        delta.totals[3] = cancelled.sum();
+        delta.totals[4] = totalDuration.sum();
+        delta.success = delta.totals[0] - checkpointedTotals[0];
+        delta.failed = delta.totals[1] - checkpointedTotals[1];
+        delta.timeout = delta.totals[2] - checkpointedTotals[2];
+        delta.cancelled = delta.totals[3] - checkpointedTotals[3];
+        delta.totalDuration = delta.totals[4] - checkpointedTotals[4];
+
+        long[] bucketDeltas = new long[DurationHistogram.BUCKETS];
+        for (int i = 0; i < bucketDeltas.length; i++) {
+            delta.buckets[i] = durationBuckets.get(i);
+            bucketDeltas[i] = delta.buckets[i] - checkpointedBuckets[i];
+        }
+        // The local minimum and maximum also cover values already checkpointed, which does no harm once merged
+        delta.durations.add(bucketDeltas, minDuration.get(), maxDuration.get());
+
+        Outcome outcome = lastOutcome;
+        delta.lastOutcome = outcome != checkpointedOutcome ? outcome : null;
+        return delta;
+    }
+
+    /**
+     * Mark a delta from {@link #pending()} as written out
+     */
+    public void checkpointed(Delta delta) {
+        System.arraycopy(delta.totals, 0, checkpointedTotals, 0, checkpointedTotals.length);
+        System.arraycopy(delta.buckets, 0, checkpointedBuckets, 0, checkpointedBuckets.length);
+        if (delta.lastOutcome != null) {
+            checkpointedOutcome = delta.lastOutcome;
+        }
+    }
+
+    public static final class Outcome {
+
+        private final TaskExecution.ExecutionStatus status;
+        private final LocalDateTime finishedAt;
+        private final Long durationMillis;
+
+        Outcome(TaskExecution.ExecutionStatus status, LocalDateTime finishedAt, Long durationMillis) {
+            this.status = status;
+            this.finishedAt = finishedAt;
+            this.durationMillis = durationMillis;
+        }
+
+        public TaskExecution.ExecutionStatus getStatus() {
+            return status;
+        }
+
+        public LocalDateTime getFinishedAt() {
+            return finishedAt;
+        }
+
+        public Long getDurationMillis() {
+            return durationMillis;
+        }
+    }
+
+    public static final class Delta {
+
+        // Running totals when the delta was taken: success, failed, timeout, cancelled, duration
+        private final long[] totals = new long[5];
+        private final long[] buckets = new long[DurationHistogram.BUCKETS];
+        private final DurationHistogram durations = new DurationHistogram();
+        private long success;
+        private long failed;
+        private long timeout;
+        private long cancelled;
+        private long totalDuration;
+        private Outcome lastOutcome;
+
+        public long getSuccess() {
+            return success;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        public long getTimeout() {
+            return timeout;
+        }
+
+        public long getCancelled() {
+            return cancelled;
+        }
+
+        public long getTotalDuration() {
+            return totalDuration;
+        }
+
+        public DurationHistogram getDurations() {
+            return durations;
+        }
+
+        public Outcome getLastOutcome() {
+            return lastOutcome;
+        }
+
+        public boolean isEmpty() {
+            return success + failed + timeout + cancelled == 0 && lastOutcome == null;
+        }
+    }
+}
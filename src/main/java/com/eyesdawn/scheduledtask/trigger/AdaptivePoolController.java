@@ -0,0 +1,124 @@
+package com.eyesdawn.scheduledtask.trigger;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.JobListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sizes an {@link AdaptiveThreadPool} from the fire lag it sees as a Quartz job listener and
+ * from how long the scheduler waited for a free worker, checked on every {@link #sample()}.
+ * <p>
+ * The pool grows by half when more than 5% of the fires of a sample started later than the
+ * target lag, or when the scheduler waited longer than the target for a worker, since those
+ * triggers are due and held back. It shrinks by a quarter only after {@code shrinkAfterSamples}
+ * samples in a row with no late fire, no wait and at most half the workers busy. The gap
+ * between the two conditions keeps the size from swinging back and forth around a threshold.
+ */
+public class AdaptivePoolController implements JobListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptivePoolController.class);
+
+    // More late fires than this share of a sample means the 95th percentile lag is over the target
+    private static final int LATE_FIRES_PERCENT = 5;
+
+    private final AdaptiveThreadPool pool;
+    private final long targetLagMillis;
+    private final int shrinkAfterSamples;
+
+    private final LongAdder fires = new LongAdder();
+    private final LongAdder lateFires = new LongAdder();
+    private final AtomicLong grown = new AtomicLong();
+    private final AtomicLong shrunk = new AtomicLong();
+
+    // Only touched by the sampling thread
+    private long lastWaitedNanos;
+    private int calmSamples;
+
+    public AdaptivePoolController(AdaptiveThreadPool pool, long targetLagMillis, int shrinkAfterSamples) {
+        this.pool = pool;
+        this.targetLagMillis = targetLagMillis;
+        this.shrinkAfterSamples = shrinkAfterSamples;
+        this.lastWaitedNanos = pool.getWaitedNanos();
+    }
+
+    @Override
+    public String getName() {
+        return "adaptivePoolController";
+    }
+
+    @Override
+    public void jobToBeExecuted(JobExecutionContext context) {
+        long scheduled = (context.getScheduledFireTime() != null ? context.getScheduledFireTime()
+                : context.getFireTime()).getTime();
+        fires.increment();
+        if (System.currentTimeMillis() - scheduled > targetLagMillis) {
+            lateFires.increment();
+        }
+    }
+
+    @Override
+    public void jobExecutionVetoed(JobExecutionContext context) {
+    }
+
+    @Override
+    public void jobWasExecuted(JobExecutionContext context, JobExecutionException jobException) {
+    }
+
+    /**
+     * Look at the fires since the last sample and resize the pool if needed
+     * @return The pool size after the sample
+     */
+    public int sample() {
+        long sampledFires = fires.sumThenReset();
+        long sampledLate = lateFires.sumThenReset();
+        long waitedNanos = pool.getWaitedNanos();
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(waitedNanos - lastWaitedNanos);
+        lastWaitedNanos = waitedNanos;
+        int peakBusy = pool.takePeakBusy();
+        int size = pool.getPoolSize();
+
+        boolean lagging = sampledLate * 100 > sampledFires * LATE_FIRES_PERCENT;
+        if ((lagging && peakBusy >= size) || waitedMillis > targetLagMillis) {
+            calmSamples = 0;
+            if (size < pool.getMaxThreads()) {
+                int resized = pool.resize(size + Math.max(1, size / 2));
+                grown.incrementAndGet();
+                logger.info("Grew Quartz pool from {} to {} threads ({} of {} fires late, waited {} ms for a worker)",
+                        size, resized, sampledLate, sampledFires, waitedMillis);
+                return resized;
+            }
+            return size;
+        }
+
+        if (sampledLate == 0 && waitedMillis == 0 && peakBusy * 2 <= size) {
+            if (++calmSamples >= shrinkAfterSamples && size > pool.getMinThreads()) {
+                calmSamples = 0;
+                int resized = pool.resize(size - Math.max(1, size / 4));
+                shrunk.incrementAndGet();
+                logger.info("Shrank Quartz pool from {} to {} threads", size, resized);
+                return resized;
+            }
+        } else {
+            calmSamples = 0;
+        }
+        return size;
+    }
+
+    public AdaptiveThreadPool getPool() {
+        return pool;
+    }
+
+    public long getGrowCount() {
+        return grown.get();
+    }
+
+    public long getShrinkCount() {
+        return shrunk.get();
+    }
+}
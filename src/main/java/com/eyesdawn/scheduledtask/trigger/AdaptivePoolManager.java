@@ -0,0 +1,134 @@
+package com.eyesdawn.scheduledtask.trigger;
+
+import com.eyesdawn.scheduledtask.config.SchedulerProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.quartz.QuartzProperties;
+import org.springframework.boot.autoconfigure.quartz.SchedulerFactoryBeanCustomizer;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.quartz.SchedulerFactoryBean;
+import org.springframework.stereotype.Component;
+
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plugs the {@link AdaptiveThreadPool} into the Quartz scheduler when
+ * {@code scheduled-task.worker-pool.adaptive} is on, and runs its
+ * {@link AdaptivePoolController} on a timer. Resizes are counted in
+ * {@code scheduler.quartz.pool.resizes}; {@code scheduler.quartz.threads.max} follows the size.
+ */
+@Component
+public class AdaptivePoolManager implements SchedulerFactoryBeanCustomizer, SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptivePoolManager.class);
+
+    private final SchedulerProperties.WorkerPool settings;
+    private final QuartzProperties quartzProperties;
+    private final ObjectProvider<Scheduler> scheduler;
+    private final MeterRegistry registry;
+
+    private volatile boolean running = false;
+    private volatile AdaptivePoolController controller;
+    private ScheduledExecutorService sampler;
+
+    public AdaptivePoolManager(SchedulerProperties properties, QuartzProperties quartzProperties,
+                               ObjectProvider<Scheduler> scheduler, MeterRegistry registry) {
+        this.settings = properties.getWorkerPool();
+        this.quartzProperties = quartzProperties;
+        this.scheduler = scheduler;
+        this.registry = registry;
+    }
+
+    @Override
+    public void customize(SchedulerFactoryBean schedulerFactoryBean) {
+        if (!settings.isAdaptive()) {
+            return;
+        }
+        // Replaces the properties Boot set, so they are copied over first
+        Properties merged = new Properties();
+        merged.putAll(quartzProperties.getProperties());
+        merged.setProperty("org.quartz.threadPool.class", AdaptiveThreadPool.class.getName());
+        merged.setProperty("org.quartz.threadPool.minThreads", Integer.toString(settings.getMinThreads()));
+        merged.setProperty("org.quartz.threadPool.maxThreads", Integer.toString(settings.getMaxThreads()));
+        schedulerFactoryBean.setQuartzProperties(merged);
+    }
+
+    /**
+     * The running controller, or null when the pool is fixed
+     */
+    public AdaptivePoolController getController() {
+        return controller;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!settings.isAdaptive()) {
+            return;
+        }
+        Scheduler current = scheduler.getIfAvailable();
+        AdaptiveThreadPool pool;
+        try {
+            pool = current != null ? AdaptiveThreadPool.forScheduler(current.getSchedulerName()) : null;
+            if (pool == null) {
+                logger.warn("Adaptive worker pool is enabled but the Quartz scheduler does not use it");
+                return;
+            }
+            int shrinkAfterSamples = (int) Math.max(1, TimeUnit.SECONDS.toMillis(settings.getShrinkAfterSeconds())
+                    / settings.getSampleMillis());
+            controller = new AdaptivePoolController(pool, settings.getTargetLagMillis(), shrinkAfterSamples);
+            current.getListenerManager().addJobListener(controller);
+        } catch (SchedulerException e) {
+            logger.warn("Could not attach the adaptive worker pool controller: {}", e.getMessage());
+            return;
+        }
+
+        AdaptivePoolController registered = controller;
+        Gauge.builder("scheduler.quartz.threads.live", pool, AdaptiveThreadPool::getThreadCount)
+                .description("Quartz worker threads alive, trailing the pool size while extra threads retire")
+                .register(registry);
+        FunctionCounter.builder("scheduler.quartz.pool.resizes", registered, AdaptivePoolController::getGrowCount)
+                .description("Times the adaptive Quartz pool was resized")
+                .tag("direction", "grow")
+                .register(registry);
+        FunctionCounter.builder("scheduler.quartz.pool.resizes", registered, AdaptivePoolController::getShrinkCount)
+                .description("Times the adaptive Quartz pool was resized")
+                .tag("direction", "shrink")
+                .register(registry);
+
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "worker-pool-controller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleWithFixedDelay(() -> {
+            try {
+                registered.sample();
+            } catch (Exception e) {
+                logger.warn("Worker pool sample failed: {}", e.getMessage());
+            }
+        }, settings.getSampleMillis(), settings.getSampleMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (sampler != null) {
+            sampler.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
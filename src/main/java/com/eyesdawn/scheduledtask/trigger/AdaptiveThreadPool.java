@@ -0,0 +1,323 @@
+package com.eyesdawn.scheduledtask.trigger;
+
+import org.quartz.SchedulerConfigException;
+import org.quartz.spi.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Quartz worker pool whose size can change while the scheduler runs, between
+ * {@code minThreads} and {@code maxThreads}. Quartz only acquires as many due triggers as
+ * {@link #blockForAvailableThreads()} reports, so the pool size is what limits how many fires
+ * start at once; {@link AdaptivePoolController} moves it with the measured fire lag.
+ * <p>
+ * Workers are started when a fire finds no idle one, and retire when they are idle while the
+ * pool holds more threads than its size. The time the scheduler thread spends waiting for a
+ * free worker is tracked, since those are triggers that are due and not yet acquired.
+ * <p>
+ * Configured through the Quartz properties like the built-in pool:
+ * <pre>
+ * org.quartz.threadPool.class: com.eyesdawn.scheduledtask.trigger.AdaptiveThreadPool
+ * org.quartz.threadPool.minThreads: 4
+ * org.quartz.threadPool.maxThreads: 50
+ * org.quartz.threadPool.threadCount: 10   # initial size
+ * </pre>
+ */
+public class AdaptiveThreadPool implements ThreadPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveThreadPool.class);
+
+    // Pools by scheduler name, so the controller can find the instance Quartz created
+    private static final Map<String, AdaptiveThreadPool> POOLS = new ConcurrentHashMap<>();
+
+    private int minThreads = 1;
+    private int maxThreads = 10;
+    private int threadCount = -1;
+    private boolean makeThreadsDaemons = false;
+    private String instanceName = "QuartzScheduler";
+    private ClassLoader contextClassLoader;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workerFreed = lock.newCondition();
+    private final Condition allIdle = lock.newCondition();
+    // Most recently used first, so the threads that stay idle longest are the ones retired
+    private final ArrayDeque<Worker> idle = new ArrayDeque<>();
+
+    private int size;
+    private int threads;
+    private int busy;
+    private int peakBusy;
+    private int workerNumber;
+    private boolean shutdown;
+
+    private long waitedNanos;
+    private long waitingSince;
+    private int waiters;
+
+    public static AdaptiveThreadPool forScheduler(String schedulerName) {
+        return POOLS.get(schedulerName);
+    }
+
+    @Override
+    public void initialize() throws SchedulerConfigException {
+        if (minThreads < 1 || maxThreads < minThreads) {
+            throw new SchedulerConfigException("Adaptive thread pool needs 1 <= minThreads <= maxThreads, got "
+                    + minThreads + " and " + maxThreads);
+        }
+        size = threadCount > 0 ? Math.max(minThreads, Math.min(maxThreads, threadCount)) : minThreads;
+        contextClassLoader = Thread.currentThread().getContextClassLoader();
+        POOLS.put(instanceName, this);
+        logger.info("Adaptive thread pool {} sized {} within {}-{}", instanceName, size, minThreads, maxThreads);
+    }
+
+    @Override
+    public boolean runInThread(Runnable runnable) {
+        if (runnable == null) {
+            return false;
+        }
+        lock.lock();
+        try {
+            // Quartz asked for free workers first; this only waits if the pool shrank since
+            while (busy >= size && !shutdown) {
+                workerFreed.await(500, TimeUnit.MILLISECONDS);
+            }
+            if (shutdown) {
+                return false;
+            }
+            Worker worker = idle.pollFirst();
+            if (worker == null) {
+                worker = new Worker(instanceName + "_Worker-" + ++workerNumber);
+                threads++;
+                worker.task = runnable;
+                worker.start();
+            } else {
+                worker.task = runnable;
+                worker.wake.signal();
+            }
+            busy++;
+            peakBusy = Math.max(peakBusy, busy);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int blockForAvailableThreads() {
+        lock.lock();
+        try {
+            if (busy >= size && !shutdown) {
+                if (waiters++ == 0) {
+                    waitingSince = System.nanoTime();
+                }
+                try {
+                    while (busy >= size && !shutdown) {
+                        workerFreed.await(500, TimeUnit.MILLISECONDS);
+                    }
+                } finally {
+                    if (--waiters == 0) {
+                        waitedNanos += System.nanoTime() - waitingSince;
+                    }
+                }
+            }
+            return shutdown ? 0 : size - busy;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Move the pool size within its bounds; extra workers retire as they become idle
+     * @return The size set
+     */
+    public int resize(int newSize) {
+        lock.lock();
+        try {
+            size = Math.max(minThreads, Math.min(maxThreads, newSize));
+            for (Worker worker : idle) {
+                worker.wake.signal();
+            }
+            workerFreed.signalAll();
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getPoolSize() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getBusyCount() {
+        lock.lock();
+        try {
+            return busy;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Threads alive, which trails the size while extra workers finish their fires
+     */
+    public int getThreadCount() {
+        lock.lock();
+        try {
+            return threads;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The most workers busy at once since the last call
+     */
+    public int takePeakBusy() {
+        lock.lock();
+        try {
+            int peak = peakBusy;
+            peakBusy = busy;
+            return peak;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Total time the scheduler has waited for a free worker, including a wait in progress
+     */
+    public long getWaitedNanos() {
+        lock.lock();
+        try {
+            return waiters > 0 ? waitedNanos + System.nanoTime() - waitingSince : waitedNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void shutdown(boolean waitForJobsToComplete) {
+        lock.lock();
+        try {
+            shutdown = true;
+            for (Worker worker : idle) {
+                worker.wake.signal();
+            }
+            workerFreed.signalAll();
+            while (waitForJobsToComplete && busy > 0) {
+                allIdle.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+            POOLS.remove(instanceName, this);
+        }
+    }
+
+    public int getMinThreads() {
+        return minThreads;
+    }
+
+    public void setMinThreads(int minThreads) {
+        this.minThreads = minThreads;
+    }
+
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    public void setMaxThreads(int maxThreads) {
+        this.maxThreads = maxThreads;
+    }
+
+    /**
+     * Initial size, clamped to the bounds; the minimum when not set
+     */
+    public void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    public void setMakeThreadsDaemons(boolean makeThreadsDaemons) {
+        this.makeThreadsDaemons = makeThreadsDaemons;
+    }
+
+    @Override
+    public void setInstanceId(String schedInstId) {
+    }
+
+    @Override
+    public void setInstanceName(String schedName) {
+        this.instanceName = schedName;
+    }
+
+    private final class Worker extends Thread {
+
+        private final Condition wake = lock.newCondition();
+        // Guarded by the pool lock
+        private Runnable task;
+
+        private Worker(String name) {
+            super(name);
+            setDaemon(makeThreadsDaemons);
+            setContextClassLoader(contextClassLoader);
+        }
+
+        @Override
+        public void run() {
+            lock.lock();
+            try {
+                while (true) {
+                    while (task == null) {
+                        if (shutdown || threads > size) {
+                            idle.remove(this);
+                            threads--;
+                            return;
+                        }
+                        wake.awaitUninterruptibly();
+                    }
+                    Runnable current = task;
+                    task = null;
+                    lock.unlock();
+                    try {
+                        current.run();
+                    } catch (Throwable e) {
+                        // Quartz handles job failures itself; this keeps the worker's counts right
+                        logger.error("Error while running a job in {}", getName(), e);
+                    } finally {
+                        lock.lock();
+                    }
+                    busy--;
+                    if (busy == 0) {
+                        allIdle.signalAll();
+                    }
+                    if (!shutdown && threads <= size) {
+                        idle.addFirst(this);
+                    }
+                    workerFreed.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.eyesdawn.scheduledtask.trigger;
+
+import com.eyesdawn.scheduledtask.config.SchedulerProperties;
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import org.quartz.CronExpression;
+import org.springframework.stereotype.Component;
+
+import java.text.ParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compiled cron expressions by expression text and time zone, shared by validation, trigger
+ * creation and fire time previews so each distinct expression is parsed once. Tasks are
+ * looked up by the expression {@link HashedCron} resolves for them.
+ * <p>
+ * The returned expressions are shared between threads. Computing fire times only reads them;
+ * callers must not change them, e.g. with {@link CronExpression#setTimeZone}, other than to
+ * the zone they were compiled for.
+ */
+@Component
+public class CronExpressionCache {
+
+    private final int maxSize;
+
+    // Access-ordered, so the eldest entry is the least recently used; guarded by this
+    private final Map<Key, CronExpression> compiled;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public CronExpressionCache(SchedulerProperties properties) {
+        this.maxSize = Math.max(1, properties.getCron().getCacheSize());
+        this.compiled = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CronExpression> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public CronExpression compile(String expression, TimeZone timeZone) throws ParseException {
+        Key key = new Key(expression, timeZone.getID());
+        synchronized (this) {
+            CronExpression cron = compiled.get(key);
+            if (cron != null) {
+                hits.increment();
+                return cron;
+            }
+        }
+        misses.increment();
+        CronExpression cron = new CronExpression(expression);
+        cron.setTimeZone(timeZone);
+        synchronized (this) {
+            CronExpression raced = compiled.putIfAbsent(key, cron);
+            return raced != null ? raced : cron;
+        }
+    }
+
+    /**
+     * Compile in the server's time zone, which is the one tasks fire in
+     */
+    public CronExpression compile(String expression) throws ParseException {
+        return compile(expression, TimeZone.getDefault());
+    }
+
+    /**
+     * @throws RuntimeException If the expression is missing or invalid
+     */
+    public CronExpression validate(String expression) {
+        if (expression == null) {
+            throw new RuntimeException("Invalid cron expression: null");
+        }
+        try {
+            return compile(expression);
+        } catch (ParseException e) {
+            throw new RuntimeException("Invalid cron expression: " + expression, e);
+        }
+    }
+
+    /**
+     * Check an expression and spread window as given for a task, whatever id it gets
+     * @throws RuntimeException If the expression is missing or invalid, or the spread window does not fit it
+     */
+    public CronExpression validate(String expression, Integer spreadSeconds) {
+        if (expression == null) {
+            throw new RuntimeException("Invalid cron expression: null");
+        }
+        return validate(HashedCron.resolveForValidation(expression, spreadSeconds));
+    }
+
+    /**
+     * The expression the task's triggers fire on, with its hashed fields and spread window resolved
+     * @throws RuntimeException If it cannot be resolved or is invalid
+     */
+    public CronExpression forTask(ScheduledTask task) {
+        if (task.getCronExpression() == null) {
+            throw new RuntimeException("Invalid cron expression: null");
+        }
+        return validate(HashedCron.resolve(task.getCronExpression(), task.getId(), task.getSpreadSeconds()));
+    }
+
+    public synchronized int size() {
+        return compiled.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private static final class Key {
+        private final String expression;
+        private final String timeZoneId;
+
+        Key(String expression, String timeZoneId) {
+            this.expression = expression;
+            this.timeZoneId = timeZoneId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key other)) {
+                return false;
+            }
+            return expression.equals(other.expression) && timeZoneId.equals(other.timeZoneId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(expression, timeZoneId);
+        }
+    }
+}
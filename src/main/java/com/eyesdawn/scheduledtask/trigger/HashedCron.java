@@ -0,0 +1,192 @@
+package com.eyesdawn.scheduledtask.trigger;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Turns the cron expression a task is defined with into the plain Quartz expression its
+ * triggers fire on, so that tasks sharing a schedule such as "every hour" do not all fire in
+ * the same second.
+ * <p>
+ * {@code H} in a field stands for a value derived from the task id: {@code H} alone picks one
+ * value of the field's range, {@code H(a-b)} one value between a and b, {@code H/n} where in
+ * the first n values an increment starts, and {@code H(a-b)/n} the same within a range. Each
+ * field draws its own value, so {@code H H * * * ?} places every task on one of the 3600
+ * seconds of the hour. Days of the month are drawn from 1-28 so every month has them.
+ * <p>
+ * A spread window of S seconds delays every fire of a task by an id-derived offset below S.
+ * The offset is folded into the seconds and minutes fields, which needs a fixed seconds field
+ * and, when the offset carries into the minutes, a fixed, {@code *} or stepped minutes field
+ * that the shifted fires cannot run past.
+ * <p>
+ * The same id always resolves to the same expression, on every node.
+ */
+public final class HashedCron {
+
+    // Ranges H draws from: second, minute, hour, day of month, month, day of week
+    private static final int[][] RANGES = {{0, 59}, {0, 59}, {0, 23}, {1, 28}, {1, 12}, {1, 7}};
+    private static final String[] FIELD_NAMES = {"second", "minute", "hour", "day of month", "month", "day of week"};
+    private static final int SPREAD_SALT = RANGES.length;
+
+    private static final Pattern HASHED = Pattern.compile("H(?:\\((\\d+)-(\\d+)\\))?(?:/(\\d+))?");
+    private static final Pattern NUMBER = Pattern.compile("\\d+");
+    private static final Pattern STEPPED = Pattern.compile("(\\d+|\\*)/(\\d+)");
+
+    private HashedCron() {
+    }
+
+    /**
+     * The expression the task's triggers use; plain expressions without a spread window come
+     * back unchanged
+     * @param taskId Seed for the hashed values and the spread offset; null is treated as 0
+     * @throws IllegalArgumentException If a hashed field or the spread window cannot be applied
+     */
+    public static String resolve(String expression, Long taskId, Integer spreadSeconds) {
+        return expand(expression, taskId != null ? taskId : 0L, checkSpread(spreadSeconds));
+    }
+
+    /**
+     * Resolve with the highest value every hashed field and the spread offset can take. The
+     * spread window only fails to fit when values are too high, so if this resolves, the
+     * expression resolves for every task id.
+     * @throws IllegalArgumentException If a hashed field or the spread window cannot be applied
+     */
+    public static String resolveForValidation(String expression, Integer spreadSeconds) {
+        return expand(expression, null, checkSpread(spreadSeconds));
+    }
+
+    /**
+     * @param seed The task id, or null for the highest values
+     */
+    private static String expand(String expression, Long seed, int spread) {
+        if (spread == 0 && expression.indexOf('H') < 0) {
+            return expression;
+        }
+        String[] fields = expression.trim().split("\\s+");
+        if (fields.length < 6 || fields.length > 7) {
+            // Leave it to the cron parser to report
+            return expression;
+        }
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = expandField(fields[i], i, seed);
+        }
+        if (spread > 0) {
+            applyOffset(fields, pick(seed, SPREAD_SALT, spread), spread, expression);
+        }
+        return String.join(" ", fields);
+    }
+
+    private static String expandField(String field, int index, Long seed) {
+        if (field.indexOf('H') < 0) {
+            return field;
+        }
+        String[] parts = field.split(",", -1);
+        for (int p = 0; p < parts.length; p++) {
+            // Names like THU contain an H but do not start with one
+            if (parts[p].startsWith("H")) {
+                if (index >= RANGES.length) {
+                    throw new IllegalArgumentException("H is not supported in the year field: " + field);
+                }
+                parts[p] = expandPart(parts[p], index, seed);
+            }
+        }
+        return String.join(",", parts);
+    }
+
+    private static String expandPart(String part, int index, Long seed) {
+        Matcher matcher = HASHED.matcher(part);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid hashed " + FIELD_NAMES[index] + " field: " + part);
+        }
+        int low = RANGES[index][0];
+        int high = RANGES[index][1];
+        boolean ranged = matcher.group(1) != null;
+        if (ranged) {
+            low = Integer.parseInt(matcher.group(1));
+            high = Integer.parseInt(matcher.group(2));
+            if (low > high || low < RANGES[index][0] || high > RANGES[index][1]) {
+                throw new IllegalArgumentException("Hashed " + FIELD_NAMES[index] + " range must be within "
+                        + RANGES[index][0] + "-" + RANGES[index][1] + ": " + part);
+            }
+        }
+        if (matcher.group(3) == null) {
+            return Integer.toString(low + pick(seed, index, high - low + 1));
+        }
+        int step = Integer.parseInt(matcher.group(3));
+        if (step < 1) {
+            throw new IllegalArgumentException("Hashed " + FIELD_NAMES[index] + " step must be positive: " + part);
+        }
+        int start = low + pick(seed, index, Math.min(step, high - low + 1));
+        return (ranged ? start + "-" + high : Integer.toString(start)) + "/" + step;
+    }
+
+    private static void applyOffset(String[] fields, int offset, int spread, String expression) {
+        if (!NUMBER.matcher(fields[0]).matches()) {
+            throw new IllegalArgumentException("A spread window needs a fixed seconds field: " + expression);
+        }
+        int second = Integer.parseInt(fields[0]);
+        int total = second + offset;
+        fields[0] = Integer.toString(total % 60);
+        int carry = total / 60;
+        if (carry == 0) {
+            return;
+        }
+
+        String minutes = fields[1];
+        if (minutes.equals("*")) {
+            // Fires every minute, so moving them past the next minute boundary changes nothing else
+            if (spread > 60) {
+                throw new IllegalArgumentException("A spread window over a task firing every minute can be at most 60 seconds: "
+                        + expression);
+            }
+            return;
+        }
+        if (NUMBER.matcher(minutes).matches()) {
+            int minute = Integer.parseInt(minutes) + carry;
+            if (minute > 59) {
+                throw new IllegalArgumentException("Spread window of " + spread + " seconds reaches past the hour: " + expression);
+            }
+            fields[1] = Integer.toString(minute);
+            return;
+        }
+        Matcher stepped = STEPPED.matcher(minutes);
+        if (stepped.matches()) {
+            int start = stepped.group(1).equals("*") ? 0 : Integer.parseInt(stepped.group(1));
+            int step = Integer.parseInt(stepped.group(2));
+            // With a step dividing the hour the last fire of each hour also stays inside it
+            if (step < 1 || 60 % step != 0 || start + carry >= step) {
+                throw new IllegalArgumentException("Spread window of " + spread
+                        + " seconds does not fit the minutes interval: " + expression);
+            }
+            fields[1] = (start + carry) + "/" + step;
+            return;
+        }
+        throw new IllegalArgumentException("A spread window longer than the seconds left in the minute needs a fixed, "
+                + "* or stepped minutes field: " + expression);
+    }
+
+    private static int checkSpread(Integer spreadSeconds) {
+        if (spreadSeconds == null) {
+            return 0;
+        }
+        if (spreadSeconds < 0) {
+            throw new IllegalArgumentException("Spread window must not be negative: " + spreadSeconds);
+        }
+        return spreadSeconds;
+    }
+
+    private static int pick(Long seed, int salt, int bound) {
+        return seed != null ? (int) (hash(seed, salt) % bound) : bound - 1;
+    }
+
+    /**
+     * Well-mixed non-negative value per task id and field (the SplitMix64 finalizer), so
+     * consecutive ids land far apart and the fields do not move together
+     */
+    private static long hash(long seed, int salt) {
+        long z = seed * 0x9E3779B97F4A7C15L + (salt + 1) * 0xD1B54A32D192ED03L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return (z ^ (z >>> 31)) >>> 1;
+    }
+}
@@ -0,0 +1,174 @@
+package com.eyesdawn.scheduledtask.trigger;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel with O(1) insert and expiry. Each level has {@code 2^bits} slots;
+ * a slot on level {@code L} spans {@code 2^(bits*L)} ticks, and its entries cascade into the
+ * lower levels when the clock reaches it. Entries further out than the top level are parked
+ * on the top level and re-placed on every cascade.
+ * <p>
+ * Any thread may schedule or cancel; only the tick thread may call {@link #advance}.
+ */
+public final class HierarchicalTimingWheel<T> {
+
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final int bits;
+    private final int mask;
+    private final Entry<T>[][] slots;
+    private final Queue<Entry<T>> incoming = new ConcurrentLinkedQueue<>();
+
+    // Next tick to process, counted from startMillis
+    private long currentTick;
+    private int size;
+
+    public HierarchicalTimingWheel(long tickMillis, int bits, long startMillis) {
+        if (tickMillis <= 0 || bits <= 0 || bits * LEVELS >= 62) {
+            throw new IllegalArgumentException("Invalid timing wheel geometry: tick=" + tickMillis + "ms, bits=" + bits);
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.bits = bits;
+        this.mask = (1 << bits) - 1;
+        // Generic arrays cannot be created directly; every slot only ever holds Entry<T>
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Entry<T>[][] levels = (Entry<T>[][]) new Entry[LEVELS][1 << bits];
+        this.slots = levels;
+    }
+
+    /**
+     * Schedule an item to expire at the given wall-clock time. Safe to call from any thread.
+     */
+    public Timeout schedule(T item, long deadlineMillis) {
+        Entry<T> entry = new Entry<>(item, deadlineMillis);
+        incoming.add(entry);
+        return entry;
+    }
+
+    /**
+     * Process every tick up to the given time and hand expired items to the consumer.
+     * Must only be called from the tick thread.
+     * @return The number of expired items
+     */
+    public int advance(long nowMillis, Consumer<T> onExpired) {
+        drainIncoming();
+        long targetTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        int expired = 0;
+        while (currentTick <= targetTick) {
+            cascade(currentTick);
+            int index = (int) (currentTick & mask);
+            Entry<T> entry = slots[0][index];
+            slots[0][index] = null;
+            while (entry != null) {
+                Entry<T> next = entry.next;
+                entry.next = null;
+                size--;
+                if (!entry.cancelled) {
+                    expired++;
+                    onExpired.accept(entry.item);
+                }
+                entry = next;
+            }
+            currentTick++;
+        }
+        return expired;
+    }
+
+    /**
+     * Milliseconds until the next tick boundary
+     */
+    public long millisUntilNextTick(long nowMillis) {
+        long nextTickAt = startMillis + currentTick * tickMillis;
+        return Math.max(0L, nextTickAt - nowMillis);
+    }
+
+    /**
+     * Entries held by the wheel, including cancelled ones that have not been swept yet
+     */
+    public int size() {
+        return size + incoming.size();
+    }
+
+    private void drainIncoming() {
+        Entry<T> entry;
+        while ((entry = incoming.poll()) != null) {
+            if (!entry.cancelled) {
+                place(entry);
+                size++;
+            }
+        }
+    }
+
+    private void cascade(long tick) {
+        for (int level = 1; level < LEVELS; level++) {
+            long lowerBits = tick & ((1L << (bits * level)) - 1);
+            if (lowerBits != 0) {
+                return;
+            }
+            int index = (int) ((tick >>> (bits * level)) & mask);
+            Entry<T> entry = slots[level][index];
+            slots[level][index] = null;
+            while (entry != null) {
+                Entry<T> next = entry.next;
+                entry.next = null;
+                if (entry.cancelled) {
+                    size--;
+                } else {
+                    place(entry);
+                }
+                entry = next;
+            }
+        }
+    }
+
+    private void place(Entry<T> entry) {
+        long deadlineTick = Math.max(currentTick, ceilDiv(entry.deadlineMillis - startMillis, tickMillis));
+        long delta = deadlineTick - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (bits * (level + 1)))) {
+            level++;
+        }
+        long maxDelta = (1L << (bits * LEVELS)) - 1;
+        long slotTick = delta > maxDelta ? currentTick + maxDelta : deadlineTick;
+        int index = (int) ((slotTick >>> (bits * level)) & mask);
+        entry.next = slots[level][index];
+        slots[level][index] = entry;
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return -Math.floorDiv(-value, divisor);
+    }
+
+    public interface Timeout {
+        void cancel();
+
+        boolean isCancelled();
+    }
+
+    private static final class Entry<T> implements Timeout {
+        private final T item;
+        private final long deadlineMillis;
+        private volatile boolean cancelled;
+        private Entry<T> next;
+
+        private Entry(T item, long deadlineMillis) {
+            this.item = item;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
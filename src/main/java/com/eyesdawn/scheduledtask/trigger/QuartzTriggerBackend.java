@@ -0,0 +1,117 @@
+package com.eyesdawn.scheduledtask.trigger;
+
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import org.quartz.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Default backend: one Quartz {@link CronTrigger} per task.
+ */
+@Component
+public class QuartzTriggerBackend implements TriggerBackend {
+
+    @Autowired
+    private Scheduler quartzScheduler;
+
+    @Autowired
+    private CronExpressionCache cronExpressionCache;
+
+    @Override
+    public ScheduledTask.TriggerType getType() {
+        return ScheduledTask.TriggerType.QUARTZ;
+    }
+
+    @Override
+    public void schedule(ScheduledTask task) throws SchedulerException {
+        quartzScheduler.scheduleJob(buildJobDetail(task), buildTrigger(task));
+    }
+
+    @Override
+    public void unschedule(ScheduledTask task) throws SchedulerException {
+        quartzScheduler.deleteJob(jobKey(task.getName()));
+    }
+
+    /**
+     * Registers all the jobs with one scheduleJobs call, which the JDBC job store runs in a
+     * single transaction; like {@link #schedule}, fails if any of them already exists
+     */
+    @Override
+    public void scheduleAll(Collection<ScheduledTask> tasks) throws SchedulerException {
+        Map<JobDetail, Set<? extends Trigger>> jobs = new HashMap<>();
+        for (ScheduledTask task : tasks) {
+            jobs.put(buildJobDetail(task), Set.of(buildTrigger(task)));
+        }
+        quartzScheduler.scheduleJobs(jobs, false);
+    }
+
+    @Override
+    public void unscheduleAll(Collection<ScheduledTask> tasks) throws SchedulerException {
+        List<JobKey> jobKeys = new ArrayList<>();
+        for (ScheduledTask task : tasks) {
+            jobKeys.add(jobKey(task.getName()));
+        }
+        quartzScheduler.deleteJobs(jobKeys);
+    }
+
+    @Override
+    public void pause(ScheduledTask task) throws SchedulerException {
+        quartzScheduler.pauseJob(jobKey(task.getName()));
+    }
+
+    @Override
+    public void resume(ScheduledTask task) throws SchedulerException {
+        quartzScheduler.resumeJob(jobKey(task.getName()));
+    }
+
+    @Override
+    public void triggerNow(Long taskId, String taskName, JobDataMap data) throws SchedulerException {
+        JobKey jobKey = jobKey(taskName);
+        if (!quartzScheduler.checkExists(jobKey)) {
+            throw new SchedulerException("Job is no longer scheduled: " + taskName);
+        }
+        quartzScheduler.triggerJob(jobKey, data);
+    }
+
+    public static JobKey jobKey(String taskName) {
+        return new JobKey(taskName, "DEFAULT");
+    }
+
+    /**
+     * Job definition shared by every backend, so jobs see the same data whichever one fires them
+     */
+    public static JobDetail buildJobDetail(ScheduledTask task) {
+        return JobBuilder.newJob(getJobClass(task.getJobClass()))
+                .withIdentity(jobKey(task.getName()))
+                .usingJobData("taskId", task.getId())
+                .usingJobData("timeoutSeconds", task.getTimeoutSeconds())
+                .usingJobData("jobData", task.getJobData())
+                .build();
+    }
+
+    /**
+     * @throws RuntimeException If the task's cron expression is invalid
+     */
+    public Trigger buildTrigger(ScheduledTask task) {
+        return TriggerBuilder.newTrigger()
+                .withIdentity(task.getName() + "_trigger", "DEFAULT")
+                .withSchedule(CronScheduleBuilder.cronSchedule(cronExpressionCache.forTask(task)))
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Class<? extends Job> getJobClass(String jobClassName) {
+        try {
+            return (Class<? extends Job>) Class.forName(jobClassName);
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException("Job class not found: " + jobClassName, e);
+        }
+    }
+}
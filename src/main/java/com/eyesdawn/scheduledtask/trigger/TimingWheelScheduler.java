@@ -0,0 +1,212 @@
+package com.eyesdawn.scheduledtask.trigger;
+
+import org.quartz.CronExpression;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Cron-driven dispatcher on top of a {@link HierarchicalTimingWheel}. A single tick thread
+ * expires due entries, re-inserts each at its next fire time computed with the same
+ * {@link CronExpression} rules as Quartz, and hands the fire to the fire executor.
+ * <p>
+ * The tick thread never runs a fire itself: the executor must reject work it has no room for,
+ * and a rejected fire is skipped and counted as a misfire, so a full pool cannot stall the wheel.
+ */
+public class TimingWheelScheduler<P> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimingWheelScheduler.class);
+
+    // A fire that is this late is treated as misfired; the missed fires are skipped
+    private static final long MISFIRE_THRESHOLD_MILLIS = 60_000L;
+
+    private final HierarchicalTimingWheel<CronEntry<P>> wheel;
+    private final Executor fireExecutor;
+    private final FireHandler<P> handler;
+    private final Map<Long, CronEntry<P>> entries = new ConcurrentHashMap<>();
+    private final LongAdder misfires = new LongAdder();
+
+    private volatile boolean running = false;
+    private Thread tickThread;
+
+    public TimingWheelScheduler(long tickMillis, int wheelBits, Executor fireExecutor, FireHandler<P> handler) {
+        this.wheel = new HierarchicalTimingWheel<>(tickMillis, wheelBits, System.currentTimeMillis());
+        this.fireExecutor = fireExecutor;
+        this.handler = handler;
+    }
+
+    /**
+     * Schedule a payload on a cron expression, replacing any entry with the same key
+     * @return The first fire time, or null if the expression never fires again
+     */
+    public Date schedule(Long key, CronExpression cron, P payload) {
+        unschedule(key);
+        CronEntry<P> entry = new CronEntry<>(key, cron, payload);
+        Date first = cron.getNextValidTimeAfter(new Date());
+        if (first == null) {
+            return null;
+        }
+        entries.put(key, entry);
+        arm(entry, first);
+        return first;
+    }
+
+    public boolean unschedule(Long key) {
+        CronEntry<P> entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        entry.removed = true;
+        HierarchicalTimingWheel.Timeout timeout = entry.timeout;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+        return true;
+    }
+
+    public boolean pause(Long key) {
+        CronEntry<P> entry = entries.get(key);
+        if (entry != null) {
+            entry.paused = true;
+        }
+        return entry != null;
+    }
+
+    public boolean resume(Long key) {
+        CronEntry<P> entry = entries.get(key);
+        if (entry != null) {
+            entry.paused = false;
+        }
+        return entry != null;
+    }
+
+    public boolean contains(Long key) {
+        return entries.containsKey(key);
+    }
+
+    public P getPayload(Long key) {
+        CronEntry<P> entry = entries.get(key);
+        return entry != null ? entry.payload : null;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Fires skipped because the fire executor rejected them
+     */
+    public long getMisfireCount() {
+        return misfires.sum();
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        tickThread = new Thread(this::tickLoop, "timing-wheel-tick");
+        tickThread.setDaemon(true);
+        tickThread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (tickThread != null) {
+            LockSupport.unpark(tickThread);
+            tickThread = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void arm(CronEntry<P> entry, Date fireTime) {
+        entry.nextFireTime = fireTime;
+        entry.timeout = wheel.schedule(entry, fireTime.getTime());
+    }
+
+    private void tickLoop() {
+        while (running) {
+            try {
+                wheel.advance(System.currentTimeMillis(), this::dispatch);
+                long sleepMillis = wheel.millisUntilNextTick(System.currentTimeMillis());
+                if (sleepMillis > 0) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(sleepMillis));
+                }
+            } catch (Exception e) {
+                logger.error("Timing wheel tick failed", e);
+            }
+        }
+    }
+
+    private void dispatch(CronEntry<P> entry) {
+        if (entry.removed) {
+            return;
+        }
+        Date scheduledFireTime = entry.nextFireTime;
+        Date fireTime = new Date();
+
+        Date nextFireTime = entry.cron.getNextValidTimeAfter(scheduledFireTime);
+        if (nextFireTime != null && fireTime.getTime() - nextFireTime.getTime() > MISFIRE_THRESHOLD_MILLIS) {
+            nextFireTime = entry.cron.getNextValidTimeAfter(fireTime);
+        }
+        // Re-armed here rather than on the fire thread, so fires waiting in the pool never hold the next one back
+        if (nextFireTime != null) {
+            arm(entry, nextFireTime);
+        } else {
+            entries.remove(entry.key, entry);
+        }
+
+        if (entry.paused) {
+            return;
+        }
+        Date next = nextFireTime;
+        try {
+            fireExecutor.execute(() -> fire(entry, scheduledFireTime, fireTime, next));
+        } catch (RejectedExecutionException e) {
+            misfires.increment();
+            logger.warn("Fire pool is full, skipped the fire of {} due at {}", entry.key, scheduledFireTime);
+        }
+    }
+
+    private void fire(CronEntry<P> entry, Date scheduledFireTime, Date fireTime, Date nextFireTime) {
+        if (entry.removed) {
+            return;
+        }
+        try {
+            handler.fire(entry.payload, scheduledFireTime, fireTime, nextFireTime);
+        } catch (Exception e) {
+            logger.error("Timing wheel fire failed for {}", entry.key, e);
+        }
+    }
+
+    public interface FireHandler<P> {
+        void fire(P payload, Date scheduledFireTime, Date fireTime, Date nextFireTime) throws Exception;
+    }
+
+    private static final class CronEntry<P> {
+        private final Long key;
+        private final CronExpression cron;
+        private final P payload;
+        private volatile boolean paused;
+        private volatile boolean removed;
+        private volatile Date nextFireTime;
+        private volatile HierarchicalTimingWheel.Timeout timeout;
+
+        private CronEntry(Long key, CronExpression cron, P payload) {
+            this.key = key;
+            this.cron = cron;
+            this.payload = payload;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.eyesdawn.scheduledtask.trigger;
+
+import com.eyesdawn.scheduledtask.config.SchedulerProperties;
+import com.eyesdawn.scheduledtask.job.JobExecutionEngine;
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.quartz.CronExpression;
+import org.quartz.Job;
+import org.quartz.JobDataMap;
+import org.quartz.JobDetail;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.TriggerBuilder;
+import org.quartz.impl.JobExecutionContextImpl;
+import org.quartz.spi.OperableTrigger;
+import org.quartz.spi.TriggerFiredBundle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * In-process trigger backend for high-frequency tasks. Fires come from a
+ * {@link TimingWheelScheduler} instead of Quartz's trigger store, and each fire builds a
+ * regular {@link org.quartz.JobExecutionContext} so {@code ScheduledJobSupport} runs unchanged.
+ */
+@Component
+public class TimingWheelTriggerBackend implements TriggerBackend, SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimingWheelTriggerBackend.class);
+
+    @Autowired
+    private Scheduler quartzScheduler;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    @Autowired
+    private CronExpressionCache cronExpressionCache;
+
+    private final ExecutorService fireExecutor;
+    private final TimingWheelScheduler<WheelJob> wheelScheduler;
+
+    public TimingWheelTriggerBackend(SchedulerProperties properties, MeterRegistry registry) {
+        SchedulerProperties.TimingWheel settings = properties.getTimingWheel();
+        ExecutorService virtualExecutor = JobExecutionEngine.newVirtualThreadExecutor();
+        // A full platform pool rejects the fire instead of running it on the tick thread
+        this.fireExecutor = virtualExecutor != null
+                ? virtualExecutor
+                : JobExecutionEngine.newPlatformExecutor("timing-wheel-fire-", settings.getFireThreads(),
+                        settings.getQueueCapacity(), new ThreadPoolExecutor.AbortPolicy());
+        this.wheelScheduler = new TimingWheelScheduler<>(settings.getTickMillis(), settings.getWheelBits(),
+                fireExecutor, this::fire);
+        FunctionCounter.builder("scheduler.timingwheel.misfires", wheelScheduler, TimingWheelScheduler::getMisfireCount)
+                .description("Timing wheel fires skipped because the fire pool was full")
+                .register(registry);
+    }
+
+    @Override
+    public ScheduledTask.TriggerType getType() {
+        return ScheduledTask.TriggerType.TIMING_WHEEL;
+    }
+
+    @Override
+    public void schedule(ScheduledTask task) throws SchedulerException {
+        // The wheel lives in this JVM only, so it cannot share or fail over fires across a cluster
+        if (quartzScheduler.getMetaData().isJobStoreClustered()) {
+            throw new SchedulerException("The timing wheel trigger backend is not available in clustered mode: "
+                    + task.getName());
+        }
+        CronExpression cron;
+        try {
+            cron = cronExpressionCache.forTask(task);
+        } catch (RuntimeException e) {
+            throw new SchedulerException(e.getMessage(), e);
+        }
+        JobDetail jobDetail = QuartzTriggerBackend.buildJobDetail(task);
+        OperableTrigger trigger = (OperableTrigger) TriggerBuilder.newTrigger()
+                .withIdentity(task.getName() + "_trigger", "TIMING_WHEEL")
+                .forJob(jobDetail)
+                .build();
+
+        Date firstFire = wheelScheduler.schedule(task.getId(), cron, new WheelJob(jobDetail, trigger));
+        if (firstFire == null) {
+            throw new SchedulerException("Cron expression will never fire: " + task.getCronExpression());
+        }
+        logger.debug("Scheduled task {} on the timing wheel, first fire at {}", task.getName(), firstFire);
+    }
+
+    @Override
+    public void unschedule(ScheduledTask task) {
+        wheelScheduler.unschedule(task.getId());
+    }
+
+    @Override
+    public void pause(ScheduledTask task) throws SchedulerException {
+        if (!wheelScheduler.pause(task.getId())) {
+            throw new SchedulerException("Task is not scheduled on the timing wheel: " + task.getName());
+        }
+    }
+
+    @Override
+    public void resume(ScheduledTask task) throws SchedulerException {
+        if (!wheelScheduler.resume(task.getId())) {
+            throw new SchedulerException("Task is not scheduled on the timing wheel: " + task.getName());
+        }
+    }
+
+    @Override
+    public void triggerNow(Long taskId, String taskName, JobDataMap data) throws SchedulerException {
+        WheelJob scheduled = wheelScheduler.getPayload(taskId);
+        if (scheduled == null) {
+            throw new SchedulerException("Job is no longer scheduled: " + taskName);
+        }
+        OperableTrigger trigger = (OperableTrigger) TriggerBuilder.newTrigger()
+                .forJob(scheduled.jobDetail)
+                .usingJobData(data)
+                .startNow()
+                .build();
+        WheelJob oneOff = new WheelJob(scheduled.jobDetail, trigger);
+        Date now = new Date();
+        try {
+            fireExecutor.execute(() -> {
+                try {
+                    fire(oneOff, now, new Date(), null);
+                } catch (Exception e) {
+                    logger.error("Immediate fire of task {} failed", taskName, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw new SchedulerException("Timing wheel fire pool is full, cannot fire task now: " + taskName, e);
+        }
+    }
+
+    public long getMisfireCount() {
+        return wheelScheduler.getMisfireCount();
+    }
+
+    public int getScheduledCount() {
+        return wheelScheduler.size();
+    }
+
+    private void fire(WheelJob wheelJob, Date scheduledFireTime, Date fireTime, Date nextFireTime) throws Exception {
+        Job job = beanFactory.createBean(wheelJob.jobDetail.getJobClass());
+        TriggerFiredBundle bundle = new TriggerFiredBundle(wheelJob.jobDetail, wheelJob.trigger, null, false,
+                fireTime, scheduledFireTime, null, nextFireTime);
+        job.execute(new JobExecutionContextImpl(quartzScheduler, bundle, job));
+    }
+
+    @Override
+    public void start() {
+        wheelScheduler.start();
+    }
+
+    @Override
+    public void stop() {
+        wheelScheduler.stop();
+        fireExecutor.shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return wheelScheduler.isRunning();
+    }
+
+    private static final class WheelJob {
+        private final JobDetail jobDetail;
+        private final OperableTrigger trigger;
+
+        private WheelJob(JobDetail jobDetail, OperableTrigger trigger) {
+            this.jobDetail = jobDetail;
+            this.trigger = trigger;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.eyesdawn.scheduledtask.trigger;
+
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import org.quartz.JobDataMap;
+import org.quartz.SchedulerException;
+
+import java.util.Collection;
+
+/**
+ * Decides when a task's job fires. Each task selects its backend through
+ * {@link ScheduledTask#getTriggerType()}.
+ */
+public interface TriggerBackend {
+
+    ScheduledTask.TriggerType getType();
+
+    void schedule(ScheduledTask task) throws SchedulerException;
+
+    void unschedule(ScheduledTask task) throws SchedulerException;
+
+    void pause(ScheduledTask task) throws SchedulerException;
+
+    void resume(ScheduledTask task) throws SchedulerException;
+
+    /**
+     * Schedule several tasks; backends that can register them in one call override this
+     */
+    default void scheduleAll(Collection<ScheduledTask> tasks) throws SchedulerException {
+        for (ScheduledTask task : tasks) {
+            schedule(task);
+        }
+    }
+
+    default void unscheduleAll(Collection<ScheduledTask> tasks) throws SchedulerException {
+        for (ScheduledTask task : tasks) {
+            unschedule(task);
+        }
+    }
+
+    /**
+     * Fire the task's job once, immediately, with extra job data
+     * @throws SchedulerException If the task is not currently scheduled on this backend
+     */
+    void triggerNow(Long taskId, String taskName, JobDataMap data) throws SchedulerException;
+}
@@ -0,0 +1,56 @@
+package com.eyesdawn.scheduledtask.trigger;
+
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+@Component
+public class TriggerBackendRegistry {
+
+    private final Map<ScheduledTask.TriggerType, TriggerBackend> localBackends = new EnumMap<>(ScheduledTask.TriggerType.class);
+    private volatile Map<ScheduledTask.TriggerType, TriggerBackend> backends;
+
+    public TriggerBackendRegistry(List<TriggerBackend> backends) {
+        for (TriggerBackend backend : backends) {
+            this.localBackends.put(backend.getType(), backend);
+        }
+        this.backends = localBackends;
+    }
+
+    /**
+     * Wrap every backend, e.g. to route calls to the node that owns the task. Backends
+     * returned by {@link #getLocal} stay unwrapped.
+     */
+    public void decorate(UnaryOperator<TriggerBackend> decorator) {
+        Map<ScheduledTask.TriggerType, TriggerBackend> decorated = new EnumMap<>(ScheduledTask.TriggerType.class);
+        localBackends.forEach((type, backend) -> decorated.put(type, decorator.apply(backend)));
+        this.backends = decorated;
+    }
+
+    public TriggerBackend get(ScheduledTask.TriggerType type) {
+        return lookup(backends, type);
+    }
+
+    public TriggerBackend forTask(ScheduledTask task) {
+        return get(task.getTriggerType());
+    }
+
+    /**
+     * The backend that schedules in this JVM, bypassing any decoration
+     */
+    public TriggerBackend getLocal(ScheduledTask.TriggerType type) {
+        return lookup(localBackends, type);
+    }
+
+    private static TriggerBackend lookup(Map<ScheduledTask.TriggerType, TriggerBackend> backends, ScheduledTask.TriggerType type) {
+        TriggerBackend backend = backends.get(type == null ? ScheduledTask.TriggerType.QUARTZ : type);
+        if (backend == null) {
+            throw new RuntimeException("Trigger backend not available: " + type);
+        }
+        return backend;
+    }
+}
@@ -0,0 +1,231 @@
+// Live updates for the task list and task detail pages over Server-Sent Events.
+// Rows are patched in place; after a reconnect the current state is fetched once,
+// since events sent while disconnected are not replayed.
+
+(function() {
+    const TASK_BADGES = {
+        ACTIVE: ['bg-success', '活跃'],
+        INACTIVE: ['bg-secondary', '未激活'],
+        PAUSED: ['bg-warning', '暂停'],
+        ERROR: ['bg-danger', '错误']
+    };
+
+    const EXECUTION_BADGES = {
+        SUCCESS: ['bg-success', '成功'],
+        FAILED: ['bg-danger', '失败'],
+        RUNNING: ['bg-primary', '运行中'],
+        TIMEOUT: ['bg-warning', '超时'],
+        CANCELLED: ['bg-secondary', '取消'],
+        RETRY_SCHEDULED: ['bg-info', '重试中'],
+        REJECTED: ['bg-dark', '已拒绝']
+    };
+
+    // Rows kept in the detail page's execution table, as on first render
+    const EXECUTION_ROWS = 10;
+
+    function badge(badges, status) {
+        const [className, text] = badges[status] || ['bg-secondary', status];
+        const span = document.createElement('span');
+        span.className = 'badge ' + className;
+        span.textContent = text;
+        return span;
+    }
+
+    function formatTime(value) {
+        return value ? value.replace('T', ' ').substring(0, 19) : '-';
+    }
+
+    function abbreviate(text, length) {
+        return text.length > length ? text.substring(0, length - 3) + '...' : text;
+    }
+
+    // Status badge, action buttons and, when given, the editable fields of one task
+    function applyTask(container, task) {
+        const holder = container.querySelector('[data-task-status]');
+        if (holder && holder.dataset.taskStatus !== task.status) {
+            holder.dataset.taskStatus = task.status;
+            holder.replaceChildren(badge(TASK_BADGES, task.status));
+        }
+        container.querySelectorAll('[data-show-when]').forEach(function(element) {
+            element.classList.toggle('d-none', element.dataset.showWhen !== task.status);
+        });
+        container.querySelectorAll('[data-field]').forEach(function(element) {
+            const value = task[element.dataset.field];
+            if (value !== undefined && value !== null) {
+                element.textContent = value;
+            }
+        });
+    }
+
+    function connect(url, handlers, resync) {
+        const source = new EventSource(url);
+        let disconnected = false;
+        // EventSource reconnects by itself; only the missed state has to be caught up
+        source.addEventListener('error', function() {
+            disconnected = true;
+        });
+        source.addEventListener('open', function() {
+            if (disconnected) {
+                disconnected = false;
+                resync();
+            }
+        });
+        Object.keys(handlers).forEach(function(name) {
+            source.addEventListener(name, function(e) {
+                handlers[name](JSON.parse(e.data));
+            });
+        });
+        window.addEventListener('pagehide', function() {
+            source.close();
+        });
+    }
+
+    function initTaskList(tbody) {
+        const notice = document.querySelector('[data-live-notice]');
+
+        function row(taskId) {
+            return tbody.querySelector('tr[data-task-id="' + taskId + '"]');
+        }
+
+        function onTask(task) {
+            const tr = row(task.id);
+            if (tr) {
+                applyTask(tr, task);
+            } else if (notice) {
+                notice.classList.remove('d-none');
+            }
+        }
+
+        function resync() {
+            fetch('/api/tasks?fields=id,name,cronExpression,status')
+                .then(function(response) { return response.json(); })
+                .then(function(tasks) {
+                    const present = new Set();
+                    tasks.forEach(function(task) {
+                        present.add(String(task.id));
+                        onTask(task);
+                    });
+                    tbody.querySelectorAll('tr[data-task-id]').forEach(function(tr) {
+                        if (!present.has(tr.dataset.taskId)) {
+                            tr.remove();
+                        }
+                    });
+                });
+        }
+
+        connect('/api/tasks/events', {
+            'task': function(event) { onTask(event.task); },
+            'task-deleted': function(event) {
+                const tr = row(event.taskId);
+                if (tr) {
+                    tr.remove();
+                }
+            }
+        }, resync);
+    }
+
+    function executionRow(execution) {
+        const tr = document.createElement('tr');
+        tr.dataset.executionId = execution.id;
+        for (let i = 0; i < 8; i++) {
+            tr.appendChild(document.createElement('td'));
+        }
+        tr.cells[0].textContent = execution.id;
+        if (execution.runId) {
+            const link = document.createElement('a');
+            link.href = '/api/tasks/executions/runs/' + execution.runId;
+            link.title = execution.runId;
+            const code = document.createElement('code');
+            code.textContent = execution.runId.substring(0, 8);
+            link.appendChild(code);
+            tr.cells[1].appendChild(link);
+        } else {
+            tr.cells[1].textContent = '-';
+        }
+        return tr;
+    }
+
+    function applyExecution(tr, execution) {
+        tr.cells[2].replaceChildren(badge(EXECUTION_BADGES, execution.status));
+        tr.cells[3].textContent = formatTime(execution.startTime);
+        tr.cells[4].textContent = formatTime(execution.endTime);
+        tr.cells[5].textContent = execution.durationMillis != null ? execution.durationMillis + 'ms' : '-';
+        tr.cells[6].textContent = execution.retryAttempt;
+        tr.cells[7].replaceChildren();
+        if (execution.result) {
+            const span = document.createElement('span');
+            span.title = execution.result;
+            span.textContent = abbreviate(execution.result, 50);
+            tr.cells[7].appendChild(span);
+        }
+        if (execution.errorMessage) {
+            const span = document.createElement('span');
+            span.className = 'text-danger';
+            span.title = execution.errorMessage;
+            span.textContent = abbreviate(execution.errorMessage, 50);
+            tr.cells[7].appendChild(span);
+        }
+    }
+
+    function initTaskDetail(main) {
+        const taskId = main.dataset.liveTask;
+        const tbody = main.querySelector('[data-live-executions]');
+
+        function onExecution(execution) {
+            if (!tbody) {
+                return;
+            }
+            let tr = tbody.querySelector('tr[data-execution-id="' + execution.id + '"]');
+            if (!tr) {
+                tr = executionRow(execution);
+                tbody.insertBefore(tr, tbody.firstChild);
+                while (tbody.rows.length > EXECUTION_ROWS) {
+                    tbody.deleteRow(tbody.rows.length - 1);
+                }
+                main.querySelector('[data-live-executions-empty]').classList.add('d-none');
+                main.querySelector('[data-live-executions-table]').classList.remove('d-none');
+            }
+            applyExecution(tr, execution);
+        }
+
+        function resync() {
+            fetch('/api/tasks/' + taskId + '?fields=id,status')
+                .then(function(response) { return response.ok ? response.json() : null; })
+                .then(function(task) {
+                    if (task) {
+                        applyTask(main, task);
+                    }
+                });
+            fetch('/api/tasks/' + taskId + '/executions/page?limit=' + EXECUTION_ROWS)
+                .then(function(response) { return response.json(); })
+                .then(function(page) {
+                    page.items.slice().reverse().forEach(onExecution);
+                });
+        }
+
+        connect('/api/tasks/events?taskId=' + taskId, {
+            'task': function(event) { applyTask(main, event.task); },
+            'task-deleted': function() {
+                main.querySelector('[data-live-notice]').classList.remove('d-none');
+                main.querySelectorAll('[data-show-when]').forEach(function(element) {
+                    element.classList.add('d-none');
+                });
+            },
+            'execution': function(event) { onExecution(event.execution); }
+        }, resync);
+    }
+
+    document.addEventListener('DOMContentLoaded', function() {
+        if (!window.EventSource) {
+            return;
+        }
+        const taskList = document.querySelector('[data-live-tasks]');
+        if (taskList) {
+            initTaskList(taskList);
+        }
+        const taskDetail = document.querySelector('[data-live-task]');
+        if (taskDetail) {
+            initTaskDetail(taskDetail);
+        }
+    });
+})();
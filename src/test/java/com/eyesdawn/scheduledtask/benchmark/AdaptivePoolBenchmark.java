@@ -0,0 +1,157 @@
+package com.eyesdawn.scheduledtask.benchmark;
+
+import com.eyesdawn.scheduledtask.trigger.AdaptivePoolController;
+import com.eyesdawn.scheduledtask.trigger.AdaptiveThreadPool;
+import org.quartz.CronScheduleBuilder;
+import org.quartz.Job;
+import org.quartz.JobBuilder;
+import org.quartz.JobExecutionContext;
+import org.quartz.Scheduler;
+import org.quartz.TriggerBuilder;
+import org.quartz.impl.StdSchedulerFactory;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fire lag of the fixed Quartz pool against the adaptive one under bursts: a few tasks fire
+ * every second and many more all fire together every ten seconds, as on the hour, with jobs
+ * that block their worker for a while. Lag is the delay from the scheduled fire time to the
+ * job starting, over all fires after the first burst.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.eyesdawn.scheduledtask.benchmark.AdaptivePoolBenchmark [-Dexec.args="burstTasks jobMillis bursts"]
+ */
+public class AdaptivePoolBenchmark {
+
+    private static final String BURST = "0/10 * * * * ?";
+    private static final String EVERY_SECOND = "* * * * * ?";
+    private static final int STEADY_TASKS = 5;
+    private static final int FIXED_THREADS = 10;
+    private static final int MIN_THREADS = 4;
+    private static final int MAX_THREADS = 50;
+    private static final long TARGET_LAG_MILLIS = 200;
+    private static final long SAMPLE_MILLIS = 1000;
+    private static final int SHRINK_AFTER_SAMPLES = 60;
+
+    private static final LagRecorder recorder = new LagRecorder(1_000_000);
+    private static volatile long jobMillis;
+
+    public static void main(String[] args) throws Exception {
+        int burstTasks = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        jobMillis = args.length > 1 ? Long.parseLong(args[1]) : 100;
+        int bursts = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+        System.out.printf("%d tasks every 10 s, %d every second, jobs run %d ms, %d bursts measured%n",
+                burstTasks, STEADY_TASKS, jobMillis, bursts);
+        run("fixed", burstTasks, bursts, false);
+        run("adaptive", burstTasks, bursts, true);
+    }
+
+    private static void run(String name, int burstTasks, int bursts, boolean adaptive) throws Exception {
+        Properties props = new Properties();
+        props.setProperty("org.quartz.scheduler.instanceName", "pool-benchmark-" + name);
+        props.setProperty("org.quartz.jobStore.class", "org.quartz.simpl.RAMJobStore");
+        props.setProperty("org.quartz.jobStore.misfireThreshold", "60000");
+        props.setProperty("org.quartz.scheduler.batchTriggerAcquisitionMaxCount", String.valueOf(MAX_THREADS));
+        props.setProperty("org.quartz.threadPool.threadCount", String.valueOf(FIXED_THREADS));
+        if (adaptive) {
+            props.setProperty("org.quartz.threadPool.class", AdaptiveThreadPool.class.getName());
+            props.setProperty("org.quartz.threadPool.minThreads", String.valueOf(MIN_THREADS));
+            props.setProperty("org.quartz.threadPool.maxThreads", String.valueOf(MAX_THREADS));
+        }
+        Scheduler scheduler = new StdSchedulerFactory(props).getScheduler();
+        for (int i = 0; i < burstTasks; i++) {
+            schedule(scheduler, "burst-" + i, BURST);
+        }
+        for (int i = 0; i < STEADY_TASKS; i++) {
+            schedule(scheduler, "steady-" + i, EVERY_SECOND);
+        }
+
+        ScheduledExecutorService sampler = null;
+        AdaptiveThreadPool pool = null;
+        if (adaptive) {
+            pool = AdaptiveThreadPool.forScheduler(scheduler.getSchedulerName());
+            AdaptivePoolController controller = new AdaptivePoolController(pool, TARGET_LAG_MILLIS, SHRINK_AFTER_SAMPLES);
+            scheduler.getListenerManager().addJobListener(controller);
+            sampler = Executors.newSingleThreadScheduledExecutor();
+            sampler.scheduleWithFixedDelay(controller::sample, SAMPLE_MILLIS, SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        scheduler.start();
+
+        // The first burst only warms up
+        waitForNextBurst();
+        Thread.sleep(5_000);
+        recorder.reset();
+        waitForNextBurst();
+        Thread.sleep(bursts * 10_000L - 500);
+        long[] lags = recorder.snapshot();
+
+        int finalSize = scheduler.getMetaData().getThreadPoolSize();
+        int threads = pool != null ? pool.getThreadCount() : FIXED_THREADS;
+        if (sampler != null) {
+            sampler.shutdownNow();
+        }
+        scheduler.shutdown(true);
+
+        Arrays.sort(lags);
+        System.out.printf("%-8s fires=%6d  lag p50=%5dms p95=%5dms p99=%5dms max=%5dms  pool size=%d threads=%d%n",
+                name, lags.length, percentile(lags, 0.50), percentile(lags, 0.95), percentile(lags, 0.99),
+                lags.length == 0 ? 0 : lags[lags.length - 1], finalSize, threads);
+    }
+
+    private static void schedule(Scheduler scheduler, String name, String cron) throws Exception {
+        scheduler.scheduleJob(
+                JobBuilder.newJob(BlockingJob.class).withIdentity(name).build(),
+                TriggerBuilder.newTrigger().withIdentity(name)
+                        .withSchedule(CronScheduleBuilder.cronSchedule(cron)).build());
+    }
+
+    private static void waitForNextBurst() throws InterruptedException {
+        long now = System.currentTimeMillis();
+        Thread.sleep(10_000 - now % 10_000 - 500);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted.length == 0 ? 0 : sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))];
+    }
+
+    public static class BlockingJob implements Job {
+        @Override
+        public void execute(JobExecutionContext context) {
+            recorder.record(context.getScheduledFireTime());
+            try {
+                Thread.sleep(jobMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final class LagRecorder {
+        private final long[] samples;
+        private final AtomicInteger count = new AtomicInteger();
+
+        private LagRecorder(int capacity) {
+            this.samples = new long[capacity];
+        }
+
+        void record(Date scheduledFireTime) {
+            int index = count.getAndIncrement();
+            if (index < samples.length) {
+                samples[index] = System.currentTimeMillis() - scheduledFireTime.getTime();
+            }
+        }
+
+        void reset() {
+            count.set(0);
+        }
+
+        long[] snapshot() {
+            return Arrays.copyOf(samples, Math.min(count.get(), samples.length));
+        }
+    }
+}
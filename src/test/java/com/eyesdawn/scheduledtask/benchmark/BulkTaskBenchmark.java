@@ -0,0 +1,72 @@
+package com.eyesdawn.scheduledtask.benchmark;
+
+import com.eyesdawn.scheduledtask.ScheduledTaskApplication;
+import com.eyesdawn.scheduledtask.dto.BulkItemResult;
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.service.BulkTaskService;
+import com.eyesdawn.scheduledtask.service.ScheduledTaskService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Onboarding throughput: creating and starting tasks through the bulk service, one
+ * transaction and one scheduleJobs call per request of up to 1000 tasks, against a
+ * createTask and a startTask call per task.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.eyesdawn.scheduledtask.benchmark.BulkTaskBenchmark [-Dexec.args="tasks"]
+ */
+public class BulkTaskBenchmark {
+
+    private static final int REQUEST_SIZE = 1000;
+
+    public static void main(String[] args) {
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ScheduledTaskApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .run(args)) {
+            ScheduledTaskService scheduledTaskService = context.getBean(ScheduledTaskService.class);
+            BulkTaskService bulkTaskService = context.getBean(BulkTaskService.class);
+
+            for (int round = 0; round < 3; round++) {
+                long begin = System.nanoTime();
+                for (ScheduledTask task : newTasks("single-" + round, tasks)) {
+                    ScheduledTask created = scheduledTaskService.createTask(task);
+                    scheduledTaskService.startTask(created.getId());
+                }
+                report("one at a time", tasks, System.nanoTime() - begin);
+
+                List<ScheduledTask> batch = newTasks("bulk-" + round, tasks);
+                int started = 0;
+                begin = System.nanoTime();
+                for (int from = 0; from < tasks; from += REQUEST_SIZE) {
+                    List<ScheduledTask> request = batch.subList(from, Math.min(tasks, from + REQUEST_SIZE));
+                    for (BulkItemResult result : bulkTaskService.createTasks(request, true)) {
+                        started += result.isSuccess() ? 1 : 0;
+                    }
+                }
+                report("bulk", started, System.nanoTime() - begin);
+            }
+        }
+    }
+
+    private static List<ScheduledTask> newTasks(String prefix, int count) {
+        List<ScheduledTask> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // Spread over the minute so the triggers do not all share one fire time
+            tasks.add(new ScheduledTask(prefix + "-" + i, "benchmark", (i % 60) + " " + (i % 60) + " 0 1 1 ? 2099",
+                    "com.eyesdawn.scheduledtask.job.SampleJob"));
+        }
+        return tasks;
+    }
+
+    private static void report(String name, int tasks, long nanos) {
+        System.out.printf("%-14s %,7d tasks in %6d ms, %,9.0f tasks/s%n", name, tasks, nanos / 1_000_000,
+                tasks * 1e9 / nanos);
+    }
+}
@@ -0,0 +1,192 @@
+package com.eyesdawn.scheduledtask.benchmark;
+
+import com.eyesdawn.scheduledtask.cluster.ConsistentHashRing;
+import org.quartz.CronScheduleBuilder;
+import org.quartz.Job;
+import org.quartz.JobBuilder;
+import org.quartz.JobExecutionContext;
+import org.quartz.Scheduler;
+import org.quartz.TriggerBuilder;
+import org.quartz.impl.SchedulerRepository;
+import org.quartz.impl.StdSchedulerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fire throughput with 1 to 4 scheduler nodes, each with the same fixed-size thread pool.
+ * Every task fires once per second and holds a worker for a fixed time, so a single node
+ * saturates and added nodes add capacity. Compares the clustered JDBC job store, where every
+ * node shares one database and its trigger lock, with partitioned mode, where a consistent-hash
+ * ring gives each node's in-memory scheduler its own share of the tasks. Duplicate fires are
+ * counted per (trigger, scheduled fire time) and must stay at zero.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.eyesdawn.scheduledtask.benchmark.ClusterThroughputBenchmark [-Dexec.args="tasks workMillis"]
+ */
+public class ClusterThroughputBenchmark {
+
+    private static final String EVERY_SECOND = "* * * * * ?";
+    private static final String URL = "jdbc:h2:file:./target/cluster-benchmark/quartz";
+    private static final int FIRE_THREADS = 10;
+    private static final int MAX_NODES = 4;
+    private static final long WARMUP_MILLIS = 5_000;
+    private static final long MEASURE_MILLIS = 10_000;
+
+    private static final Set<String> seen = ConcurrentHashMap.newKeySet();
+    private static final AtomicInteger fires = new AtomicInteger();
+    private static final AtomicInteger duplicates = new AtomicInteger();
+    private static final AtomicLong lagTotal = new AtomicLong();
+    private static volatile long workMillis;
+
+    public static void main(String[] args) throws Exception {
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        workMillis = args.length > 1 ? Long.parseLong(args[1]) : 20;
+        System.out.printf("tasks=%d firing every second, %d ms per fire, %d threads per node (capacity %d fires/s per node)%n",
+                tasks, workMillis, FIRE_THREADS, workMillis == 0 ? 0 : FIRE_THREADS * 1000 / workMillis);
+        for (int nodes = 1; nodes <= MAX_NODES; nodes++) {
+            runJdbc(tasks, nodes);
+        }
+        for (int nodes = 1; nodes <= MAX_NODES; nodes++) {
+            runPartitioned(tasks, nodes);
+        }
+    }
+
+    private static void runJdbc(int tasks, int nodes) throws Exception {
+        resetDatabase();
+        List<Scheduler> schedulers = new ArrayList<>();
+        for (int node = 0; node < nodes; node++) {
+            schedulers.add(new StdSchedulerFactory(nodeProperties(node)).getScheduler());
+            // Nodes share the cluster's instance name, and the JVM-wide repository would
+            // otherwise hand the first node back instead of creating the next one
+            SchedulerRepository.getInstance().remove("cluster-benchmark");
+        }
+        Scheduler first = schedulers.get(0);
+        for (int i = 0; i < tasks; i++) {
+            scheduleTask(first, i);
+        }
+        measure("jdbc", tasks, schedulers);
+    }
+
+    private static void runPartitioned(int tasks, int nodes) throws Exception {
+        resetCounters();
+        List<String> nodeIds = new ArrayList<>();
+        List<Scheduler> schedulers = new ArrayList<>();
+        for (int node = 0; node < nodes; node++) {
+            Properties props = new Properties();
+            props.setProperty("org.quartz.scheduler.instanceName", "partition-benchmark-" + node);
+            props.setProperty("org.quartz.threadPool.threadCount", String.valueOf(FIRE_THREADS));
+            props.setProperty("org.quartz.jobStore.class", "org.quartz.simpl.RAMJobStore");
+            props.setProperty("org.quartz.jobStore.misfireThreshold", "60000");
+            nodeIds.add("node-" + node);
+            schedulers.add(new StdSchedulerFactory(props).getScheduler());
+        }
+        ConsistentHashRing ring = new ConsistentHashRing(nodeIds, 128);
+        for (int i = 0; i < tasks; i++) {
+            scheduleTask(schedulers.get(nodeIds.indexOf(ring.ownerOf(i))), i);
+        }
+        measure("partitioned", tasks, schedulers);
+    }
+
+    private static void scheduleTask(Scheduler scheduler, int task) throws Exception {
+        scheduler.scheduleJob(
+                JobBuilder.newJob(WorkJob.class).withIdentity("job-" + task).build(),
+                TriggerBuilder.newTrigger().withIdentity("trigger-" + task)
+                        .withSchedule(CronScheduleBuilder.cronSchedule(EVERY_SECOND)
+                                .withMisfireHandlingInstructionDoNothing()).build());
+    }
+
+    private static void measure(String mode, int tasks, List<Scheduler> schedulers) throws Exception {
+        for (Scheduler scheduler : schedulers) {
+            scheduler.start();
+        }
+
+        Thread.sleep(WARMUP_MILLIS);
+        fires.set(0);
+        lagTotal.set(0);
+        Thread.sleep(MEASURE_MILLIS);
+        int measured = fires.get();
+        for (Scheduler scheduler : schedulers) {
+            scheduler.shutdown(true);
+        }
+        System.out.printf("%-11s nodes=%d  fires/s=%7.0f (expected %5d)  mean lag=%6dms  duplicates=%d%n",
+                mode, schedulers.size(), measured / (MEASURE_MILLIS / 1000.0), tasks,
+                measured == 0 ? 0 : lagTotal.get() / measured, duplicates.get());
+    }
+
+    private static Properties nodeProperties(int node) {
+        Properties props = new Properties();
+        props.setProperty("org.quartz.scheduler.instanceName", "cluster-benchmark");
+        props.setProperty("org.quartz.scheduler.instanceId", "node-" + node);
+        props.setProperty("org.quartz.threadPool.threadCount", String.valueOf(FIRE_THREADS));
+        props.setProperty("org.quartz.jobStore.class", "org.quartz.impl.jdbcjobstore.JobStoreTX");
+        props.setProperty("org.quartz.jobStore.driverDelegateClass", "org.quartz.impl.jdbcjobstore.StdJDBCDelegate");
+        props.setProperty("org.quartz.jobStore.isClustered", "true");
+        props.setProperty("org.quartz.jobStore.clusterCheckinInterval", "5000");
+        props.setProperty("org.quartz.jobStore.misfireThreshold", "60000");
+        props.setProperty("org.quartz.jobStore.acquireTriggersWithinLock", "true");
+        props.setProperty("org.quartz.scheduler.batchTriggerAcquisitionMaxCount", "10");
+        // Connection providers are registered by name JVM-wide, so each node needs its own
+        String dataSource = "node" + node;
+        props.setProperty("org.quartz.jobStore.dataSource", dataSource);
+        props.setProperty("org.quartz.dataSource." + dataSource + ".provider", "hikaricp");
+        props.setProperty("org.quartz.dataSource." + dataSource + ".driver", "org.h2.Driver");
+        props.setProperty("org.quartz.dataSource." + dataSource + ".URL", URL);
+        props.setProperty("org.quartz.dataSource." + dataSource + ".user", "sa");
+        props.setProperty("org.quartz.dataSource." + dataSource + ".password", "");
+        props.setProperty("org.quartz.dataSource." + dataSource + ".maxConnections", String.valueOf(FIRE_THREADS + 2));
+        return props;
+    }
+
+    private static void resetCounters() {
+        seen.clear();
+        fires.set(0);
+        duplicates.set(0);
+        lagTotal.set(0);
+    }
+
+    private static void resetDatabase() throws Exception {
+        resetCounters();
+        File directory = new File("target/cluster-benchmark");
+        File[] files = directory.listFiles();
+        if (files != null) {
+            Arrays.stream(files).forEach(File::delete);
+        }
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "")) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/quartz/tables_h2.sql"));
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CHECKPOINT");
+            }
+        }
+    }
+
+    public static class WorkJob implements Job {
+        @Override
+        public void execute(JobExecutionContext context) {
+            String key = context.getTrigger().getKey().getName() + "@" + context.getScheduledFireTime().getTime();
+            if (!seen.add(key)) {
+                duplicates.incrementAndGet();
+            }
+            fires.incrementAndGet();
+            lagTotal.addAndGet(System.currentTimeMillis() - context.getScheduledFireTime().getTime());
+            if (workMillis > 0) {
+                try {
+                    Thread.sleep(workMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
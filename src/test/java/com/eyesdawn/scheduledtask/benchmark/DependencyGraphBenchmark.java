@@ -0,0 +1,146 @@
+package com.eyesdawn.scheduledtask.benchmark;
+
+import com.eyesdawn.scheduledtask.dependency.DependencyGraph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Cost of adding dependencies with cycle checks on deep chains and wide diamonds, comparing
+ * the incremental index with the previous recursive walk (one lookup per visited node, no
+ * visited set). Lookups stand in for the repository queries the old walk issued.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.eyesdawn.scheduledtask.benchmark.DependencyGraphBenchmark
+ */
+public class DependencyGraphBenchmark {
+
+    private static final int EDGES = 100_000;
+
+    public static void main(String[] args) {
+        for (int round = 0; round < 3; round++) {
+            System.out.println("-- round " + (round + 1));
+            chain("chain, prerequisites added first", false);
+            chain("chain, dependents added first", true);
+            diamonds(100);
+            diamonds(1_000);
+            randomDag(20_000);
+            legacyDiamond(12, 4);
+        }
+    }
+
+    /**
+     * Task i depends on task i + 1. Adding from the dependent end forces a re-order on every
+     * insert; the final back edge must be rejected after searching the whole chain.
+     */
+    private static void chain(String name, boolean dependentsFirst) {
+        DependencyGraph graph = new DependencyGraph();
+        long start = System.nanoTime();
+        for (int i = 0; i < EDGES; i++) {
+            long task = dependentsFirst ? i : EDGES - i - 1;
+            graph.addEdge(task, task + 1);
+        }
+        long built = System.nanoTime();
+        boolean rejected = !graph.addEdge(EDGES, 0);
+        long checked = System.nanoTime();
+        System.out.printf("%-36s edges=%7d  add=%7.0fns/edge  back-edge check=%7.2fms rejected=%s%n",
+                name, graph.getEdgeCount(), (built - start) / (double) EDGES,
+                (checked - built) / 1e6, rejected);
+    }
+
+    /**
+     * Layers of the given width, each task depending on every task of the next layer
+     */
+    private static void diamonds(int width) {
+        int layers = Math.max(2, EDGES / (width * width) + 1);
+        DependencyGraph graph = new DependencyGraph();
+        long start = System.nanoTime();
+        int edges = 0;
+        for (int layer = layers - 2; layer >= 0 && edges < EDGES; layer--) {
+            for (int a = 0; a < width && edges < EDGES; a++) {
+                for (int b = 0; b < width && edges < EDGES; b++, edges++) {
+                    graph.addEdge((long) layer * width + a, (long) (layer + 1) * width + b);
+                }
+            }
+        }
+        long built = System.nanoTime();
+        boolean rejected = !graph.addEdge((long) (layers - 1) * width, 0);
+        long checked = System.nanoTime();
+        System.out.printf("%-36s edges=%7d  add=%7.0fns/edge  back-edge check=%7.2fms rejected=%s%n",
+                "diamonds width=" + width + " layers=" + layers, graph.getEdgeCount(),
+                (built - start) / (double) edges, (checked - built) / 1e6, rejected);
+    }
+
+    /**
+     * Random edges oriented by a hidden order, so every insert is accepted but most of them
+     * disagree with the insertion order and go through the re-ordering path
+     */
+    private static void randomDag(int tasks) {
+        Random random = new Random(42);
+        int[] hidden = new int[tasks];
+        for (int i = 0; i < tasks; i++) {
+            hidden[i] = random.nextInt();
+        }
+        DependencyGraph graph = new DependencyGraph();
+        long start = System.nanoTime();
+        int edges = 0;
+        while (edges < EDGES) {
+            int a = random.nextInt(tasks);
+            int b = random.nextInt(tasks);
+            if (hidden[a] != hidden[b]) {
+                graph.addEdge(hidden[a] < hidden[b] ? a : b, hidden[a] < hidden[b] ? b : a);
+                edges++;
+            }
+        }
+        long built = System.nanoTime();
+        System.out.printf("%-36s edges=%7d  add=%7.0fns/edge%n",
+                "random DAG tasks=" + tasks, graph.getEdgeCount(), (built - start) / (double) edges);
+    }
+
+    /**
+     * The old recursive walk revisits shared prerequisites once per path, so diamonds grow
+     * exponentially with depth; kept small enough to finish.
+     */
+    private static void legacyDiamond(int layers, int width) {
+        Map<Long, List<Long>> prerequisites = new HashMap<>();
+        DependencyGraph graph = new DependencyGraph();
+        for (int layer = 0; layer < layers - 1; layer++) {
+            for (int a = 0; a < width; a++) {
+                long task = (long) layer * width + a;
+                List<Long> list = prerequisites.computeIfAbsent(task, k -> new ArrayList<>());
+                for (int b = 0; b < width; b++) {
+                    long prerequisite = (long) (layer + 1) * width + b;
+                    list.add(prerequisite);
+                    graph.addEdge(task, prerequisite);
+                }
+            }
+        }
+        // A new task depending on the top of the diamond: nothing to find, so the whole diamond is walked
+        long newTask = (long) layers * width;
+        long[] lookups = new long[1];
+        long start = System.nanoTime();
+        boolean legacyCycle = legacyHasPath(prerequisites, 0, newTask, lookups);
+        long legacyNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        boolean indexCycle = !graph.addEdge(newTask, 0);
+        long indexNanos = System.nanoTime() - start;
+        System.out.printf("%-36s legacy: %,d lookups %.2fms cycle=%s  index: %.4fms cycle=%s%n",
+                "legacy walk, diamond " + layers + "x" + width, lookups[0], legacyNanos / 1e6, legacyCycle,
+                indexNanos / 1e6, indexCycle);
+    }
+
+    private static boolean legacyHasPath(Map<Long, List<Long>> prerequisites, long start, long end, long[] lookups) {
+        if (start == end) {
+            return true;
+        }
+        lookups[0]++;
+        for (long next : prerequisites.getOrDefault(start, List.of())) {
+            if (legacyHasPath(prerequisites, next, end, lookups)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
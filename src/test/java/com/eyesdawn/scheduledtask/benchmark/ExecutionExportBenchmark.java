@@ -0,0 +1,133 @@
+package com.eyesdawn.scheduledtask.benchmark;
+
+import com.eyesdawn.scheduledtask.ScheduledTaskApplication;
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.model.TaskExecution;
+import com.eyesdawn.scheduledtask.service.ExecutionExportService;
+import com.eyesdawn.scheduledtask.service.ScheduledTaskService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Live heap while exporting growing slices of the execution history: the streaming export
+ * against loading the slice as a list of entities, as the removed findExecutionsBetween did.
+ * Live heap is the heap used right after a full GC, sampled every 16 MB of export output and
+ * once the list is loaded, less the same figure measured beforehand. Export times include those
+ * forced collections.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.eyesdawn.scheduledtask.benchmark.ExecutionExportBenchmark [-Dexec.args="rows"]
+ */
+public class ExecutionExportBenchmark {
+
+    private static final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ScheduledTaskApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .run(args)) {
+            ScheduledTaskService tasks = context.getBean(ScheduledTaskService.class);
+            ExecutionExportService export = context.getBean(ExecutionExportService.class);
+            EntityManagerFactory entityManagerFactory = context.getBean(EntityManagerFactory.class);
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+
+            Long taskId = tasks.createTask(new ScheduledTask("export-benchmark", "",
+                    "0 0 0 1 1 ? 2099", "com.eyesdawn.scheduledtask.job.SampleJob")).getId();
+            LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).minusDays(30);
+            insert(jdbc, taskId, start, rows);
+            System.out.printf("%,d executions%n", rows);
+
+            for (int slice : new int[]{rows / 20, rows / 4, rows}) {
+                LocalDateTime to = start.plusSeconds(slice - 1);
+                long baseline = liveHeap();
+                SamplingOutputStream out = new SamplingOutputStream();
+                long begin = System.nanoTime();
+                export.export(null, null, start, to, ExecutionExportService.ExportFormat.NDJSON, out);
+                long elapsedMillis = (System.nanoTime() - begin) / 1_000_000;
+                System.out.printf("%,10d rows: streaming NDJSON live heap +%5d MB, %6d ms, %,d bytes%n",
+                        slice, Math.max(0, out.peakLiveHeap - baseline) >> 20, elapsedMillis, out.count);
+            }
+            for (int slice : new int[]{rows / 20, rows / 4}) {
+                LocalDateTime to = start.plusSeconds(slice - 1);
+                long baseline = liveHeap();
+                EntityManager entityManager = entityManagerFactory.createEntityManager();
+                try {
+                    long begin = System.nanoTime();
+                    List<TaskExecution> loaded = entityManager.createQuery("SELECT e FROM TaskExecution e " +
+                                    "WHERE e.startTime >= ?1 AND e.startTime <= ?2 ORDER BY e.startTime", TaskExecution.class)
+                            .setParameter(1, start).setParameter(2, to)
+                            .getResultList();
+                    long elapsedMillis = (System.nanoTime() - begin) / 1_000_000;
+                    System.out.printf("%,10d rows: entity list      live heap +%5d MB, %6d ms%n",
+                            loaded.size(), Math.max(0, liveHeap() - baseline) >> 20, elapsedMillis);
+                } finally {
+                    entityManager.close();
+                }
+            }
+        }
+    }
+
+    private static void insert(JdbcTemplate jdbc, Long taskId, LocalDateTime start, int rows) {
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            LocalDateTime startTime = start.plusSeconds(i);
+            batch.add(new Object[]{i + 1, taskId, i % 10 == 0 ? "FAILED" : "SUCCESS", Timestamp.valueOf(startTime),
+                    Timestamp.valueOf(startTime.plusNanos(5_000_000)), 5L, "processed " + i});
+            if (batch.size() == 10_000 || i == rows - 1) {
+                jdbc.batchUpdate("INSERT INTO task_executions (id, task_id, status, start_time, end_time, duration_millis, " +
+                        "result, retry_attempt) VALUES (?, ?, ?, ?, ?, ?, ?, 0)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private static long liveHeap() {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Discards what is written and measures the live heap every {@link #SAMPLE_BYTES} bytes.
+     */
+    private static final class SamplingOutputStream extends OutputStream {
+        private static final long SAMPLE_BYTES = 16 << 20;
+
+        private long count;
+        private long nextSample = SAMPLE_BYTES;
+        private long peakLiveHeap;
+
+        @Override
+        public void write(int b) {
+            count++;
+            sample();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+            sample();
+        }
+
+        private void sample() {
+            if (count >= nextSample) {
+                nextSample += SAMPLE_BYTES;
+                peakLiveHeap = Math.max(peakLiveHeap, liveHeap());
+            }
+        }
+    }
+}
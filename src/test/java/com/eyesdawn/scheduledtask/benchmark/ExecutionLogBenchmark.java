@@ -0,0 +1,96 @@
+package com.eyesdawn.scheduledtask.benchmark;
+
+import com.eyesdawn.scheduledtask.dto.ExecutionSummary;
+import com.eyesdawn.scheduledtask.executionlog.ExecutionLogStore;
+import com.eyesdawn.scheduledtask.executionlog.TaskExecutionLog;
+import com.eyesdawn.scheduledtask.model.TaskExecution;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append throughput of the memory-mapped execution log from several completion threads, then
+ * the latency of newest-first queries over the result: the latest page, a page of one rare
+ * status, and a page an hour back in the history.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.eyesdawn.scheduledtask.benchmark.ExecutionLogBenchmark [-Dexec.args="records threads"]
+ */
+public class ExecutionLogBenchmark {
+
+    private static final int SEGMENT_RECORDS = 262144;
+    private static final int SEGMENT_PAYLOAD = 32 * 1024 * 1024;
+    private static final int QUERY_REPEAT = 200;
+
+    public static void main(String[] args) throws Exception {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        Path directory = Files.createTempDirectory("execution-log-benchmark");
+        try {
+            TaskExecutionLog log = new TaskExecutionLog(directory, 1, SEGMENT_RECORDS, SEGMENT_PAYLOAD);
+            // Fires every 2 ms, so the history spans records * 2 ms
+            LocalDateTime start = LocalDateTime.now().minusNanos(records * 2_000_000L);
+            String runId = UUID.randomUUID().toString();
+            AtomicLong next = new AtomicLong();
+
+            List<Thread> writers = new ArrayList<>();
+            long begin = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                Thread writer = new Thread(() -> {
+                    try {
+                        for (long i = next.getAndIncrement(); i < records; i = next.getAndIncrement()) {
+                            LocalDateTime startTime = start.plusNanos(i * 2_000_000L);
+                            boolean failed = i % 1000 == 0;
+                            log.append(new ExecutionSummary(ExecutionLogStore.FIRST_ID + i, 1L, runId,
+                                    failed ? TaskExecution.ExecutionStatus.FAILED : TaskExecution.ExecutionStatus.SUCCESS,
+                                    startTime, startTime.plusNanos(1_000_000), 1L, 0,
+                                    failed ? null : "ok", failed ? "Connection refused" : null));
+                        }
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                writers.add(writer);
+                writer.start();
+            }
+            for (Thread writer : writers) {
+                writer.join();
+            }
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            long forceBegin = System.nanoTime();
+            log.force();
+            double forceMillis = (System.nanoTime() - forceBegin) / 1e6;
+            System.out.printf("%,d appends from %d threads in %.2f s: %,.0f per second, %,.0f per minute (force %.0f ms, %d segments)%n",
+                    records, threads, seconds, records / seconds, records / seconds * 60, forceMillis, log.getSegmentCount());
+
+            LocalDateTime end = start.plusNanos(records * 2_000_000L);
+            LocalDateTime hourAgo = end.minusHours(1);
+            time("latest 50", () -> log.findPageBefore(null, start, end, Long.MAX_VALUE, 50));
+            time("latest 50 FAILED", () -> log.findPageBefore(TaskExecution.ExecutionStatus.FAILED, start, end, Long.MAX_VALUE, 50));
+            time("50 before an hour ago", () -> log.findPageBefore(null, start, hourAgo, Long.MAX_VALUE, 50));
+        } finally {
+            TaskExecutionLog.deleteDirectory(directory);
+        }
+    }
+
+    private static void time(String name, QueryBody query) {
+        // Warm up, then time
+        for (int i = 0; i < QUERY_REPEAT; i++) {
+            query.run();
+        }
+        long begin = System.nanoTime();
+        int rows = 0;
+        for (int i = 0; i < QUERY_REPEAT; i++) {
+            rows = query.run().size();
+        }
+        System.out.printf("%-24s %8.3f ms (%d rows)%n", name, (System.nanoTime() - begin) / 1e6 / QUERY_REPEAT, rows);
+    }
+
+    private interface QueryBody {
+        List<ExecutionSummary> run();
+    }
+}
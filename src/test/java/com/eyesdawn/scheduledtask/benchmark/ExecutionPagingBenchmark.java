@@ -0,0 +1,103 @@
+package com.eyesdawn.scheduledtask.benchmark;
+
+import com.eyesdawn.scheduledtask.ScheduledTaskApplication;
+import com.eyesdawn.scheduledtask.dto.CursorPage;
+import com.eyesdawn.scheduledtask.dto.ExecutionSummary;
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.service.ScheduledTaskService;
+import com.eyesdawn.scheduledtask.service.TaskExecutionService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Latency of deep pages of one task's execution history: offset pages through the existing
+ * endpoint against keyset pages through the cursor endpoint, 50 rows per page.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.eyesdawn.scheduledtask.benchmark.ExecutionPagingBenchmark [-Dexec.args="rows"]
+ */
+public class ExecutionPagingBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+    private static final int[] PAGES = {1, 10, 100, 1_000};
+    private static final int REPEAT = 10;
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ScheduledTaskApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .run(args)) {
+            ScheduledTaskService tasks = context.getBean(ScheduledTaskService.class);
+            TaskExecutionService executions = context.getBean(TaskExecutionService.class);
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+
+            Long taskId = tasks.createTask(new ScheduledTask("paging-benchmark", "",
+                    "0 0 0 1 1 ? 2099", "com.eyesdawn.scheduledtask.job.SampleJob")).getId();
+            // Another task's history in the same table, as in production
+            Long otherId = tasks.createTask(new ScheduledTask("paging-benchmark-other", "",
+                    "0 0 0 1 1 ? 2099", "com.eyesdawn.scheduledtask.job.SampleJob")).getId();
+            insert(jdbc, taskId, otherId, rows);
+            System.out.printf("%,d executions of the task, %,d of another task, %d per page%n", rows, rows / 4, PAGE_SIZE);
+
+            // Warm up both paths on the first pages so later timings are not dominated by JIT compilation
+            String warmup = null;
+            for (int i = 0; i < 200; i++) {
+                executions.getExecutionsForTask(taskId, PageRequest.of(i % 10, PAGE_SIZE));
+                warmup = executions.getExecutionPage(taskId, null, null, null, i % 10 == 0 ? null : warmup, PAGE_SIZE).getNextCursor();
+            }
+
+            for (int page : PAGES) {
+                if ((long) (page + REPEAT) * PAGE_SIZE > rows) {
+                    break;
+                }
+                // Each timed query asks for a different page, so the database cannot answer from its result cache
+                long begin = System.nanoTime();
+                for (int i = 0; i < REPEAT; i++) {
+                    executions.getExecutionsForTask(taskId, PageRequest.of(page - 1 + i, PAGE_SIZE));
+                }
+                double offsetMillis = (System.nanoTime() - begin) / 1e6 / REPEAT;
+
+                String cursor = null;
+                for (int i = 0; i < page - 1; i++) {
+                    cursor = executions.getExecutionPage(taskId, null, null, null, cursor, PAGE_SIZE).getNextCursor();
+                }
+                begin = System.nanoTime();
+                for (int i = 0; i < REPEAT; i++) {
+                    CursorPage<ExecutionSummary> result = executions.getExecutionPage(taskId, null, null, null, cursor, PAGE_SIZE);
+                    if (result.getItems().size() != PAGE_SIZE) {
+                        throw new IllegalStateException("Short page " + (page + i));
+                    }
+                    cursor = result.getNextCursor();
+                }
+                double keysetMillis = (System.nanoTime() - begin) / 1e6 / REPEAT;
+                System.out.printf("page %,6d: offset %8.2f ms   keyset %6.2f ms%n", page, offsetMillis, keysetMillis);
+            }
+        }
+    }
+
+    private static void insert(JdbcTemplate jdbc, Long taskId, Long otherId, int rows) {
+        LocalDateTime start = LocalDateTime.now().minusSeconds(rows);
+        int total = rows + rows / 4;
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            boolean own = i % 5 != 4 || i / 5 >= rows / 4;
+            LocalDateTime startTime = start.plusNanos(i * 800_000_000L);
+            batch.add(new Object[]{i + 1, own ? taskId : otherId, i % 10 == 0 ? "FAILED" : "SUCCESS",
+                    Timestamp.valueOf(startTime), Timestamp.valueOf(startTime.plusNanos(5_000_000)), 5L, "ok"});
+            if (batch.size() == 10_000 || i == total - 1) {
+                jdbc.batchUpdate("INSERT INTO task_executions (id, task_id, status, start_time, end_time, duration_millis, " +
+                        "result, retry_attempt) VALUES (?, ?, ?, ?, ?, ?, ?, 0)", batch);
+                batch.clear();
+            }
+        }
+    }
+}
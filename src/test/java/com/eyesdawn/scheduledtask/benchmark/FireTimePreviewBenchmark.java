@@ -0,0 +1,91 @@
+package com.eyesdawn.scheduledtask.benchmark;
+
+import com.eyesdawn.scheduledtask.ScheduledTaskApplication;
+import com.eyesdawn.scheduledtask.dto.FireTimePreview;
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.service.FireTimePreviewService;
+import org.quartz.CronExpression;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Fire time preview of many tasks over the next hour: the preview service, which compiles
+ * each distinct expression once through the cache and shares its fire times between the
+ * tasks using it, against parsing and iterating every task's expression on its own.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.eyesdawn.scheduledtask.benchmark.FireTimePreviewBenchmark [-Dexec.args="tasks schedules"]
+ */
+public class FireTimePreviewBenchmark {
+
+    private static final int LIMIT_PER_TASK = 100;
+
+    public static void main(String[] args) throws Exception {
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int schedules = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ScheduledTaskApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .run(args)) {
+            FireTimePreviewService previewService = context.getBean(FireTimePreviewService.class);
+            List<ScheduledTask> taskList = newTasks(tasks, schedules);
+            System.out.printf("%,d tasks on %,d distinct schedules%n", tasks, schedules);
+
+            for (int round = 0; round < 5; round++) {
+                LocalDateTime from = LocalDateTime.now();
+                LocalDateTime to = from.plusHours(1);
+
+                long begin = System.nanoTime();
+                long fires = 0;
+                for (ScheduledTask task : taskList) {
+                    fires += naive(task.getCronExpression(), from, to).size();
+                }
+                report("per task", fires, System.nanoTime() - begin);
+
+                begin = System.nanoTime();
+                fires = 0;
+                for (FireTimePreview preview : previewService.preview(taskList, from, to, LIMIT_PER_TASK)) {
+                    fires += preview.getFireTimes().size();
+                }
+                report("grouped", fires, System.nanoTime() - begin);
+            }
+        }
+    }
+
+    private static List<LocalDateTime> naive(String expression, LocalDateTime from, LocalDateTime to) throws Exception {
+        CronExpression cron = new CronExpression(expression);
+        ZoneId zone = ZoneId.systemDefault();
+        Date until = Date.from(to.atZone(zone).toInstant());
+        List<LocalDateTime> times = new ArrayList<>();
+        Date next = cron.getNextValidTimeAfter(Date.from(from.atZone(zone).toInstant()));
+        while (next != null && !next.after(until) && times.size() < LIMIT_PER_TASK) {
+            times.add(LocalDateTime.ofInstant(next.toInstant(), zone));
+            next = cron.getNextValidTimeAfter(next);
+        }
+        return times;
+    }
+
+    private static List<ScheduledTask> newTasks(int count, int schedules) {
+        List<ScheduledTask> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // Every few minutes at a varying second, so most schedules fire several times an hour
+            int schedule = i % schedules;
+            String cron = (schedule % 60) + " " + (schedule / 60 % 5) + "/" + (schedule % 7 + 3) + " * * * ?";
+            ScheduledTask task = new ScheduledTask("preview-" + i, null, cron, "com.eyesdawn.scheduledtask.job.SampleJob");
+            task.setId((long) i + 1);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private static void report(String label, long fires, long nanos) {
+        System.out.printf("%-9s %6d ms, %,d fire times%n", label + ":", nanos / 1_000_000, fires);
+    }
+}
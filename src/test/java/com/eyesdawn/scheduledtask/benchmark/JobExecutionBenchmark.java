@@ -0,0 +1,76 @@
+package com.eyesdawn.scheduledtask.benchmark;
+
+import com.eyesdawn.scheduledtask.config.SchedulerProperties;
+import com.eyesdawn.scheduledtask.job.JobExecutionEngine;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Function;
+
+/**
+ * Compares fire throughput and scheduling lag for 1,000 concurrent sleeping jobs across
+ * the job execution engines and the previous common-pool behaviour.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.eyesdawn.scheduledtask.benchmark.JobExecutionBenchmark
+ */
+public class JobExecutionBenchmark {
+
+    private static final int JOBS = 1000;
+    private static final long SLEEP_MILLIS = 200;
+
+    public static void main(String[] args) throws Exception {
+        int jobs = args.length > 0 ? Integer.parseInt(args[0]) : JOBS;
+
+        run("common-pool (baseline)", jobs, body -> CompletableFuture.supplyAsync(() -> {
+            try {
+                return body.call();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }));
+
+        JobExecutionEngine platform = new JobExecutionEngine(properties(SchedulerProperties.EngineType.PLATFORM));
+        run("platform pool (64)", jobs, platform::submit);
+        platform.shutdown();
+
+        JobExecutionEngine virtual = new JobExecutionEngine(properties(SchedulerProperties.EngineType.VIRTUAL));
+        run("virtual (" + virtual.getEngineType() + ")", jobs, virtual::submit);
+        virtual.shutdown();
+    }
+
+    private static void run(String name, int jobs,
+                            Function<Callable<String>, CompletableFuture<String>> engine)
+            throws InterruptedException {
+        long[] lagNanos = new long[jobs];
+        CountDownLatch done = new CountDownLatch(jobs);
+        long begin = System.nanoTime();
+
+        for (int i = 0; i < jobs; i++) {
+            final int index = i;
+            final long scheduledAt = System.nanoTime();
+            engine.apply(() -> {
+                lagNanos[index] = System.nanoTime() - scheduledAt;
+                Thread.sleep(SLEEP_MILLIS);
+                return "ok";
+            }).whenComplete((result, error) -> done.countDown());
+        }
+        done.await();
+
+        long elapsedNanos = System.nanoTime() - begin;
+        Arrays.sort(lagNanos);
+        System.out.printf("%-28s fires/s=%8.1f  lag p50=%7.1fms p99=%7.1fms max=%7.1fms%n",
+                name,
+                jobs / (elapsedNanos / 1e9),
+                lagNanos[jobs / 2] / 1e6,
+                lagNanos[(int) (jobs * 0.99)] / 1e6,
+                lagNanos[jobs - 1] / 1e6);
+    }
+
+    private static SchedulerProperties properties(SchedulerProperties.EngineType engineType) {
+        SchedulerProperties properties = new SchedulerProperties();
+        properties.getExecution().setEngine(engineType);
+        return properties;
+    }
+}
@@ -0,0 +1,86 @@
+package com.eyesdawn.scheduledtask.benchmark;
+
+import com.eyesdawn.scheduledtask.ScheduledTaskApplication;
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.repository.ScheduledTaskRepository;
+import com.eyesdawn.scheduledtask.service.StartupRecoveryService;
+import com.eyesdawn.scheduledtask.trigger.QuartzTriggerBackend;
+import org.quartz.Scheduler;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Time to put a large number of ACTIVE tasks back on the Quartz scheduler after a restart:
+ * the startup recovery, with its bulk load, parallel build and single scheduleJobs call,
+ * against scheduling the same tasks one scheduleJob call at a time. The recovery also fails
+ * one orphaned RUNNING execution per task.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.eyesdawn.scheduledtask.benchmark.StartupRecoveryBenchmark [-Dexec.args="tasks"]
+ */
+public class StartupRecoveryBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ScheduledTaskApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .run(args)) {
+            StartupRecoveryService recovery = context.getBean(StartupRecoveryService.class);
+            ScheduledTaskRepository repository = context.getBean(ScheduledTaskRepository.class);
+            Scheduler scheduler = context.getBean(Scheduler.class);
+            QuartzTriggerBackend quartzTriggerBackend = context.getBean(QuartzTriggerBackend.class);
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+
+            insert(jdbc, tasks);
+            System.out.printf("%,d active tasks, %,d orphaned executions%n", tasks, tasks);
+
+            for (int round = 0; round < 3; round++) {
+                scheduler.clear();
+                if (round > 0) {
+                    jdbc.update("UPDATE task_executions SET status = 'RUNNING', end_time = NULL");
+                }
+                long begin = System.nanoTime();
+                StartupRecoveryService.RecoveryReport report = recovery.recover();
+                System.out.printf("recovery:  %5d ms total (load %d, build %d, register %d, reconcile %d ms), " +
+                                "%,d scheduled, %,d failed%n", (System.nanoTime() - begin) / 1_000_000,
+                        report.getLoadMillis(), report.getBuildMillis(), report.getRegisterMillis(),
+                        report.getReconcileMillis(), report.getTasksScheduled(), report.getExecutionsFailed());
+
+                scheduler.clear();
+                begin = System.nanoTime();
+                for (ScheduledTask task : repository.findActiveTasks()) {
+                    scheduler.scheduleJob(QuartzTriggerBackend.buildJobDetail(task), quartzTriggerBackend.buildTrigger(task));
+                }
+                System.out.printf("one by one: %5d ms total%n", (System.nanoTime() - begin) / 1_000_000);
+            }
+            scheduler.clear();
+        }
+    }
+
+    private static void insert(JdbcTemplate jdbc, int tasks) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < tasks; i++) {
+            // Spread over the minute so the triggers do not all share one fire time
+            batch.add(new Object[]{"startup-" + i, (i % 60) + " " + (i % 60) + " 0 1 1 ? 2099", now, now});
+            if (batch.size() == 10_000 || i == tasks - 1) {
+                jdbc.batchUpdate("INSERT INTO scheduled_tasks (id, name, cron_expression, job_class, status, retry_count, " +
+                        "max_retries, timeout_seconds, retry_backoff, retry_delay_seconds, max_retry_delay_seconds, " +
+                        "trigger_type, execution_store, workflow_trigger, created_at, updated_at) " +
+                        "VALUES (NEXT VALUE FOR scheduled_tasks_seq, ?, ?, 'com.eyesdawn.scheduledtask.job.SampleJob', " +
+                        "'ACTIVE', 0, 3, 300, 'EXPONENTIAL', 10, 600, 'QUARTZ', 'DATABASE', FALSE, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        jdbc.update("INSERT INTO task_executions (id, task_id, status, start_time, retry_attempt) " +
+                "SELECT id, id, 'RUNNING', CURRENT_TIMESTAMP - INTERVAL '1' HOUR, 0 FROM scheduled_tasks");
+    }
+}
@@ -0,0 +1,123 @@
+package com.eyesdawn.scheduledtask.benchmark;
+
+import com.eyesdawn.scheduledtask.trigger.TimingWheelScheduler;
+import org.quartz.CronExpression;
+import org.quartz.CronScheduleBuilder;
+import org.quartz.Job;
+import org.quartz.JobBuilder;
+import org.quartz.JobExecutionContext;
+import org.quartz.Scheduler;
+import org.quartz.TriggerBuilder;
+import org.quartz.impl.StdSchedulerFactory;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Trigger-dispatch throughput and lag of the Quartz RAM job store against the timing wheel,
+ * with every task firing once per second. Jobs are no-ops so only dispatch is measured.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.eyesdawn.scheduledtask.benchmark.TriggerDispatchBenchmark [-Dexec.args="10000 50000 100000"]
+ */
+public class TriggerDispatchBenchmark {
+
+    private static final String EVERY_SECOND = "* * * * * ?";
+    private static final int FIRE_THREADS = 10;
+    private static final long WARMUP_MILLIS = 3_000;
+    private static final long MEASURE_MILLIS = 5_000;
+
+    private static final LagRecorder recorder = new LagRecorder(2_000_000);
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[]{10_000, 50_000, 100_000};
+        for (int tasks : sizes) {
+            runQuartz(tasks);
+            runTimingWheel(tasks);
+        }
+    }
+
+    private static void runQuartz(int tasks) throws Exception {
+        Properties props = new Properties();
+        props.setProperty("org.quartz.scheduler.instanceName", "benchmark-" + tasks);
+        props.setProperty("org.quartz.threadPool.threadCount", String.valueOf(FIRE_THREADS));
+        props.setProperty("org.quartz.jobStore.class", "org.quartz.simpl.RAMJobStore");
+        props.setProperty("org.quartz.jobStore.misfireThreshold", "60000");
+        Scheduler scheduler = new StdSchedulerFactory(props).getScheduler();
+        for (int i = 0; i < tasks; i++) {
+            scheduler.scheduleJob(
+                    JobBuilder.newJob(NoopJob.class).withIdentity("job-" + i).build(),
+                    TriggerBuilder.newTrigger().withIdentity("trigger-" + i)
+                            .withSchedule(CronScheduleBuilder.cronSchedule(EVERY_SECOND)).build());
+        }
+        scheduler.start();
+        measure("quartz", tasks);
+        scheduler.shutdown(false);
+    }
+
+    private static void runTimingWheel(int tasks) throws Exception {
+        ExecutorService fireExecutor = Executors.newFixedThreadPool(FIRE_THREADS);
+        TimingWheelScheduler<Long> wheel = new TimingWheelScheduler<>(10, 8, fireExecutor,
+                (payload, scheduledFireTime, fireTime, nextFireTime) -> recorder.record(scheduledFireTime));
+        CronExpression cron = new CronExpression(EVERY_SECOND);
+        for (long i = 0; i < tasks; i++) {
+            wheel.schedule(i, cron, i);
+        }
+        wheel.start();
+        measure("timing-wheel", tasks);
+        wheel.stop();
+        fireExecutor.shutdownNow();
+    }
+
+    private static void measure(String name, int tasks) throws InterruptedException {
+        Thread.sleep(WARMUP_MILLIS);
+        recorder.reset();
+        Thread.sleep(MEASURE_MILLIS);
+        long[] lags = recorder.snapshot();
+        Arrays.sort(lags);
+        double firesPerSecond = lags.length / (MEASURE_MILLIS / 1000.0);
+        System.out.printf("%-13s tasks=%7d  fires/s=%10.0f (expected %7d)  lag p50=%6dms p99=%6dms max=%6dms%n",
+                name, tasks, firesPerSecond, tasks,
+                percentile(lags, 0.50), percentile(lags, 0.99), lags.length == 0 ? 0 : lags[lags.length - 1]);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted.length == 0 ? 0 : sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))];
+    }
+
+    public static class NoopJob implements Job {
+        @Override
+        public void execute(JobExecutionContext context) {
+            recorder.record(context.getScheduledFireTime());
+        }
+    }
+
+    private static final class LagRecorder {
+        private final long[] samples;
+        private final AtomicInteger count = new AtomicInteger();
+
+        private LagRecorder(int capacity) {
+            this.samples = new long[capacity];
+        }
+
+        void record(Date scheduledFireTime) {
+            int index = count.getAndIncrement();
+            if (index < samples.length) {
+                samples[index] = System.currentTimeMillis() - scheduledFireTime.getTime();
+            }
+        }
+
+        void reset() {
+            count.set(0);
+        }
+
+        long[] snapshot() {
+            return Arrays.copyOf(samples, Math.min(count.get(), samples.length));
+        }
+    }
+}
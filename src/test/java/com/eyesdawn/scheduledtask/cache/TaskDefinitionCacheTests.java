@@ -0,0 +1,114 @@
+package com.eyesdawn.scheduledtask.cache;
+
+import com.eyesdawn.scheduledtask.config.SchedulerProperties;
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.repository.ScheduledTaskRepository;
+import com.eyesdawn.scheduledtask.service.ScheduledTaskService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TaskDefinitionCacheTests {
+
+    @Autowired
+    private ScheduledTaskService scheduledTaskService;
+
+    @Autowired
+    private TaskDefinitionCache taskDefinitionCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ScheduledTaskRepository scheduledTaskRepository;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    @Test
+    void servesRepeatedReadsFromMemoryUntilTheServiceChangesTheTask() {
+        ScheduledTask task = scheduledTaskService.createTask(
+                new ScheduledTask("cached-task", "d", "0 0 0 1 1 ? 2099", "com.eyesdawn.scheduledtask.job.SampleJob"));
+        Long taskId = task.getId();
+
+        assertThat(scheduledTaskService.getTask(taskId)).isPresent();
+        TaskDefinitionCache.CacheStats before = taskDefinitionCache.getStats();
+        ScheduledTask cached = scheduledTaskService.getTask(taskId).orElseThrow();
+        assertThat(taskDefinitionCache.getStats().getHits()).isEqualTo(before.getHits() + 1);
+        assertThat(taskDefinitionCache.getStats().getMisses()).isEqualTo(before.getMisses());
+
+        // A write that bypasses the service is not seen until the entry is invalidated
+        jdbcTemplate.update("UPDATE scheduled_tasks SET description = 'changed' WHERE id = ?", taskId);
+        assertThat(scheduledTaskService.getTask(taskId).orElseThrow().getDescription()).isEqualTo("d");
+        assertThat(scheduledTaskService.getAllTasks()).extracting(ScheduledTask::getId).contains(taskId);
+
+        scheduledTaskService.startTask(taskId);
+        assertThat(scheduledTaskService.getTask(taskId).orElseThrow().getStatus()).isEqualTo(ScheduledTask.TaskStatus.ACTIVE);
+        assertThat(scheduledTaskService.getTask(taskId).orElseThrow().getDescription()).isEqualTo("changed");
+        assertThat(scheduledTaskService.getActiveTasks()).extracting(ScheduledTask::getId).contains(taskId);
+        assertThat(cached.getStatus()).isEqualTo(ScheduledTask.TaskStatus.INACTIVE);
+
+        scheduledTaskService.stopTask(taskId);
+        assertThat(scheduledTaskService.getActiveTasks()).extracting(ScheduledTask::getId).doesNotContain(taskId);
+
+        scheduledTaskService.deleteTask(taskId);
+        assertThat(scheduledTaskService.getTask(taskId)).isEmpty();
+        assertThat(scheduledTaskService.getAllTasks()).extracting(ScheduledTask::getId).doesNotContain(taskId);
+    }
+
+    @Test
+    void evictsTheEntryLoadedLongestAgoOnceFull() {
+        SchedulerProperties properties = new SchedulerProperties();
+        properties.getTaskCache().setMaxSize(2);
+        TaskDefinitionCache cache = new TaskDefinitionCache(properties);
+        beanFactory.autowireBean(cache);
+
+        Long first = createTask("evict-first").getId();
+        Long second = createTask("evict-second").getId();
+        Long third = createTask("evict-third").getId();
+        cache.get(first);
+        cache.get(second);
+        cache.get(third);
+        assertThat(cache.getStats().getSize()).isEqualTo(2);
+        assertThat(cache.getStats().getEvictions()).isEqualTo(1);
+
+        long misses = cache.getStats().getMisses();
+        cache.get(third);
+        cache.get(second);
+        assertThat(cache.getStats().getMisses()).isEqualTo(misses);
+        cache.get(first);
+        assertThat(cache.getStats().getMisses()).isEqualTo(misses + 1);
+    }
+
+    @Test
+    void cachedCopiesCarryEveryColumn() {
+        ScheduledTask task = new ScheduledTask("copied-task", "d", "0 0 0 1 1 ? 2099", "com.eyesdawn.scheduledtask.job.SampleJob");
+        task.setJobData("{\"a\":1}");
+        task.setTriggerType(ScheduledTask.TriggerType.TIMING_WHEEL);
+        task.setSpreadSeconds(30);
+        task.setMaxConcurrent(2);
+        task.setOverlapPolicy(ScheduledTask.OverlapPolicy.QUEUE);
+        task.setWorkflowTrigger(true);
+        task.setRetentionDays(7);
+        Long taskId = scheduledTaskService.createTask(task).getId();
+
+        ScheduledTask cached = scheduledTaskService.getTask(taskId).orElseThrow();
+        assertThat(cached).usingRecursiveComparison()
+                .ignoringFields("executions", "dependencies", "dependents")
+                .isEqualTo(scheduledTaskRepository.findById(taskId).orElseThrow());
+        assertThat(cached.getExecutions()).isEmpty();
+        scheduledTaskService.deleteTask(taskId);
+    }
+
+    private ScheduledTask createTask(String name) {
+        return scheduledTaskService.createTask(
+                new ScheduledTask(name, "d", "0 0 0 1 1 ? 2099", "com.eyesdawn.scheduledtask.job.SampleJob"));
+    }
+}
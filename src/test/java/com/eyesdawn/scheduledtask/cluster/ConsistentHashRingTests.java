@@ -0,0 +1,44 @@
+package com.eyesdawn.scheduledtask.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsistentHashRingTests {
+
+    private static final int TASKS = 100_000;
+
+    @Test
+    void spreadsTasksEvenlyOverTheNodes() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("node-a", "node-b", "node-c", "node-d"), 128);
+        Map<String, Integer> counts = new HashMap<>();
+        for (long taskId = 1; taskId <= TASKS; taskId++) {
+            counts.merge(ring.ownerOf(taskId), 1, Integer::sum);
+        }
+
+        assertThat(counts).hasSize(4);
+        assertThat(counts.values()).allSatisfy(count ->
+                assertThat(count).isBetween((int) (TASKS / 4 * 0.85), (int) (TASKS / 4 * 1.15)));
+    }
+
+    @Test
+    void joiningNodeOnlyTakesTasksFromTheOthers() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of("node-a", "node-b", "node-c", "node-d"), 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("node-d", "node-c", "node-e", "node-b", "node-a"), 128);
+
+        int moved = 0;
+        for (long taskId = 1; taskId <= TASKS; taskId++) {
+            String owner = after.ownerOf(taskId);
+            if (!owner.equals(before.ownerOf(taskId))) {
+                assertThat(owner).isEqualTo("node-e");
+                moved++;
+            }
+        }
+        assertThat(moved).isBetween((int) (TASKS / 5 * 0.8), (int) (TASKS / 5 * 1.2));
+        assertThat(new ConsistentHashRing(List.of(), 128).ownerOf(1)).isNull();
+    }
+}
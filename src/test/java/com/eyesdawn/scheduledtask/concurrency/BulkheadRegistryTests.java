@@ -0,0 +1,134 @@
+package com.eyesdawn.scheduledtask.concurrency;
+
+import com.eyesdawn.scheduledtask.config.SchedulerProperties;
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.trigger.TriggerBackend;
+import com.eyesdawn.scheduledtask.trigger.TriggerBackendRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.quartz.JobDataMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BulkheadRegistryTests {
+
+    private final List<JobDataMap> refired = new ArrayList<>();
+
+    @Test
+    void appliesTheOverlapPolicyOnceTheTaskLimitIsReached() {
+        BulkheadRegistry registry = registry(Map.of());
+        ScheduledTask skipping = task(1L, 1, null, null);
+        ScheduledTask queueing = task(2L, 1, ScheduledTask.OverlapPolicy.QUEUE, null);
+        ScheduledTask coalescing = task(3L, 1, ScheduledTask.OverlapPolicy.COALESCE, null);
+
+        BulkheadRegistry.Admission running = registry.admit(skipping, new JobDataMap(), 0);
+        assertThat(running.getOutcome()).isEqualTo(BulkheadRegistry.Outcome.ADMITTED);
+        BulkheadRegistry.Admission skipped = registry.admit(skipping, new JobDataMap(), 0);
+        assertThat(skipped.getOutcome()).isEqualTo(BulkheadRegistry.Outcome.REJECTED);
+        assertThat(skipped.getReason()).contains("task:1");
+        registry.release(running);
+        assertThat(refired).isEmpty();
+        assertThat(registry.admit(skipping, new JobDataMap(), 0).getOutcome()).isEqualTo(BulkheadRegistry.Outcome.ADMITTED);
+
+        BulkheadRegistry.Admission first = registry.admit(queueing, new JobDataMap(), 0);
+        JobDataMap triggerData = new JobDataMap();
+        triggerData.put("runId", "run-1");
+        assertThat(registry.admit(queueing, triggerData, 1000).getOutcome()).isEqualTo(BulkheadRegistry.Outcome.QUEUED);
+        assertThat(registry.admit(queueing, new JobDataMap(), 2000).getOutcome()).isEqualTo(BulkheadRegistry.Outcome.QUEUED);
+        assertThat(registry.getQueuedCount(2L)).isEqualTo(2);
+        registry.release(first);
+        // The oldest waiting fire comes back with its own trigger data and scheduled time
+        assertThat(refired).hasSize(1);
+        JobDataMap fired = refired.get(0);
+        assertThat(fired.getString("runId")).isEqualTo("run-1");
+        assertThat(fired.getLong(BulkheadRegistry.QUEUED_FIRE_TIME)).isEqualTo(1000);
+        assertThat(fired.get(BulkheadRegistry.REQUEUED)).isEqualTo(true);
+        assertThat(registry.getQueuedCount(2L)).isEqualTo(1);
+
+        registry.admit(coalescing, new JobDataMap(), 0);
+        assertThat(registry.admit(coalescing, new JobDataMap(), 0).getOutcome()).isEqualTo(BulkheadRegistry.Outcome.QUEUED);
+        BulkheadRegistry.Admission coalesced = registry.admit(coalescing, new JobDataMap(), 0);
+        assertThat(coalesced.getOutcome()).isEqualTo(BulkheadRegistry.Outcome.REJECTED);
+        assertThat(coalesced.getReason()).contains("coalesced");
+    }
+
+    @Test
+    void sharesResourceGroupPermitsAcrossTasks() {
+        BulkheadRegistry registry = registry(Map.of("reporting-db", 2));
+        ScheduledTask first = task(1L, null, ScheduledTask.OverlapPolicy.QUEUE, "reporting-db");
+        ScheduledTask second = task(2L, null, null, "reporting-db");
+
+        BulkheadRegistry.Admission a = registry.admit(first, new JobDataMap(), 0);
+        BulkheadRegistry.Admission b = registry.admit(second, new JobDataMap(), 0);
+        assertThat(a.getOutcome()).isEqualTo(BulkheadRegistry.Outcome.ADMITTED);
+        assertThat(b.getOutcome()).isEqualTo(BulkheadRegistry.Outcome.ADMITTED);
+        assertThat(registry.admit(second, new JobDataMap(), 0).getOutcome()).isEqualTo(BulkheadRegistry.Outcome.REJECTED);
+        assertThat(registry.admit(first, new JobDataMap(), 0).getOutcome()).isEqualTo(BulkheadRegistry.Outcome.QUEUED);
+
+        registry.release(b);
+        assertThat(refired).hasSize(1);
+        // The fire let through is overtaken by a fresh one and goes back to the front
+        BulkheadRegistry.Admission fresh = registry.admit(second, new JobDataMap(), 0);
+        assertThat(fresh.getOutcome()).isEqualTo(BulkheadRegistry.Outcome.ADMITTED);
+        assertThat(registry.admit(first, refired.get(0), 0).getOutcome()).isEqualTo(BulkheadRegistry.Outcome.QUEUED);
+        registry.release(a);
+        assertThat(refired).hasSize(2);
+
+        assertThat(registry.admit(task(3L, null, null, null), new JobDataMap(), 0)).isSameAs(BulkheadRegistry.UNLIMITED);
+        assertThatThrownBy(() -> registry.validate(task(4L, null, null, "unknown")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("reporting-db");
+        assertThatThrownBy(() -> registry.validate(task(4L, 0, null, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private BulkheadRegistry registry(Map<String, Integer> resourceGroups) {
+        SchedulerProperties properties = new SchedulerProperties();
+        properties.getConcurrency().setResourceGroups(resourceGroups);
+        TriggerBackend backend = new RecordingBackend();
+        return new BulkheadRegistry(properties, new TriggerBackendRegistry(List.of(backend)), new SimpleMeterRegistry());
+    }
+
+    private static ScheduledTask task(Long id, Integer maxConcurrent, ScheduledTask.OverlapPolicy policy, String group) {
+        ScheduledTask task = new ScheduledTask("task-" + id, null, "0 * * * * ?", "com.eyesdawn.scheduledtask.job.SampleJob");
+        task.setId(id);
+        task.setMaxConcurrent(maxConcurrent);
+        task.setOverlapPolicy(policy);
+        task.setResourceGroup(group);
+        return task;
+    }
+
+    private final class RecordingBackend implements TriggerBackend {
+
+        @Override
+        public ScheduledTask.TriggerType getType() {
+            return ScheduledTask.TriggerType.QUARTZ;
+        }
+
+        @Override
+        public void schedule(ScheduledTask task) {
+        }
+
+        @Override
+        public void unschedule(ScheduledTask task) {
+        }
+
+        @Override
+        public void pause(ScheduledTask task) {
+        }
+
+        @Override
+        public void resume(ScheduledTask task) {
+        }
+
+        @Override
+        public void triggerNow(Long taskId, String taskName, JobDataMap data) {
+            refired.add(data);
+        }
+    }
+}
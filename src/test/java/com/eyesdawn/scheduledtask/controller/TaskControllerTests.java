@@ -0,0 +1,85 @@
+package com.eyesdawn.scheduledtask.controller;
+
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.model.TaskExecution;
+import com.eyesdawn.scheduledtask.repository.TaskExecutionRepository;
+import com.eyesdawn.scheduledtask.service.ScheduledTaskService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The cache is off so the lists come from the projection queries
+@SpringBootTest(properties = "scheduled-task.task-cache.enabled=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TaskControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ScheduledTaskService scheduledTaskService;
+
+    @Autowired
+    private TaskExecutionRepository taskExecutionRepository;
+
+    @Test
+    void listsSummariesOrSelectedFieldsWithoutTheExecutionHistory() throws Exception {
+        ScheduledTask task = new ScheduledTask("projected-task", "d", "0 0 0 1 1 ? 2099", "com.eyesdawn.scheduledtask.job.SampleJob");
+        task.setJobData("{\"large\": true}");
+        task = scheduledTaskService.createTask(task);
+        List<TaskExecution> executions = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            TaskExecution execution = new TaskExecution(task);
+            execution.setStatus(TaskExecution.ExecutionStatus.SUCCESS);
+            executions.add(execution);
+        }
+        taskExecutionRepository.saveAll(executions);
+        String item = "$[?(@.id == " + task.getId() + ")]";
+
+        mockMvc.perform(get("/api/tasks"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(item + ".name").value(hasItem("projected-task")))
+                .andExpect(jsonPath(item + ".status").value(hasItem("INACTIVE")))
+                .andExpect(jsonPath(item + ".jobData").isEmpty())
+                .andExpect(jsonPath(item + ".executions").isEmpty());
+
+        mockMvc.perform(get("/api/tasks").param("fields", "id,jobData"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(item + ".jobData").value(hasItem("{\"large\": true}")))
+                .andExpect(jsonPath(item + ".name").isEmpty());
+
+        mockMvc.perform(get("/api/tasks").param("fields", "name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name").value(hasItem("projected-task")));
+
+        mockMvc.perform(get("/api/tasks/active").param("fields", "name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name").value(not(hasItem("projected-task"))));
+
+        mockMvc.perform(get("/api/tasks/{id}", task.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.jobData").value("{\"large\": true}"))
+                .andExpect(jsonPath("$.executions").doesNotExist());
+
+        mockMvc.perform(get("/api/tasks").param("fields", "id,executions"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/tasks/{id}/rollups", task.getId()).param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/tasks/{id}/rollups", task.getId()).param("limit", "1000000"))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,82 @@
+package com.eyesdawn.scheduledtask.dependency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DependencyGraphTests {
+
+    @Test
+    void rejectsExactlyTheEdgesThatWouldCloseACycle() {
+        DependencyGraph graph = new DependencyGraph();
+        List<Set<Long>> prerequisites = new ArrayList<>();
+        int nodes = 60;
+        for (int i = 0; i < nodes; i++) {
+            prerequisites.add(new HashSet<>());
+        }
+
+        Random random = new Random(7);
+        for (int step = 0; step < 3000; step++) {
+            long task = random.nextInt(nodes);
+            long prerequisite = random.nextInt(nodes);
+            if (random.nextInt(4) == 0 && prerequisites.get((int) task).contains(prerequisite)) {
+                assertThat(graph.removeEdge(task, prerequisite)).isTrue();
+                prerequisites.get((int) task).remove(prerequisite);
+                continue;
+            }
+            if (prerequisites.get((int) task).contains(prerequisite)) {
+                continue;
+            }
+            boolean closesCycle = task == prerequisite || reaches(prerequisites, prerequisite, task);
+            assertThat(graph.addEdge(task, prerequisite)).isEqualTo(!closesCycle);
+            if (!closesCycle) {
+                prerequisites.get((int) task).add(prerequisite);
+            }
+        }
+
+        for (long a = 0; a < nodes; a++) {
+            for (long b = 0; b < nodes; b++) {
+                assertThat(graph.dependsOn(a, b)).isEqualTo(reaches(prerequisites, a, b));
+            }
+        }
+    }
+
+    @Test
+    void removingATaskDropsAllOfItsEdges() {
+        DependencyGraph graph = new DependencyGraph();
+        graph.addEdge(1, 2);
+        graph.addEdge(2, 3);
+        graph.addEdge(4, 2);
+
+        graph.removeNode(2);
+
+        assertThat(graph.getEdgeCount()).isZero();
+        assertThat(graph.getPrerequisites(1)).isEmpty();
+        assertThat(graph.getDependents(3)).isEmpty();
+        assertThat(graph.addEdge(3, 1)).isTrue();
+    }
+
+    private static boolean reaches(List<Set<Long>> prerequisites, long from, long to) {
+        Set<Long> seen = new HashSet<>();
+        Deque<Long> pending = new ArrayDeque<>();
+        pending.push(from);
+        while (!pending.isEmpty()) {
+            long node = pending.pop();
+            if (node == to) {
+                return true;
+            }
+            if (seen.add(node)) {
+                pending.addAll(prerequisites.get((int) node));
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,35 @@
+package com.eyesdawn.scheduledtask.dependency;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskDependencyIndexTests {
+
+    @Test
+    void dropsASnapshotReadBeforeALocalChange() {
+        TaskDependencyIndex index = new TaskDependencyIndex();
+        long seen = index.getMutationCount();
+
+        // The edge is added while the table is being read, so the snapshot does not have it
+        assertThat(index.tryAdd(1L, 2L)).isTrue();
+        DependencyGraph stale = new DependencyGraph();
+
+        assertThat(index.install(stale, seen)).isFalse();
+        assertThat(index.dependsOn(1L, 2L)).isTrue();
+    }
+
+    @Test
+    void installsASnapshotWhenNothingChangedMeanwhile() {
+        TaskDependencyIndex index = new TaskDependencyIndex();
+        assertThat(index.tryAdd(1L, 2L)).isTrue();
+        long seen = index.getMutationCount();
+
+        DependencyGraph loaded = new DependencyGraph();
+        loaded.addEdge(3L, 4L);
+
+        assertThat(index.install(loaded, seen)).isTrue();
+        assertThat(index.dependsOn(3L, 4L)).isTrue();
+        assertThat(index.dependsOn(1L, 2L)).isFalse();
+    }
+}
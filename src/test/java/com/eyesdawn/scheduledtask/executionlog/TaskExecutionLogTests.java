@@ -0,0 +1,140 @@
+package com.eyesdawn.scheduledtask.executionlog;
+
+import com.eyesdawn.scheduledtask.dto.ExecutionSummary;
+import com.eyesdawn.scheduledtask.model.TaskExecution;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskExecutionLogTests {
+
+    private static final long TASK_ID = 7;
+    private static final int SEGMENT_RECORDS = 1000;
+    private static final int SEGMENT_PAYLOAD = 64 * 1024;
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 3, 1, 12, 0, 0, 123_456_000);
+
+    private static final Comparator<ExecutionSummary> NEWEST_FIRST = Comparator
+            .comparing(ExecutionSummary::getStartTime).thenComparing(ExecutionSummary::getId).reversed();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void pagesMatchTheRecordsAcrossSegmentsAndAfterReopening() throws Exception {
+        TaskExecutionLog log = new TaskExecutionLog(directory, TASK_ID, SEGMENT_RECORDS, SEGMENT_PAYLOAD);
+        List<ExecutionSummary> appended = appendExecutions(log, 5000);
+        assertThat(log.size()).isEqualTo(5000);
+        assertThat(log.getSegmentCount()).isEqualTo(5);
+
+        assertPagesMatch(log, appended);
+
+        TaskExecutionLog reopened = new TaskExecutionLog(directory, TASK_ID, SEGMENT_RECORDS, SEGMENT_PAYLOAD);
+        assertThat(reopened.size()).isEqualTo(5000);
+        assertThat(reopened.maxId()).isEqualTo(ExecutionLogStore.FIRST_ID + 4999);
+        assertPagesMatch(reopened, appended);
+
+        ExecutionSummary sample = reopened.findPageBefore(null, BASE, BASE.plusSeconds(100), Long.MAX_VALUE, 1).get(0);
+        ExecutionSummary original = appended.stream().filter(e -> e.getId().equals(sample.getId())).findFirst().orElseThrow();
+        assertThat(sample.getStartTime()).isEqualTo(original.getStartTime());
+        assertThat(sample.getEndTime()).isEqualTo(original.getEndTime());
+        assertThat(sample.getRunId()).isEqualTo(original.getRunId());
+        assertThat(sample.getResult()).isEqualTo(original.getResult());
+        assertThat(sample.getErrorMessage()).isEqualTo(original.getErrorMessage());
+        assertThat(sample.getDurationMillis()).isEqualTo(original.getDurationMillis());
+    }
+
+    @Test
+    void compactionDropsExpiredRecordsAndMergesSegments() throws Exception {
+        TaskExecutionLog log = new TaskExecutionLog(directory, TASK_ID, SEGMENT_RECORDS, SEGMENT_PAYLOAD);
+        List<ExecutionSummary> appended = appendExecutions(log, 5000);
+        int segments = log.getSegmentCount();
+
+        LocalDateTime cutoff = BASE.plusSeconds(3000);
+        List<ExecutionSummary> expired = new ArrayList<>();
+        long dropped = log.compact(cutoff, expired::add);
+
+        List<ExecutionSummary> live = new ArrayList<>();
+        long expected = 0;
+        for (ExecutionSummary execution : appended) {
+            if (execution.getStartTime().isBefore(cutoff)) {
+                expected++;
+            } else {
+                live.add(execution);
+            }
+        }
+        assertThat(log.size()).isEqualTo(5000 - dropped);
+        assertThat(dropped).isEqualTo(expired.size()).isLessThanOrEqualTo(expected).isGreaterThan(expected - SEGMENT_RECORDS);
+        assertThat(expired).allSatisfy(e -> assertThat(e.getStartTime()).isBefore(cutoff));
+        assertThat(log.getSegmentCount()).isLessThan(segments);
+
+        List<ExecutionSummary> remaining = new ArrayList<>(appended);
+        remaining.removeIf(e -> expired.stream().anyMatch(x -> x.getId().equals(e.getId())));
+        assertPagesMatch(log, remaining);
+        assertPagesMatch(new TaskExecutionLog(directory, TASK_ID, SEGMENT_RECORDS, SEGMENT_PAYLOAD), remaining);
+        assertThat(live).isSubsetOf(remaining);
+    }
+
+    private static List<ExecutionSummary> appendExecutions(TaskExecutionLog log, int count) throws Exception {
+        List<ExecutionSummary> appended = new ArrayList<>();
+        TaskExecution.ExecutionStatus[] statuses = {TaskExecution.ExecutionStatus.SUCCESS, TaskExecution.ExecutionStatus.SUCCESS,
+                TaskExecution.ExecutionStatus.FAILED, TaskExecution.ExecutionStatus.TIMEOUT};
+        for (int i = 0; i < count; i++) {
+            // Records are appended as executions finish, so some started well before their neighbours,
+            // and groups of three share a start time
+            LocalDateTime start = BASE.plusSeconds(i % 11 == 0 ? i - 45 : i / 3 * 3);
+            TaskExecution.ExecutionStatus status = statuses[i % statuses.length];
+            ExecutionSummary execution = new ExecutionSummary(ExecutionLogStore.FIRST_ID + i, TASK_ID, "run-" + i, status,
+                    start, start.plusNanos(2_500_000), 2L, i % 3, status == TaskExecution.ExecutionStatus.SUCCESS ? "ok " + i : null,
+                    status == TaskExecution.ExecutionStatus.SUCCESS ? null : "failed, \"" + i + "\"");
+            log.append(execution);
+            appended.add(execution);
+        }
+        return appended;
+    }
+
+    private static void assertPagesMatch(TaskExecutionLog log, List<ExecutionSummary> appended) {
+        assertPagesMatch(log, appended, null, BASE.minusDays(1), BASE.plusDays(1), 50);
+        assertPagesMatch(log, appended, TaskExecution.ExecutionStatus.FAILED, BASE.minusDays(1), BASE.plusDays(1), 17);
+        assertPagesMatch(log, appended, null, BASE.plusSeconds(3100), BASE.plusSeconds(3400), 64);
+        assertPagesMatch(log, appended, TaskExecution.ExecutionStatus.TIMEOUT, BASE.plusSeconds(3100), BASE.plusSeconds(4000), 7);
+
+        List<Long> scanned = new ArrayList<>();
+        Iterator<ExecutionSummary> scan = log.scan(TaskExecution.ExecutionStatus.SUCCESS, BASE.plusSeconds(3100), null);
+        scan.forEachRemaining(e -> scanned.add(e.getId()));
+        assertThat(scanned).containsExactlyElementsOf(appended.stream()
+                .filter(e -> e.getStatus() == TaskExecution.ExecutionStatus.SUCCESS && !e.getStartTime().isBefore(BASE.plusSeconds(3100)))
+                .map(ExecutionSummary::getId).toList());
+    }
+
+    private static void assertPagesMatch(TaskExecutionLog log, List<ExecutionSummary> appended,
+                                         TaskExecution.ExecutionStatus status, LocalDateTime from, LocalDateTime to, int limit) {
+        List<Long> expected = appended.stream()
+                .filter(e -> status == null || e.getStatus() == status)
+                .filter(e -> !e.getStartTime().isBefore(from) && !e.getStartTime().isAfter(to))
+                .sorted(NEWEST_FIRST)
+                .map(ExecutionSummary::getId)
+                .toList();
+
+        List<Long> walked = new ArrayList<>();
+        LocalDateTime before = to;
+        long beforeId = Long.MAX_VALUE;
+        while (true) {
+            List<ExecutionSummary> page = log.findPageBefore(status, from, before, beforeId, limit);
+            page.forEach(e -> walked.add(e.getId()));
+            if (page.size() < limit) {
+                break;
+            }
+            before = page.get(limit - 1).getStartTime();
+            beforeId = page.get(limit - 1).getId();
+        }
+        assertThat(walked).containsExactlyElementsOf(expected);
+    }
+}
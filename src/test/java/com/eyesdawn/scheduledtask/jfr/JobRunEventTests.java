@@ -0,0 +1,67 @@
+package com.eyesdawn.scheduledtask.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JobRunEventTests {
+
+    @Test
+    void isOnlyEnabledWhileARecordingHasIt() {
+        assertThat(JobRunEvent.enabled()).isFalse();
+        try (Recording recording = new Recording()) {
+            recording.enable(JobRunEvent.class);
+            recording.start();
+            assertThat(JobRunEvent.enabled()).isTrue();
+        }
+        assertThat(JobRunEvent.enabled()).isFalse();
+    }
+
+    @Test
+    void spansFromTheStartingThreadToTheCompletingOne() throws Exception {
+        Path file = Files.createTempFile("job-run", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(JobRunEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+
+            JobRunEvent event = new JobRunEvent();
+            event.begin();
+            CompletableFuture.runAsync(() -> {
+                sleep();
+                event.end();
+                event.taskId = 7;
+                event.executionId = 11;
+                event.status = "SUCCESS";
+                event.commit();
+            }).get();
+
+            recording.stop();
+            recording.dump(file);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertThat(events).hasSize(1);
+            RecordedEvent recorded = events.get(0);
+            assertThat(recorded.getLong("taskId")).isEqualTo(7);
+            assertThat(recorded.getString("status")).isEqualTo("SUCCESS");
+            assertThat(recorded.getDuration().toMillis()).isGreaterThanOrEqualTo(20);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(25);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.eyesdawn.scheduledtask.job;
+
+import com.eyesdawn.scheduledtask.config.SchedulerProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JobExecutionEngineTests {
+
+    private JobExecutionEngine engine;
+
+    @AfterEach
+    void shutdown() {
+        if (engine != null) {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    void timesOutAFireAndInterruptsItsBody() throws Exception {
+        engine = platformEngine(2, 4);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<String> fire = engine.watch(engine.submit(() -> blockUntilInterrupted(interrupted)), 1);
+        assertThat(engine.getInFlightCount()).isEqualTo(1);
+
+        assertThatThrownBy(() -> fire.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(engine.getInFlightCount()).isZero();
+    }
+
+    @Test
+    void cancellingAFireInterruptsItsBody() throws Exception {
+        engine = platformEngine(2, 4);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<String> fire = engine.watch(engine.submit(() -> {
+            started.countDown();
+            return blockUntilInterrupted(interrupted);
+        }), 0);
+
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        fire.cancel(true);
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(engine.getInFlightCount()).isZero();
+
+        assertThat(engine.submit(() -> "done").get(5, TimeUnit.SECONDS)).isEqualTo("done");
+    }
+
+    @Test
+    void runsCallbacksOnTheirOwnPoolWhileTheJobPoolIsSaturated() throws Exception {
+        engine = platformEngine(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> running = engine.submit(() -> {
+            release.await();
+            return "running";
+        });
+        CompletableFuture<String> queued = engine.submit(() -> "queued");
+
+        // A timeout completes the fire on the timeout thread; its callback still goes to the callback pool
+        CompletableFuture<String> timedOut = engine.watch(new CompletableFuture<>(), 1);
+        CompletableFuture<String> callbackThread = timedOut.handleAsync(
+                (result, error) -> Thread.currentThread().getName(), engine.getCallbackExecutor());
+        assertThat(callbackThread.get(5, TimeUnit.SECONDS)).startsWith("job-callback-");
+
+        assertThat(running).isNotDone();
+        assertThat(queued).isNotDone();
+        release.countDown();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("queued");
+    }
+
+    private static String blockUntilInterrupted(CountDownLatch interrupted) {
+        try {
+            Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            return "finished";
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+            return "interrupted";
+        }
+    }
+
+    private static JobExecutionEngine platformEngine(int poolSize, int queueCapacity) {
+        SchedulerProperties properties = new SchedulerProperties();
+        properties.getExecution().setEngine(SchedulerProperties.EngineType.PLATFORM);
+        properties.getExecution().setPoolSize(poolSize);
+        properties.getExecution().setQueueCapacity(queueCapacity);
+        properties.getExecution().setCallbackThreads(1);
+        return new JobExecutionEngine(properties);
+    }
+}
@@ -0,0 +1,82 @@
+package com.eyesdawn.scheduledtask.live;
+
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.model.TaskExecution;
+import com.eyesdawn.scheduledtask.service.ScheduledTaskService;
+import com.eyesdawn.scheduledtask.service.TaskExecutionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TaskEventBroadcasterTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ScheduledTaskService scheduledTaskService;
+
+    @Autowired
+    private TaskExecutionService taskExecutionService;
+
+    @Autowired
+    private TaskEventBroadcaster taskEventBroadcaster;
+
+    @Test
+    void streamsTaskAndExecutionChangesToMatchingSubscribers() throws Exception {
+        ScheduledTask task = scheduledTaskService.createTask(
+                new ScheduledTask("live-task", "d", "0 0 0 1 1 ? 2099", "com.eyesdawn.scheduledtask.job.SampleJob"));
+        ScheduledTask other = scheduledTaskService.createTask(
+                new ScheduledTask("live-other", "d", "0 0 0 1 1 ? 2099", "com.eyesdawn.scheduledtask.job.SampleJob"));
+
+        MvcResult all = mockMvc.perform(get("/api/tasks/events")).andExpect(request().asyncStarted()).andReturn();
+        MvcResult one = mockMvc.perform(get("/api/tasks/events").param("taskId", task.getId().toString()))
+                .andExpect(request().asyncStarted()).andReturn();
+
+        scheduledTaskService.startTask(task.getId());
+        scheduledTaskService.startTask(other.getId());
+        TaskExecution execution = taskExecutionService.startExecution(task.getId(), null);
+        taskExecutionService.completeExecution(execution.getId(), TaskExecution.ExecutionStatus.SUCCESS, "done", null);
+
+        String allEvents = awaitContent(all.getResponse(), "\"status\":\"SUCCESS\"");
+        assertThat(allEvents).contains("event:task\n", "\"name\":\"live-other\"", "\"status\":\"ACTIVE\"",
+                "event:execution\n", "\"status\":\"RUNNING\"", "\"result\":\"done\"");
+        String taskEvents = awaitContent(one.getResponse(), "\"status\":\"SUCCESS\"");
+        assertThat(taskEvents).contains("\"name\":\"live-task\"").doesNotContain("live-other");
+
+        // Nothing is published for a change that rolls back
+        long published = taskEventBroadcaster.getStats().getPublished();
+        try {
+            scheduledTaskService.startTask(task.getId());
+        } catch (RuntimeException expected) {
+            // Already active
+        }
+        assertThat(taskEventBroadcaster.getStats().getPublished()).isEqualTo(published);
+        assertThat(taskEventBroadcaster.getStats().getSubscribers()).isGreaterThanOrEqualTo(2);
+
+        scheduledTaskService.stopTask(task.getId());
+        scheduledTaskService.stopTask(other.getId());
+    }
+
+    private static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        String content = response.getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = response.getContentAsString();
+        }
+        return content;
+    }
+}
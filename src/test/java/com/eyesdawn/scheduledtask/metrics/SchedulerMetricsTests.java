@@ -0,0 +1,92 @@
+package com.eyesdawn.scheduledtask.metrics;
+
+import com.eyesdawn.scheduledtask.config.SchedulerProperties;
+import com.eyesdawn.scheduledtask.job.JobExecutionEngine;
+import com.eyesdawn.scheduledtask.model.TaskExecution;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SchedulerMetricsTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private JobExecutionEngine engine;
+
+    @AfterEach
+    void shutdownEngine() {
+        engine.shutdown();
+    }
+
+    @Test
+    void recordsFiresPerTaskAndDropsRenamedAndDeletedTasks() {
+        SchedulerMetrics metrics = create(new SchedulerProperties());
+
+        SchedulerMetrics.TaskMeters meters = metrics.forTask(1L, "report");
+        assertThat(metrics.forTask(1L, "report")).isSameAs(meters);
+        meters.fireStarted(250);
+        assertThat(registry.get("scheduler.task.in.flight").tag("task", "report").gauge().value()).isEqualTo(1);
+        meters.fireCompleted(TaskExecution.ExecutionStatus.FAILED, TimeUnit.MILLISECONDS.toNanos(40), 300);
+
+        assertThat(registry.get("scheduler.task.in.flight").tag("task", "report").gauge().value()).isZero();
+        assertThat(registry.get("scheduler.fire.lag").tag("task", "report").timer().totalTime(TimeUnit.MILLISECONDS))
+                .isEqualTo(250);
+        Timer run = registry.get("scheduler.job.run").tags("task", "report", "status", "FAILED").timer();
+        assertThat(run.count()).isEqualTo(1);
+        assertThat(run.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(40);
+        assertThat(registry.get("scheduler.fire.duration").tags("task", "report", "status", "FAILED").timer()
+                .totalTime(TimeUnit.MILLISECONDS)).isEqualTo(300);
+
+        SchedulerMetrics.TaskMeters renamed = metrics.forTask(1L, "daily-report");
+        assertThat(renamed).isNotSameAs(meters);
+        assertThat(registry.find("scheduler.fire.lag").tag("task", "report").timer()).isNull();
+        assertThat(registry.find("scheduler.job.run").tag("task", "report").timer()).isNull();
+
+        metrics.removeTaskOnCommit(1L);
+        assertThat(registry.find("scheduler.fire.lag").tag("task", "daily-report").timer()).isNull();
+    }
+
+    @Test
+    void keepsTheMetersOfATaskThatTakesOverTheNameOfARenamedOne() {
+        SchedulerMetrics metrics = create(new SchedulerProperties());
+        metrics.forTask(1L, "a").fireStarted(10);
+        metrics.forTask(2L, "a").fireStarted(20);
+        assertThat(registry.get("scheduler.task.in.flight").tags("task", "a", "taskId", "1").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("scheduler.task.in.flight").tags("task", "a", "taskId", "2").gauge().value()).isEqualTo(1);
+
+        // Task 1 fires under its new name, which drops only its own "a" meters
+        metrics.forTask(1L, "b");
+        assertThat(registry.find("scheduler.fire.lag").tags("task", "a", "taskId", "1").timer()).isNull();
+        SchedulerMetrics.TaskMeters second = metrics.forTask(2L, "a");
+        second.fireStarted(30);
+        Timer lag = registry.get("scheduler.fire.lag").tags("task", "a", "taskId", "2").timer();
+        assertThat(lag.count()).isEqualTo(2);
+        assertThat(registry.get("scheduler.task.in.flight").tags("task", "a", "taskId", "2").gauge().value()).isEqualTo(2);
+
+        metrics.removeTaskOnCommit(1L);
+        assertThat(registry.get("scheduler.fire.lag").tags("task", "a", "taskId", "2").timer()).isSameAs(lag);
+    }
+
+    @Test
+    void sharesOneSetOfMetersWhenPerTaskMetersAreOff() {
+        SchedulerProperties properties = new SchedulerProperties();
+        properties.getMetrics().setPerTask(false);
+        SchedulerMetrics metrics = create(properties);
+
+        metrics.forTask(1L, "a").fireStarted(10);
+        metrics.forTask(2L, "b").fireStarted(20);
+
+        assertThat(metrics.forTask(1L, "a")).isSameAs(metrics.forTask(2L, "b"));
+        assertThat(registry.get("scheduler.fire.lag").tag("task", "all").timer().count()).isEqualTo(2);
+        assertThat(registry.find("scheduler.fire.lag").tag("task", "a").timer()).isNull();
+    }
+
+    private SchedulerMetrics create(SchedulerProperties properties) {
+        engine = new JobExecutionEngine(properties);
+        return new SchedulerMetrics(registry, properties, engine);
+    }
+}
@@ -0,0 +1,121 @@
+package com.eyesdawn.scheduledtask.service;
+
+import com.eyesdawn.scheduledtask.dto.BulkItemResult;
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.trigger.QuartzTriggerBackend;
+import org.junit.jupiter.api.Test;
+import org.quartz.Scheduler;
+import org.quartz.Trigger;
+import org.quartz.TriggerKey;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BulkTaskServiceTests {
+
+    private static final String CRON = "0 0 0 1 1 ? 2099";
+    private static final String JOB = "com.eyesdawn.scheduledtask.job.SampleJob";
+
+    @Autowired
+    private BulkTaskService bulkTaskService;
+
+    @Autowired
+    private ScheduledTaskService scheduledTaskService;
+
+    @Autowired
+    private TaskDependencyService taskDependencyService;
+
+    @Autowired
+    private Scheduler quartzScheduler;
+
+    @Test
+    void createsAndStartsTheValidItemsAndReportsTheRest() throws Exception {
+        scheduledTaskService.createTask(new ScheduledTask("bulk-existing", "d", CRON, JOB));
+
+        List<BulkItemResult> results = bulkTaskService.createTasks(List.of(
+                new ScheduledTask("bulk-a", "d", CRON, JOB),
+                new ScheduledTask("bulk-b", "d", CRON, JOB),
+                new ScheduledTask("bulk-a", "d", CRON, JOB),
+                new ScheduledTask("bulk-existing", "d", CRON, JOB),
+                new ScheduledTask("bulk-bad-cron", "d", "not a cron", JOB),
+                new ScheduledTask("bulk-bad-class", "d", CRON, "com.example.MissingJob")), true);
+
+        assertThat(results).extracting(BulkItemResult::getIndex).containsExactly(0, 1, 2, 3, 4, 5);
+        assertThat(results).extracting(BulkItemResult::isSuccess).containsExactly(true, true, false, false, false, false);
+        assertThat(results.get(2).getError()).contains("more than once");
+        assertThat(results.get(3).getError()).contains("already exists");
+        assertThat(results.get(4).getError()).contains("Invalid cron expression");
+        assertThat(results.get(5).getError()).contains("Job class not found");
+        for (BulkItemResult result : results.subList(0, 2)) {
+            assertThat(result.getStatus()).isEqualTo(ScheduledTask.TaskStatus.ACTIVE);
+            assertThat(scheduledTaskService.getTask(result.getTaskId()).orElseThrow().getStatus())
+                    .isEqualTo(ScheduledTask.TaskStatus.ACTIVE);
+            assertThat(quartzScheduler.checkExists(QuartzTriggerBackend.jobKey(result.getName()))).isTrue();
+        }
+        assertThat(scheduledTaskService.getAllTasks()).extracting(ScheduledTask::getName).doesNotContain("bulk-bad-cron");
+
+        List<Long> ids = results.subList(0, 2).stream().map(BulkItemResult::getTaskId).toList();
+        assertThat(bulkTaskService.applyAction(BulkTaskService.Action.PAUSE, ids)).allMatch(BulkItemResult::isSuccess);
+        assertThat(quartzScheduler.getTriggerState(TriggerKey.triggerKey("bulk-a_trigger", "DEFAULT")))
+                .isEqualTo(Trigger.TriggerState.PAUSED);
+        assertThat(bulkTaskService.applyAction(BulkTaskService.Action.RESUME, ids)).allMatch(BulkItemResult::isSuccess);
+
+        // Updating an active task stops it, as a single update does
+        ScheduledTask renamed = new ScheduledTask("bulk-a-renamed", "changed", "0 0 1 1 1 ? 2099", JOB);
+        renamed.setId(ids.get(0));
+        List<BulkItemResult> updated = bulkTaskService.updateTasks(List.of(renamed));
+        assertThat(updated.get(0).isSuccess()).isTrue();
+        assertThat(updated.get(0).getStatus()).isEqualTo(ScheduledTask.TaskStatus.INACTIVE);
+        assertThat(quartzScheduler.checkExists(QuartzTriggerBackend.jobKey("bulk-a"))).isFalse();
+        assertThat(scheduledTaskService.getTask(ids.get(0)).orElseThrow().getName()).isEqualTo("bulk-a-renamed");
+
+        // A paused task keeps its job on its backend, so it cannot move to another one
+        bulkTaskService.applyAction(BulkTaskService.Action.PAUSE, List.of(ids.get(1)));
+        ScheduledTask moved = new ScheduledTask("bulk-b", "d", CRON, JOB);
+        moved.setId(ids.get(1));
+        moved.setTriggerType(ScheduledTask.TriggerType.TIMING_WHEEL);
+        List<BulkItemResult> rejected = bulkTaskService.updateTasks(List.of(moved));
+        assertThat(rejected.get(0).getError()).contains("paused task");
+        assertThatThrownBy(() -> scheduledTaskService.updateTask(ids.get(1), moved))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(scheduledTaskService.getTask(ids.get(1)).orElseThrow().getTriggerType())
+                .isEqualTo(ScheduledTask.TriggerType.QUARTZ);
+        bulkTaskService.applyAction(BulkTaskService.Action.RESUME, List.of(ids.get(1)));
+
+        List<BulkItemResult> stopped = bulkTaskService.applyAction(BulkTaskService.Action.STOP, ids);
+        assertThat(stopped).extracting(BulkItemResult::isSuccess).containsExactly(false, true);
+        assertThat(stopped.get(0).getError()).contains("not active");
+        assertThat(quartzScheduler.checkExists(QuartzTriggerBackend.jobKey("bulk-b"))).isFalse();
+    }
+
+    @Test
+    void startsTasksTogetherWithTheDependenciesStartedInTheSameRequest() throws Exception {
+        ScheduledTask upstream = scheduledTaskService.createTask(new ScheduledTask("bulk-upstream", "d", CRON, JOB));
+        ScheduledTask downstream = scheduledTaskService.createTask(new ScheduledTask("bulk-downstream", "d", CRON, JOB));
+        ScheduledTask inactive = scheduledTaskService.createTask(new ScheduledTask("bulk-never-started", "d", CRON, JOB));
+        ScheduledTask blocked = scheduledTaskService.createTask(new ScheduledTask("bulk-blocked", "d", CRON, JOB));
+        ScheduledTask blockedChain = scheduledTaskService.createTask(new ScheduledTask("bulk-blocked-chain", "d", CRON, JOB));
+        taskDependencyService.addDependency(downstream.getId(), upstream.getId());
+        taskDependencyService.addDependency(blocked.getId(), inactive.getId());
+        taskDependencyService.addDependency(blockedChain.getId(), blocked.getId());
+
+        List<BulkItemResult> results = bulkTaskService.applyAction(BulkTaskService.Action.START,
+                List.of(blockedChain.getId(), downstream.getId(), blocked.getId(), upstream.getId(), -1L));
+
+        assertThat(results).extracting(BulkItemResult::isSuccess).containsExactly(false, true, false, true, false);
+        assertThat(results.get(0).getError()).contains("dependencies are not satisfied");
+        assertThat(results.get(2).getError()).contains("dependencies are not satisfied");
+        assertThat(results.get(4).getError()).contains("Task not found");
+        assertThat(quartzScheduler.checkExists(QuartzTriggerBackend.jobKey("bulk-downstream"))).isTrue();
+        assertThat(quartzScheduler.checkExists(QuartzTriggerBackend.jobKey("bulk-blocked"))).isFalse();
+
+        bulkTaskService.applyAction(BulkTaskService.Action.STOP, List.of(upstream.getId(), downstream.getId()));
+    }
+}
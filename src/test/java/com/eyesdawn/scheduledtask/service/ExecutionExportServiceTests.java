@@ -0,0 +1,70 @@
+package com.eyesdawn.scheduledtask.service;
+
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.model.TaskExecution;
+import com.eyesdawn.scheduledtask.repository.TaskExecutionRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ExecutionExportServiceTests {
+
+    @Autowired
+    private ScheduledTaskService scheduledTaskService;
+
+    @Autowired
+    private ExecutionExportService executionExportService;
+
+    @Autowired
+    private TaskExecutionRepository taskExecutionRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void writesOneRecordPerLineInEitherFormat() throws Exception {
+        ScheduledTask task = scheduledTaskService.createTask(
+                new ScheduledTask("export-task", "d", "0 0 0 1 1 ? 2099", "com.eyesdawn.scheduledtask.job.SampleJob"));
+        List<TaskExecution> executions = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            TaskExecution execution = new TaskExecution(task);
+            execution.setStatus(i % 5 == 0 ? TaskExecution.ExecutionStatus.FAILED : TaskExecution.ExecutionStatus.SUCCESS);
+            execution.setErrorMessage(i % 5 == 0 ? "bad \"input\",\nretry later" : null);
+            executions.add(execution);
+        }
+        taskExecutionRepository.saveAll(executions);
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        long written = executionExportService.export(task.getId(), null, null, null,
+                ExecutionExportService.ExportFormat.NDJSON, ndjson);
+        String[] lines = ndjson.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(written).isEqualTo(25);
+        assertThat(lines).hasSize(25);
+        for (String line : lines) {
+            JsonNode record = objectMapper.readTree(line);
+            assertThat(line).startsWith("{");
+            assertThat(record.get("taskId").asLong()).isEqualTo(task.getId());
+        }
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        written = executionExportService.export(task.getId(), TaskExecution.ExecutionStatus.FAILED, null, null,
+                ExecutionExportService.ExportFormat.CSV, csv);
+        String text = csv.toString(StandardCharsets.UTF_8);
+        assertThat(written).isEqualTo(5);
+        assertThat(text).startsWith("id,taskId,runId,status,");
+        assertThat(text).contains(",FAILED,");
+        assertThat(text).contains("\"bad \"\"input\"\",\nretry later\"");
+    }
+}
@@ -0,0 +1,94 @@
+package com.eyesdawn.scheduledtask.service;
+
+import com.eyesdawn.scheduledtask.model.ExecutionRollup;
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.model.TaskExecution;
+import com.eyesdawn.scheduledtask.repository.TaskExecutionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "scheduled-task.retention.chunk-size=400",
+        "scheduled-task.retention.chunk-pause-millis=0"
+})
+@ActiveProfiles("test")
+class ExecutionRetentionServiceTests {
+
+    @Autowired
+    private ScheduledTaskService scheduledTaskService;
+
+    @Autowired
+    private ExecutionRetentionService executionRetentionService;
+
+    @Autowired
+    private TaskExecutionRepository taskExecutionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void rollsUpExpiredExecutionsInChunksAndKeepsRecentOnes() {
+        ScheduledTask task = new ScheduledTask("retention-task", "d", "0 0 0 1 1 ? 2099", "com.eyesdawn.scheduledtask.job.SampleJob");
+        task.setRetentionDays(7);
+        task.setRollupGranularity(ScheduledTask.RollupGranularity.HOURLY);
+        task = scheduledTaskService.createTask(task);
+
+        // 1000 finished executions ten seconds apart, ten days ago: three hourly periods, split across chunks
+        LocalDateTime base = LocalDateTime.now().minusDays(10).truncatedTo(ChronoUnit.HOURS);
+        List<TaskExecution> executions = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            executions.add(execution(task, i % 10 == 0 ? TaskExecution.ExecutionStatus.FAILED : TaskExecution.ExecutionStatus.SUCCESS, (long) i));
+        }
+        TaskExecution stuck = execution(task, TaskExecution.ExecutionStatus.RUNNING, null);
+        executions.add(stuck);
+        for (int i = 0; i < 5; i++) {
+            executions.add(execution(task, TaskExecution.ExecutionStatus.SUCCESS, 5L));
+        }
+        executions = taskExecutionRepository.saveAll(executions);
+        for (int i = 0; i < 1001; i++) {
+            jdbcTemplate.update("UPDATE task_executions SET start_time = ? WHERE id = ?",
+                    Timestamp.valueOf(base.plusSeconds(i * 10L)), executions.get(i).getId());
+        }
+
+        ExecutionRetentionService.PurgeResult result = executionRetentionService.purgeTask(task.getId());
+
+        assertThat(result.getExecutionsPurged()).isEqualTo(1000);
+        assertThat(taskExecutionRepository.findByTaskIdOrderByStartTimeDesc(task.getId())).hasSize(6);
+
+        List<ExecutionRollup> rollups = new ArrayList<>(executionRetentionService.getRollups(task.getId(), 10));
+        rollups.sort(Comparator.comparing(ExecutionRollup::getPeriodStart));
+        assertThat(rollups).hasSize(3);
+        assertThat(rollups).extracting(ExecutionRollup::getTotalCount).containsExactly(360L, 360L, 280L);
+        assertThat(rollups.stream().mapToLong(ExecutionRollup::getFailedCount).sum()).isEqualTo(100);
+
+        // The first hour holds durations 0..359 ms
+        ExecutionRollup first = rollups.get(0);
+        assertThat(first.getPeriodStart()).isEqualTo(base);
+        assertThat(first.getMinDurationMillis()).isZero();
+        assertThat(first.getMaxDurationMillis()).isEqualTo(359);
+        assertThat(first.getAvgDurationMillis()).isEqualTo(179);
+        assertThat(first.getP50DurationMillis()).isBetween(168L, 192L);
+        assertThat(first.getP99DurationMillis()).isBetween(335L, 359L);
+
+        assertThat(executionRetentionService.purgeTask(task.getId()).getExecutionsPurged()).isZero();
+    }
+
+    private static TaskExecution execution(ScheduledTask task, TaskExecution.ExecutionStatus status, Long durationMillis) {
+        TaskExecution execution = new TaskExecution(task);
+        execution.setStatus(status);
+        execution.setDurationMillis(durationMillis);
+        return execution;
+    }
+}
@@ -0,0 +1,134 @@
+package com.eyesdawn.scheduledtask.service;
+
+import com.eyesdawn.scheduledtask.config.SchedulerProperties;
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.model.TaskExecution;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ExecutionWriteBehindPipelineTests {
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    @Autowired
+    private ScheduledTaskService scheduledTaskService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ExecutionWriteBehindPipeline pipeline;
+
+    @AfterEach
+    void stopPipeline() {
+        if (pipeline != null) {
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    void flushesAFullBatchAndCollapsesStartAndCompletion() throws Exception {
+        // The interval is longer than the wait, so only a full batch triggers the flush
+        pipeline = pipeline(4, 5_000);
+        ScheduledTask task = task("write-behind-batch");
+
+        List<TaskExecution> executions = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            executions.add(pipeline.started(execution(task)));
+        }
+        TaskExecution first = pipeline.takeInFlight(executions.get(0).getId());
+        first.setStatus(TaskExecution.ExecutionStatus.SUCCESS);
+        first.setEndTime(LocalDateTime.now());
+        pipeline.completed(first);
+
+        awaitRows(task, 3, 3_000);
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM task_executions WHERE id = ?", String.class,
+                first.getId())).isEqualTo("SUCCESS");
+        assertThat(pipeline.getQueueSize()).isZero();
+    }
+
+    @Test
+    void writesTheRestOfAFailedBatchRowByRowAndDropsTheBadRow() throws Exception {
+        pipeline = pipeline(3, 200);
+        ScheduledTask task = task("write-behind-fallback");
+        ScheduledTask missing = new ScheduledTask("write-behind-missing", "d", "0 0 0 1 1 ? 2099",
+                "com.eyesdawn.scheduledtask.job.SampleJob");
+        missing.setId(Long.MAX_VALUE);
+
+        TaskExecution good = pipeline.recorded(execution(task));
+        TaskExecution bad = pipeline.recorded(execution(missing));
+        TaskExecution alsoGood = pipeline.recorded(execution(task));
+
+        awaitRows(task, 2, 10_000);
+        assertThat(rowExists(good.getId())).isTrue();
+        assertThat(rowExists(alsoGood.getId())).isTrue();
+        assertThat(rowExists(bad.getId())).isFalse();
+    }
+
+    @Test
+    void stopWritesWhatIsStillQueued() {
+        pipeline = pipeline(1000, 500);
+        ScheduledTask task = task("write-behind-stop");
+        for (int i = 0; i < 5; i++) {
+            pipeline.recorded(execution(task));
+        }
+
+        pipeline.stop();
+        assertThat(pipeline.isRunning()).isFalse();
+        assertThat(pipeline.getQueueSize()).isZero();
+        assertThat(countRows(task)).isEqualTo(5);
+    }
+
+    private ExecutionWriteBehindPipeline pipeline(int batchSize, long flushIntervalMillis) {
+        SchedulerProperties properties = new SchedulerProperties();
+        properties.getWriteBehind().setEnabled(true);
+        properties.getWriteBehind().setBatchSize(batchSize);
+        properties.getWriteBehind().setFlushIntervalMillis(flushIntervalMillis);
+        ExecutionWriteBehindPipeline pipeline = new ExecutionWriteBehindPipeline(properties);
+        beanFactory.autowireBean(pipeline);
+        pipeline.start();
+        return pipeline;
+    }
+
+    private ScheduledTask task(String name) {
+        return scheduledTaskService.createTask(
+                new ScheduledTask(name, "d", "0 0 0 1 1 ? 2099", "com.eyesdawn.scheduledtask.job.SampleJob"));
+    }
+
+    private static TaskExecution execution(ScheduledTask task) {
+        TaskExecution execution = new TaskExecution(task);
+        execution.setStartTime(LocalDateTime.now());
+        execution.setRetryAttempt(0);
+        return execution;
+    }
+
+    private void awaitRows(ScheduledTask task, long expected, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (countRows(task) < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(countRows(task)).isEqualTo(expected);
+    }
+
+    private long countRows(ScheduledTask task) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM task_executions WHERE task_id = ?", Long.class,
+                task.getId());
+    }
+
+    private boolean rowExists(Long id) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM task_executions WHERE id = ?", Long.class, id) > 0;
+    }
+}
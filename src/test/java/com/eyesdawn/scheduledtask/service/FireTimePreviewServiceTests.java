@@ -0,0 +1,110 @@
+package com.eyesdawn.scheduledtask.service;
+
+import com.eyesdawn.scheduledtask.dto.FireTimePreview;
+import com.eyesdawn.scheduledtask.dto.LoadForecast;
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.trigger.CronExpressionCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class FireTimePreviewServiceTests {
+
+    private static final String JOB = "com.eyesdawn.scheduledtask.job.SampleJob";
+    private static final LocalDateTime FROM = LocalDateTime.of(2099, 1, 1, 0, 0);
+
+    @Autowired
+    private FireTimePreviewService fireTimePreviewService;
+
+    @Autowired
+    private ScheduledTaskService scheduledTaskService;
+
+    @Autowired
+    private CronExpressionCache cronExpressionCache;
+
+    @Test
+    void sharesOneComputationBetweenTasksWithTheSameSchedule() {
+        List<ScheduledTask> tasks = List.of(
+                task(4L, "0 0/15 * * * ?"),
+                task(2L, "0 0/15 * * * ?"),
+                task(3L, "0 0 12 * * ?"),
+                task(1L, "not a cron"));
+        assertThat(cronExpressionCache.forTask(tasks.get(0))).isSameAs(cronExpressionCache.forTask(tasks.get(1)));
+
+        List<FireTimePreview> previews = fireTimePreviewService.preview(tasks, FROM, FROM.plusHours(1), 10);
+
+        // Fires after the start of the window and up to its end; tasks not firing in it are left out
+        assertThat(previews).extracting(FireTimePreview::getTaskId).containsExactly(2L, 4L);
+        assertThat(previews.get(0).getFireTimes()).containsExactly(FROM.plusMinutes(15), FROM.plusMinutes(30),
+                FROM.plusMinutes(45), FROM.plusHours(1));
+        assertThat(previews.get(1).getFireTimes()).isSameAs(previews.get(0).getFireTimes());
+        assertThat(previews.get(0).isTruncated()).isFalse();
+
+        List<FireTimePreview> limited = fireTimePreviewService.preview(tasks, FROM, FROM.plusHours(1), 2);
+        assertThat(limited.get(0).getFireTimes()).hasSize(2);
+        assertThat(limited.get(0).isTruncated()).isTrue();
+
+        assertThatThrownBy(() -> fireTimePreviewService.preview(tasks, FROM, FROM, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> fireTimePreviewService.preview(tasks, FROM, FROM.plusHours(1), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void previewsTheNextFireTimesOfOneTask() {
+        ScheduledTask task = scheduledTaskService.createTask(
+                new ScheduledTask("preview-task", "d", "0 0 0 1 1 ? 2099-2199", JOB));
+
+        FireTimePreview preview = fireTimePreviewService.previewTask(task.getId(), FROM.minusDays(1), 3).orElseThrow();
+
+        assertThat(preview.getName()).isEqualTo("preview-task");
+        assertThat(preview.getFireTimes()).containsExactly(FROM, FROM.plusYears(1), FROM.plusYears(2));
+        assertThat(preview.isTruncated()).isTrue();
+        assertThat(fireTimePreviewService.previewTask(-1L, FROM, 3)).isEmpty();
+    }
+
+    @Test
+    void forecastsFiresPerSecondAndShowsTheSpreadFlatteningThePeak() {
+        List<ScheduledTask> aligned = new ArrayList<>();
+        List<ScheduledTask> hashed = new ArrayList<>();
+        List<ScheduledTask> spread = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            aligned.add(task(id, "0 0 * * * ?"));
+            hashed.add(task(id, "H H * * * ?"));
+            ScheduledTask task = task(id, "0 0 * * * ?");
+            task.setSpreadSeconds(3600);
+            spread.add(task);
+        }
+
+        LoadForecast forecast = fireTimePreviewService.forecast(aligned, FROM, 3600, 3);
+        assertThat(forecast.getTotalFires()).isEqualTo(1000);
+        assertThat(forecast.getPeakFires()).isEqualTo(1000);
+        assertThat(forecast.getFires()[0]).isEqualTo(1000);
+        assertThat(forecast.getHotSpots()).hasSize(1);
+        assertThat(forecast.getHotSpots().get(0).getTime()).isEqualTo(FROM);
+
+        for (List<ScheduledTask> tasks : List.of(hashed, spread)) {
+            forecast = fireTimePreviewService.forecast(tasks, FROM, 3600, 3);
+            assertThat(forecast.getTotalFires()).isEqualTo(1000);
+            assertThat(forecast.getPeakFires()).isLessThanOrEqualTo(5);
+            assertThat(forecast.getHotSpots()).hasSize(3);
+            assertThat(forecast.getHotSpots().get(0).getFires()).isEqualTo(forecast.getPeakFires());
+        }
+    }
+
+    private static ScheduledTask task(Long id, String cronExpression) {
+        ScheduledTask task = new ScheduledTask("preview-" + id, "d", cronExpression, JOB);
+        task.setId(id);
+        return task;
+    }
+}
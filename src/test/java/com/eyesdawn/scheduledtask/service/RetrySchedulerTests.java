@@ -0,0 +1,38 @@
+package com.eyesdawn.scheduledtask.service;
+
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetrySchedulerTests {
+
+    @Test
+    void fixedBackoffAlwaysUsesBaseDelay() {
+        for (int attempt = 1; attempt <= 5; attempt++) {
+            assertThat(RetryScheduler.computeDelayMillis(ScheduledTask.RetryBackoff.FIXED, 1000, 60000, attempt, 0))
+                    .isEqualTo(1000);
+        }
+    }
+
+    @Test
+    void exponentialBackoffDoublesWithinJitterAndRespectsCap() {
+        for (int attempt = 1; attempt <= 4; attempt++) {
+            long full = 1000L << (attempt - 1);
+            long delay = RetryScheduler.computeDelayMillis(ScheduledTask.RetryBackoff.EXPONENTIAL, 1000, 60000, attempt, 0);
+            assertThat(delay).isBetween(full / 2, full);
+        }
+        assertThat(RetryScheduler.computeDelayMillis(ScheduledTask.RetryBackoff.EXPONENTIAL, 1000, 60000, 80, 0))
+                .isBetween(30000L, 60000L);
+    }
+
+    @Test
+    void decorrelatedJitterStaysBetweenBaseAndThreeTimesPreviousDelay() {
+        long previous = 0;
+        for (int attempt = 1; attempt <= 20; attempt++) {
+            long delay = RetryScheduler.computeDelayMillis(ScheduledTask.RetryBackoff.DECORRELATED_JITTER, 1000, 30000, attempt, previous);
+            assertThat(delay).isBetween(1000L, Math.min(30000L, Math.max(1000L, previous) * 3));
+            previous = delay;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.eyesdawn.scheduledtask.service;
+
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SequenceAlignmentServiceTests {
+
+    @Autowired
+    private SequenceAlignmentService sequenceAlignmentService;
+
+    @Autowired
+    private ScheduledTaskService scheduledTaskService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void restartsASequenceThatIsBehindTheIdsInItsTable() {
+        for (int i = 0; i < 2; i++) {
+            scheduledTaskService.createTask(new ScheduledTask("sequence-align-" + i, "d", "0 0 0 1 1 ? 2099",
+                    "com.eyesdawn.scheduledtask.job.SampleJob"));
+        }
+        long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM scheduled_tasks", Long.class);
+
+        // What ddl-auto: update leaves behind when it adds the sequence to a table that already has rows
+        jdbcTemplate.execute("ALTER SEQUENCE scheduled_tasks_seq RESTART WITH 1");
+        assertThat(sequenceAlignmentService.align("scheduled_tasks", "scheduled_tasks_seq")).isTrue();
+        assertThat(jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR scheduled_tasks_seq", Long.class))
+                .isGreaterThan(maxId);
+
+        assertThat(sequenceAlignmentService.align("scheduled_tasks", "scheduled_tasks_seq")).isFalse();
+    }
+}
@@ -0,0 +1,79 @@
+package com.eyesdawn.scheduledtask.service;
+
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.model.TaskExecution;
+import com.eyesdawn.scheduledtask.repository.TaskExecutionRepository;
+import com.eyesdawn.scheduledtask.trigger.QuartzTriggerBackend;
+import org.junit.jupiter.api.Test;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.Trigger;
+import org.quartz.TriggerKey;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StartupRecoveryServiceTests {
+
+    @Autowired
+    private ScheduledTaskService scheduledTaskService;
+
+    @Autowired
+    private StartupRecoveryService startupRecoveryService;
+
+    @Autowired
+    private TaskExecutionRepository taskExecutionRepository;
+
+    @Autowired
+    private Scheduler quartzScheduler;
+
+    @Test
+    void reschedulesActiveAndPausedTasksAndFailsOrphanedExecutions() throws Exception {
+        ScheduledTask active = scheduledTaskService.createTask(
+                new ScheduledTask("recovery-active", "d", "0 0 0 1 1 ? 2099", "com.eyesdawn.scheduledtask.job.SampleJob"));
+        scheduledTaskService.startTask(active.getId());
+        ScheduledTask paused = scheduledTaskService.createTask(
+                new ScheduledTask("recovery-paused", "d", "0 0 0 1 1 ? 2099", "com.eyesdawn.scheduledtask.job.SampleJob"));
+        scheduledTaskService.startTask(paused.getId());
+        scheduledTaskService.pauseTask(paused.getId());
+        ScheduledTask inactive = scheduledTaskService.createTask(
+                new ScheduledTask("recovery-inactive", "d", "0 0 0 1 1 ? 2099", "com.eyesdawn.scheduledtask.job.SampleJob"));
+
+        TaskExecution running = taskExecutionRepository.save(new TaskExecution(active));
+        TaskExecution retry = new TaskExecution(active);
+        retry.setStatus(TaskExecution.ExecutionStatus.RETRY_SCHEDULED);
+        retry = taskExecutionRepository.save(retry);
+
+        // What a restart with the in-memory job store leaves behind
+        JobKey activeKey = QuartzTriggerBackend.jobKey(active.getName());
+        JobKey pausedKey = QuartzTriggerBackend.jobKey(paused.getName());
+        quartzScheduler.deleteJobs(List.of(activeKey, pausedKey));
+
+        StartupRecoveryService.RecoveryReport report = startupRecoveryService.recover();
+
+        assertThat(report.getTasksScheduled()).isGreaterThanOrEqualTo(2);
+        assertThat(report.getExecutionsFailed()).isGreaterThanOrEqualTo(2);
+        assertThat(quartzScheduler.checkExists(activeKey)).isTrue();
+        assertThat(quartzScheduler.getTriggerState(TriggerKey.triggerKey(active.getName() + "_trigger", "DEFAULT")))
+                .isEqualTo(Trigger.TriggerState.NORMAL);
+        assertThat(quartzScheduler.getTriggerState(TriggerKey.triggerKey(paused.getName() + "_trigger", "DEFAULT")))
+                .isEqualTo(Trigger.TriggerState.PAUSED);
+        assertThat(quartzScheduler.checkExists(QuartzTriggerBackend.jobKey(inactive.getName()))).isFalse();
+
+        for (TaskExecution execution : List.of(running, retry)) {
+            TaskExecution failed = taskExecutionRepository.findById(execution.getId()).orElseThrow();
+            assertThat(failed.getStatus()).isEqualTo(TaskExecution.ExecutionStatus.FAILED);
+            assertThat(failed.getEndTime()).isNotNull();
+            assertThat(failed.getErrorMessage()).isNotBlank();
+        }
+
+        scheduledTaskService.stopTask(active.getId());
+        quartzScheduler.deleteJob(pausedKey);
+    }
+}
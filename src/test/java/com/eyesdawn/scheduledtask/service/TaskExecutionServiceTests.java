@@ -0,0 +1,114 @@
+package com.eyesdawn.scheduledtask.service;
+
+import com.eyesdawn.scheduledtask.dto.CursorPage;
+import com.eyesdawn.scheduledtask.dto.ExecutionSummary;
+import com.eyesdawn.scheduledtask.executionlog.ExecutionLogStore;
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.model.TaskExecution;
+import com.eyesdawn.scheduledtask.repository.TaskExecutionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TaskExecutionServiceTests {
+
+    @Autowired
+    private ScheduledTaskService scheduledTaskService;
+
+    @Autowired
+    private TaskExecutionService taskExecutionService;
+
+    @Autowired
+    private TaskExecutionRepository taskExecutionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void cursorPagesVisitEveryExecutionOnceEvenWithEqualStartTimes() {
+        ScheduledTask task = scheduledTaskService.createTask(
+                new ScheduledTask("paging-task", "d", "0 0 0 1 1 ? 2099", "com.eyesdawn.scheduledtask.job.SampleJob"));
+
+        // 120 executions, three per second, so most page boundaries fall inside a group of equal start times
+        LocalDateTime base = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).minusHours(1);
+        List<TaskExecution> executions = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            TaskExecution execution = new TaskExecution(task);
+            execution.setStatus(i % 4 == 0 ? TaskExecution.ExecutionStatus.FAILED : TaskExecution.ExecutionStatus.SUCCESS);
+            executions.add(execution);
+        }
+        executions = taskExecutionRepository.saveAll(executions);
+        for (int i = 0; i < executions.size(); i++) {
+            jdbcTemplate.update("UPDATE task_executions SET start_time = ? WHERE id = ?",
+                    Timestamp.valueOf(base.plusSeconds(i / 3)), executions.get(i).getId());
+        }
+
+        List<ExecutionSummary> all = walk(task.getId(), null, null, null, 7);
+        assertThat(all).hasSize(120);
+        assertThat(all).extracting(ExecutionSummary::getId).doesNotHaveDuplicates();
+        for (int i = 1; i < all.size(); i++) {
+            ExecutionSummary previous = all.get(i - 1);
+            ExecutionSummary current = all.get(i);
+            assertThat(current.getStartTime()).isBeforeOrEqualTo(previous.getStartTime());
+            if (current.getStartTime().equals(previous.getStartTime())) {
+                assertThat(current.getId()).isLessThan(previous.getId());
+            }
+        }
+
+        assertThat(walk(task.getId(), TaskExecution.ExecutionStatus.FAILED, null, null, 4))
+                .hasSize(30)
+                .allSatisfy(execution -> assertThat(execution.getStatus()).isEqualTo(TaskExecution.ExecutionStatus.FAILED));
+
+        // Seconds 10 to 19 inclusive hold executions 30 to 59
+        assertThat(walk(task.getId(), null, base.plusSeconds(10), base.plusSeconds(19), 8)).hasSize(30);
+    }
+
+    @Test
+    void loggedTasksRecordFinishedExecutionsInTheirLogOnly() {
+        ScheduledTask task = new ScheduledTask("logged-task", "d", "0 0 0 1 1 ? 2099", "com.eyesdawn.scheduledtask.job.SampleJob");
+        task.setExecutionStore(ScheduledTask.ExecutionStore.LOG);
+        task.setMaxRetries(0);
+        task = scheduledTaskService.createTask(task);
+
+        for (int i = 0; i < 30; i++) {
+            TaskExecution execution = taskExecutionService.startExecution(task.getId(), null);
+            assertThat(execution.getId()).isGreaterThanOrEqualTo(ExecutionLogStore.FIRST_ID);
+            taskExecutionService.completeExecution(execution.getId(),
+                    i % 3 == 0 ? TaskExecution.ExecutionStatus.FAILED : TaskExecution.ExecutionStatus.SUCCESS,
+                    i % 3 == 0 ? null : "done " + i, i % 3 == 0 ? "boom" : null);
+        }
+
+        assertThat(taskExecutionRepository.findByTaskIdOrderByStartTimeDesc(task.getId())).isEmpty();
+        assertThat(walk(task.getId(), null, null, null, 7)).hasSize(30);
+        assertThat(walk(task.getId(), TaskExecution.ExecutionStatus.FAILED, null, null, 4))
+                .hasSize(10)
+                .allSatisfy(execution -> assertThat(execution.getErrorMessage()).isEqualTo("boom"));
+        assertThat(taskExecutionService.getExecutionsForTask(task.getId(), PageRequest.of(1, 20)).getContent()).hasSize(10);
+    }
+
+    private List<ExecutionSummary> walk(Long taskId, TaskExecution.ExecutionStatus status,
+                                        LocalDateTime from, LocalDateTime to, int limit) {
+        List<ExecutionSummary> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<ExecutionSummary> page = taskExecutionService.getExecutionPage(taskId, status, from, to, cursor, limit);
+            assertThat(page.getItems().size()).isLessThanOrEqualTo(limit);
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return seen;
+    }
+}
@@ -0,0 +1,160 @@
+package com.eyesdawn.scheduledtask.service;
+
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.model.TaskExecution;
+import com.eyesdawn.scheduledtask.model.WorkflowRunStep;
+import com.eyesdawn.scheduledtask.repository.WorkflowRunStepRepository;
+import com.eyesdawn.scheduledtask.trigger.QuartzTriggerBackend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class WorkflowCoordinatorTests {
+
+    @Autowired
+    private ScheduledTaskService scheduledTaskService;
+
+    @Autowired
+    private TaskDependencyService taskDependencyService;
+
+    @Autowired
+    private WorkflowCoordinator workflowCoordinator;
+
+    @Autowired
+    private WorkflowRunStepRepository workflowRunStepRepository;
+
+    @Autowired
+    private Scheduler quartzScheduler;
+
+    private final List<ScheduledTask> started = new ArrayList<>();
+
+    @BeforeEach
+    void holdFires() throws SchedulerException {
+        // Fired tasks stay as pending triggers, so only the coordinator's own calls advance a run
+        quartzScheduler.standby();
+    }
+
+    @AfterEach
+    void releaseFires() throws SchedulerException {
+        for (ScheduledTask task : started) {
+            scheduledTaskService.stopTask(task.getId());
+        }
+        quartzScheduler.start();
+    }
+
+    @Test
+    void firesFanInTaskOnlyOnceEveryUpstreamTaskOfTheRunSucceeded() throws Exception {
+        // root -> left, right -> join
+        ScheduledTask root = workflowTask("fan-in-root", false);
+        ScheduledTask left = workflowTask("fan-in-left", true);
+        ScheduledTask right = workflowTask("fan-in-right", true);
+        ScheduledTask join = workflowTask("fan-in-join", true);
+        taskDependencyService.addDependency(left.getId(), root.getId());
+        taskDependencyService.addDependency(right.getId(), root.getId());
+        taskDependencyService.addDependency(join.getId(), left.getId());
+        taskDependencyService.addDependency(join.getId(), right.getId());
+        startAll(root, left, right, join);
+
+        String runId = UUID.randomUUID().toString();
+        workflowCoordinator.executionFinished(root.getId(), runId, TaskExecution.ExecutionStatus.SUCCESS);
+        assertThat(workflowRunStepRepository.findByRunIdAndTaskId(runId, left.getId())).isPresent();
+        assertThat(workflowRunStepRepository.findByRunIdAndTaskId(runId, right.getId())).isPresent();
+
+        workflowCoordinator.executionFinished(left.getId(), runId, TaskExecution.ExecutionStatus.SUCCESS);
+        assertThat(workflowRunStepRepository.findByRunIdAndTaskId(runId, join.getId())).isEmpty();
+
+        // A failed upstream task holds the fan-in back
+        workflowCoordinator.executionFinished(right.getId(), runId, TaskExecution.ExecutionStatus.FAILED);
+        assertThat(workflowRunStepRepository.findByRunIdAndTaskId(runId, join.getId())).isEmpty();
+
+        workflowCoordinator.executionFinished(right.getId(), runId, TaskExecution.ExecutionStatus.SUCCESS);
+        WorkflowRunStep joined = workflowRunStepRepository.findByRunIdAndTaskId(runId, join.getId()).orElseThrow();
+        assertThat(joined.getRootTaskId()).isEqualTo(root.getId());
+        assertThat(joined.getFiredAt()).isNotNull();
+        assertThat(pendingFires(join)).isEqualTo(1);
+
+        // A task outside any workflow records nothing
+        ScheduledTask lone = scheduledTaskService.createTask(
+                new ScheduledTask("fan-in-lone", "d", "0 0 0 1 1 ? 2099", "com.eyesdawn.scheduledtask.job.SampleJob"));
+        workflowCoordinator.executionFinished(lone.getId(), runId, TaskExecution.ExecutionStatus.SUCCESS);
+        assertThat(workflowRunStepRepository.findByRunIdAndTaskId(runId, lone.getId())).isEmpty();
+    }
+
+    @Test
+    void upstreamTasksFinishingTogetherFireTheFanInTaskOnce() throws Exception {
+        ScheduledTask root = workflowTask("race-root", false);
+        ScheduledTask left = workflowTask("race-left", true);
+        ScheduledTask right = workflowTask("race-right", true);
+        ScheduledTask join = workflowTask("race-join", true);
+        taskDependencyService.addDependency(left.getId(), root.getId());
+        taskDependencyService.addDependency(right.getId(), root.getId());
+        taskDependencyService.addDependency(join.getId(), left.getId());
+        taskDependencyService.addDependency(join.getId(), right.getId());
+        startAll(root, left, right, join);
+
+        int runs = 20;
+        ExecutorService upstream = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < runs; i++) {
+                String runId = UUID.randomUUID().toString();
+                workflowCoordinator.executionFinished(root.getId(), runId, TaskExecution.ExecutionStatus.SUCCESS);
+                CyclicBarrier together = new CyclicBarrier(2);
+                Future<?> leftDone = upstream.submit(() -> finishTogether(together, left, runId));
+                Future<?> rightDone = upstream.submit(() -> finishTogether(together, right, runId));
+                leftDone.get();
+                rightDone.get();
+                assertThat(workflowRunStepRepository.findByRunIdAndTaskId(runId, join.getId())).isPresent();
+            }
+        } finally {
+            upstream.shutdownNow();
+        }
+        // Each run's unique (run, task) claim lets exactly one of the two completions fire the join
+        assertThat(pendingFires(join)).isEqualTo(runs);
+    }
+
+    private void finishTogether(CyclicBarrier together, ScheduledTask task, String runId) {
+        try {
+            together.await();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        workflowCoordinator.executionFinished(task.getId(), runId, TaskExecution.ExecutionStatus.SUCCESS);
+    }
+
+    private ScheduledTask workflowTask(String name, boolean workflowTrigger) {
+        ScheduledTask task = new ScheduledTask(name, "d", "0 0 0 1 1 ? 2099", "com.eyesdawn.scheduledtask.job.SampleJob");
+        task.setWorkflowTrigger(workflowTrigger);
+        return scheduledTaskService.createTask(task);
+    }
+
+    private void startAll(ScheduledTask... tasks) {
+        for (ScheduledTask task : tasks) {
+            scheduledTaskService.startTask(task.getId());
+            started.add(task);
+        }
+    }
+
+    /**
+     * Immediate fires waiting in the held scheduler, besides the task's cron trigger
+     */
+    private int pendingFires(ScheduledTask task) throws SchedulerException {
+        return quartzScheduler.getTriggersOfJob(QuartzTriggerBackend.jobKey(task.getName())).size() - 1;
+    }
+}
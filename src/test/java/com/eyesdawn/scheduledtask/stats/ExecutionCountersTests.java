@@ -0,0 +1,72 @@
+package com.eyesdawn.scheduledtask.stats;
+
+import com.eyesdawn.scheduledtask.model.TaskExecution;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExecutionCountersTests {
+
+    private static final int THREADS = 4;
+    private static final int PER_THREAD = 50_000;
+
+    @Test
+    void checkpointsWhileRecordingNeitherLoseNorRepeatCounts() throws Exception {
+        ExecutionCounters counters = new ExecutionCounters();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < PER_THREAD; i++) {
+                    TaskExecution.ExecutionStatus status = i % 4 == 0
+                            ? TaskExecution.ExecutionStatus.FAILED : TaskExecution.ExecutionStatus.SUCCESS;
+                    counters.record(status, (long) (i % 1000), LocalDateTime.now());
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        long success = 0;
+        long failed = 0;
+        long duration = 0;
+        DurationHistogram durations = new DurationHistogram();
+        boolean recording = true;
+        while (recording) {
+            recording = threads.stream().anyMatch(Thread::isAlive);
+            ExecutionCounters.Delta delta = counters.pending();
+            success += delta.getSuccess();
+            failed += delta.getFailed();
+            duration += delta.getTotalDuration();
+            durations.merge(delta.getDurations());
+            counters.checkpointed(delta);
+        }
+
+        assertThat(success).isEqualTo(THREADS * PER_THREAD * 3L / 4);
+        assertThat(failed).isEqualTo(THREADS * PER_THREAD / 4L);
+        assertThat(duration).isEqualTo(THREADS * (PER_THREAD / 1000L) * (999L * 1000 / 2));
+        assertThat(durations.getTotalCount()).isEqualTo(THREADS * (long) PER_THREAD);
+        assertThat(durations.getValueAtQuantile(0.5)).isBetween(470L, 530L);
+        assertThat(counters.pending().isEmpty()).isTrue();
+    }
+
+    @Test
+    void keepsTheLastOutcomeUntilItIsCheckpointed() {
+        ExecutionCounters counters = new ExecutionCounters();
+        LocalDateTime finishedAt = LocalDateTime.now();
+        counters.record(TaskExecution.ExecutionStatus.TIMEOUT, 3000L, finishedAt);
+
+        ExecutionCounters.Delta delta = counters.pending();
+        assertThat(delta.getTimeout()).isEqualTo(1);
+        assertThat(delta.getLastOutcome().getStatus()).isEqualTo(TaskExecution.ExecutionStatus.TIMEOUT);
+        assertThat(delta.getLastOutcome().getFinishedAt()).isEqualTo(finishedAt);
+        assertThat(counters.pending().getLastOutcome()).isNotNull();
+
+        counters.checkpointed(delta);
+        assertThat(counters.pending().getLastOutcome()).isNull();
+        assertThat(counters.pending().isEmpty()).isTrue();
+    }
+}
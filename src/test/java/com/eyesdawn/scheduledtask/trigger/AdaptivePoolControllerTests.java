@@ -0,0 +1,62 @@
+package com.eyesdawn.scheduledtask.trigger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptivePoolControllerTests {
+
+    private final AdaptiveThreadPool pool = new AdaptiveThreadPool();
+
+    @AfterEach
+    void shutdownPool() {
+        pool.shutdown(true);
+    }
+
+    @Test
+    void growsWhileFiresWaitForWorkersAndShrinksOnlyAfterCalmSamples() throws Exception {
+        pool.setInstanceName("controller-test");
+        pool.setMinThreads(2);
+        pool.setMaxThreads(8);
+        pool.setThreadCount(4);
+        pool.initialize();
+        AdaptivePoolController controller = new AdaptivePoolController(pool, 20, 3);
+
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 4; i++) {
+            assertThat(pool.runInThread(() -> awaitQuietly(release))).isTrue();
+        }
+        // The scheduler thread finds every worker busy and waits, as for triggers it cannot acquire yet
+        Thread scheduler = new Thread(pool::blockForAvailableThreads);
+        scheduler.start();
+        Thread.sleep(100);
+
+        assertThat(controller.sample()).isEqualTo(6);
+        scheduler.join(1000);
+        assertThat(scheduler.isAlive()).isFalse();
+
+        release.countDown();
+        while (pool.getBusyCount() > 0) {
+            Thread.sleep(5);
+        }
+        // The first sample still sees the busy peak from before the release
+        assertThat(controller.sample()).isEqualTo(6);
+        assertThat(controller.sample()).isEqualTo(6);
+        assertThat(controller.sample()).isEqualTo(6);
+        assertThat(controller.sample()).isEqualTo(5);
+        assertThat(controller.getGrowCount()).isEqualTo(1);
+        assertThat(controller.getShrinkCount()).isEqualTo(1);
+        assertThat(pool.getThreadCount()).isLessThanOrEqualTo(5);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.eyesdawn.scheduledtask.trigger;
+
+import org.junit.jupiter.api.Test;
+import org.quartz.CronExpression;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HashedCronTests {
+
+    @Test
+    void expandsHashedFieldsDeterministicallyWithinTheirRanges() {
+        assertThat(HashedCron.resolve("0 0 * * * ?", 7L, null)).isEqualTo("0 0 * * * ?");
+        assertThat(HashedCron.resolve("0 0 12 ? * THU", 7L, null)).isEqualTo("0 0 12 ? * THU");
+
+        Map<Integer, Integer> perSecond = new HashMap<>();
+        for (long id = 1; id <= 3600; id++) {
+            String resolved = HashedCron.resolve("H H(10-19) H/6 H * ?", id, null);
+            assertThat(resolved).isEqualTo(HashedCron.resolve("H H(10-19) H/6 H * ?", id, null));
+            assertThat(CronExpression.isValidExpression(resolved)).isTrue();
+            String[] fields = resolved.split(" ");
+            assertThat(Integer.parseInt(fields[0])).isBetween(0, 59);
+            assertThat(Integer.parseInt(fields[1])).isBetween(10, 19);
+            assertThat(Integer.parseInt(fields[2].split("/")[0])).isBetween(0, 5);
+            assertThat(Integer.parseInt(fields[3])).isBetween(1, 28);
+
+            String[] hourly = HashedCron.resolve("H H * * * ?", id, null).split(" ");
+            perSecond.merge(Integer.parseInt(hourly[1]) * 60 + Integer.parseInt(hourly[0]), 1, Integer::sum);
+        }
+        // 3600 tasks on the 3600 seconds of the hour: no second gets more than a handful
+        assertThat(perSecond.size()).isGreaterThan(2000);
+        assertThat(perSecond.values()).allMatch(count -> count <= 8);
+
+        assertThatThrownBy(() -> HashedCron.resolve("H(50-70) * * * * ?", 1L, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HashedCron.resolve("0 0 0 1 1 ? H", 1L, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void spreadWindowDelaysEachTaskByAStableOffset() {
+        for (long id = 1; id <= 500; id++) {
+            String[] fields = HashedCron.resolve("0 0 * * * ?", id, 3600).split(" ");
+            int offset = Integer.parseInt(fields[1]) * 60 + Integer.parseInt(fields[0]);
+            assertThat(offset).isBetween(0, 3599);
+
+            fields = HashedCron.resolve("0 */5 * * * ?", id, 300).split(" ");
+            assertThat(fields[1]).matches("(\\*|[0-4])/5");
+        }
+        assertThat(HashedCron.resolveForValidation("0 0 * * * ?", 3600)).isEqualTo("59 59 * * * ?");
+        assertThat(HashedCron.resolveForValidation("10 */15 * * * ?", 50)).isEqualTo("59 */15 * * * ?");
+
+        // Offsets that could run past the interval, or no fixed second to shift, are refused for every id
+        assertThatThrownBy(() -> HashedCron.resolveForValidation("0 */5 * * * ?", 301))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HashedCron.resolveForValidation("0 30 * * * ?", 1801))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HashedCron.resolveForValidation("0 H/5 * * * ?", 120))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HashedCron.resolveForValidation("0/10 * * * * ?", 5))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HashedCron.resolveForValidation("0 0 * * * ?", -1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,55 @@
+package com.eyesdawn.scheduledtask.trigger;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HierarchicalTimingWheelTests {
+
+    @Test
+    void expiresEveryEntryOnTheFirstTickAtOrAfterItsDeadline() {
+        // 4 slots per level keeps cascades frequent; the last deadline is beyond the top level
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(10, 2, 0);
+        Random random = new Random(42);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            deadlines.add((long) random.nextInt(30_000));
+        }
+        deadlines.add(100_000L);
+        deadlines.forEach(deadline -> wheel.schedule(deadline, deadline));
+
+        Map<Long, Long> expiredAt = new HashMap<>();
+        for (long now = 0; now <= 100_010; now += 10) {
+            long tickTime = now;
+            wheel.advance(now, deadline -> expiredAt.merge(deadline, tickTime, Math::max));
+        }
+
+        assertThat(expiredAt).hasSize((int) deadlines.stream().distinct().count());
+        expiredAt.forEach((deadline, firedAt) -> assertThat(firedAt)
+                .isGreaterThanOrEqualTo(deadline)
+                .isLessThan(deadline + 10));
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cancelledEntriesNeverExpire() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 0);
+        HierarchicalTimingWheel.Timeout kept = wheel.schedule("kept", 50);
+        HierarchicalTimingWheel.Timeout cancelled = wheel.schedule("cancelled", 5_000);
+        cancelled.cancel();
+
+        List<String> expired = new ArrayList<>();
+        for (long now = 0; now <= 10_000; now += 10) {
+            wheel.advance(now, expired::add);
+        }
+
+        assertThat(kept.isCancelled()).isFalse();
+        assertThat(expired).containsExactly("kept");
+    }
+}
@@ -0,0 +1,85 @@
+package com.eyesdawn.scheduledtask.trigger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.quartz.CronExpression;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelSchedulerTests {
+
+    private static final String EVERY_SECOND = "* * * * * ?";
+
+    private TimingWheelScheduler<Long> wheel;
+    private ExecutorService fireExecutor;
+
+    @AfterEach
+    void stop() {
+        wheel.stop();
+        fireExecutor.shutdownNow();
+    }
+
+    @Test
+    void rearmsOnTheCronUntilUnscheduled() throws Exception {
+        BlockingQueue<Long> fires = new LinkedBlockingQueue<>();
+        fireExecutor = Executors.newFixedThreadPool(2);
+        wheel = new TimingWheelScheduler<>(10, 8, fireExecutor,
+                (payload, scheduledFireTime, fireTime, nextFireTime) -> {
+                    assertThat(nextFireTime).isAfter(scheduledFireTime);
+                    fires.add(payload);
+                });
+        wheel.schedule(1L, new CronExpression(EVERY_SECOND), 1L);
+        wheel.start();
+
+        assertThat(fires.poll(3, TimeUnit.SECONDS)).isEqualTo(1L);
+        assertThat(fires.poll(3, TimeUnit.SECONDS)).isEqualTo(1L);
+
+        assertThat(wheel.unschedule(1L)).isTrue();
+        assertThat(wheel.contains(1L)).isFalse();
+        fires.clear();
+        assertThat(fires.poll(1500, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void keepsTickingAndRearmingWhileTheFirePoolIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingQueue<Long> fires = new LinkedBlockingQueue<>();
+        // One thread and one queued fire; anything more is rejected rather than run on the tick thread
+        fireExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1),
+                new ThreadPoolExecutor.AbortPolicy());
+        wheel = new TimingWheelScheduler<>(10, 8, fireExecutor,
+                (payload, scheduledFireTime, fireTime, nextFireTime) -> {
+                    fires.add(payload);
+                    release.await();
+                });
+        CronExpression cron = new CronExpression(EVERY_SECOND);
+        for (long key = 1; key <= 3; key++) {
+            wheel.schedule(key, cron, key);
+        }
+        wheel.start();
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (wheel.getMisfireCount() < 4 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        // Misfires keep being counted on later seconds, so the tick thread is not stuck in a fire
+        assertThat(wheel.getMisfireCount()).isGreaterThanOrEqualTo(4);
+        assertThat(fires).hasSize(1);
+
+        release.countDown();
+        fires.clear();
+        for (int i = 0; i < 3; i++) {
+            assertThat(fires.poll(3, TimeUnit.SECONDS)).isNotNull();
+        }
+        assertThat(wheel.size()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,74 @@
+package com.eyesdawn.scheduledtask.trigger;
+
+import com.eyesdawn.scheduledtask.model.ScheduledTask;
+import com.eyesdawn.scheduledtask.service.ScheduledTaskService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.quartz.JobDataMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TimingWheelTriggerBackendTests {
+
+    @Autowired
+    private ScheduledTaskService scheduledTaskService;
+
+    @Autowired
+    private TimingWheelTriggerBackend timingWheelTriggerBackend;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void firesOnTheCronAndOnDemandUntilTheTaskStops() throws Exception {
+        ScheduledTask task = new ScheduledTask("wheel-task", "d", "* * * * * ?", "com.eyesdawn.scheduledtask.job.SampleJob");
+        task.setTriggerType(ScheduledTask.TriggerType.TIMING_WHEEL);
+        Long taskId = scheduledTaskService.createTask(task).getId();
+        int scheduledBefore = timingWheelTriggerBackend.getScheduledCount();
+
+        scheduledTaskService.startTask(taskId);
+        assertThat(timingWheelTriggerBackend.getScheduledCount()).isEqualTo(scheduledBefore + 1);
+        // Each fire re-arms the task for the next second
+        awaitExecutions(taskId, 2);
+
+        scheduledTaskService.stopTask(taskId);
+        assertThat(timingWheelTriggerBackend.getScheduledCount()).isEqualTo(scheduledBefore);
+        Thread.sleep(1500);
+        long afterStop = executions(taskId);
+        Thread.sleep(1500);
+        assertThat(executions(taskId)).isEqualTo(afterStop);
+
+        // A task that never fires on its own runs once per immediate fire
+        ScheduledTask manual = new ScheduledTask("wheel-manual", "d", "0 0 0 1 1 ? 2099", "com.eyesdawn.scheduledtask.job.SampleJob");
+        manual.setTriggerType(ScheduledTask.TriggerType.TIMING_WHEEL);
+        Long manualId = scheduledTaskService.createTask(manual).getId();
+        scheduledTaskService.startTask(manualId);
+        timingWheelTriggerBackend.triggerNow(manualId, "wheel-manual", new JobDataMap());
+        awaitExecutions(manualId, 1);
+        assertThat(executions(manualId)).isEqualTo(1);
+        scheduledTaskService.stopTask(manualId);
+
+        assertThat(meterRegistry.find("scheduler.timingwheel.misfires").functionCounter()).isNotNull();
+    }
+
+    private void awaitExecutions(Long taskId, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (executions(taskId) < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(executions(taskId)).isGreaterThanOrEqualTo(expected);
+    }
+
+    private long executions(Long taskId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM task_executions WHERE task_id = ?", Long.class, taskId);
+    }
+}